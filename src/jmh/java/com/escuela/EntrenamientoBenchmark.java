@@ -0,0 +1,50 @@
+package com.escuela;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+  Benchmark de una epoch de ModelTrainer sobre emotions_train.csv
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class EntrenamientoBenchmark {
+
+    @Param({"20", "50"})
+    public int batchSize;
+
+    private ModelTrainer trainer;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        DataLoader datos = ModeloPequeno.getDatos();
+
+        // Modelo nuevo para no modificar el compartido
+        EmotionClassifierModel clasificador = new EmotionClassifierModel(
+                ModeloPequeno.VECTOR_SIZE, datos.getNumeroClases());
+        clasificador.construirModelo();
+
+        trainer = new ModelTrainer(clasificador.getModel(), ModeloPequeno.getVectorizer(), datos, datos);
+    }
+
+    @Benchmark
+    public double unaEpoch() {
+        return trainer.entrenarUnaEpoch(batchSize);
+    }
+}
@@ -0,0 +1,92 @@
+package com.escuela;
+
+import java.util.List;
+
+/**
+  Modelo pequeño compartido por los benchmarks
+  Se entrena una sola vez por JVM con emotions_train.csv (Word2Vec + pocas epochs del LSTM)
+ */
+final class ModeloPequeno {
+
+    static final int VECTOR_SIZE = 100;
+    static final int EPOCHS = 3;
+
+    private static DataLoader datos;
+    private static Word2VecVectorizer vectorizer;
+    private static EmotionClassifierModel clasificador;
+
+    private ModeloPequeno() {
+    }
+
+    static synchronized void preparar() {
+        if (clasificador != null) {
+            return;
+        }
+
+        datos = new DataLoader();
+        if (!datos.cargarDesdeArchivo("emotions_train.csv")) {
+            throw new IllegalStateException("No se pudo cargar emotions_train.csv");
+        }
+
+        int maxLength = TextPreprocessor.obtenerLongitudMaxima(datos.getTextos());
+        vectorizer = new Word2VecVectorizer(VECTOR_SIZE, maxLength);
+        vectorizer.entrenar(datos.getTextos());
+
+        clasificador = new EmotionClassifierModel(VECTOR_SIZE, datos.getNumeroClases());
+        clasificador.construirModelo();
+
+        ModelTrainer trainer = new ModelTrainer(clasificador.getModel(), vectorizer, datos, datos);
+        for (int epoch = 0; epoch < EPOCHS; epoch++) {
+            trainer.entrenarUnaEpoch(20);
+        }
+    }
+
+    static DataLoader getDatos() {
+        preparar();
+        return datos;
+    }
+
+    static Word2VecVectorizer getVectorizer() {
+        preparar();
+        return vectorizer;
+    }
+
+    static EmotionClassifierModel getClasificador() {
+        preparar();
+        return clasificador;
+    }
+
+    /**
+      Predictor nuevo sobre el modelo entrenado (sin caché)
+     */
+    static EmotionPredictor nuevoPredictor() {
+        preparar();
+        return new EmotionPredictor(clasificador.getModel(), vectorizer);
+    }
+
+    /**
+      Frase de aproximadamente numPalabras palabras armada con frases del dataset
+     */
+    static String frase(int numPalabras, int semilla) {
+        List<String> textos = getDatos().getTextos();
+        StringBuilder sb = new StringBuilder();
+        int palabras = 0;
+        int i = Math.floorMod(semilla * 31, textos.size());
+
+        while (palabras < numPalabras) {
+            String texto = textos.get(i);
+            for (String palabra : texto.split(" ")) {
+                if (palabras == numPalabras) {
+                    break;
+                }
+                if (sb.length() > 0) {
+                    sb.append(' ');
+                }
+                sb.append(palabra);
+                palabras++;
+            }
+            i = (i + 1) % textos.size();
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,68 @@
+package com.escuela;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+  Benchmarks de EmotionPredictor.predecir y predecirLote
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PrediccionBenchmark {
+
+    @Param({"1", "32", "256"})
+    public int tamanoLote;
+
+    // false = rellenar siempre hasta maxSequenceLength (comportamiento anterior)
+    @Param({"true", "false"})
+    public boolean longitudVariable;
+
+    // true = con métricas por etapa (para medir su costo)
+    @Param({"false", "true"})
+    public boolean metricas;
+
+    private EmotionPredictor predictor;
+    private List<String> lote;
+
+    @Setup
+    public void preparar() {
+        predictor = ModeloPequeno.nuevoPredictor();
+        predictor.setTamanoLoteMaximo(tamanoLote);
+        predictor.setLongitudVariable(longitudVariable);
+        if (metricas) {
+            predictor.activarMetricas();
+        }
+
+        lote = new ArrayList<>();
+        for (int i = 0; i < tamanoLote; i++) {
+            lote.add(ModeloPequeno.getDatos().getTexto(i % ModeloPequeno.getDatos().getNumeroEjemplos()));
+        }
+    }
+
+    @Benchmark
+    public EmotionPredictor.ResultadoPrediccion predecir() {
+        return predictor.predecir(lote.get(0));
+    }
+
+    @Benchmark
+    public List<EmotionPredictor.ResultadoPrediccion> predecirLote() {
+        return predictor.predecirLote(lote);
+    }
+}
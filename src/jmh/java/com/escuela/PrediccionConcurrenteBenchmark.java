@@ -0,0 +1,58 @@
+package com.escuela;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+  Benchmark de PredictorConcurrente con varios hilos llamando a la vez
+  El número de hilos se cambia con la opción -t de JMH (por defecto 4)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+@Fork(1)
+public class PrediccionConcurrenteBenchmark {
+
+    @Param({"1", "2", "4"})
+    public int replicas;
+
+    private PredictorConcurrente predictor;
+
+    // Frases ya leídas: en el método medido no se toma el candado de ModeloPequeno
+    // (serializaría los hilos) ni se decodifican los textos del DataLoader
+    private String[] textos;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        predictor = new PredictorConcurrente(ModeloPequeno.nuevoPredictor(), replicas);
+        textos = ModeloPequeno.getDatos().getTextos().toArray(new String[0]);
+    }
+
+    @TearDown(Level.Trial)
+    public void cerrar() {
+        predictor.close();
+    }
+
+    @Benchmark
+    public EmotionPredictor.ResultadoPrediccion predecir() {
+        return predictor.predecir(textos[ThreadLocalRandom.current().nextInt(textos.length)]);
+    }
+}
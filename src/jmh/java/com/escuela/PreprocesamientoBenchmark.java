@@ -0,0 +1,50 @@
+package com.escuela;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+  Benchmarks de TextPreprocessor.limpiarTexto y tokenizar
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PreprocesamientoBenchmark {
+
+    // Número de palabras de la frase
+    @Param({"4", "16", "64"})
+    public int palabras;
+
+    private String frase;
+
+    @Setup
+    public void preparar() {
+        // Con signos y mayúsculas para que la limpieza tenga trabajo
+        frase = "¡" + ModeloPequeno.frase(palabras, palabras).toUpperCase() + "!!! 😊";
+    }
+
+    @Benchmark
+    public String limpiarTexto() {
+        return TextPreprocessor.limpiarTexto(frase);
+    }
+
+    @Benchmark
+    public List<String> tokenizar() {
+        return TextPreprocessor.tokenizar(frase);
+    }
+}
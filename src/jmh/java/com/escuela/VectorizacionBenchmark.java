@@ -0,0 +1,58 @@
+package com.escuela;
+
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+  Benchmarks de Word2VecVectorizer.textoAVector y textosAVectores
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class VectorizacionBenchmark {
+
+    @Param({"1", "32", "256"})
+    public int tamanoLote;
+
+    @Param({"4", "16"})
+    public int palabras;
+
+    private Word2VecVectorizer vectorizer;
+    private List<String> lote;
+
+    @Setup
+    public void preparar() {
+        vectorizer = ModeloPequeno.getVectorizer();
+        lote = new ArrayList<>();
+        for (int i = 0; i < tamanoLote; i++) {
+            lote.add(ModeloPequeno.frase(palabras, i));
+        }
+    }
+
+    @Benchmark
+    public INDArray textoAVector() {
+        return vectorizer.textoAVector(lote.get(0));
+    }
+
+    @Benchmark
+    public INDArray textosAVectores() {
+        return vectorizer.textosAVectores(lote);
+    }
+}
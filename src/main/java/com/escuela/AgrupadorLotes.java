@@ -0,0 +1,204 @@
+package com.escuela;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+  Agrupa predicciones que llegan al mismo tiempo en micro-lotes
+  Cada solicitud se pone en una cola; un hilo despachador espera a que haya una
+  réplica libre del modelo y junta solicitudes hasta llenar el lote o hasta que
+  pase el tiempo máximo de espera. Mientras todas las réplicas están ocupadas
+  las solicitudes se acumulan, así que los lotes crecen solos con la carga
+ */
+public class AgrupadorLotes implements AutoCloseable {
+
+    private final PredictorConcurrente predictor;
+    private final int tamanoLoteMaximo;
+    private final long esperaMaximaNanos;
+
+    private final BlockingQueue<Solicitud> cola = new LinkedBlockingQueue<>();
+    private final Semaphore replicasLibres;
+    private final Thread despachador;
+
+    // Se cambia y se revisa junto con cola.add bajo 'cierre': después de close
+    // ninguna solicitud entra a la cola sin que el despachador la vea
+    private final Object cierre = new Object();
+    private volatile boolean activo = true;
+
+    // Métricas
+    private final HistogramaLatencia tamanosLote = new HistogramaLatencia();
+    private final HistogramaLatencia latenciaLoteMicros = new HistogramaLatencia();
+
+    /**
+      Constructor
+      @param predictor predictor con réplicas del modelo
+      @param tamanoLoteMaximo número máximo de frases por lote
+      @param esperaMaximaMicros tiempo máximo que espera el primer elemento del lote a que lleguen más
+     */
+    public AgrupadorLotes(PredictorConcurrente predictor, int tamanoLoteMaximo, long esperaMaximaMicros) {
+        if (tamanoLoteMaximo < 1) {
+            throw new IllegalArgumentException("El tamaño de lote debe ser al menos 1");
+        }
+
+        this.predictor = predictor;
+        this.tamanoLoteMaximo = tamanoLoteMaximo;
+        this.esperaMaximaNanos = TimeUnit.MICROSECONDS.toNanos(esperaMaximaMicros);
+        this.replicasLibres = new Semaphore(predictor.getNumReplicas());
+
+        this.despachador = new Thread(this::despachar, "agrupador-lotes");
+        this.despachador.setDaemon(true);
+        this.despachador.start();
+    }
+
+    /**
+      Agrega una frase a la cola
+      @return futuro que se completa cuando el lote de la frase termina
+     */
+    public CompletableFuture<EmotionPredictor.ResultadoPrediccion> enviar(String texto) {
+        Solicitud solicitud = new Solicitud(texto);
+        synchronized (cierre) {
+            if (!activo) {
+                throw new IllegalStateException("El agrupador de lotes está detenido");
+            }
+            cola.add(solicitud);
+        }
+        return solicitud.futuro;
+    }
+
+    /**
+      Bucle del hilo despachador
+     */
+    private void despachar() {
+        List<Solicitud> lote = new ArrayList<>(tamanoLoteMaximo);
+
+        while (activo || !cola.isEmpty()) {
+            try {
+                // Esperar una réplica libre antes de armar el lote
+                replicasLibres.acquire();
+
+                Solicitud primera = cola.poll(100, TimeUnit.MILLISECONDS);
+                if (primera == null) {
+                    replicasLibres.release();
+                    continue;
+                }
+                lote.add(primera);
+
+                // Juntar más solicitudes hasta llenar el lote o agotar la espera
+                long limite = System.nanoTime() + esperaMaximaNanos;
+                while (lote.size() < tamanoLoteMaximo) {
+                    cola.drainTo(lote, tamanoLoteMaximo - lote.size());
+                    long restante = limite - System.nanoTime();
+                    if (lote.size() >= tamanoLoteMaximo || restante <= 0) {
+                        break;
+                    }
+                    Solicitud siguiente = cola.poll(restante, TimeUnit.NANOSECONDS);
+                    if (siguiente == null) {
+                        break;
+                    }
+                    lote.add(siguiente);
+                }
+
+                procesar(new ArrayList<>(lote));
+                lote.clear();
+
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+    }
+
+    /**
+      Envía un lote a una réplica libre y completa los futuros al terminar
+     */
+    private void procesar(List<Solicitud> lote) {
+        List<String> textos = new ArrayList<>(lote.size());
+        for (Solicitud solicitud : lote) {
+            textos.add(solicitud.texto);
+        }
+
+        tamanosLote.registrar(lote.size());
+        long inicio = System.nanoTime();
+
+        CompletableFuture<List<EmotionPredictor.ResultadoPrediccion>> futuro;
+        try {
+            futuro = predictor.predecirLoteAsync(textos);
+        } catch (RuntimeException e) {
+            // Por ejemplo RejectedExecutionException con el PredictorConcurrente cerrado
+            replicasLibres.release();
+            fallar(lote, e);
+            return;
+        }
+
+        futuro.whenComplete((resultados, error) -> {
+            replicasLibres.release();
+            latenciaLoteMicros.registrar((System.nanoTime() - inicio) / 1000);
+
+            if (error != null) {
+                fallar(lote, error);
+                return;
+            }
+            for (int i = 0; i < lote.size(); i++) {
+                lote.get(i).futuro.complete(resultados.get(i));
+            }
+        });
+    }
+
+    private static void fallar(List<Solicitud> solicitudes, Throwable error) {
+        for (Solicitud solicitud : solicitudes) {
+            solicitud.futuro.completeExceptionally(error);
+        }
+    }
+
+    /**
+      Deja de aceptar solicitudes y termina las que ya están en la cola
+      Las que el despachador no alcanzó a tomar (se interrumpió o no terminó
+      a tiempo) se completan con error, así nadie queda esperando su futuro
+     */
+    @Override
+    public void close() {
+        synchronized (cierre) {
+            activo = false;
+        }
+        try {
+            despachador.join(5000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        List<Solicitud> sobrantes = new ArrayList<>();
+        cola.drainTo(sobrantes);
+        fallar(sobrantes, new IllegalStateException("El agrupador de lotes está detenido"));
+    }
+
+    private static class Solicitud {
+        final String texto;
+        final CompletableFuture<EmotionPredictor.ResultadoPrediccion> futuro = new CompletableFuture<>();
+
+        Solicitud(String texto) {
+            this.texto = texto;
+        }
+    }
+
+    // Getters de métricas
+    public HistogramaLatencia getTamanosLote() {
+        return tamanosLote;
+    }
+
+    public HistogramaLatencia getLatenciaLoteMicros() {
+        return latenciaLoteMicros;
+    }
+
+    public int getPendientes() {
+        return cola.size();
+    }
+
+    public int getTamanoLoteMaximo() {
+        return tamanoLoteMaximo;
+    }
+}
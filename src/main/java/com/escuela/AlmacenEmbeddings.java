@@ -0,0 +1,35 @@
+package com.escuela;
+
+/**
+  Vectores de palabras que usa Word2VecVectorizer para vectorizar
+  Implementaciones:
+  - TablaEmbeddings: float[] en el heap de la JVM
+  - EmbeddingsMapeados: archivo mapeado en memoria (float32 o int8), compartido
+    entre réplicas y procesos
+
+  Las implementaciones solo se leen después de creadas, así que se pueden usar
+  desde varios hilos a la vez
+ */
+public interface AlmacenEmbeddings {
+
+    /**
+      Busca el índice de una palabra
+      @return índice de la palabra, o -1 si no está en el vocabulario
+     */
+    int indice(String palabra);
+
+    /**
+      Copia el vector de una palabra en un arreglo destino
+      @param indice índice de la palabra
+      @param destino arreglo donde se escribe
+      @param offset posición de la primera dimensión en destino
+      @param paso distancia en destino entre dos dimensiones consecutivas
+     */
+    void copiarVector(int indice, float[] destino, int offset, int paso);
+
+    int getNumPalabras();
+
+    int getVectorSize();
+
+    String getPalabra(int indice);
+}
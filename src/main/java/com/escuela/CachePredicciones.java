@@ -0,0 +1,213 @@
+package com.escuela;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+  Caché de predicciones con límite de tamaño (LRU) y tiempo de vida (TTL)
+  La clave es la secuencia de tokens ya normalizada y recortada a maxSequenceLength,
+  así "Gracias!!!" y "gracias" comparten la misma entrada.
+  Para que varios hilos puedan usarla a la vez, el caché se divide en segmentos,
+  cada uno con su propio candado. La capacidad se reparte entre los segmentos de
+  modo que la suma es exactamente maxEntradas (con menos de 16 entradas hay menos
+  segmentos); el orden LRU se respeta dentro de cada segmento
+ */
+public class CachePredicciones {
+
+    private static final int MAX_SEGMENTOS = 16;
+
+    private final Segmento[] segmentos;   // cantidad potencia de 2
+    private final int capacidad;
+    private final long ttlNanos;   // 0 = las entradas no expiran
+
+    // Contadores (LongAdder evita contención entre hilos)
+    private final LongAdder aciertos = new LongAdder();
+    private final LongAdder fallos = new LongAdder();
+    private final LongAdder expulsiones = new LongAdder();
+    private final LongAdder expiraciones = new LongAdder();
+
+    /**
+      Constructor
+      @param maxEntradas número máximo de predicciones guardadas
+      @param ttlMillis tiempo de vida de cada entrada en milisegundos (0 = sin límite)
+     */
+    public CachePredicciones(int maxEntradas, long ttlMillis) {
+        if (maxEntradas < 1) {
+            throw new IllegalArgumentException("El caché debe tener al menos 1 entrada");
+        }
+
+        this.ttlNanos = ttlMillis * 1_000_000L;
+        this.capacidad = maxEntradas;
+
+        // Cada segmento debe poder guardar al menos una entrada
+        int numSegmentos = Integer.highestOneBit(Math.min(MAX_SEGMENTOS, maxEntradas));
+        this.segmentos = new Segmento[numSegmentos];
+
+        // Repartir la capacidad: los primeros 'resto' segmentos tienen una entrada más
+        int porSegmento = maxEntradas / numSegmentos;
+        int resto = maxEntradas % numSegmentos;
+        for (int i = 0; i < numSegmentos; i++) {
+            segmentos[i] = new Segmento(porSegmento + (i < resto ? 1 : 0));
+        }
+    }
+
+    /**
+      Crea la clave del caché a partir de los tokens de una frase
+      Solo cuentan los primeros maxLongitud tokens, igual que en la vectorización
+     */
+    public static String crearClave(List<String> tokens, int maxLongitud) {
+        int longitud = Math.min(tokens.size(), maxLongitud);
+        StringBuilder clave = new StringBuilder(longitud * 8);
+        for (int i = 0; i < longitud; i++) {
+            if (i > 0) {
+                clave.append(' ');
+            }
+            clave.append(tokens.get(i));
+        }
+        return clave.toString();
+    }
+
+    /**
+      Busca una predicción guardada
+      @return probabilidades guardadas (copia), o null si no está o ya expiró
+     */
+    public double[] obtener(String clave) {
+        Segmento segmento = segmentoDe(clave);
+        double[] probabilidades;
+
+        synchronized (segmento) {
+            Entrada entrada = segmento.get(clave);
+            if (entrada != null && ttlNanos > 0 && System.nanoTime() - entrada.creada > ttlNanos) {
+                segmento.remove(clave);
+                expiraciones.increment();
+                entrada = null;
+            }
+            probabilidades = entrada == null ? null : entrada.probabilidades;
+        }
+
+        if (probabilidades == null) {
+            fallos.increment();
+            return null;
+        }
+        aciertos.increment();
+        return probabilidades.clone();
+    }
+
+    /**
+      Guarda una predicción
+     */
+    public void guardar(String clave, double[] probabilidades) {
+        Entrada entrada = new Entrada(probabilidades.clone(), System.nanoTime());
+        Segmento segmento = segmentoDe(clave);
+
+        synchronized (segmento) {
+            segmento.put(clave, entrada);
+        }
+    }
+
+    /**
+      Borra todas las entradas (los contadores se mantienen)
+     */
+    public void limpiar() {
+        for (Segmento segmento : segmentos) {
+            synchronized (segmento) {
+                segmento.clear();
+            }
+        }
+    }
+
+    private Segmento segmentoDe(String clave) {
+        int h = clave.hashCode();
+        h ^= (h >>> 16);
+        return segmentos[h & (segmentos.length - 1)];
+    }
+
+    /**
+      Un segmento es un LinkedHashMap en orden de acceso: la primera entrada
+      es la menos usada recientemente, y se expulsa al pasar del límite
+     */
+    private class Segmento extends LinkedHashMap<String, Entrada> {
+        private final int capacidad;
+
+        Segmento(int capacidad) {
+            super(16, 0.75f, true);
+            this.capacidad = capacidad;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Entrada> masAntigua) {
+            if (size() <= capacidad) {
+                return false;
+            }
+
+            // La entrada menos usada sale; si además ya había expirado, se cuenta como expiración
+            if (ttlNanos > 0 && System.nanoTime() - masAntigua.getValue().creada > ttlNanos) {
+                expiraciones.increment();
+            } else {
+                expulsiones.increment();
+            }
+            return true;
+        }
+    }
+
+    private static class Entrada {
+        final double[] probabilidades;
+        final long creada;
+
+        Entrada(double[] probabilidades, long creada) {
+            this.probabilidades = probabilidades;
+            this.creada = creada;
+        }
+    }
+
+    /**
+      Muestra los contadores del caché
+     */
+    public void mostrarEstadisticas() {
+        long total = getAciertos() + getFallos();
+        System.out.println("\n=== ESTADÍSTICAS DEL CACHÉ ===");
+        System.out.println("Entradas: " + getTamano());
+        System.out.println("Aciertos: " + getAciertos());
+        System.out.println("Fallos: " + getFallos());
+        System.out.printf("Tasa de aciertos: %.1f%%\n", total == 0 ? 0.0 : 100.0 * getAciertos() / total);
+        System.out.println("Expulsiones (LRU): " + getExpulsiones());
+        System.out.println("Expiraciones (TTL): " + getExpiraciones());
+        System.out.println("==============================\n");
+    }
+
+    // Getters
+    public long getAciertos() {
+        return aciertos.sum();
+    }
+
+    public long getFallos() {
+        return fallos.sum();
+    }
+
+    public long getExpulsiones() {
+        return expulsiones.sum();
+    }
+
+    public long getExpiraciones() {
+        return expiraciones.sum();
+    }
+
+    /**
+      Número máximo de entradas (la suma de las capacidades de los segmentos)
+     */
+    public int getCapacidad() {
+        return capacidad;
+    }
+
+    public int getTamano() {
+        int tamano = 0;
+        for (Segmento segmento : segmentos) {
+            synchronized (segmento) {
+                tamano += segmento.size();
+            }
+        }
+        return tamano;
+    }
+}
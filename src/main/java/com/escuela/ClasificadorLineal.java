@@ -0,0 +1,305 @@
+package com.escuela;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+  Clasificador rápido de primer nivel: regresión logística (softmax) sobre el
+  promedio de los vectores Word2Vec de las palabras de la frase, normalizado
+  a longitud 1
+  Predecir es un promedio de vectores y una multiplicación de matriz pequeña en
+  Java puro, sin pasar por ND4J ni por el LSTM. EmotionPredictor lo usa como
+  primer nivel de la cascada: si su confianza llega al umbral se responde con
+  él y el LSTM solo se ejecuta para las frases dudosas.
+
+  Formato del archivo (big-endian, DataOutputStream): mágico, versión, número
+  de clases, vectorSize, pesos [numClases * vectorSize] y sesgos [numClases]
+ */
+public class ClasificadorLineal {
+
+    public static final String ARCHIVO_POR_DEFECTO = "clasificador_lineal.bin";
+
+    private static final int MAGICO = 0x454C494E;  // "ELIN"
+    private static final int VERSION = 1;
+
+    // Configuración por defecto: el máximo de epochs baja con el tamaño de los datos
+    // (3000 con las 200 frases del proyecto, nunca menos de 20)
+    private static final int MAX_EPOCHS = 3000;
+    private static final int MIN_EPOCHS = 20;
+    private static final long PASADAS_POR_EJEMPLO = 600_000;
+
+    // Convergencia: la pérdida promedio de cada ventana de epochs se compara con
+    // la de la ventana anterior (una sola epoch es muy ruidosa con mini-lotes)
+    // y se para si mejoró menos que MEJORA_MINIMA (relativa)
+    private static final int EPOCHS_POR_VENTANA = 100;
+    private static final double MEJORA_MINIMA = 0.005;
+
+    private final int numClases;
+    private final int vectorSize;
+    private final float[] pesos;   // fila k = pesos de la clase k
+    private final float[] sesgos;
+
+    private ClasificadorLineal(int numClases, int vectorSize, float[] pesos, float[] sesgos) {
+        this.numClases = numClases;
+        this.vectorSize = vectorSize;
+        this.pesos = pesos;
+        this.sesgos = sesgos;
+    }
+
+    /**
+      Entrena el clasificador con descenso de gradiente por mini-lotes
+      Los promedios de cada frase se calculan una sola vez antes de las epochs,
+      así que cada epoch es solo aritmética sobre arreglos (miles de epochs
+      tardan menos de un segundo con el conjunto de entrenamiento).
+      Se detiene antes de numEpochs si la entropía cruzada deja de bajar
+      @param datos frases y etiquetas de entrenamiento
+      @param vectorizer vectorizador con Word2Vec ya entrenado o cargado
+      @param numEpochs máximo de pasadas completas por los datos
+      @param tasaAprendizaje tamaño del paso del gradiente
+      @param l2 regularización de los pesos
+     */
+    public static ClasificadorLineal entrenar(DataLoader datos, Word2VecVectorizer vectorizer,
+                                              int numEpochs, double tasaAprendizaje, double l2) {
+        int numEjemplos = datos.getNumeroEjemplos();
+        int numClases = datos.getNumeroClases();
+        int vectorSize = vectorizer.getVectorSize();
+
+        float[][] entradas = new float[numEjemplos][vectorSize];
+        float[] temporal = new float[vectorSize];
+        for (int i = 0; i < numEjemplos; i++) {
+            vectorizer.promedioFrase(TextPreprocessor.tokenizar(datos.getTexto(i)), entradas[i], temporal);
+            normalizar(entradas[i]);
+        }
+
+        ClasificadorLineal clasificador = new ClasificadorLineal(numClases, vectorSize,
+                new float[numClases * vectorSize], new float[numClases]);
+
+        int tamanoLote = 20;
+        int[] orden = new int[numEjemplos];
+        for (int i = 0; i < numEjemplos; i++) {
+            orden[i] = i;
+        }
+        Random random = new Random(42); // semilla fija para resultados reproducibles
+        double[] probabilidades = new double[numClases];
+        float[] gradPesos = new float[numClases * vectorSize];
+        float[] gradSesgos = new float[numClases];
+        double perdidaVentana = 0;
+        double perdidaAnterior = Double.POSITIVE_INFINITY;
+        int epoch = 0;
+
+        while (epoch < numEpochs) {
+            // Mezclar el orden de los ejemplos (Fisher-Yates)
+            for (int i = numEjemplos - 1; i > 0; i--) {
+                int j = random.nextInt(i + 1);
+                int temp = orden[i];
+                orden[i] = orden[j];
+                orden[j] = temp;
+            }
+
+            double perdida = 0;
+            for (int inicio = 0; inicio < numEjemplos; inicio += tamanoLote) {
+                int fin = Math.min(inicio + tamanoLote, numEjemplos);
+                Arrays.fill(gradPesos, 0f);
+                Arrays.fill(gradSesgos, 0f);
+
+                // Gradiente de la entropía cruzada: (probabilidad - etiqueta) * entrada
+                for (int p = inicio; p < fin; p++) {
+                    float[] x = entradas[orden[p]];
+                    int etiqueta = datos.getEtiqueta(orden[p]);
+                    clasificador.calcular(x, probabilidades);
+                    perdida -= Math.log(Math.max(probabilidades[etiqueta], 1e-12));
+                    for (int k = 0; k < numClases; k++) {
+                        float error = (float) (probabilidades[k] - (k == etiqueta ? 1 : 0));
+                        int fila = k * vectorSize;
+                        for (int j = 0; j < vectorSize; j++) {
+                            gradPesos[fila + j] += error * x[j];
+                        }
+                        gradSesgos[k] += error;
+                    }
+                }
+
+                float paso = (float) (tasaAprendizaje / (fin - inicio));
+                float decaimiento = (float) (1 - tasaAprendizaje * l2);
+                for (int i = 0; i < gradPesos.length; i++) {
+                    clasificador.pesos[i] = clasificador.pesos[i] * decaimiento - paso * gradPesos[i];
+                }
+                for (int k = 0; k < numClases; k++) {
+                    clasificador.sesgos[k] -= paso * gradSesgos[k];
+                }
+            }
+            epoch++;
+
+            perdidaVentana += perdida;
+            if (epoch % EPOCHS_POR_VENTANA == 0) {
+                if (perdidaAnterior - perdidaVentana < MEJORA_MINIMA * perdidaAnterior) {
+                    break;
+                }
+                perdidaAnterior = perdidaVentana;
+                perdidaVentana = 0;
+            }
+        }
+
+        System.out.println("✅ Clasificador lineal entrenado en " + epoch + " de " + numEpochs + " epochs");
+        return clasificador;
+    }
+
+    /**
+      Entrena con la configuración por defecto (la que usa TrainEmotionClassifier):
+      las epochs bajan con el tamaño de los datos para no pasar mucho más de
+      PASADAS_POR_EJEMPLO veces por un ejemplo en total
+     */
+    public static ClasificadorLineal entrenar(DataLoader datos, Word2VecVectorizer vectorizer) {
+        long epochs = PASADAS_POR_EJEMPLO / Math.max(1, datos.getNumeroEjemplos());
+        int numEpochs = (int) Math.max(MIN_EPOCHS, Math.min(MAX_EPOCHS, epochs));
+        return entrenar(datos, vectorizer, numEpochs, 2.0, 0);
+    }
+
+    /**
+      Probabilidades de cada emoción para una frase ya tokenizada
+     */
+    public double[] predecir(List<String> tokens, Word2VecVectorizer vectorizer) {
+        float[] promedio = new float[vectorSize];
+        vectorizer.promedioFrase(tokens, promedio, new float[vectorSize]);
+        normalizar(promedio);
+        double[] probabilidades = new double[numClases];
+        calcular(promedio, probabilidades);
+        return probabilidades;
+    }
+
+    /**
+      Lleva el promedio a longitud 1: la escala de los vectores Word2Vec varía
+      mucho entre palabras y sin normalizar el descenso de gradiente converge mal
+     */
+    private static void normalizar(float[] x) {
+        double norma = 0;
+        for (float valor : x) {
+            norma += valor * valor;
+        }
+        if (norma > 0) {
+            float factor = (float) (1 / Math.sqrt(norma));
+            for (int j = 0; j < x.length; j++) {
+                x[j] *= factor;
+            }
+        }
+    }
+
+    /**
+      Softmax de pesos * x + sesgos
+     */
+    private void calcular(float[] x, double[] probabilidades) {
+        double maximo = Double.NEGATIVE_INFINITY;
+        for (int k = 0; k < numClases; k++) {
+            double z = sesgos[k];
+            int fila = k * vectorSize;
+            for (int j = 0; j < vectorSize; j++) {
+                z += pesos[fila + j] * x[j];
+            }
+            probabilidades[k] = z;
+            maximo = Math.max(maximo, z);
+        }
+
+        double suma = 0;
+        for (int k = 0; k < numClases; k++) {
+            probabilidades[k] = Math.exp(probabilidades[k] - maximo); // restar el máximo evita desbordes
+            suma += probabilidades[k];
+        }
+        for (int k = 0; k < numClases; k++) {
+            probabilidades[k] /= suma;
+        }
+    }
+
+    /**
+      Exactitud sobre un conjunto de datos
+     */
+    public double evaluar(DataLoader datos, Word2VecVectorizer vectorizer) {
+        int correctas = 0;
+        for (int i = 0; i < datos.getNumeroEjemplos(); i++) {
+            double[] probabilidades = predecir(TextPreprocessor.tokenizar(datos.getTexto(i)), vectorizer);
+            int predicha = 0;
+            for (int k = 1; k < numClases; k++) {
+                if (probabilidades[k] > probabilidades[predicha]) {
+                    predicha = k;
+                }
+            }
+            if (predicha == datos.getEtiqueta(i)) {
+                correctas++;
+            }
+        }
+        return datos.getNumeroEjemplos() == 0 ? 0 : (double) correctas / datos.getNumeroEjemplos();
+    }
+
+    /**
+      Guarda los pesos en un archivo
+     */
+    public void guardar(String ruta) {
+        try (DataOutputStream salida = new DataOutputStream(
+                new BufferedOutputStream(new FileOutputStream(ruta)))) {
+            salida.writeInt(MAGICO);
+            salida.writeInt(VERSION);
+            salida.writeInt(numClases);
+            salida.writeInt(vectorSize);
+            for (float peso : pesos) {
+                salida.writeFloat(peso);
+            }
+            for (float sesgo : sesgos) {
+                salida.writeFloat(sesgo);
+            }
+            System.out.println("✅ Clasificador lineal guardado en: " + ruta);
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo escribir el clasificador " + ruta, e);
+        }
+    }
+
+    /**
+      Carga un clasificador guardado con guardar
+     */
+    public static ClasificadorLineal cargar(String ruta) {
+        File archivo = new File(ruta);
+        try (DataInputStream entrada = new DataInputStream(
+                new BufferedInputStream(new FileInputStream(archivo)))) {
+            if (entrada.readInt() != MAGICO) {
+                throw new IllegalArgumentException(ruta + " no es un clasificador lineal");
+            }
+            int version = entrada.readInt();
+            if (version != VERSION) {
+                throw new IllegalArgumentException("Versión de clasificador no soportada: " + version);
+            }
+
+            int numClases = entrada.readInt();
+            int vectorSize = entrada.readInt();
+            float[] pesos = new float[numClases * vectorSize];
+            for (int i = 0; i < pesos.length; i++) {
+                pesos[i] = entrada.readFloat();
+            }
+            float[] sesgos = new float[numClases];
+            for (int k = 0; k < numClases; k++) {
+                sesgos[k] = entrada.readFloat();
+            }
+            return new ClasificadorLineal(numClases, vectorSize, pesos, sesgos);
+
+        } catch (EOFException e) {
+            throw new IllegalArgumentException(ruta + " está incompleto");
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo leer el clasificador " + ruta, e);
+        }
+    }
+
+    public int getNumClases() {
+        return numClases;
+    }
+
+    public int getVectorSize() {
+        return vectorSize;
+    }
+}
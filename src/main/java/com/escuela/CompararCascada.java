@@ -0,0 +1,139 @@
+package com.escuela;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+  Curva de compromiso de la cascada (clasificador lineal → LSTM)
+  Para cada umbral mide con el conjunto de prueba la fracción de frases que
+  responde el primer nivel, la exactitud, cuántas coinciden con el LSTM solo
+  y la latencia de extremo a extremo (frases sueltas y lotes).
+  El umbral 0 es solo el clasificador lineal y "LSTM" es la cascada desactivada.
+  Si no existe el clasificador lineal se entrena con emotions_train.csv
+  Uso: CompararCascada [modelo.zip word2vec.zip [clasificador.bin]]
+ */
+public class CompararCascada {
+
+    private static final double[] UMBRALES = {0, 0.3, 0.4, 0.5, 0.6, 0.7, 0.8, 0.9, 0.95, 0.99};
+
+    // Frases por pasada de la red al medir la velocidad por lotes
+    private static final int TAMANO_LOTE = 256;
+
+    private static final int REPETICIONES = 3;
+
+    public static void main(String[] args) {
+        String rutaModelo = args.length > 1 ? args[0] : "emotion_classifier_model.zip";
+        String rutaWord2Vec = args.length > 1 ? args[1] : "word2vec_emotions.zip";
+        String rutaClasificador = args.length > 2 ? args[2] : ClasificadorLineal.ARCHIVO_POR_DEFECTO;
+
+        EmotionPredictor predictor = new EmotionPredictor();
+        if (!predictor.cargarModelo(rutaModelo, rutaWord2Vec)) {
+            System.err.println("❌ No se pudo cargar el modelo. Ejecuta TrainEmotionClassifier primero.");
+            return;
+        }
+
+        DataLoader testData = new DataLoader();
+        if (!testData.cargarDesdeArchivo("emotions_test.csv")) {
+            return;
+        }
+
+        ClasificadorLineal clasificador;
+        if (new File(rutaClasificador).exists()) {
+            clasificador = ClasificadorLineal.cargar(rutaClasificador);
+        } else {
+            System.out.println("⚠️ No se encontró " + rutaClasificador + ", se entrena con emotions_train.csv");
+            DataLoader trainData = new DataLoader();
+            if (!trainData.cargarDesdeArchivo("emotions_train.csv")) {
+                return;
+            }
+            clasificador = ClasificadorLineal.entrenar(trainData, predictor.getVectorizer());
+            clasificador.guardar(rutaClasificador);
+        }
+
+        // Lote grande para medir la puntuación masiva (el conjunto de prueba repetido)
+        List<String> lote = new ArrayList<>(TAMANO_LOTE * 4);
+        for (int i = 0; i < TAMANO_LOTE * 4; i++) {
+            lote.add(testData.getTexto(i % testData.getNumeroEjemplos()));
+        }
+        predictor.setTamanoLoteMaximo(TAMANO_LOTE);
+
+        List<EmotionPredictor.ResultadoPrediccion> soloLstm = predictor.predecirLote(testData.getTextos());
+        medir(predictor, testData, lote, soloLstm); // calentamiento de la JVM antes de la primera fila
+
+        System.out.println("\n=== CURVA DE LA CASCADA (" + testData.getNumeroEjemplos() + " frases de prueba) ===");
+        System.out.printf("%-10s%16s%12s%14s%12s%12s\n",
+                "Umbral", "Primer nivel", "Exactitud", "Igual LSTM", "ms/frase", "frases/s");
+        for (double umbral : UMBRALES) {
+            predictor.activarCascada(clasificador, umbral);
+            medir(predictor, testData, lote, soloLstm).mostrar(String.valueOf(umbral));
+        }
+        predictor.desactivarCascada();
+        medir(predictor, testData, lote, soloLstm).mostrar("LSTM");
+
+        System.out.println("\nPrimer nivel = frases respondidas sin pasar por el LSTM");
+        System.out.println("Igual LSTM = frases con la misma emoción que el LSTM solo");
+    }
+
+    /**
+      Fracción respondida por el primer nivel, exactitud y latencia con la configuración actual
+     */
+    private static Medicion medir(EmotionPredictor predictor, DataLoader testData, List<String> lote,
+                                  List<EmotionPredictor.ResultadoPrediccion> soloLstm) {
+        Medicion medicion = new Medicion();
+
+        predictor.reiniciarContadoresCascada();
+        List<EmotionPredictor.ResultadoPrediccion> resultados = predictor.predecirLote(testData.getTextos());
+        medicion.fraccionPrimerNivel = predictor.getFraccionPrimerNivel();
+        int correctas = 0;
+        for (int i = 0; i < resultados.size(); i++) {
+            String emocion = resultados.get(i).getEmocionPredicha();
+            if (emocion.equals(testData.getEmocion(i))) {
+                correctas++;
+            }
+            if (emocion.equals(soloLstm.get(i).getEmocionPredicha())) {
+                medicion.igualesLstm++;
+            }
+        }
+        medicion.exactitud = (double) correctas / resultados.size();
+        medicion.total = resultados.size();
+
+        // Calentamiento, y el mejor de varias repeticiones para no medir pausas del GC
+        for (int i = 0; i < 5; i++) {
+            predictor.predecir(testData.getTexto(i));
+        }
+        predictor.predecirLote(lote);
+        medicion.msPorFrase = Double.MAX_VALUE;
+        for (int repeticion = 0; repeticion < REPETICIONES; repeticion++) {
+            // Frases sueltas, como las peticiones del servidor
+            long inicio = System.nanoTime();
+            for (int i = 0; i < testData.getNumeroEjemplos(); i++) {
+                predictor.predecir(testData.getTexto(i));
+            }
+            medicion.msPorFrase = Math.min(medicion.msPorFrase,
+                    (System.nanoTime() - inicio) / 1e6 / testData.getNumeroEjemplos());
+
+            // Lotes grandes, como la puntuación masiva
+            inicio = System.nanoTime();
+            predictor.predecirLote(lote);
+            medicion.frasesPorSegundo = Math.max(medicion.frasesPorSegundo,
+                    lote.size() / ((System.nanoTime() - inicio) / 1e9));
+        }
+
+        return medicion;
+    }
+
+    private static class Medicion {
+        double fraccionPrimerNivel;
+        double exactitud;
+        int igualesLstm;
+        int total;
+        double msPorFrase;
+        double frasesPorSegundo;
+
+        void mostrar(String umbral) {
+            System.out.printf("%-10s%15.1f%%%11.2f%%%14s%12.2f%12.0f\n", umbral, fraccionPrimerNivel * 100,
+                    exactitud * 100, igualesLstm + "/" + total, msPorFrase, frasesPorSegundo);
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.escuela;
+
+import org.deeplearning4j.models.embeddings.WeightLookupTable;
+import org.deeplearning4j.models.embeddings.inmemory.InMemoryLookupTable;
+import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
+import org.nd4j.linalg.api.ndarray.INDArray;
+
+import java.io.File;
+
+/**
+  Compara la memoria y la exactitud de cada forma de guardar los vectores de palabras
+  - Word2Vec completo (lo que carga EmotionPredictor.cargarModelo)
+  - TablaEmbeddings (float[] en el heap)
+  - EmbeddingsMapeados en float32 y en int8 (archivo mapeado, fuera del heap)
+
+  Exporta los archivos embeddings_float32.emb y embeddings_int8.emb y evalúa el
+  modelo con el conjunto de prueba usando cada uno
+  Uso: CompararEmbeddings [modelo.zip word2vec.zip]
+ */
+public class CompararEmbeddings {
+
+    public static void main(String[] args) {
+        String rutaModelo = args.length > 1 ? args[0] : "emotion_classifier_model.zip";
+        String rutaWord2Vec = args.length > 1 ? args[1] : "word2vec_emotions.zip";
+
+        EmotionPredictor predictor = new EmotionPredictor();
+        if (!predictor.cargarModelo(rutaModelo, rutaWord2Vec)) {
+            System.err.println("❌ No se pudo cargar el modelo. Ejecuta TrainEmotionClassifier primero.");
+            return;
+        }
+
+        DataLoader testData = new DataLoader();
+        if (!testData.cargarDesdeArchivo("emotions_test.csv")) {
+            return;
+        }
+
+        MultiLayerNetwork model = predictor.getModel();
+        Word2VecVectorizer original = predictor.getVectorizer();
+        AlmacenEmbeddings tabla = original.getTabla();
+        int numPalabras = tabla.getNumPalabras();
+        int vectorSize = tabla.getVectorSize();
+
+        File archivoFloat = new File("embeddings_float32.emb");
+        File archivoInt8 = new File("embeddings_int8.emb");
+        EmbeddingsMapeados.exportar(tabla, archivoFloat, false);
+        EmbeddingsMapeados.exportar(tabla, archivoInt8, true);
+        EmbeddingsMapeados mapeadoFloat = EmbeddingsMapeados.abrir(archivoFloat);
+        EmbeddingsMapeados mapeadoInt8 = EmbeddingsMapeados.abrir(archivoInt8);
+
+        // Referencia: exactitud y probabilidades con los vectores originales
+        ReporteEvaluacion base = evaluar(model, original, testData);
+
+        System.out.println("\n=== COMPARACIÓN DE EMBEDDINGS (" + numPalabras + " palabras x " + vectorSize + ") ===");
+        System.out.printf("%-28s%18s%17s%12s%14s\n", "Almacén", "Por proceso (KB)", "Compartido (KB)", "Exactitud", "Error máx.");
+
+        System.out.printf("%-28s%18d%17s%11.2f%%%14s\n", "Word2Vec completo",
+                bytesWord2Vec(original) / 1024, "-", base.getExactitud() * 100, "-");
+        System.out.printf("%-28s%18d%17s%11.2f%%%14.6f\n", "TablaEmbeddings (float[])",
+                4L * numPalabras * vectorSize / 1024, "-", base.getExactitud() * 100, 0.0);
+
+        for (EmbeddingsMapeados mapeado : new EmbeddingsMapeados[]{mapeadoFloat, mapeadoInt8}) {
+            ReporteEvaluacion reporte = evaluar(model,
+                    new Word2VecVectorizer(mapeado, original.getMaxSequenceLength()), testData);
+            System.out.printf("%-28s%18d%17d%11.2f%%%14.6f\n",
+                    mapeado.estaCuantizado() ? "Mapeado int8" : "Mapeado float32",
+                    0, mapeado.getBytesArchivo() / 1024, reporte.getExactitud() * 100,
+                    errorMaximo(tabla, mapeado));
+
+            int cambios = 0;
+            for (int real = 0; real < testData.getNumeroClases(); real++) {
+                for (int predicha = 0; predicha < testData.getNumeroClases(); predicha++) {
+                    cambios += Math.abs(reporte.getCuenta(real, predicha) - base.getCuenta(real, predicha));
+                }
+            }
+            System.out.println("    celdas de la matriz de confusión que cambian: " + cambios / 2);
+        }
+        System.out.println("\nError máx. = mayor diferencia absoluta en un valor de un vector");
+        System.out.println("Lo mapeado está fuera del heap: el sistema operativo lo comparte entre todos los procesos");
+    }
+
+    private static ReporteEvaluacion evaluar(MultiLayerNetwork model, Word2VecVectorizer vectorizer,
+                                             DataLoader testData) {
+        try (EvaluadorModelo evaluador = new EvaluadorModelo(model, vectorizer)) {
+            return evaluador.evaluar(testData);
+        }
+    }
+
+    /**
+      Bytes de las matrices del modelo Word2Vec (syn0, syn1 y syn1Neg)
+     */
+    private static long bytesWord2Vec(Word2VecVectorizer vectorizer) {
+        WeightLookupTable<?> tabla = vectorizer.getWord2Vec().getLookupTable();
+        if (!(tabla instanceof InMemoryLookupTable)) {
+            return 0;
+        }
+        InMemoryLookupTable<?> enMemoria = (InMemoryLookupTable<?>) tabla;
+        long bytes = 0;
+        for (INDArray matriz : new INDArray[]{enMemoria.getSyn0(), enMemoria.getSyn1(), enMemoria.getSyn1Neg()}) {
+            if (matriz != null) {
+                bytes += matriz.length() * matriz.dataType().width();
+            }
+        }
+        return bytes;
+    }
+
+    private static double errorMaximo(AlmacenEmbeddings a, AlmacenEmbeddings b) {
+        float[] va = new float[a.getVectorSize()];
+        float[] vb = new float[b.getVectorSize()];
+        double maximo = 0;
+        for (int i = 0; i < a.getNumPalabras(); i++) {
+            a.copiarVector(i, va, 0, 1);
+            b.copiarVector(b.indice(a.getPalabra(i)), vb, 0, 1);
+            for (int j = 0; j < va.length; j++) {
+                maximo = Math.max(maximo, Math.abs(va[j] - vb[j]));
+            }
+        }
+        return maximo;
+    }
+}
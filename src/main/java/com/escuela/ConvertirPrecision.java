@@ -0,0 +1,149 @@
+package com.escuela;
+
+import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
+import org.nd4j.linalg.api.buffer.DataType;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+  Convierte un modelo guardado a otra precisión (por defecto FLOAT16) y compara
+  memoria, exactitud y velocidad contra el original con el conjunto de prueba.
+  También mide la opción mixta: red en FLOAT y tensores de los lotes en FLOAT16
+  (la red los convierte al entrar), que reduce a la mitad la memoria de los
+  lotes en cola sin usar las operaciones en 16 bits, lentas en muchas CPU
+
+  El modelo convertido se guarda sin updater (solo sirve para predecir) y
+  EmotionPredictor.cargarModelo lo carga con su precisión
+  Uso: ConvertirPrecision [modelo.zip word2vec.zip [salida.zip [FLOAT16|FLOAT]]]
+ */
+public class ConvertirPrecision {
+
+    // Frases por pasada de la red al medir la velocidad por lotes
+    private static final int TAMANO_LOTE = 256;
+
+    public static void main(String[] args) {
+        String rutaModelo = args.length > 1 ? args[0] : "emotion_classifier_model.zip";
+        String rutaWord2Vec = args.length > 1 ? args[1] : "word2vec_emotions.zip";
+        String rutaSalida = args.length > 2 ? args[2] : "emotion_classifier_model_half.zip";
+        DataType tipoDatos = EmotionClassifierModel.comprobarTipoDatos(
+                args.length > 3 ? DataType.valueOf(args[3].toUpperCase(Locale.ROOT)) : DataType.FLOAT16);
+
+        EmotionPredictor predictor = new EmotionPredictor();
+        if (!predictor.cargarModelo(rutaModelo, rutaWord2Vec)) {
+            System.err.println("❌ No se pudo cargar el modelo. Ejecuta TrainEmotionClassifier primero.");
+            return;
+        }
+
+        DataLoader testData = new DataLoader();
+        if (!testData.cargarDesdeArchivo("emotions_test.csv")) {
+            return;
+        }
+
+        // Lote grande para medir la puntuación masiva (el conjunto de prueba repetido)
+        List<String> lote = new ArrayList<>(TAMANO_LOTE * 4);
+        for (int i = 0; i < TAMANO_LOTE * 4; i++) {
+            lote.add(testData.getTexto(i % testData.getNumeroEjemplos()));
+        }
+        predictor.setTamanoLoteMaximo(TAMANO_LOTE);
+
+        String nombreOriginal = predictor.getTipoDatos().name();
+        Medicion original = medir(predictor, testData, lote);
+
+        predictor.getVectorizer().setTipoDatos(tipoDatos);
+        Medicion mixto = medir(predictor, testData, lote);
+
+        predictor.convertirPrecision(tipoDatos);
+        Medicion convertido = medir(predictor, testData, lote);
+
+        try {
+            predictor.getModel().save(new File(rutaSalida), false);
+            EmotionClassifierModel.guardarMaxSequenceLength(new File(rutaSalida),
+                    predictor.getVectorizer().getMaxSequenceLength());
+            System.out.println("✅ Modelo " + tipoDatos + " guardado en: " + rutaSalida
+                    + " (" + new File(rutaSalida).length() / 1024 + " KB)");
+        } catch (IOException e) {
+            System.err.println("❌ Error al guardar modelo: " + e.getMessage());
+        }
+
+        System.out.println("\n=== COMPARACIÓN DE PRECISIÓN (" + testData.getNumeroEjemplos() + " frases de prueba) ===");
+        System.out.printf("%-22s%12s%12s%12s%12s%12s%12s%14s\n", "Red / lotes",
+                "Pesos (KB)", "Lote (KB)", "Exactitud", "ms/frase", "frases/s", "Misma emoc.", "Dif. máx.");
+        original.mostrar(nombreOriginal + " / " + nombreOriginal, original);
+        mixto.mostrar(nombreOriginal + " / " + tipoDatos, original);
+        convertido.mostrar(tipoDatos + " / " + tipoDatos, original);
+        System.out.println("\nLote (KB) = tensor de entrada de un lote de " + TAMANO_LOTE + " frases");
+        System.out.println("Dif. máx. = mayor diferencia de una probabilidad frente a " + nombreOriginal);
+    }
+
+    /**
+      Exactitud, memoria y velocidad del predictor con su precisión actual
+     */
+    private static Medicion medir(EmotionPredictor predictor, DataLoader testData, List<String> lote) {
+        Medicion medicion = new Medicion();
+        MultiLayerNetwork model = predictor.getModel();
+        Word2VecVectorizer vectorizer = predictor.getVectorizer();
+
+        medicion.bytesPesos = model.params().length() * model.params().dataType().width();
+        List<List<String>> frases = new ArrayList<>();
+        for (String texto : lote.subList(0, TAMANO_LOTE)) {
+            frases.add(TextPreprocessor.tokenizar(texto));
+        }
+        medicion.bytesLote = vectorizer.tokensAVectores(frases).length() * vectorizer.getTipoDatos().width();
+
+        try (EvaluadorModelo evaluador = new EvaluadorModelo(model, vectorizer)) {
+            medicion.exactitud = evaluador.evaluar(testData).getExactitud();
+        }
+        medicion.probabilidades = predictor.predecirLote(testData.getTextos());
+
+        // Calentamiento y medición de frases sueltas
+        for (int i = 0; i < 5; i++) {
+            predictor.predecir(testData.getTexto(i));
+        }
+        long inicio = System.nanoTime();
+        for (int i = 0; i < testData.getNumeroEjemplos(); i++) {
+            predictor.predecir(testData.getTexto(i));
+        }
+        medicion.msPorFrase = (System.nanoTime() - inicio) / 1e6 / testData.getNumeroEjemplos();
+
+        // Lotes grandes, como la puntuación masiva
+        predictor.predecirLote(lote);
+        inicio = System.nanoTime();
+        predictor.predecirLote(lote);
+        medicion.frasesPorSegundo = lote.size() / ((System.nanoTime() - inicio) / 1e9);
+
+        return medicion;
+    }
+
+    private static class Medicion {
+        long bytesPesos;
+        long bytesLote;
+        double exactitud;
+        double msPorFrase;
+        double frasesPorSegundo;
+        List<EmotionPredictor.ResultadoPrediccion> probabilidades;
+
+        void mostrar(String nombre, Medicion referencia) {
+            int coinciden = 0;
+            double diferenciaMaxima = 0;
+            for (int i = 0; i < probabilidades.size(); i++) {
+                EmotionPredictor.ResultadoPrediccion a = referencia.probabilidades.get(i);
+                EmotionPredictor.ResultadoPrediccion b = probabilidades.get(i);
+                if (a.getEmocionPredicha().equals(b.getEmocionPredicha())) {
+                    coinciden++;
+                }
+                for (int k = 0; k < a.getProbabilidades().length; k++) {
+                    diferenciaMaxima = Math.max(diferenciaMaxima,
+                            Math.abs(a.getProbabilidades()[k] - b.getProbabilidades()[k]));
+                }
+            }
+
+            System.out.printf("%-22s%12d%12d%11.2f%%%12.2f%12.0f%12s%14.5f\n", nombre, bytesPesos / 1024,
+                    bytesLote / 1024, exactitud * 100, msPorFrase, frasesPorSegundo,
+                    coinciden + "/" + probabilidades.size(), diferenciaMaxima);
+        }
+    }
+}
@@ -0,0 +1,379 @@
+package com.escuela;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+/**
+  Corpus ya limpio y tokenizado guardado en un archivo binario
+  Se exporta una vez desde un DataLoader y después se abre con FileChannel.map,
+  así los siguientes entrenamientos no vuelven a leer el CSV ni a limpiar y
+  tokenizar cada frase: solo leen números del archivo mapeado.
+
+  Formato (big-endian):
+  - encabezado de 64 bytes: mágico, versión, número de frases, de palabras del
+    vocabulario y de tokens, longitud máxima y posición de cada sección
+  - etiquetas: un byte por frase con el índice de la emoción
+  - tokens: int32 con el id de cada palabra, todas las frases una detrás de otra
+  - inicios: int64 por frase (más uno al final) con la posición de su primer token
+  - vocabulario: longitud en bytes + UTF-8 de cada palabra, en orden de id
+
+  Los tokens son todas las palabras de TextPreprocessor.limpiarTexto (lo que ve
+  Word2Vec). Las palabras de una letra se marcan como cortas y se saltan al
+  vectorizar para el LSTM, igual que hace TextPreprocessor.tokenizar
+ */
+public class CorpusBinario {
+
+    private static final int MAGICO = 0x45434F52;  // "ECOR"
+    private static final int VERSION = 1;
+    private static final int TAMANO_ENCABEZADO = 64;
+
+    // Frases que se limpian en paralelo a la vez al exportar
+    private static final int FRASES_POR_TANDA = 65536;
+
+    // Tokens por región mapeada (un mapeo no puede pasar de 2 GB)
+    private static final int BITS_SEGMENTO = 28;
+    private static final int MASCARA_SEGMENTO = (1 << BITS_SEGMENTO) - 1;
+
+    private final File archivo;
+    private final int numFrases;
+    private final long numTokens;
+    private final int longitudMaxima;
+
+    private final ByteBuffer etiquetas;
+    private final IntBuffer[] tokens;
+    private final LongBuffer inicios;
+    private final String[] palabras;
+    private final boolean[] cortas;
+
+    private CorpusBinario(File archivo) {
+        this.archivo = archivo;
+
+        try (RandomAccessFile raf = new RandomAccessFile(archivo, "r");
+             FileChannel canal = raf.getChannel()) {
+
+            ByteBuffer encabezado = canal.map(FileChannel.MapMode.READ_ONLY, 0, TAMANO_ENCABEZADO);
+            if (encabezado.getInt() != MAGICO) {
+                throw new IllegalArgumentException(archivo + " no es un corpus binario");
+            }
+            int version = encabezado.getInt();
+            if (version != VERSION) {
+                throw new IllegalArgumentException("Versión de corpus no soportada: " + version);
+            }
+            this.numFrases = encabezado.getInt();
+            int numPalabras = encabezado.getInt();
+            this.numTokens = encabezado.getLong();
+            this.longitudMaxima = encabezado.getInt();
+            long posicionTokens = encabezado.getLong();
+            long posicionInicios = encabezado.getLong();
+            long posicionVocabulario = encabezado.getLong();
+
+            this.etiquetas = canal.map(FileChannel.MapMode.READ_ONLY, TAMANO_ENCABEZADO, numFrases);
+            this.inicios = canal.map(FileChannel.MapMode.READ_ONLY, posicionInicios, 8L * (numFrases + 1))
+                    .asLongBuffer();
+
+            int numSegmentos = (int) ((numTokens + MASCARA_SEGMENTO) >>> BITS_SEGMENTO);
+            this.tokens = new IntBuffer[numSegmentos];
+            for (int s = 0; s < numSegmentos; s++) {
+                long primero = (long) s << BITS_SEGMENTO;
+                long cantidad = Math.min(1L << BITS_SEGMENTO, numTokens - primero);
+                tokens[s] = canal.map(FileChannel.MapMode.READ_ONLY, posicionTokens + 4 * primero, 4 * cantidad)
+                        .asIntBuffer();
+            }
+
+            // El vocabulario se lee completo: se necesita como String de todas formas
+            ByteBuffer vocabulario = canal.map(FileChannel.MapMode.READ_ONLY, posicionVocabulario,
+                    canal.size() - posicionVocabulario);
+            this.palabras = new String[numPalabras];
+            this.cortas = new boolean[numPalabras];
+            byte[] bytes = new byte[64];
+            for (int id = 0; id < numPalabras; id++) {
+                int largo = vocabulario.getShort() & 0xFFFF;
+                if (largo > bytes.length) {
+                    bytes = new byte[largo];
+                }
+                vocabulario.get(bytes, 0, largo);
+                palabras[id] = new String(bytes, 0, largo, StandardCharsets.UTF_8);
+                cortas[id] = palabras[id].length() < 2;
+            }
+
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo abrir el corpus " + archivo, e);
+        }
+    }
+
+    /**
+      Abre un corpus binario exportado antes (los datos se leen del archivo mapeado)
+     */
+    public static CorpusBinario abrir(File archivo) {
+        CorpusBinario corpus = new CorpusBinario(archivo);
+        System.out.println("✅ Corpus binario abierto: " + archivo + " (" + corpus.numFrases + " frases, "
+                + corpus.numTokens + " tokens, " + corpus.palabras.length + " palabras)");
+        return corpus;
+    }
+
+    /**
+      Limpia y tokeniza todas las frases de un DataLoader y las guarda en el archivo
+      Se escribe en un archivo temporal y luego se renombra, así un corpus que ya
+      existía (y que quizá está mapeado por otro proceso) no queda a medio escribir
+     */
+    public static void exportar(DataLoader datos, File archivo) {
+        int numFrases = datos.getNumeroEjemplos();
+        Map<String, Integer> palabraAId = new HashMap<>();
+        List<String> palabras = new ArrayList<>();
+        long[] inicios = new long[numFrases + 1];
+        long numTokens = 0;
+        int longitudMaxima = 0;
+        File temporal = new File(archivo.getAbsoluteFile().getParentFile(), archivo.getName() + ".tmp");
+
+        try (RandomAccessFile raf = new RandomAccessFile(temporal, "rw");
+             FileChannel canal = raf.getChannel()) {
+            raf.setLength(0);
+            Escritor salida = new Escritor(canal, TAMANO_ENCABEZADO);
+
+            for (int i = 0; i < numFrases; i++) {
+                salida.escribirByte(datos.getEtiqueta(i));
+            }
+            long posicionTokens = salida.posicion();
+
+            // Limpiar en paralelo por tandas; los ids se asignan en orden, en un solo hilo
+            for (int desde = 0; desde < numFrases; desde += FRASES_POR_TANDA) {
+                int inicioTanda = desde;
+                String[] limpios = IntStream.range(desde, Math.min(desde + FRASES_POR_TANDA, numFrases))
+                        .parallel()
+                        .mapToObj(i -> TextPreprocessor.limpiarTexto(datos.getTexto(i)))
+                        .toArray(String[]::new);
+
+                for (int k = 0; k < limpios.length; k++) {
+                    inicios[inicioTanda + k] = numTokens;
+                    int largas = 0;
+                    for (String palabra : limpios[k].isEmpty() ? new String[0] : limpios[k].split(" ")) {
+                        Integer id = palabraAId.get(palabra);
+                        if (id == null) {
+                            id = palabras.size();
+                            palabraAId.put(palabra, id);
+                            palabras.add(palabra);
+                        }
+                        salida.escribirInt(id);
+                        numTokens++;
+                        if (palabra.length() >= 2) {
+                            largas++;
+                        }
+                    }
+                    longitudMaxima = Math.max(longitudMaxima, largas);
+                }
+            }
+            inicios[numFrases] = numTokens;
+
+            long posicionInicios = salida.posicion();
+            for (long inicio : inicios) {
+                salida.escribirLong(inicio);
+            }
+
+            long posicionVocabulario = salida.posicion();
+            for (String palabra : palabras) {
+                byte[] bytes = palabra.getBytes(StandardCharsets.UTF_8);
+                if (bytes.length > 0xFFFF) {
+                    throw new IllegalArgumentException("Palabra demasiado larga para el corpus: "
+                            + palabra.substring(0, 40) + "...");
+                }
+                salida.escribirShort(bytes.length);
+                salida.escribirBytes(bytes);
+            }
+            salida.vaciar();
+
+            ByteBuffer encabezado = ByteBuffer.allocate(TAMANO_ENCABEZADO);
+            encabezado.putInt(MAGICO).putInt(VERSION).putInt(numFrases).putInt(palabras.size())
+                    .putLong(numTokens).putInt(longitudMaxima)
+                    .putLong(posicionTokens).putLong(posicionInicios).putLong(posicionVocabulario);
+            encabezado.clear();
+            canal.write(encabezado, 0);
+
+        } catch (IOException e) {
+            temporal.delete();
+            throw new UncheckedIOException("No se pudo escribir el corpus " + archivo, e);
+        } catch (RuntimeException e) {
+            temporal.delete();
+            throw e;
+        }
+
+        try {
+            Files.move(temporal.toPath(), archivo.toPath(),
+                    StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            temporal.delete();
+            throw new UncheckedIOException("No se pudo escribir el corpus " + archivo, e);
+        }
+
+        System.out.println("✅ Corpus binario guardado en: " + archivo + " (" + numFrases + " frases, "
+                + numTokens + " tokens, " + palabras.size() + " palabras)");
+    }
+
+    /**
+      Escritura secuencial con un buffer de 1 MB
+     */
+    private static class Escritor {
+        private final FileChannel canal;
+        private final ByteBuffer buffer = ByteBuffer.allocate(1 << 20);
+        private long posicion;
+
+        Escritor(FileChannel canal, long posicion) {
+            this.canal = canal;
+            this.posicion = posicion;
+        }
+
+        void escribirByte(int valor) throws IOException {
+            espacio(1);
+            buffer.put((byte) valor);
+        }
+
+        void escribirShort(int valor) throws IOException {
+            espacio(2);
+            buffer.putShort((short) valor);
+        }
+
+        void escribirInt(int valor) throws IOException {
+            espacio(4);
+            buffer.putInt(valor);
+        }
+
+        void escribirLong(long valor) throws IOException {
+            espacio(8);
+            buffer.putLong(valor);
+        }
+
+        void escribirBytes(byte[] valores) throws IOException {
+            espacio(valores.length);
+            buffer.put(valores);
+        }
+
+        long posicion() {
+            return posicion + buffer.position();
+        }
+
+        private void espacio(int bytes) throws IOException {
+            if (buffer.remaining() < bytes) {
+                vaciar();
+            }
+        }
+
+        void vaciar() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                posicion += canal.write(buffer, posicion);
+            }
+            buffer.clear();
+        }
+    }
+
+    /**
+      Posición del primer token de una frase
+     */
+    public long getInicio(int frase) {
+        return inicios.get(frase);
+    }
+
+    /**
+      Posición siguiente al último token de una frase
+     */
+    public long getFin(int frase) {
+        return inicios.get(frase + 1);
+    }
+
+    /**
+      Id de la palabra en una posición del arreglo de tokens
+     */
+    public int getToken(long posicion) {
+        return tokens[(int) (posicion >>> BITS_SEGMENTO)].get((int) (posicion & MASCARA_SEGMENTO));
+    }
+
+    /**
+      Palabras de 2 o más letras de una frase (lo mismo que TextPreprocessor.tokenizar)
+     */
+    public List<String> getTokens(int frase) {
+        long fin = getFin(frase);
+        List<String> resultado = new ArrayList<>((int) (fin - getInicio(frase)));
+        for (long p = getInicio(frase); p < fin; p++) {
+            int id = getToken(p);
+            if (!cortas[id]) {
+                resultado.add(palabras[id]);
+            }
+        }
+        return resultado;
+    }
+
+    /**
+      Texto limpio de una frase (lo mismo que TextPreprocessor.limpiarTexto)
+     */
+    public String getTextoLimpio(int frase) {
+        StringBuilder texto = new StringBuilder();
+        long fin = getFin(frase);
+        for (long p = getInicio(frase); p < fin; p++) {
+            if (texto.length() > 0) {
+                texto.append(' ');
+            }
+            texto.append(palabras[getToken(p)]);
+        }
+        return texto.toString();
+    }
+
+    /**
+      Índice de la emoción de una frase
+     */
+    public int getEtiqueta(int frase) {
+        return etiquetas.get(frase);
+    }
+
+    /**
+      true si la palabra tiene una sola letra (tokenizar la descarta)
+     */
+    public boolean esPalabraCorta(int id) {
+        return cortas[id];
+    }
+
+    // Getters
+    public int getNumFrases() {
+        return numFrases;
+    }
+
+    public long getNumTokens() {
+        return numTokens;
+    }
+
+    public int getNumPalabras() {
+        return palabras.length;
+    }
+
+    public String getPalabra(int id) {
+        return palabras[id];
+    }
+
+    public List<String> getPalabras() {
+        return Arrays.asList(palabras.clone());
+    }
+
+    /**
+      Máximo de tokens (de 2 o más letras) en una frase
+     */
+    public int getLongitudMaxima() {
+        return longitudMaxima;
+    }
+
+    public File getArchivo() {
+        return archivo;
+    }
+}
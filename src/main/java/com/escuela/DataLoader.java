@@ -2,21 +2,65 @@ package com.escuela;
 
 import java.io.*;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.AbstractList;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.RandomAccess;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.GZIPInputStream;
 
 /**
   Clase para cargar y procesar el dataset de emociones desde archivos CSV
+
+  El archivo se lee en bloques de varios MB que se cortan siempre al final de un
+  registro (contando comillas, así un salto de línea dentro de un campo entre
+  comillas no corta el registro). Cada bloque se procesa en un hilo distinto y los
+  resultados se unen en orden mientras se sigue leyendo, así solo unos pocos
+  bloques esperan en memoria a la vez.
+
+  Los textos se guardan en UTF-8 en un solo byte[] (con la posición donde termina
+  cada uno) y las emociones como un byte[] con el índice de la clase; getTextos()
+  y getEmociones() son vistas que crean los String al pedirlos.
+
+  También se puede cargar un corpus binario ya tokenizado (ver CorpusBinario);
+  en ese caso los textos son los textos limpios guardados en el corpus
  */
 public class DataLoader {
 
-    // Lista que almacena todas las frases del dataset
-    private List<String> textos;
+    // Tamaño de cada bloque que se procesa en paralelo
+    private static final int TAMANO_BLOQUE = 4 * 1024 * 1024;
+
+    // Avisos de registros inválidos que se muestran como máximo por archivo
+    private static final int MAX_AVISOS = 20;
+
+    // Textos de todas las frases en UTF-8, uno detrás de otro
+    private byte[] bytesTextos = new byte[0];
 
-    // Lista que almacena las emociones correspondientes a cada frase
-    private List<String> emociones;
+    // Posición (en bytesTextos) donde termina el texto de cada ejemplo
+    private int[] finesTexto = new int[0];
+
+    // Índice de la emoción de cada ejemplo
+    private byte[] etiquetas = new byte[0];
+
+    private int numEjemplos = 0;
+
+    // Corpus binario del que vienen los textos (null si se cargaron desde CSV)
+    private CorpusBinario corpus;
+
+    // Vistas como listas (los String se crean al pedirlos)
+    private final List<String> textos = new VistaTextos();
+    private final List<String> emociones = new VistaEmociones();
 
     // Mapeo de emociones a números (la red neuronal trabaja con números, no con palabras)
     private Map<String, Integer> emocionAIndice;
@@ -25,11 +69,9 @@ public class DataLoader {
     private Map<Integer, String> indiceAEmocion;
 
     /**
-      Constructor: inicializa las listas
+      Constructor: inicializa los mapeos de emociones
      */
     public DataLoader() {
-        this.textos = new ArrayList<>();
-        this.emociones = new ArrayList<>();
         this.emocionAIndice = new HashMap<>();
         this.indiceAEmocion = new HashMap<>();
 
@@ -48,69 +90,459 @@ public class DataLoader {
     }
 
     /**
-      Carga los datos desde un archivo CSV
+      Carga los datos desde un archivo CSV incluido en el proyecto
       @param nombreArchivo nombre del archivo dentro de resources/data/emotions/
       @return true si se cargó correctamente, false si hubo error
      */
     public boolean cargarDesdeArchivo(String nombreArchivo) {
-        try {
-            // Obtener el archivo desde resources
-            InputStream inputStream = getClass().getClassLoader()
-                    .getResourceAsStream("data/emotions/" + nombreArchivo);
+        // Obtener el archivo desde resources
+        InputStream inputStream = getClass().getClassLoader()
+                .getResourceAsStream("data/emotions/" + nombreArchivo);
 
-            if (inputStream == null) {
-                System.err.println("❌ No se encontró el archivo: " + nombreArchivo);
-                return false;
-            }
+        if (inputStream == null) {
+            System.err.println("❌ No se encontró el archivo: " + nombreArchivo);
+            return false;
+        }
 
-            // Leer el archivo línea por línea
-            BufferedReader reader = new BufferedReader(
-            new InputStreamReader(inputStream, StandardCharsets.UTF_8));
+        return cargar(inputStream, nombreArchivo);
+    }
 
-            String linea;
-            boolean primeraLinea = true;
-            int lineaNumero = 0;
+    /**
+      Carga los datos desde un archivo CSV del disco (si termina en .gz se descomprime)
+      @param ruta ruta del archivo
+      @return true si se cargó correctamente, false si hubo error
+     */
+    public boolean cargarDesdeRuta(String ruta) {
+        Path archivo = Paths.get(ruta);
+        if (!Files.isRegularFile(archivo)) {
+            System.err.println("❌ No se encontró el archivo: " + ruta);
+            return false;
+        }
 
-            while ((linea = reader.readLine()) != null) {
-                lineaNumero++;
+        try {
+            InputStream entrada = Files.newInputStream(archivo);
+            if (ruta.endsWith(".gz")) {
+                entrada = new GZIPInputStream(entrada, 1 << 16);
+            }
+            return cargar(entrada, ruta);
+        } catch (IOException e) {
+            System.err.println("❌ Error al abrir archivo: " + e.getMessage());
+            return false;
+        }
+    }
 
-                // Saltar la primera línea (encabezado: "texto,emocion")
-                if (primeraLinea) {
-                    primeraLinea = false;
-                    continue;
-                }
+    /**
+      Carga un corpus binario exportado con CorpusBinario.exportar
+      Solo se copian las etiquetas; los textos se leen del archivo mapeado al pedirlos
+      @param ruta ruta del archivo .bin
+      @return true si se cargó correctamente, false si hubo error
+     */
+    public boolean cargarDesdeCorpus(String ruta) {
+        if (numEjemplos > 0) {
+            System.err.println("❌ Un corpus binario solo se puede cargar en un DataLoader vacío");
+            return false;
+        }
 
-                // Dividir la línea por comas
-                String[] partes = linea.split(",", 2);
+        try {
+            CorpusBinario abierto = CorpusBinario.abrir(new File(ruta));
+            int n = abierto.getNumFrases();
+            byte[] etiquetasCorpus = new byte[n];
+            for (int i = 0; i < n; i++) {
+                etiquetasCorpus[i] = (byte) abierto.getEtiqueta(i);
+            }
 
-                if (partes.length != 2) {
-                    System.err.println("⚠️ Línea " + lineaNumero + " mal formateada: " + linea);
-                    continue;
-                }
+            this.corpus = abierto;
+            this.etiquetas = etiquetasCorpus;
+            this.numEjemplos = n;
+            return true;
+        } catch (IllegalArgumentException | UncheckedIOException e) {
+            System.err.println("❌ Error al abrir corpus: " + e.getMessage());
+            return false;
+        }
+    }
 
-                String texto = partes[0].trim();
-                String emocion = partes[1].trim().toLowerCase();
+    /**
+      Lee el CSV por bloques y los procesa en paralelo
+      La primera línea (encabezado "texto,emocion") se salta
+     */
+    private boolean cargar(InputStream entrada, String nombre) {
+        if (corpus != null) {
+            System.err.println("❌ Este DataLoader ya tiene un corpus binario cargado");
+            return false;
+        }
 
-                // Verificar que la emoción sea válida
-                if (!emocionAIndice.containsKey(emocion)) {
-                    System.err.println("⚠️ Emoción desconocida en línea " + lineaNumero + ": " + emocion);
+        int hilos = Runtime.getRuntime().availableProcessors();
+        ExecutorService ejecutor = Executors.newFixedThreadPool(hilos, tarea -> {
+            Thread hilo = new Thread(tarea, "cargador-csv");
+            hilo.setDaemon(true);
+            return hilo;
+        });
+
+        // Bloques enviados a procesar y todavía sin unir, en el orden del archivo;
+        // se unen apenas terminan, así en memoria hay a lo más 'maxPendientes' bloques
+        Deque<Future<Bloque>> pendientes = new ArrayDeque<>();
+        int maxPendientes = hilos * 2;
+        Resumen resumen = new Resumen();
+
+        try (InputStream in = entrada) {
+            byte[] resto = new byte[0];
+            boolean primerBloque = true;
+            boolean fin = false;
+            Escaneo escaneo = new Escaneo();
+
+            while (!fin) {
+                byte[] datos = Arrays.copyOf(resto, resto.length + TAMANO_BLOQUE);
+                int leidos = in.readNBytes(datos, resto.length, TAMANO_BLOQUE);
+                int total = resto.length + leidos;
+                fin = leidos < TAMANO_BLOQUE;
+
+                // Cortar después del último registro completo
+                int corte = fin ? total : escaneo.finUltimoRegistro(datos, total);
+                if (corte == 0) {
+                    // Un solo registro más grande que el bloque: leer más
+                    resto = Arrays.copyOf(datos, total);
                     continue;
                 }
+                escaneo.descartar(corte);
 
-                // Agregar a las listas
-                textos.add(texto);
-                emociones.add(emocion);
+                // Unir en orden los bloques ya procesados; si hay demasiados, esperar al más viejo
+                while (!pendientes.isEmpty()
+                        && (pendientes.size() >= maxPendientes || pendientes.peekFirst().isDone())) {
+                    unir(pendientes.removeFirst().get(), resumen);
+                }
+
+                boolean saltarEncabezado = primerBloque;
+                pendientes.addLast(ejecutor.submit(() -> new Bloque(datos, corte, saltarEncabezado)));
+
+                resto = Arrays.copyOfRange(datos, corte, total);
+                primerBloque = false;
             }
 
-            reader.close();
+            while (!pendientes.isEmpty()) {
+                unir(pendientes.removeFirst().get(), resumen);
+            }
 
-            System.out.println("✅ Cargados " + textos.size() + " ejemplos desde " + nombreArchivo);
+            if (resumen.malformados + resumen.desconocidas > 0) {
+                System.err.println("⚠️ Registros descartados: " + resumen.malformados + " mal formateados, "
+                        + resumen.desconocidas + " con emoción desconocida");
+            }
+            System.out.println("✅ Cargados " + resumen.cargados + " ejemplos desde " + nombre);
             return true;
 
         } catch (IOException e) {
             System.err.println("❌ Error al leer archivo: " + e.getMessage());
             e.printStackTrace();
             return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (ExecutionException e) {
+            System.err.println("❌ Error al procesar archivo: " + e.getCause().getMessage());
+            return false;
+        } finally {
+            ejecutor.shutdownNow();
+        }
+    }
+
+    /**
+      Busca dónde cortar los bloques leídos con las mismas reglas que leerRegistro:
+      una comilla solo abre un campo entre comillas al principio del campo, y
+      dentro de un campo sin comillas es un carácter más.
+      Recuerda hasta dónde revisó y en qué estado, así al leer más datos no se
+      vuelve a recorrer lo ya visto (ni el resto que pasa al bloque siguiente
+      ni un registro más grande que el bloque).
+      PuntuadorArchivos lo usa también para leer CSV por partes
+     */
+    static class Escaneo {
+        private int posicion;             // siguiente byte por revisar
+        private boolean entreComillas;
+        private boolean inicioCampo = true;
+
+        /**
+          @return posición justo después del último salto de línea fuera de comillas
+                  entre los bytes nuevos, o 0 si no hay ninguno
+         */
+        int finUltimoRegistro(byte[] datos, int total) {
+            int ultimo = 0;
+            int i = posicion;
+            for (; i < total; i++) {
+                byte b = datos[i];
+                if (entreComillas) {
+                    if (b != '"') {
+                        continue;
+                    }
+                    if (i + 1 == total) {
+                        break;  // todavía no se sabe si es "" o la comilla de cierre
+                    }
+                    if (datos[i + 1] == '"') {
+                        i++;
+                    } else {
+                        entreComillas = false;
+                    }
+                } else if (b == '"' && inicioCampo) {
+                    entreComillas = true;
+                    inicioCampo = false;
+                } else {
+                    if (b == '\n') {
+                        ultimo = i + 1;
+                    }
+                    inicioCampo = b == ',' || b == '\n';
+                }
+            }
+            posicion = i;
+            return ultimo;
+        }
+
+        /**
+          Los datos siguientes empiezan en 'corte' (el resto pasa al próximo bloque)
+         */
+        void descartar(int corte) {
+            posicion -= corte;
+        }
+    }
+
+    /**
+      Conteos de la carga de un archivo, sumados bloque por bloque
+     */
+    private static class Resumen {
+        int cargados;
+        int malformados;
+        int desconocidas;
+        int avisos;
+    }
+
+    /**
+      Agrega un bloque ya procesado y muestra sus avisos
+     */
+    private void unir(Bloque bloque, Resumen resumen) {
+        agregar(bloque);
+        resumen.cargados += bloque.n;
+        resumen.malformados += bloque.malformados;
+        resumen.desconocidas += bloque.desconocidas;
+
+        for (String aviso : bloque.avisos) {
+            if (resumen.avisos++ < MAX_AVISOS) {
+                System.err.println(aviso);
+            }
+        }
+    }
+
+    /**
+      Agrega los ejemplos de un bloque al final de los arreglos
+     */
+    private void agregar(Bloque bloque) {
+        int bytesActuales = numEjemplos == 0 ? 0 : finesTexto[numEjemplos - 1];
+        int bytesTotales;
+        try {
+            bytesTotales = Math.addExact(bytesActuales, bloque.bytesUsados);
+        } catch (ArithmeticException e) {
+            throw new IllegalStateException("El dataset supera 2 GB de texto");
+        }
+
+        int total = numEjemplos + bloque.n;
+        if (bytesTextos.length < bytesTotales) {
+            bytesTextos = Arrays.copyOf(bytesTextos, Math.max(bytesTotales, bytesTextos.length * 2));
+        }
+        if (finesTexto.length < total) {
+            int capacidad = Math.max(total, finesTexto.length * 2);
+            finesTexto = Arrays.copyOf(finesTexto, capacidad);
+            etiquetas = Arrays.copyOf(etiquetas, capacidad);
+        }
+
+        System.arraycopy(bloque.bytes, 0, bytesTextos, bytesActuales, bloque.bytesUsados);
+        System.arraycopy(bloque.etiquetas, 0, etiquetas, numEjemplos, bloque.n);
+        for (int i = 0; i < bloque.n; i++) {
+            finesTexto[numEjemplos + i] = bytesActuales + bloque.fines[i];
+        }
+        numEjemplos = total;
+    }
+
+    /**
+      Ejemplos de un bloque del archivo (cada registro se lee con RegistroCsv)
+      La emoción es el último campo; si el texto venía sin comillas y tenía comas,
+      los campos anteriores se vuelven a unir con comas
+     */
+    private class Bloque {
+        byte[] bytes = new byte[1024];
+        int bytesUsados = 0;
+        int[] fines = new int[64];
+        byte[] etiquetas = new byte[64];
+        int n = 0;
+
+        int malformados = 0;
+        int desconocidas = 0;
+        List<String> avisos = new ArrayList<>();
+
+        private final RegistroCsv registro = new RegistroCsv();
+
+        Bloque(byte[] datos, int hasta, boolean saltarEncabezado) {
+            int p = 0;
+            boolean saltar = saltarEncabezado;
+
+            while (p < hasta) {
+                p = registro.leer(datos, p, hasta);
+                if (saltar) {
+                    saltar = false;
+                    continue;
+                }
+                procesarRegistro();
+            }
+        }
+
+        private void procesarRegistro() {
+            int numCampos = registro.getNumCampos();
+            if (numCampos < 2) {
+                // Las líneas vacías se ignoran sin aviso
+                if (registro.estaVacio()) {
+                    return;
+                }
+                malformados++;
+                avisar("⚠️ Registro mal formateado: " + registro.getCampo(0));
+                return;
+            }
+
+            int inicioEmocion = registro.inicioCampo(numCampos - 1);
+            String emocion = registro.getCampo(numCampos - 1).trim().toLowerCase();
+            byte[] campos = registro.campos;
+
+            // Verificar que la emoción sea válida
+            Integer indice = emocionAIndice.get(emocion);
+            if (indice == null) {
+                desconocidas++;
+                avisar("⚠️ Emoción desconocida: " + emocion);
+                return;
+            }
+
+            // Texto: todos los campos menos el último, unidos con comas y sin espacios en los extremos
+            int inicio = 0;
+            int fin = inicioEmocion - 1;  // sin la coma entre el texto y la emoción
+            while (inicio < fin && (campos[inicio] & 0xFF) <= ' ') {
+                inicio++;
+            }
+            while (fin > inicio && (campos[fin - 1] & 0xFF) <= ' ') {
+                fin--;
+            }
+
+            if (n == fines.length) {
+                fines = Arrays.copyOf(fines, n * 2);
+                etiquetas = Arrays.copyOf(etiquetas, n * 2);
+            }
+            int largo = fin - inicio;
+            if (bytesUsados + largo > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytesUsados + largo, bytes.length * 2));
+            }
+            System.arraycopy(campos, inicio, bytes, bytesUsados, largo);
+            bytesUsados += largo;
+            fines[n] = bytesUsados;
+            etiquetas[n] = (byte) (int) indice;
+            n++;
+        }
+
+        private void avisar(String aviso) {
+            if (avisos.size() < MAX_AVISOS) {
+                avisos.add(aviso);
+            }
+        }
+    }
+
+    /**
+      Campos de un registro CSV (RFC 4180): campos separados por comas, campos
+      entre comillas pueden tener comas y saltos de línea, y "" dentro de comillas
+      es una comilla. Un \r antes del salto de línea no forma parte del registro.
+      Se reutiliza para leer todos los registros de un bloque; PuntuadorArchivos
+      lo usa también, así ambos leen los CSV con las mismas reglas
+     */
+    static class RegistroCsv {
+        // Campos del registro actual (sin comillas), uno detrás de otro
+        private byte[] campos = new byte[256];
+        private int usados = 0;
+        private int[] finesCampo = new int[8];
+        private int numCampos = 0;
+
+        /**
+          Lee un registro desde p y deja sus campos en 'campos'
+          @param hasta fin de los datos; debe ser el final de un registro
+          @return posición donde empieza el siguiente registro
+         */
+        int leer(byte[] datos, int p, int hasta) {
+            usados = 0;
+            numCampos = 0;
+
+            while (true) {
+                if (p < hasta && datos[p] == '"') {
+                    // Campo entre comillas
+                    p++;
+                    while (p < hasta) {
+                        byte b = datos[p];
+                        if (b == '"') {
+                            if (p + 1 < hasta && datos[p + 1] == '"') {
+                                agregarByte((byte) '"');
+                                p += 2;
+                                continue;
+                            }
+                            p++;
+                            break;
+                        }
+                        agregarByte(b);
+                        p++;
+                    }
+                }
+
+                // Campo sin comillas (o lo que quede después de la comilla de cierre)
+                int sinComillas = usados;
+                while (p < hasta && datos[p] != ',' && datos[p] != '\n') {
+                    agregarByte(datos[p++]);
+                }
+
+                if (p < hasta && datos[p] == ',') {
+                    terminarCampo();
+                    p++;
+                    continue;
+                }
+                if (usados > sinComillas && campos[usados - 1] == '\r') {
+                    usados--;  // fin de línea \r\n
+                }
+                terminarCampo();
+                return p + 1;  // salto de línea o fin del bloque
+            }
+        }
+
+        private void agregarByte(byte b) {
+            if (usados == campos.length) {
+                campos = Arrays.copyOf(campos, usados * 2);
+            }
+            campos[usados++] = b;
+        }
+
+        /**
+          Cierra el campo actual; entre campos se deja una coma para poder unirlos
+         */
+        private void terminarCampo() {
+            if (numCampos == finesCampo.length) {
+                finesCampo = Arrays.copyOf(finesCampo, numCampos * 2);
+            }
+            finesCampo[numCampos++] = usados;
+            agregarByte((byte) ',');
+        }
+
+        int inicioCampo(int campo) {
+            return campo == 0 ? 0 : finesCampo[campo - 1] + 1;
+        }
+
+        int getNumCampos() {
+            return numCampos;
+        }
+
+        String getCampo(int campo) {
+            int inicio = inicioCampo(campo);
+            return new String(campos, inicio, finesCampo[campo] - inicio, StandardCharsets.UTF_8);
+        }
+
+        /**
+          true si el registro es una línea vacía (o solo con espacios)
+         */
+        boolean estaVacio() {
+            return numCampos == 1 && getCampo(0).isBlank();
         }
     }
 
@@ -118,21 +550,38 @@ public class DataLoader {
       Obtiene el número total de ejemplos cargados
      */
     public int getNumeroEjemplos() {
-        return textos.size();
+        return numEjemplos;
     }
 
     /**
       Obtiene un texto específico por su índice
      */
     public String getTexto(int indice) {
-        return textos.get(indice);
+        if (indice < 0 || indice >= numEjemplos) {
+            throw new IndexOutOfBoundsException("Índice " + indice + " fuera de rango (" + numEjemplos + ")");
+        }
+        if (corpus != null) {
+            return corpus.getTextoLimpio(indice);
+        }
+        int inicio = indice == 0 ? 0 : finesTexto[indice - 1];
+        return new String(bytesTextos, inicio, finesTexto[indice] - inicio, StandardCharsets.UTF_8);
     }
 
     /**
       Obtiene una emoción específica por su índice
      */
     public String getEmocion(int indice) {
-        return emociones.get(indice);
+        return indiceAEmocion.get(getEtiqueta(indice));
+    }
+
+    /**
+      Obtiene el índice numérico de la emoción de un ejemplo
+     */
+    public int getEtiqueta(int indice) {
+        if (indice < 0 || indice >= numEjemplos) {
+            throw new IndexOutOfBoundsException("Índice " + indice + " fuera de rango (" + numEjemplos + ")");
+        }
+        return etiquetas[indice];
     }
 
     /**
@@ -161,23 +610,23 @@ public class DataLoader {
      */
     public void mostrarEstadisticas() {
         System.out.println("\n=== ESTADÍSTICAS DEL DATASET ===");
-        System.out.println("Total de ejemplos: " + textos.size());
+        System.out.println("Total de ejemplos: " + numEjemplos);
         System.out.println("Número de clases: " + emocionAIndice.size());
 
         // Contar cuántos ejemplos hay de cada emoción
-        Map<String, Integer> conteo = new HashMap<>();
-        for (String emocion : emociones) {
-            conteo.put(emocion, conteo.getOrDefault(emocion, 0) + 1);
+        int[] conteo = new int[emocionAIndice.size()];
+        for (int i = 0; i < numEjemplos; i++) {
+            conteo[etiquetas[i]]++;
         }
 
         System.out.println("\nDistribución por emoción:");
-        for (Map.Entry<String, Integer> entry : conteo.entrySet()) {
-            System.out.println("  " + entry.getKey() + ": " + entry.getValue() + " ejemplos");
+        for (int i = 0; i < conteo.length; i++) {
+            System.out.println("  " + indiceAEmocion.get(i) + ": " + conteo[i] + " ejemplos");
         }
         System.out.println("================================\n");
     }
 
-    // Getters para acceder a las listas completas
+    // Getters para acceder a las listas completas (solo lectura)
     public List<String> getTextos() {
         return textos;
     }
@@ -186,7 +635,38 @@ public class DataLoader {
         return emociones;
     }
 
+    /**
+      Corpus binario del que vienen los datos (null si se cargaron desde CSV)
+     */
+    public CorpusBinario getCorpus() {
+        return corpus;
+    }
+
     public Map<String, Integer> getEmocionAIndice() {
         return emocionAIndice;
     }
-}
\ No newline at end of file
+
+    private class VistaTextos extends AbstractList<String> implements RandomAccess {
+        @Override
+        public String get(int indice) {
+            return getTexto(indice);
+        }
+
+        @Override
+        public int size() {
+            return numEjemplos;
+        }
+    }
+
+    private class VistaEmociones extends AbstractList<String> implements RandomAccess {
+        @Override
+        public String get(int indice) {
+            return getEmocion(indice);
+        }
+
+        @Override
+        public int size() {
+            return numEjemplos;
+        }
+    }
+}
@@ -0,0 +1,282 @@
+package com.escuela;
+
+import org.nd4j.linalg.api.buffer.DataType;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.dataset.DataSet;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+  Conjunto de entrenamiento ya vectorizado
+  Cada frase se convierte a vectores una sola vez y se guarda en un arreglo float[]
+  con el mismo orden que usa ND4J ([vectorSize, maxSequenceLength] por frase).
+  Los batches de cada epoch se arman copiando las frases elegidas (System.arraycopy),
+  sin volver a tokenizar ni a buscar palabras en Word2Vec.
+
+  Cada batch usa solo los pasos de tiempo de su frase más larga y lleva máscaras
+  de features y labels, así el LSTM no entrena con el relleno de ceros
+
+  Si los datos vienen de un corpus binario se vectoriza directo desde los ids
+  de los tokens, sin limpiar ni tokenizar el texto
+
+  Si los datos no caben en memoria se guardan en un archivo mapeado (FileChannel.map)
+  y el sistema operativo decide qué partes mantener en RAM
+ */
+public class DatosVectorizados implements AutoCloseable {
+
+    // Tamaño máximo de cada región mapeada (un mapeo no puede pasar de 2 GB)
+    private static final long BYTES_POR_SEGMENTO = 1L << 30;
+
+    private final int numEjemplos;
+    private final int numClases;
+    private final int vectorSize;
+    private final int maxSequenceLength;
+    private final int tamanoEjemplo;  // vectorSize * maxSequenceLength
+    private final int[] clases;       // índice de la emoción de cada ejemplo
+    private final int[] longitudes;   // pasos de tiempo con palabras de cada ejemplo
+    private final DataType tipoDatos; // tipo de los tensores de cada batch (el del vectorizador)
+
+    // Solo uno de los dos se usa: memoria o archivo mapeado
+    private final float[] memoria;
+    private final FloatBuffer[] segmentos;
+    private final int ejemplosPorSegmento;
+    private final File archivo;
+    private final boolean archivoTemporal; // true = lo creó esta clase y se borra al cerrar
+
+    private DatosVectorizados(DataLoader datos, Word2VecVectorizer vectorizer, File archivo, boolean archivoTemporal) {
+        this.numEjemplos = datos.getNumeroEjemplos();
+        this.numClases = datos.getNumeroClases();
+        this.vectorSize = vectorizer.getVectorSize();
+        this.maxSequenceLength = vectorizer.getMaxSequenceLength();
+        this.tamanoEjemplo = vectorSize * maxSequenceLength;
+        this.tipoDatos = vectorizer.getTipoDatos();
+        this.archivo = archivo;
+        this.archivoTemporal = archivoTemporal;
+
+        this.clases = new int[numEjemplos];
+        for (int i = 0; i < numEjemplos; i++) {
+            clases[i] = datos.getEtiqueta(i);
+        }
+
+        this.longitudes = new int[numEjemplos];
+        Vectorizacion vectorizacion = new Vectorizacion(datos, vectorizer);
+        if (archivo == null) {
+            this.memoria = new float[Math.multiplyExact(numEjemplos, tamanoEjemplo)];
+            this.segmentos = null;
+            this.ejemplosPorSegmento = numEjemplos;
+
+            for (int i = 0; i < numEjemplos; i++) {
+                longitudes[i] = vectorizacion.llenar(i, memoria, i * tamanoEjemplo);
+            }
+        } else {
+            this.memoria = null;
+            this.ejemplosPorSegmento = (int) Math.max(1, BYTES_POR_SEGMENTO / (4L * tamanoEjemplo));
+            this.segmentos = mapearArchivo(archivo);
+
+            float[] frase = new float[tamanoEjemplo];
+            for (int i = 0; i < numEjemplos; i++) {
+                Arrays.fill(frase, 0f);
+                longitudes[i] = vectorizacion.llenar(i, frase, 0);
+                segmentos[i / ejemplosPorSegmento].put((i % ejemplosPorSegmento) * tamanoEjemplo, frase);
+            }
+        }
+    }
+
+    /**
+      Vectoriza una frase desde el texto o, si los datos vienen de un corpus
+      binario, desde los ids de sus tokens (sin limpiar ni tokenizar)
+     */
+    private static class Vectorizacion {
+        private final DataLoader datos;
+        private final Word2VecVectorizer vectorizer;
+        private final CorpusBinario corpus;
+        private final int[] mapa;
+
+        Vectorizacion(DataLoader datos, Word2VecVectorizer vectorizer) {
+            this.datos = datos;
+            this.vectorizer = vectorizer;
+            this.corpus = datos.getCorpus();
+            this.mapa = corpus == null ? null : vectorizer.mapaCorpus(corpus);
+        }
+
+        /**
+          @return pasos de tiempo con palabras de la frase
+         */
+        int llenar(int ejemplo, float[] destino, int offset) {
+            if (corpus != null) {
+                return vectorizer.llenarFrase(corpus, ejemplo, mapa, destino, offset,
+                        vectorizer.getMaxSequenceLength());
+            }
+            List<String> tokens = TextPreprocessor.tokenizar(datos.getTexto(ejemplo));
+            vectorizer.llenarFrase(tokens, destino, offset);
+            return vectorizer.longitudFrase(tokens);
+        }
+    }
+
+    /**
+      Vectoriza todo el conjunto; si no cabe en una cuarta parte de la memoria
+      de la JVM se guarda en un archivo temporal
+     */
+    public static DatosVectorizados crear(DataLoader datos, Word2VecVectorizer vectorizer) {
+        long bytes = 4L * datos.getNumeroEjemplos()
+                * vectorizer.getVectorSize() * vectorizer.getMaxSequenceLength();
+
+        if (bytes <= Runtime.getRuntime().maxMemory() / 4 && bytes / 4 < Integer.MAX_VALUE) {
+            return new DatosVectorizados(datos, vectorizer, null, false);
+        }
+
+        try {
+            File temporal = File.createTempFile("datos_vectorizados", ".bin");
+            temporal.deleteOnExit();
+            return new DatosVectorizados(datos, vectorizer, temporal, true);
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo crear el archivo temporal", e);
+        }
+    }
+
+    /**
+      Vectoriza todo el conjunto
+      @param archivo archivo donde guardar los vectores (null = en memoria);
+             es del que llama, así que close no lo borra
+     */
+    public static DatosVectorizados crear(DataLoader datos, Word2VecVectorizer vectorizer, File archivo) {
+        return new DatosVectorizados(datos, vectorizer, archivo, false);
+    }
+
+    /**
+      Crea el archivo con el tamaño necesario y lo mapea por segmentos
+     */
+    private FloatBuffer[] mapearArchivo(File archivo) {
+        int numSegmentos = (numEjemplos + ejemplosPorSegmento - 1) / ejemplosPorSegmento;
+        FloatBuffer[] mapeos = new FloatBuffer[numSegmentos];
+
+        try (RandomAccessFile raf = new RandomAccessFile(archivo, "rw");
+             FileChannel canal = raf.getChannel()) {
+            raf.setLength(4L * numEjemplos * tamanoEjemplo);
+
+            for (int s = 0; s < numSegmentos; s++) {
+                long inicio = 4L * s * ejemplosPorSegmento * tamanoEjemplo;
+                int ejemplos = Math.min(ejemplosPorSegmento, numEjemplos - s * ejemplosPorSegmento);
+                mapeos[s] = canal.map(FileChannel.MapMode.READ_WRITE, inicio, 4L * ejemplos * tamanoEjemplo)
+                        .order(ByteOrder.nativeOrder())
+                        .asFloatBuffer();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo mapear " + archivo, e);
+        }
+        return mapeos;
+    }
+
+    /**
+      Arma un batch con los ejemplos indices[desde..hasta)
+      El batch tiene tantos pasos de tiempo como la frase más larga que contiene.
+      Las etiquetas van en one-hot solo en los pasos con palabras:
+      "joy" (índice 0) → [1, 0, 0, 0, 0]
+      @return DataSet con features [n, vectorSize, pasos], labels [n, numClases, pasos]
+              y máscaras [n, pasos] (1 = palabra, 0 = relleno)
+     */
+    public DataSet lote(int[] indices, int desde, int hasta) {
+        int n = hasta - desde;
+        int pasos = 1;
+        for (int b = 0; b < n; b++) {
+            pasos = Math.max(pasos, longitudes[indices[desde + b]]);
+        }
+
+        float[] features = new float[n * vectorSize * pasos];
+        float[] labels = new float[n * numClases * pasos];
+        float[] mascara = new float[n * pasos];
+        float[] frase = memoria != null ? null : new float[tamanoEjemplo];
+
+        for (int b = 0; b < n; b++) {
+            int ejemplo = indices[desde + b];
+            copiarEjemplo(ejemplo, features, b * vectorSize * pasos, pasos, frase);
+
+            int longitud = longitudes[ejemplo];
+            int inicioClase = (b * numClases + clases[ejemplo]) * pasos;
+            Arrays.fill(labels, inicioClase, inicioClase + longitud, 1f);
+            Arrays.fill(mascara, b * pasos, b * pasos + longitud, 1f);
+        }
+
+        INDArray x = Word2VecVectorizer.crearTensor(features, tipoDatos, n, vectorSize, pasos);
+        INDArray y = Word2VecVectorizer.crearTensor(labels, tipoDatos, n, numClases, pasos);
+        INDArray m = Word2VecVectorizer.crearTensor(mascara, tipoDatos, n, pasos);
+        return new DataSet(x, y, m, m.dup());
+    }
+
+    /**
+      Copia los primeros 'pasos' pasos de tiempo de un ejemplo
+      En el arreglo guardado cada dimensión ocupa maxSequenceLength posiciones;
+      en el batch ocupa solo 'pasos'
+      @param frase arreglo temporal para leer del archivo (null si está en memoria)
+     */
+    private void copiarEjemplo(int ejemplo, float[] destino, int offset, int pasos, float[] frase) {
+        float[] origen = memoria;
+        int base = ejemplo * tamanoEjemplo;
+
+        if (memoria == null) {
+            int posicion = (ejemplo % ejemplosPorSegmento) * tamanoEjemplo;
+            segmentos[ejemplo / ejemplosPorSegmento].get(posicion, frase, 0, tamanoEjemplo);
+            origen = frase;
+            base = 0;
+        }
+
+        if (pasos == maxSequenceLength) {
+            System.arraycopy(origen, base, destino, offset, tamanoEjemplo);
+            return;
+        }
+        for (int j = 0; j < vectorSize; j++) {
+            System.arraycopy(origen, base + j * maxSequenceLength, destino, offset + j * pasos, pasos);
+        }
+    }
+
+    /**
+      Borra el archivo temporal en disco (si se creó uno)
+     */
+    @Override
+    public void close() {
+        if (archivoTemporal) {
+            archivo.delete();
+        }
+    }
+
+    // Getters
+    public int getNumEjemplos() {
+        return numEjemplos;
+    }
+
+    public int getVectorSize() {
+        return vectorSize;
+    }
+
+    public int getMaxSequenceLength() {
+        return maxSequenceLength;
+    }
+
+    public int getNumClases() {
+        return numClases;
+    }
+
+    public int getClase(int ejemplo) {
+        return clases[ejemplo];
+    }
+
+    public int getLongitud(int ejemplo) {
+        return longitudes[ejemplo];
+    }
+
+    public boolean estaEnDisco() {
+        return memoria == null;
+    }
+
+    public long getBytes() {
+        return 4L * numEjemplos * tamanoEjemplo;
+    }
+}
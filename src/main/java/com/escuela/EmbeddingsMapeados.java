@@ -0,0 +1,337 @@
+package com.escuela;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+
+/**
+  Vectores de palabras en un archivo mapeado en memoria (FileChannel.map)
+  Los vectores no se copian al heap: el sistema operativo mantiene en RAM las
+  páginas que se usan, y todas las réplicas del predictor y todos los procesos
+  que abren el mismo archivo comparten esas páginas.
+
+  Los vectores pueden guardarse en float32 o cuantizados a int8: cada vector
+  guarda una escala (máximo valor absoluto / 127) y cada dimensión un byte, así
+  ocupan 4 veces menos y al leerlos se multiplica el byte por la escala.
+
+  El índice de vocabulario también está en el archivo (la misma tabla hash de
+  direccionamiento abierto que TablaEmbeddings), así no hace falta tener las
+  palabras como String en el heap para buscarlas
+ */
+public class EmbeddingsMapeados implements AlmacenEmbeddings {
+
+    private static final int MAGICO = 0x45454D42;  // "EEMB"
+    private static final int VERSION = 1;
+    private static final int TAMANO_ENCABEZADO = 64;
+
+    private static final int TIPO_FLOAT32 = 0;
+    private static final int TIPO_INT8 = 1;
+
+    // Tamaño máximo de cada región mapeada de vectores (un mapeo no puede pasar de 2 GB)
+    private static final long BYTES_POR_SEGMENTO = 1L << 30;
+
+    private final boolean cuantizado;
+    private final int numPalabras;
+    private final int vectorSize;
+    private final int mascara;
+    private final long bytesArchivo;
+
+    private final IntBuffer ranuras;       // índice + 1 de la palabra en cada ranura, 0 = vacía
+    private final IntBuffer hashes;        // hash de cada palabra
+    private final IntBuffer finesPalabras; // fin de cada palabra en bytesPalabras
+    private final ByteBuffer bytesPalabras;
+    private final FloatBuffer escalas;     // solo int8
+    private final ByteBuffer[] segmentos;  // vectores
+    private final int palabrasPorSegmento;
+
+    private EmbeddingsMapeados(File archivo) {
+        try (RandomAccessFile raf = new RandomAccessFile(archivo, "r");
+             FileChannel canal = raf.getChannel()) {
+            this.bytesArchivo = canal.size();
+
+            ByteBuffer encabezado = mapear(canal, 0, TAMANO_ENCABEZADO);
+            if (encabezado.getInt() != MAGICO) {
+                throw new IllegalArgumentException(archivo + " no es un archivo de embeddings");
+            }
+            int version = encabezado.getInt();
+            if (version != VERSION) {
+                throw new IllegalArgumentException("Versión de embeddings no soportada: " + version);
+            }
+            this.cuantizado = encabezado.getInt() == TIPO_INT8;
+            this.numPalabras = encabezado.getInt();
+            this.vectorSize = encabezado.getInt();
+            int capacidad = encabezado.getInt();
+            int totalBytesPalabras = encabezado.getInt();
+            this.mascara = capacidad - 1;
+
+            long posicion = TAMANO_ENCABEZADO;
+            this.ranuras = mapear(canal, posicion, 4L * capacidad).asIntBuffer();
+            posicion += 4L * capacidad;
+            this.hashes = mapear(canal, posicion, 4L * numPalabras).asIntBuffer();
+            posicion += 4L * numPalabras;
+            this.finesPalabras = mapear(canal, posicion, 4L * numPalabras).asIntBuffer();
+            posicion += 4L * numPalabras;
+            this.bytesPalabras = mapear(canal, posicion, totalBytesPalabras);
+            posicion += alinear(totalBytesPalabras);
+
+            if (cuantizado) {
+                this.escalas = mapear(canal, posicion, 4L * numPalabras).asFloatBuffer();
+                posicion += 4L * numPalabras;
+            } else {
+                this.escalas = null;
+            }
+
+            int bytesPorVector = vectorSize * (cuantizado ? 1 : 4);
+            this.palabrasPorSegmento = (int) Math.max(1, BYTES_POR_SEGMENTO / bytesPorVector);
+            int numSegmentos = (numPalabras + palabrasPorSegmento - 1) / palabrasPorSegmento;
+            this.segmentos = new ByteBuffer[numSegmentos];
+            for (int s = 0; s < numSegmentos; s++) {
+                int palabras = Math.min(palabrasPorSegmento, numPalabras - s * palabrasPorSegmento);
+                segmentos[s] = mapear(canal, posicion, (long) palabras * bytesPorVector);
+                posicion += (long) palabras * bytesPorVector;
+            }
+
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo abrir " + archivo, e);
+        }
+    }
+
+    private static ByteBuffer mapear(FileChannel canal, long posicion, long bytes) throws IOException {
+        return canal.map(FileChannel.MapMode.READ_ONLY, posicion, bytes).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+      Abre un archivo de embeddings (solo lectura)
+     */
+    public static EmbeddingsMapeados abrir(File archivo) {
+        EmbeddingsMapeados embeddings = new EmbeddingsMapeados(archivo);
+        System.out.println("✅ Embeddings mapeados desde: " + archivo + " (" + embeddings.numPalabras
+                + " palabras, " + (embeddings.cuantizado ? "int8" : "float32") + ")");
+        return embeddings;
+    }
+
+    /**
+      Escribe los vectores de otro almacén en un archivo
+      Se escribe en un archivo temporal y luego se renombra: el archivo anterior
+      puede estar mapeado por otras réplicas o procesos, y truncarlo haría que
+      leer una de sus páginas termine la JVM (SIGBUS)
+      @param origen vectores a guardar (por ejemplo la tabla de Word2Vec)
+      @param archivo archivo de salida
+      @param cuantizar true = int8 con una escala por vector, false = float32
+     */
+    public static void exportar(AlmacenEmbeddings origen, File archivo, boolean cuantizar) {
+        int numPalabras = origen.getNumPalabras();
+        int vectorSize = origen.getVectorSize();
+        int capacidad = Integer.highestOneBit(Math.max(2, numPalabras) * 2 - 1) << 1;
+        int mascara = capacidad - 1;
+
+        // Índice: mismo hash y mismo sondeo lineal que TablaEmbeddings
+        int[] ranuras = new int[capacidad];
+        int[] hashes = new int[numPalabras];
+        int[] finesPalabras = new int[numPalabras];
+        byte[][] palabras = new byte[numPalabras][];
+        int totalBytesPalabras = 0;
+
+        for (int i = 0; i < numPalabras; i++) {
+            String palabra = origen.getPalabra(i);
+            int hash = TablaEmbeddings.mezclar(palabra.hashCode());
+            hashes[i] = hash;
+
+            int ranura = hash & mascara;
+            while (ranuras[ranura] != 0) {
+                ranura = (ranura + 1) & mascara;
+            }
+            ranuras[ranura] = i + 1;
+
+            palabras[i] = palabra.getBytes(StandardCharsets.UTF_8);
+            totalBytesPalabras = Math.addExact(totalBytesPalabras, palabras[i].length);
+            finesPalabras[i] = totalBytesPalabras;
+        }
+
+        File temporal = new File(archivo.getAbsoluteFile().getParentFile(), archivo.getName() + ".tmp");
+        try (DataOutputStream salida = new DataOutputStream(
+                new BufferedOutputStream(new FileOutputStream(temporal), 1 << 16))) {
+
+            ByteBuffer encabezado = ByteBuffer.allocate(TAMANO_ENCABEZADO).order(ByteOrder.LITTLE_ENDIAN);
+            encabezado.putInt(MAGICO).putInt(VERSION).putInt(cuantizar ? TIPO_INT8 : TIPO_FLOAT32)
+                    .putInt(numPalabras).putInt(vectorSize).putInt(capacidad).putInt(totalBytesPalabras);
+            salida.write(encabezado.array());
+
+            escribirEnteros(salida, ranuras);
+            escribirEnteros(salida, hashes);
+            escribirEnteros(salida, finesPalabras);
+            for (byte[] palabra : palabras) {
+                salida.write(palabra);
+            }
+            salida.write(new byte[(int) (alinear(totalBytesPalabras) - totalBytesPalabras)]);
+
+            float[] vector = new float[vectorSize];
+            if (cuantizar) {
+                // Escalas primero, después los bytes de todos los vectores
+                float[] escalas = new float[numPalabras];
+                for (int i = 0; i < numPalabras; i++) {
+                    origen.copiarVector(i, vector, 0, 1);
+                    float maximo = 0f;
+                    for (float valor : vector) {
+                        maximo = Math.max(maximo, Math.abs(valor));
+                    }
+                    escalas[i] = maximo / 127f;
+                }
+                ByteBuffer bytes = ByteBuffer.allocate(4 * numPalabras).order(ByteOrder.LITTLE_ENDIAN);
+                bytes.asFloatBuffer().put(escalas);
+                salida.write(bytes.array());
+
+                byte[] cuantizado = new byte[vectorSize];
+                for (int i = 0; i < numPalabras; i++) {
+                    origen.copiarVector(i, vector, 0, 1);
+                    for (int j = 0; j < vectorSize; j++) {
+                        cuantizado[j] = escalas[i] == 0f ? 0 : (byte) Math.round(vector[j] / escalas[i]);
+                    }
+                    salida.write(cuantizado);
+                }
+            } else {
+                ByteBuffer bytes = ByteBuffer.allocate(4 * vectorSize).order(ByteOrder.LITTLE_ENDIAN);
+                for (int i = 0; i < numPalabras; i++) {
+                    origen.copiarVector(i, vector, 0, 1);
+                    bytes.clear();
+                    bytes.asFloatBuffer().put(vector);
+                    salida.write(bytes.array());
+                }
+            }
+
+        } catch (IOException e) {
+            temporal.delete();
+            throw new UncheckedIOException("No se pudo escribir " + archivo, e);
+        }
+
+        try {
+            Files.move(temporal.toPath(), archivo.toPath(),
+                    StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            temporal.delete();
+            throw new UncheckedIOException("No se pudo escribir " + archivo, e);
+        }
+
+        System.out.println("✅ Embeddings guardados en: " + archivo + " (" + numPalabras + " palabras, "
+                + (cuantizar ? "int8" : "float32") + ", " + archivo.length() / 1024 + " KB)");
+    }
+
+    private static void escribirEnteros(OutputStream salida, int[] valores) throws IOException {
+        ByteBuffer bytes = ByteBuffer.allocate(4 * valores.length).order(ByteOrder.LITTLE_ENDIAN);
+        bytes.asIntBuffer().put(valores);
+        salida.write(bytes.array());
+    }
+
+    /**
+      Redondea al siguiente múltiplo de 4 (las secciones siguientes son de 4 bytes)
+     */
+    private static long alinear(long bytes) {
+        return (bytes + 3) & ~3L;
+    }
+
+    @Override
+    public int indice(String palabra) {
+        int hash = TablaEmbeddings.mezclar(palabra.hashCode());
+        int ranura = hash & mascara;
+        byte[] buscada = null;
+
+        while (true) {
+            int valor = ranuras.get(ranura);
+            if (valor == 0) {
+                return -1;
+            }
+
+            int i = valor - 1;
+            if (hashes.get(i) == hash) {
+                if (buscada == null) {
+                    buscada = palabra.getBytes(StandardCharsets.UTF_8);
+                }
+                if (mismosBytes(i, buscada)) {
+                    return i;
+                }
+            }
+            ranura = (ranura + 1) & mascara;
+        }
+    }
+
+    /**
+      Compara la palabra i del archivo con los bytes UTF-8 de otra
+     */
+    private boolean mismosBytes(int i, byte[] otra) {
+        int inicio = i == 0 ? 0 : finesPalabras.get(i - 1);
+        if (finesPalabras.get(i) - inicio != otra.length) {
+            return false;
+        }
+        for (int k = 0; k < otra.length; k++) {
+            if (bytesPalabras.get(inicio + k) != otra[k]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void copiarVector(int indice, float[] destino, int offset, int paso) {
+        ByteBuffer segmento = segmentos[indice / palabrasPorSegmento];
+        int posicion = indice % palabrasPorSegmento;
+
+        // Solo lecturas absolutas: el mismo buffer se comparte entre hilos
+        if (cuantizado) {
+            float escala = escalas.get(indice);
+            int base = posicion * vectorSize;
+            for (int j = 0; j < vectorSize; j++) {
+                destino[offset + j * paso] = segmento.get(base + j) * escala;
+            }
+        } else {
+            int base = posicion * vectorSize * 4;
+            for (int j = 0; j < vectorSize; j++) {
+                destino[offset + j * paso] = segmento.getFloat(base + 4 * j);
+            }
+        }
+    }
+
+    @Override
+    public String getPalabra(int indice) {
+        int inicio = indice == 0 ? 0 : finesPalabras.get(indice - 1);
+        byte[] bytes = new byte[finesPalabras.get(indice) - inicio];
+        for (int k = 0; k < bytes.length; k++) {
+            bytes[k] = bytesPalabras.get(inicio + k);
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    // Getters
+    @Override
+    public int getNumPalabras() {
+        return numPalabras;
+    }
+
+    @Override
+    public int getVectorSize() {
+        return vectorSize;
+    }
+
+    public boolean estaCuantizado() {
+        return cuantizado;
+    }
+
+    /**
+      Tamaño del archivo mapeado (memoria fuera del heap, compartida entre procesos)
+     */
+    public long getBytesArchivo() {
+        return bytesArchivo;
+    }
+}
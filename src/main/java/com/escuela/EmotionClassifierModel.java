@@ -7,21 +7,37 @@ import org.deeplearning4j.nn.conf.layers.RnnOutputLayer;
 import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
 import org.deeplearning4j.nn.weights.WeightInit;
 import org.deeplearning4j.optimize.listeners.ScoreIterationListener;
+import org.deeplearning4j.util.ModelSerializer;
 import org.nd4j.linalg.activations.Activation;
+import org.nd4j.linalg.api.buffer.DataType;
 import org.nd4j.linalg.learning.config.Adam;
 import org.nd4j.linalg.lossfunctions.LossFunctions;
 
+import java.io.BufferedOutputStream;
 import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Enumeration;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
 
 /**
   Clase que define y configura la red neuronal LSTM para clasificación de emociones
  */
 public class EmotionClassifierModel {
 
+    // Clave con la que se guarda maxSequenceLength dentro del zip del modelo
+    private static final String CLAVE_LONGITUD = "maxSequenceLength";
+
     private MultiLayerNetwork model;
     private int inputSize;      // Tamaño del vector de entrada (dimensiones de Word2Vec)
     private int numClasses;     // Número de emociones (5 en este caso)
+    private DataType tipoDatos = DataType.FLOAT;  // Precisión de pesos y activaciones
 
     /**
       Constructor
@@ -40,10 +56,12 @@ public class EmotionClassifierModel {
         System.out.println("\n=== CONSTRUYENDO MODELO LSTM ===");
         System.out.println("Tamaño de entrada: " + inputSize);
         System.out.println("Número de clases: " + numClasses);
+        System.out.println("Tipo de datos: " + tipoDatos);
 
         // Configuración de la red neuronal
         MultiLayerConfiguration conf = new NeuralNetConfiguration.Builder()
                 .seed(123)
+                .dataType(tipoDatos)                // FLOAT (32 bits) o FLOAT16 (16 bits)
 
                 .updater(new Adam(0.01)) // Optimizador Adam: algoritmo inteligente para ajustar pesos
                                                     // learningRate = qué tan rápido aprende (0.01 es un buen valor)
@@ -89,6 +107,39 @@ public class EmotionClassifierModel {
         System.out.println(model.summary());
     }
 
+    /**
+      Cambia la precisión de la red que se construye (por defecto FLOAT)
+      FLOAT16 ocupa la mitad de memoria; para entrenar conviene FLOAT
+     */
+    public void setTipoDatos(DataType tipoDatos) {
+        this.tipoDatos = comprobarTipoDatos(tipoDatos);
+    }
+
+    public DataType getTipoDatos() {
+        return tipoDatos;
+    }
+
+    /**
+      Comprueba que el tipo de datos sea uno de los que soporta el proyecto
+      @return el tipo normalizado (HALF pasa a FLOAT16)
+      @throws IllegalArgumentException si no es FLOAT ni FLOAT16
+     */
+    static DataType comprobarTipoDatos(DataType tipoDatos) {
+        tipoDatos = normalizarTipoDatos(tipoDatos);
+        if (tipoDatos != DataType.FLOAT && tipoDatos != DataType.FLOAT16) {
+            throw new IllegalArgumentException("Tipo de datos no soportado: " + tipoDatos + " (usa FLOAT o FLOAT16)");
+        }
+        return tipoDatos;
+    }
+
+    /**
+      HALF es el nombre obsoleto de FLOAT16: ND4J los trata igual (mismo código
+      nativo) y los arreglos y modelos de 16 bits todavía informan HALF
+     */
+    static DataType normalizarTipoDatos(DataType tipoDatos) {
+        return tipoDatos.toInt() == DataType.FLOAT16.toInt() ? DataType.FLOAT16 : tipoDatos;
+    }
+
     /**
       Obtiene el modelo (para entrenamiento y predicción)
      */
@@ -110,17 +161,82 @@ public class EmotionClassifierModel {
         }
     }
 
+    /**
+      Guarda el modelo junto con la longitud máxima de frase usada al entrenar,
+      que EmotionPredictor.cargarModelo necesita para vectorizar igual
+     */
+    public void guardar(String rutaArchivo, int maxSequenceLength) {
+        guardar(rutaArchivo);
+        guardarMaxSequenceLength(new File(rutaArchivo), maxSequenceLength);
+    }
+
+    /**
+      Agrega maxSequenceLength a un zip de modelo ya guardado; si ya tenía uno, lo reemplaza
+     */
+    public static void guardarMaxSequenceLength(File archivo, int maxSequenceLength) {
+        if (ModelSerializer.listObjectsInFile(archivo).contains(CLAVE_LONGITUD)) {
+            quitarEntrada(archivo, "objects/" + CLAVE_LONGITUD);
+        }
+        ModelSerializer.addObjectToFile(archivo, CLAVE_LONGITUD, maxSequenceLength);
+    }
+
+    /**
+      Reescribe el zip sin una entrada (addObjectToFile falla si el objeto ya
+      existe). Se escribe en un archivo temporal y luego se renombra
+     */
+    private static void quitarEntrada(File archivo, String nombre) {
+        File temporal = new File(archivo.getAbsoluteFile().getParentFile(), archivo.getName() + ".tmp");
+        try {
+            try (ZipFile zip = new ZipFile(archivo);
+                 ZipOutputStream salida = new ZipOutputStream(
+                         new BufferedOutputStream(new FileOutputStream(temporal)))) {
+                Enumeration<? extends ZipEntry> entradas = zip.entries();
+                while (entradas.hasMoreElements()) {
+                    ZipEntry entrada = entradas.nextElement();
+                    if (entrada.getName().equals(nombre)) {
+                        continue;
+                    }
+                    salida.putNextEntry(new ZipEntry(entrada.getName()));
+                    try (InputStream datos = zip.getInputStream(entrada)) {
+                        datos.transferTo(salida);
+                    }
+                    salida.closeEntry();
+                }
+            }
+            Files.move(temporal.toPath(), archivo.toPath(),
+                    StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            temporal.delete();
+            throw new UncheckedIOException("No se pudo reescribir " + archivo, e);
+        }
+    }
+
+    /**
+      Longitud máxima de frase guardada en el zip del modelo
+      @return 0 si el modelo no la tiene (guardado por una versión anterior)
+     */
+    public static int leerMaxSequenceLength(File archivo) {
+        if (!ModelSerializer.listObjectsInFile(archivo).contains(CLAVE_LONGITUD)) {
+            return 0;
+        }
+        Integer longitud = ModelSerializer.getObjectFromFile(archivo, CLAVE_LONGITUD);
+        return longitud;
+    }
+
     /**
       Carga un modelo entrenado
+      @return true si se cargó correctamente
      */
-    public void cargar(String rutaArchivo) {
+    public boolean cargar(String rutaArchivo) {
         try {
             File archivo = new File(rutaArchivo);
             model = MultiLayerNetwork.load(archivo, true);
             System.out.println("✅ Modelo cargado desde: " + rutaArchivo);
-        } catch (IOException e) {
+            return true;
+        } catch (IOException | RuntimeException e) { // un zip dañado da IllegalStateException
             System.err.println("❌ Error al cargar modelo: " + e.getMessage());
             e.printStackTrace();
+            return false;
         }
     }
 }
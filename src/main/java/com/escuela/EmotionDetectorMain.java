@@ -1,13 +1,47 @@
 package com.escuela;
 
+import org.nd4j.linalg.api.buffer.DataType;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
 import java.util.Scanner;
+import java.util.concurrent.CountDownLatch;
 
 /**
   Programa principal para usar el clasificador de emociones para hacer predicciones
+  Modos:
+  - sin argumentos: modo interactivo
+  - --servidor [puerto] [tamañoLote] [esperaMicros]: servidor HTTP de predicciones
+  - --archivo entrada salida [tamañoLote] [FLOAT16]: puntúa un archivo CSV o NDJSON completo
+    (con FLOAT16 los lotes en cola ocupan la mitad; la red sigue en su precisión)
+  - --exportar-paquete [archivo]: guarda el modelo como paquete de inferencia
+  Con --cascada umbral (en cualquier modo salvo --archivo) cada frase pasa primero
+  por el clasificador lineal y solo va al LSTM si su confianza no llega al umbral.
+  Con --metricas se miden los tiempos de cada etapa de la predicción y se
+  registran como MBeans JMX (com.escuela:type=Prediccion, ver MetricasPrediccion)
+
+  Si existe el paquete de inferencia (y no es más viejo que el modelo) se carga
+  ese en lugar de los zip del modelo y de Word2Vec, que es mucho más rápido
  */
 public class EmotionDetectorMain {
 
     public static void main(String[] args) {
+        // --cascada umbral y --metricas pueden ir en cualquier posición; se quitan antes de leer el modo
+        List<String> argumentos = new ArrayList<>(Arrays.asList(args));
+        double umbralCascada = Double.NaN;
+        int posicionCascada = argumentos.indexOf("--cascada");
+        if (posicionCascada >= 0 && posicionCascada + 1 < argumentos.size()) {
+            umbralCascada = Double.parseDouble(argumentos.remove(posicionCascada + 1));
+            argumentos.remove(posicionCascada);
+        }
+        boolean conMetricas = argumentos.remove("--metricas");
+        args = argumentos.toArray(new String[0]);
+
         System.out.println("╔═══════════════════════════════════════════════════╗");
         System.out.println("║       DETECTOR DE EMOCIONES EN TEXTO 😊😢😠😨😲    ║");
         System.out.println("║              Powered by DeepLearning4J            ║");
@@ -18,10 +52,19 @@ public class EmotionDetectorMain {
 
         // Cargar el modelo entrenado
         System.out.println("Cargando modelo entrenado...\n");
-        boolean exito = predictor.cargarModelo(
-                "emotion_classifier_model.zip",
-                "word2vec_emotions.zip"
-        );
+        boolean exportar = args.length > 0 && args[0].equals("--exportar-paquete");
+        File paquete = new File(PaqueteInferencia.ARCHIVO_POR_DEFECTO);
+        File modelo = new File("emotion_classifier_model.zip");
+
+        boolean exito;
+        if (!exportar && paquete.isFile() && paquete.lastModified() >= modelo.lastModified()) {
+            exito = predictor.cargarPaquete(paquete.getPath());
+        } else {
+            exito = predictor.cargarModelo(
+                    modelo.getPath(),
+                    "word2vec_emotions.zip"
+            );
+        }
 
         if (!exito) {
             System.err.println("\n❌ No se pudo cargar el modelo.");
@@ -29,12 +72,100 @@ public class EmotionDetectorMain {
             return;
         }
 
+        if (!Double.isNaN(umbralCascada)
+                && !predictor.activarCascada(ClasificadorLineal.ARCHIVO_POR_DEFECTO, umbralCascada)) {
+            System.err.println("⚠️ Se continúa sin cascada (solo el LSTM)");
+        }
+
+        if (conMetricas) {
+            predictor.activarMetricas("EmotionPredictor");
+            System.out.println("📈 Métricas por etapa registradas en JMX (com.escuela:type=Prediccion)");
+        }
+
         System.out.println("\n✅ Modelo cargado y listo para usar!\n");
 
+        if (exportar) {
+            predictor.exportarPaquete(args.length > 1 ? args[1] : PaqueteInferencia.ARCHIVO_POR_DEFECTO);
+            return;
+        }
+
+        if (args.length > 0 && args[0].equals("--servidor")) {
+            int puerto = args.length > 1 ? Integer.parseInt(args[1]) : 8080;
+            int tamanoLote = args.length > 2 ? Integer.parseInt(args[2]) : 64;
+            long esperaMicros = args.length > 3 ? Long.parseLong(args[3]) : 2000;
+            modoServidor(predictor, puerto, tamanoLote, esperaMicros);
+            return;
+        }
+
+        if (args.length > 2 && args[0].equals("--archivo")) {
+            int tamanoLote = args.length > 3 ? Integer.parseInt(args[3]) : 512;
+            if (args.length > 4) {
+                predictor.getVectorizer().setTipoDatos(DataType.valueOf(args[4].toUpperCase(Locale.ROOT)));
+            }
+            modoArchivo(predictor, Path.of(args[1]), Path.of(args[2]), tamanoLote);
+            return;
+        }
+
         // Modo interactivo
         modoInteractivo(predictor);
     }
 
+    /**
+      Modo archivo: puntúa todas las filas de un archivo y escribe las predicciones en otro
+     */
+    private static void modoArchivo(EmotionPredictor predictor, Path entrada, Path salida, int tamanoLote) {
+        System.out.println("📄 Puntuando " + entrada + " → " + salida + " (lotes de " + tamanoLote + ")");
+
+        PuntuadorArchivos puntuador = new PuntuadorArchivos(predictor, tamanoLote, 4);
+        try {
+            puntuador.puntuar(entrada, salida);
+        } catch (IOException e) {
+            System.err.println("❌ " + e.getMessage());
+        }
+    }
+
+    /**
+      Modo servidor: atiende predicciones por HTTP hasta que se detenga el programa (Ctrl+C)
+     */
+    private static void modoServidor(EmotionPredictor predictor, int puerto,
+                                     int tamanoLote, long esperaMicros) {
+        PredictorConcurrente concurrente = new PredictorConcurrente(predictor);
+        ServidorPrediccion servidor;
+
+        try {
+            servidor = new ServidorPrediccion(concurrente, puerto, tamanoLote, esperaMicros);
+        } catch (IOException e) {
+            System.err.println("❌ No se pudo iniciar el servidor: " + e.getMessage());
+            concurrente.close();
+            return;
+        }
+
+        System.out.println("═══════════════════════════════════════════════════");
+        System.out.println("         MODO SERVIDOR ACTIVADO");
+        System.out.println("═══════════════════════════════════════════════════");
+        System.out.println("Micro-lotes: hasta " + tamanoLote + " frases, espera máxima " + esperaMicros + " µs");
+        servidor.iniciar();
+        System.out.println("Presiona Ctrl+C para detener.\n");
+
+        // Al cerrar el programa: mostrar métricas y detener todo
+        CountDownLatch terminado = new CountDownLatch(1);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            servidor.mostrarMetricas();
+            if (predictor.getMetricas() != null) {
+                predictor.getMetricas().mostrar();
+            }
+            servidor.detener();
+            concurrente.close();
+            terminado.countDown();
+        }));
+
+        try {
+            terminado.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
     /**
       Modo interactivo: el usuario puede escribir frases y ver predicciones
      */
@@ -66,6 +197,15 @@ public class EmotionDetectorMain {
                 continue;
             }
 
+            if (input.equalsIgnoreCase("metricas")) {
+                if (predictor.getMetricas() != null) {
+                    predictor.getMetricas().mostrar();
+                } else {
+                    System.out.println("⚠️ Las métricas están desactivadas (inicia el programa con --metricas)\n");
+                }
+                continue;
+            }
+
             // Hacer predicción
             EmotionPredictor.ResultadoPrediccion resultado = predictor.predecir(input);
             predictor.mostrarResultado(resultado);
@@ -1,23 +1,56 @@
 package com.escuela;
 
+import org.deeplearning4j.nn.conf.layers.FeedForwardLayer;
 import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
+import org.nd4j.linalg.api.buffer.DataType;
 import org.nd4j.linalg.api.ndarray.INDArray;
-import org.nd4j.linalg.factory.Nd4j;
 
 import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
   Clase para cargar el modelo entrenado y predecir emociones en frases nuevas
  */
 public class EmotionPredictor {
 
+    // Emoji de cada emoción (para mejor visualización)
+    private static final Map<String, String> EMOJIS = Map.of(
+            "joy", "😊", "sadness", "😢", "anger", "😠", "fear", "😨", "surprise", "😲");
+
+    // Longitud que usaban los modelos guardados antes de que el zip la incluyera
+    private static final int MAX_SEQUENCE_LENGTH_ANTERIOR = 8;
+
     private MultiLayerNetwork model;
     private Word2VecVectorizer vectorizer;
     private Map<Integer, String> indiceAEmocion;
     private Map<Integer, String> emocionAEmoji;
 
+    // Número máximo de frases que se procesan juntas en una sola pasada de la red
+    private int tamanoLoteMaximo = 256;
+
+    // true = cada lote usa solo los pasos de su frase más larga y promedia sin el
+    // relleno (como en el entrenamiento); false = siempre maxSequenceLength pasos
+    private boolean longitudVariable = true;
+
+    // Caché opcional de predicciones (null = desactivado)
+    private volatile CachePredicciones cache;
+
+    // Cascada opcional: clasificador lineal antes del LSTM (null = desactivada)
+    private volatile Cascada cascada;
+    private final LongAdder respondidasPrimerNivel = new LongAdder();
+    private final LongAdder derivadasAlLstm = new LongAdder();
+
+    // Métricas por etapa opcionales (null = desactivadas, sin ningún costo)
+    private volatile MetricasPrediccion metricas;
+
     /**
       Constructor
      */
@@ -32,11 +65,19 @@ public class EmotionPredictor {
 
         // Mapeo de emociones a emojis (para mejor visualización)
         emocionAEmoji = new HashMap<>();
-        emocionAEmoji.put(0, "😊");
-        emocionAEmoji.put(1, "😢");
-        emocionAEmoji.put(2, "😠");
-        emocionAEmoji.put(3, "😨");
-        emocionAEmoji.put(4, "😲");
+        for (Map.Entry<Integer, String> entrada : indiceAEmocion.entrySet()) {
+            emocionAEmoji.put(entrada.getKey(), EMOJIS.get(entrada.getValue()));
+        }
+    }
+
+    /**
+      Constructor con un modelo y un vectorizador ya preparados en memoria
+      (por ejemplo recién entrenados, sin pasar por archivos)
+     */
+    public EmotionPredictor(MultiLayerNetwork model, Word2VecVectorizer vectorizer) {
+        this();
+        this.model = model;
+        this.vectorizer = vectorizer;
     }
 
     /**
@@ -52,7 +93,7 @@ public class EmotionPredictor {
                 System.err.println("❌ No se encontró el archivo del modelo: " + rutaModelo);
                 return false;
             }
-            model = MultiLayerNetwork.load(archivoModelo, true);
+            model = MultiLayerNetwork.load(archivoModelo, false);  // sin updater: solo se predice
             System.out.println("✅ Modelo LSTM cargado");
 
             // Cargar Word2Vec
@@ -62,12 +103,22 @@ public class EmotionPredictor {
                 return false;
             }
 
-            // El vectorSize y maxSequenceLength deben coincidir con los usados en entrenamiento
-            int vectorSize = 100;
-            int maxSequenceLength = 8;
+            // El vectorSize es la entrada de la primera capa; maxSequenceLength debe
+            // coincidir con el usado en entrenamiento (TrainEmotionClassifier lo guarda en el zip)
+            int vectorSize = (int) ((FeedForwardLayer) model.getLayerWiseConfigurations()
+                    .getConf(0).getLayer()).getNIn();
+            int maxSequenceLength = EmotionClassifierModel.leerMaxSequenceLength(archivoModelo);
+            if (maxSequenceLength == 0) {
+                maxSequenceLength = MAX_SEQUENCE_LENGTH_ANTERIOR;
+                System.out.println("⚠️ El modelo no guarda su longitud máxima de frase, se usa "
+                        + maxSequenceLength + " (vuelve a entrenarlo para guardarla)");
+            }
 
             vectorizer = new Word2VecVectorizer(vectorSize, maxSequenceLength);
-            vectorizer.cargar(rutaWord2Vec);
+            vectorizer.setTipoDatos(model.getLayerWiseConfigurations().getDataType()); // FLOAT o FLOAT16
+            if (!vectorizer.cargar(rutaWord2Vec)) {
+                return false;
+            }
             System.out.println("✅ Word2Vec cargado");
 
             return true;
@@ -79,6 +130,124 @@ public class EmotionPredictor {
         }
     }
 
+    /**
+      Carga un paquete de inferencia (ver PaqueteInferencia): red sin updater,
+      vectores solo del vocabulario y manifiesto con tamaños y orden de emociones
+     */
+    public boolean cargarPaquete(String rutaPaquete) {
+        File archivo = new File(rutaPaquete);
+        if (!archivo.exists()) {
+            System.err.println("❌ No se encontró el paquete: " + rutaPaquete);
+            return false;
+        }
+
+        try {
+            long inicio = System.nanoTime();
+            PaqueteInferencia paquete = PaqueteInferencia.cargar(archivo);
+            model = paquete.getModel();
+            vectorizer = paquete.getVectorizer();
+
+            String[] emociones = paquete.getEmociones();
+            indiceAEmocion = new HashMap<>();
+            emocionAEmoji = new HashMap<>();
+            for (int i = 0; i < emociones.length; i++) {
+                indiceAEmocion.put(i, emociones[i]);
+                emocionAEmoji.put(i, EMOJIS.getOrDefault(emociones[i], "❓"));
+            }
+
+            System.out.printf("✅ Paquete de inferencia cargado en %.0f ms\n", (System.nanoTime() - inicio) / 1e6);
+            return true;
+
+        } catch (RuntimeException e) {
+            System.err.println("❌ Error al cargar paquete: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+      Exporta el modelo y los vectores cargados como paquete de inferencia
+     */
+    public void exportarPaquete(String rutaPaquete) {
+        if (model == null || vectorizer == null) {
+            System.err.println("❌ El modelo no está cargado. Llama a cargarModelo() primero.");
+            return;
+        }
+
+        String[] emociones = new String[indiceAEmocion.size()];
+        for (int i = 0; i < emociones.length; i++) {
+            emociones[i] = indiceAEmocion.get(i);
+        }
+        PaqueteInferencia.exportar(model, vectorizer, emociones, new File(rutaPaquete));
+    }
+
+    /**
+      Cambia los vectores de palabras por otro almacén (por ejemplo un archivo
+      mapeado compartido entre procesos); el modelo Word2Vec anterior se libera
+     */
+    public void usarEmbeddings(AlmacenEmbeddings embeddings) {
+        if (vectorizer == null) {
+            throw new IllegalStateException("El modelo no está cargado. Llama a cargarModelo() primero.");
+        }
+        if (embeddings.getVectorSize() != vectorizer.getVectorSize()) {
+            throw new IllegalArgumentException("Los embeddings tienen " + embeddings.getVectorSize()
+                    + " dimensiones y el modelo espera " + vectorizer.getVectorSize());
+        }
+
+        DataType tipoDatos = vectorizer.getTipoDatos();
+        vectorizer = new Word2VecVectorizer(embeddings, vectorizer.getMaxSequenceLength());
+        vectorizer.setTipoDatos(tipoDatos);
+
+        // Las predicciones guardadas se calcularon con los vectores anteriores
+        CachePredicciones cache = this.cache;
+        if (cache != null) {
+            cache.limpiar();
+        }
+    }
+
+    /**
+      Usa los vectores de un archivo creado con EmbeddingsMapeados.exportar
+     */
+    public boolean cargarEmbeddingsMapeados(String ruta) {
+        try {
+            usarEmbeddings(EmbeddingsMapeados.abrir(new File(ruta)));
+            return true;
+        } catch (RuntimeException e) {
+            System.err.println("❌ Error al cargar embeddings: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+      Convierte el modelo cargado a otra precisión (FLOAT o FLOAT16)
+      Los pesos, las activaciones y los tensores del vectorizador pasan al nuevo
+      tipo; FLOAT16 usa la mitad de memoria. Hay que llamarlo antes de crear un
+      PredictorConcurrente o SesionesPrediccion, que copian el modelo
+     */
+    public void convertirPrecision(DataType tipoDatos) {
+        if (model == null || vectorizer == null) {
+            throw new IllegalStateException("El modelo no está cargado. Llama a cargarModelo() primero.");
+        }
+        tipoDatos = EmotionClassifierModel.comprobarTipoDatos(tipoDatos);
+
+        if (getTipoDatos() != tipoDatos) {
+            model = model.convertDataType(tipoDatos);
+        }
+        vectorizer.setTipoDatos(tipoDatos);
+
+        // Las predicciones guardadas se calcularon con la precisión anterior
+        CachePredicciones cache = this.cache;
+        if (cache != null) {
+            cache.limpiar();
+        }
+    }
+
+    /**
+      Precisión del modelo cargado
+     */
+    public DataType getTipoDatos() {
+        return EmotionClassifierModel.normalizarTipoDatos(model.getLayerWiseConfigurations().getDataType());
+    }
+
     /**
       Predice la emoción de un texto
       @param texto la frase a analizar
@@ -90,21 +259,243 @@ public class EmotionPredictor {
             return null;
         }
 
-        // Vectorizar el texto
-        INDArray features = vectorizer.textoAVector(texto);
+        return predecirBloque(model, Collections.singletonList(texto)).get(0);
+    }
+
+    /**
+      Predice la emoción de varias frases a la vez
+      Las frases se agrupan en lotes de hasta tamanoLoteMaximo y cada lote se
+      procesa con una sola llamada a la red, en lugar de una llamada por frase
+      @param textos frases a analizar
+      @return resultados en el mismo orden que las frases de entrada
+     */
+    public List<ResultadoPrediccion> predecirLote(List<String> textos) {
+        if (model == null || vectorizer == null) {
+            System.err.println("❌ El modelo no está cargado. Llama a cargarModelo() primero.");
+            return null;
+        }
 
-        // Hacer predicción
-        INDArray output = model.output(features);
-        INDArray promedioTemporal = output.mean(2); // [1, numClases]
+        return predecirLoteCon(model, textos);
+    }
 
-        // Obtener probabilidades para cada emoción
-        double[] probabilidades = new double[5];
-        for (int i = 0; i < 5; i++) {
-            probabilidades[i] = promedioTemporal.getDouble(0, i);
+    /**
+      Igual que predecirLote pero usando la red indicada
+      Lo usa PredictorConcurrente para ejecutar con sus réplicas del modelo;
+      el vectorizador y el caché se comparten (solo se leen o son seguros entre hilos)
+     */
+    List<ResultadoPrediccion> predecirLoteCon(MultiLayerNetwork red, List<String> textos) {
+        List<ResultadoPrediccion> resultados = new ArrayList<>(textos.size());
+
+        for (int inicio = 0; inicio < textos.size(); inicio += tamanoLoteMaximo) {
+            int fin = Math.min(inicio + tamanoLoteMaximo, textos.size());
+            resultados.addAll(predecirBloque(red, textos.subList(inicio, fin)));
+        }
+
+        return resultados;
+    }
+
+    /**
+      Predice un bloque de frases con una sola pasada de la red
+      Si el caché está activado, las frases encontradas en él no se vectorizan
+      ni pasan por la red; con la cascada activada tampoco las que el
+      clasificador lineal responde con confianza suficiente
+     */
+    private List<ResultadoPrediccion> predecirBloque(MultiLayerNetwork red, List<String> textos) {
+        ResultadoPrediccion[] resultados = new ResultadoPrediccion[textos.size()];
+        Word2VecVectorizer vectorizer = this.vectorizer; // puede cambiar con usarEmbeddings
+        int maxLongitud = vectorizer.getMaxSequenceLength();
+        CachePredicciones cache = this.cache; // el caché puede cambiar desde otro hilo
+        Cascada cascada = this.cascada;
+        MetricasPrediccion metricas = this.metricas;
+        long inicioBloque = metricas != null ? System.nanoTime() : 0;
+        long nanosPreprocesamiento = 0;
+        long nanosCascada = 0;
+
+        // Frases que hay que calcular con la red
+        List<List<String>> pendientes = new ArrayList<>();
+        List<Integer> posiciones = new ArrayList<>();
+        List<String> claves = new ArrayList<>();
+
+        for (int i = 0; i < textos.size(); i++) {
+            long inicio = metricas != null ? System.nanoTime() : 0;
+            List<String> tokens = TextPreprocessor.tokenizar(textos.get(i));
+            if (metricas != null) {
+                nanosPreprocesamiento += System.nanoTime() - inicio;
+                metricas.registrarTokens(Math.min(tokens.size(), maxLongitud), vectorizer.contarDesconocidas(tokens));
+            }
+
+            String clave = null;
+            if (cache != null) {
+                clave = CachePredicciones.crearClave(tokens, maxLongitud);
+                double[] guardadas = cache.obtener(clave);
+                if (guardadas != null) {
+                    resultados[i] = construirResultado(textos.get(i), guardadas);
+                    continue;
+                }
+            }
+
+            // Primer nivel de la cascada: si el clasificador lineal está seguro no se usa el LSTM
+            if (cascada != null) {
+                inicio = metricas != null ? System.nanoTime() : 0;
+                double[] rapidas = cascada.clasificador.predecir(tokens, vectorizer);
+                if (metricas != null) {
+                    nanosCascada += System.nanoTime() - inicio;
+                }
+                if (maximo(rapidas) >= cascada.umbral) {
+                    respondidasPrimerNivel.increment();
+                    if (cache != null) {
+                        cache.guardar(clave, rapidas);
+                    }
+                    resultados[i] = construirResultado(textos.get(i), rapidas);
+                    continue;
+                }
+                derivadasAlLstm.increment();
+            }
+
+            if (cache != null) {
+                claves.add(clave);
+            }
+            pendientes.add(tokens);
+            posiciones.add(i);
+        }
+
+        if (!pendientes.isEmpty()) {
+            // Vectorizar el bloque: [numPendientes, vectorSize, pasos]
+            long inicio = metricas != null ? System.nanoTime() : 0;
+            int pasos = calcularPasos(vectorizer, pendientes);
+            INDArray features = vectorizer.tokensAVectores(pendientes, pasos);
+            INDArray mascara = crearMascara(vectorizer, pendientes, pasos);
+            long finVectorizacion = metricas != null ? System.nanoTime() : 0;
+
+            // Una sola pasada de la red para todo el bloque
+            INDArray promedioTemporal = promediarSalida(red, features, mascara); // [numPendientes, numClases]
+            long finRed = metricas != null ? System.nanoTime() : 0;
+
+            for (int k = 0; k < pendientes.size(); k++) {
+                double[] probabilidades = extraerProbabilidades(promedioTemporal, k);
+                if (cache != null) {
+                    cache.guardar(claves.get(k), probabilidades);
+                }
+
+                int i = posiciones.get(k);
+                resultados[i] = construirResultado(textos.get(i), probabilidades);
+            }
+
+            if (metricas != null) {
+                metricas.vectorizacion.registrar(finVectorizacion - inicio);
+                metricas.red.registrar(finRed - finVectorizacion);
+                metricas.resultado.registrar(System.nanoTime() - finRed);
+            }
+        }
+
+        if (metricas != null) {
+            metricas.preprocesamiento.registrar(nanosPreprocesamiento);
+            if (cascada != null) {
+                metricas.cascada.registrar(nanosCascada);
+            }
+            metricas.total.registrar(System.nanoTime() - inicioBloque);
+            metricas.registrarLote(textos.size());
+        }
+
+        return Arrays.asList(resultados);
+    }
+
+    /**
+      Pasos de tiempo con los que se vectoriza un lote
+      Con longitud variable es la longitud de la frase más larga (una frase de
+      2 palabras sola pasa por 2 pasos del LSTM, no por maxSequenceLength)
+     */
+    int calcularPasos(Word2VecVectorizer vectorizer, List<List<String>> frases) {
+        if (!longitudVariable) {
+            return vectorizer.getMaxSequenceLength();
+        }
+        int pasos = 1;
+        for (List<String> tokens : frases) {
+            pasos = Math.max(pasos, vectorizer.longitudFrase(tokens));
+        }
+        return pasos;
+    }
+
+    /**
+      Máscara de los pasos de relleno de un lote
+      @return null si no hay relleno que descontar (todas las frases ocupan los
+              'pasos' pasos, o la longitud variable está desactivada)
+     */
+    INDArray crearMascara(Word2VecVectorizer vectorizer, List<List<String>> frases, int pasos) {
+        if (!longitudVariable) {
+            return null;
+        }
+        for (List<String> tokens : frases) {
+            if (vectorizer.longitudFrase(tokens) < pasos) {
+                return vectorizer.crearMascara(frases, pasos);
+            }
+        }
+        return null;
+    }
+
+    /**
+      Pasa un lote por la red y promedia las probabilidades en el tiempo
+      Con máscara, cada fila se promedia solo sobre sus pasos con palabras
+      @param mascara [numFrases, pasos], o null para promediar todos los pasos
+      @return matriz [numFrases, numClases]
+     */
+    static INDArray promediarSalida(MultiLayerNetwork red, INDArray features, INDArray mascara) {
+        if (mascara == null) {
+            return red.output(features).mean(2);
+        }
+
+        INDArray output = red.output(features, false, mascara, null); // [numFrases, numClases, pasos]
+        INDArray pesos = mascara.castTo(output.dataType()).reshape(mascara.size(0), 1, mascara.size(1));
+        return output.mul(pesos).sum(2).diviColumnVector(mascara.sum(1).castTo(output.dataType()));
+    }
+
+    private static double maximo(double[] valores) {
+        double maximo = valores[0];
+        for (int i = 1; i < valores.length; i++) {
+            maximo = Math.max(maximo, valores[i]);
+        }
+        return maximo;
+    }
+
+    /**
+      Versión de predecirLote para arreglos de frases
+     */
+    public ResultadoPrediccion[] predecirLote(String[] textos) {
+        List<ResultadoPrediccion> resultados = predecirLote(Arrays.asList(textos));
+        return resultados == null ? null : resultados.toArray(new ResultadoPrediccion[0]);
+    }
+
+    /**
+      Versión de predecirLote para streams de frases
+     */
+    public List<ResultadoPrediccion> predecirLote(Stream<String> textos) {
+        return predecirLote(textos.collect(Collectors.toList()));
+    }
+
+    /**
+      Obtiene las probabilidades de una fila
+      @param promedioTemporal matriz [numFrases, numClases]
+      @param fila fila correspondiente a la frase
+     */
+    private double[] extraerProbabilidades(INDArray promedioTemporal, int fila) {
+        double[] probabilidades = new double[indiceAEmocion.size()];
+        for (int i = 0; i < probabilidades.length; i++) {
+            probabilidades[i] = promedioTemporal.getDouble(fila, i);
         }
+        return probabilidades;
+    }
 
+    /**
+      Convierte las probabilidades de una frase en un resultado
+     */
+    ResultadoPrediccion construirResultado(String texto, double[] probabilidades) {
         // Obtener la emoción con mayor probabilidad
-        int indiceMaximo = Nd4j.argMax(promedioTemporal, 1).getInt(0);
+        int indiceMaximo = 0;
+        for (int i = 1; i < probabilidades.length; i++) {
+            if (probabilidades[i] > probabilidades[indiceMaximo]) {
+                indiceMaximo = i;
+            }
+        }
         String emocionPredicha = indiceAEmocion.get(indiceMaximo);
         String emoji = emocionAEmoji.get(indiceMaximo);
         double confianza = probabilidades[indiceMaximo];
@@ -118,6 +509,229 @@ public class EmotionPredictor {
         );
     }
 
+    /**
+      Cambia el número máximo de frases por pasada de la red en predecirLote
+     */
+    public void setTamanoLoteMaximo(int tamanoLoteMaximo) {
+        if (tamanoLoteMaximo < 1) {
+            throw new IllegalArgumentException("El tamaño de lote debe ser al menos 1");
+        }
+        this.tamanoLoteMaximo = tamanoLoteMaximo;
+    }
+
+    public int getTamanoLoteMaximo() {
+        return tamanoLoteMaximo;
+    }
+
+    /**
+      Activa o desactiva la inferencia con longitud variable (activada por defecto)
+      Desactivada, todas las frases se rellenan hasta maxSequenceLength y se
+      promedian todos los pasos, como antes
+     */
+    public void setLongitudVariable(boolean longitudVariable) {
+        this.longitudVariable = longitudVariable;
+        CachePredicciones cache = this.cache;
+        if (cache != null) {
+            cache.limpiar(); // las probabilidades guardadas dependen del modo
+        }
+    }
+
+    public boolean isLongitudVariable() {
+        return longitudVariable;
+    }
+
+    /**
+      Activa el caché de predicciones
+      Las frases con los mismos tokens normalizados (recortados a maxSequenceLength)
+      reutilizan la predicción guardada sin pasar por la red
+      @param maxEntradas número máximo de frases guardadas
+      @param ttlMillis tiempo de vida de cada entrada (0 = sin límite)
+     */
+    public void activarCache(int maxEntradas, long ttlMillis) {
+        cache = new CachePredicciones(maxEntradas, ttlMillis);
+    }
+
+    /**
+      Desactiva el caché de predicciones
+     */
+    public void desactivarCache() {
+        cache = null;
+    }
+
+    /**
+      Obtiene el caché (null si está desactivado)
+     */
+    public CachePredicciones getCache() {
+        return cache;
+    }
+
+    /**
+      Activa la cascada de dos niveles
+      Cada frase pasa primero por el clasificador lineal; si su probabilidad más
+      alta llega al umbral se responde con él, y si no se calcula con el LSTM.
+      Un umbral mayor que 1 manda todas las frases al LSTM (pero las cuenta)
+      @param clasificador clasificador de primer nivel (ver ClasificadorLineal)
+      @param umbral confianza mínima del primer nivel, entre 0 y 1
+     */
+    public void activarCascada(ClasificadorLineal clasificador, double umbral) {
+        if (vectorizer != null && clasificador.getVectorSize() != vectorizer.getVectorSize()) {
+            throw new IllegalArgumentException("El clasificador usa vectores de " + clasificador.getVectorSize()
+                    + " dimensiones y el modelo de " + vectorizer.getVectorSize());
+        }
+        if (clasificador.getNumClases() != indiceAEmocion.size()) {
+            throw new IllegalArgumentException("El clasificador tiene " + clasificador.getNumClases()
+                    + " clases y el modelo " + indiceAEmocion.size());
+        }
+        cascada = new Cascada(clasificador, umbral);
+        CachePredicciones cache = this.cache;
+        if (cache != null) {
+            cache.limpiar(); // las probabilidades guardadas dependen de la cascada
+        }
+    }
+
+    /**
+      Carga un clasificador guardado con ClasificadorLineal.guardar y activa la cascada
+     */
+    public boolean activarCascada(String rutaClasificador, double umbral) {
+        if (!new File(rutaClasificador).exists()) {
+            System.err.println("❌ No se encontró el clasificador lineal: " + rutaClasificador);
+            return false;
+        }
+        try {
+            activarCascada(ClasificadorLineal.cargar(rutaClasificador), umbral);
+            System.out.println("✅ Cascada activada (umbral " + umbral + ")");
+            return true;
+        } catch (RuntimeException e) {
+            System.err.println("❌ Error al cargar clasificador lineal: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+      Desactiva la cascada: todas las frases vuelven a pasar por el LSTM
+     */
+    public void desactivarCascada() {
+        cascada = null;
+        CachePredicciones cache = this.cache;
+        if (cache != null) {
+            cache.limpiar();
+        }
+    }
+
+    /**
+      Umbral de la cascada (NaN si está desactivada)
+     */
+    public double getUmbralCascada() {
+        Cascada cascada = this.cascada;
+        return cascada == null ? Double.NaN : cascada.umbral;
+    }
+
+    /**
+      Frases respondidas por el clasificador lineal sin pasar por el LSTM
+     */
+    public long getRespondidasPrimerNivel() {
+        return respondidasPrimerNivel.sum();
+    }
+
+    /**
+      Frases que la cascada mandó al LSTM por falta de confianza
+     */
+    public long getDerivadasAlLstm() {
+        return derivadasAlLstm.sum();
+    }
+
+    /**
+      Fracción de las frases de la cascada que no pasaron por el LSTM
+     */
+    public double getFraccionPrimerNivel() {
+        long primerNivel = respondidasPrimerNivel.sum();
+        long total = primerNivel + derivadasAlLstm.sum();
+        return total == 0 ? 0 : (double) primerNivel / total;
+    }
+
+    public void reiniciarContadoresCascada() {
+        respondidasPrimerNivel.reset();
+        derivadasAlLstm.reset();
+    }
+
+    /**
+      Clasificador y umbral juntos, para cambiarlos a la vez entre hilos
+     */
+    private static class Cascada {
+        final ClasificadorLineal clasificador;
+        final double umbral;
+
+        Cascada(ClasificadorLineal clasificador, double umbral) {
+            this.clasificador = clasificador;
+            this.umbral = umbral;
+        }
+    }
+
+    /**
+      Activa las métricas por etapa (preprocesamiento, vectorización, red, ...)
+      Con las métricas desactivadas el camino de predicción no mide nada
+      @return las métricas nuevas, para consultarlas o registrarlas en JMX
+     */
+    public MetricasPrediccion activarMetricas() {
+        desactivarMetricas();
+        MetricasPrediccion nuevas = new MetricasPrediccion();
+        metricas = nuevas;
+        return nuevas;
+    }
+
+    /**
+      Activa las métricas y las registra como MBeans JMX con el nombre indicado
+     */
+    public MetricasPrediccion activarMetricas(String nombreJmx) {
+        MetricasPrediccion nuevas = activarMetricas();
+        nuevas.registrarJmx(nombreJmx);
+        return nuevas;
+    }
+
+    /**
+      Desactiva las métricas (y las quita de JMX si estaban registradas)
+     */
+    public void desactivarMetricas() {
+        MetricasPrediccion anteriores = metricas;
+        metricas = null;
+        if (anteriores != null) {
+            anteriores.desregistrarJmx();
+        }
+    }
+
+    /**
+      Obtiene las métricas (null si están desactivadas)
+     */
+    public MetricasPrediccion getMetricas() {
+        return metricas;
+    }
+
+    /**
+      Indica si el modelo y Word2Vec ya están cargados
+     */
+    public boolean estaCargado() {
+        return model != null && vectorizer != null;
+    }
+
+    /**
+      Nombre de la emoción de un índice (0 = joy, 1 = sadness, ...)
+     */
+    public String getNombreEmocion(int indice) {
+        return indiceAEmocion.get(indice);
+    }
+
+    public int getNumeroEmociones() {
+        return indiceAEmocion.size();
+    }
+
+    public MultiLayerNetwork getModel() {
+        return model;
+    }
+
+    public Word2VecVectorizer getVectorizer() {
+        return vectorizer;
+    }
+
     /**
       Muestra el resultado de la predicción
      */
@@ -0,0 +1,236 @@
+package com.escuela;
+
+import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.dataset.DataSet;
+import org.nd4j.linalg.dataset.api.iterator.DataSetIterator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+  Entrenamiento en paralelo por promedio de parámetros (data parallel)
+  Cada trabajador tiene su propia copia del modelo y entrena con sus propios
+  batches en un hilo. Cada 'frecuenciaPromedio' batches por trabajador se
+  promedian los parámetros (y el estado del optimizador Adam) de todas las copias
+  y el resultado se copia de vuelta a cada una, igual que ParallelWrapper de DL4J.
+
+  El trabajador 0 es el modelo original, así al terminar ya tiene los pesos promediados
+ */
+public class EntrenadorParalelo implements AutoCloseable {
+
+    private final MultiLayerNetwork model;
+    private final MultiLayerNetwork[] trabajadores;
+    private final int frecuenciaPromedio;
+    private final ExecutorService ejecutor;
+
+    // Métricas por trabajador (acumuladas desde el último reiniciarMetricas)
+    private final long[] ejemplosPorTrabajador;
+    private final long[] nanosPorTrabajador;
+    private long promedios;
+
+    /**
+      Constructor
+      @param model red a entrenar (será el trabajador 0)
+      @param numTrabajadores número de copias entrenando al mismo tiempo
+      @param frecuenciaPromedio batches que entrena cada copia antes de promediar
+     */
+    public EntrenadorParalelo(MultiLayerNetwork model, int numTrabajadores, int frecuenciaPromedio) {
+        if (numTrabajadores < 1 || frecuenciaPromedio < 1) {
+            throw new IllegalArgumentException("Trabajadores y frecuencia de promedio deben ser al menos 1");
+        }
+
+        this.model = model;
+        this.frecuenciaPromedio = frecuenciaPromedio;
+        this.trabajadores = new MultiLayerNetwork[numTrabajadores];
+        this.trabajadores[0] = model;
+        for (int i = 1; i < numTrabajadores; i++) {
+            trabajadores[i] = model.clone();
+        }
+
+        this.ejemplosPorTrabajador = new long[numTrabajadores];
+        this.nanosPorTrabajador = new long[numTrabajadores];
+
+        AtomicInteger contador = new AtomicInteger();
+        this.ejecutor = Executors.newFixedThreadPool(numTrabajadores, tarea -> {
+            Thread hilo = new Thread(tarea, "entrenador-" + contador.incrementAndGet());
+            hilo.setDaemon(true);
+            return hilo;
+        });
+    }
+
+    /**
+      Entrena una epoch con todos los batches que quedan en el iterador
+      @return pérdida promedio de los batches
+     */
+    public double entrenarEpoch(DataSetIterator batches) {
+        double totalLoss = 0;
+        int numBatches = 0;
+
+        while (batches.hasNext()) {
+            // Repartir la ronda: el trabajador k recibe los batches k, k + K, k + 2K, ...
+            List<List<DataSet>> asignados = new ArrayList<>();
+            for (int k = 0; k < trabajadores.length; k++) {
+                asignados.add(new ArrayList<>());
+            }
+            for (int i = 0; i < trabajadores.length * frecuenciaPromedio && batches.hasNext(); i++) {
+                asignados.get(i % trabajadores.length).add(batches.next());
+            }
+
+            List<Future<double[]>> tareas = new ArrayList<>();
+            int activos = 0;
+            for (int k = 0; k < trabajadores.length; k++) {
+                if (asignados.get(k).isEmpty()) {
+                    break;
+                }
+                int trabajador = k;
+                List<DataSet> propios = asignados.get(k);
+                tareas.add(ejecutor.submit(() -> entrenarTrabajador(trabajador, propios)));
+                activos++;
+            }
+
+            for (double[] resultado : esperar(tareas)) {
+                totalLoss += resultado[0];
+                numBatches += (int) resultado[1];
+            }
+
+            promediar(activos);
+        }
+
+        return numBatches == 0 ? 0.0 : totalLoss / numBatches;
+    }
+
+    /**
+      Entrena los batches asignados a un trabajador
+      @return {suma de pérdidas, número de batches}
+     */
+    private double[] entrenarTrabajador(int trabajador, List<DataSet> propios) {
+        MultiLayerNetwork red = trabajadores[trabajador];
+        long inicio = System.nanoTime();
+        double loss = 0;
+        long ejemplos = 0;
+
+        for (DataSet batch : propios) {
+            red.fit(batch);
+            loss += red.score();
+            ejemplos += batch.numExamples();
+        }
+
+        // Cada trabajador solo escribe su propia posición
+        ejemplosPorTrabajador[trabajador] += ejemplos;
+        nanosPorTrabajador[trabajador] += System.nanoTime() - inicio;
+        return new double[]{loss, propios.size()};
+    }
+
+    /**
+      Promedia parámetros y estado del optimizador de los trabajadores que
+      entrenaron en esta ronda y copia el resultado a todos
+     */
+    private void promediar(int activos) {
+        if (trabajadores.length == 1) {
+            return;
+        }
+
+        INDArray parametros = trabajadores[0].params().dup();
+        INDArray estado = estadoOptimizador(trabajadores[0]);
+        estado = estado == null ? null : estado.dup();
+
+        for (int k = 1; k < activos; k++) {
+            parametros.addi(trabajadores[k].params());
+            if (estado != null) {
+                estado.addi(estadoOptimizador(trabajadores[k]));
+            }
+        }
+        parametros.divi(activos);
+        if (estado != null) {
+            estado.divi(activos);
+        }
+
+        for (MultiLayerNetwork red : trabajadores) {
+            red.setParams(parametros);
+            if (estado != null) {
+                estadoOptimizador(red).assign(estado);
+            }
+        }
+        promedios++;
+    }
+
+    private static INDArray estadoOptimizador(MultiLayerNetwork red) {
+        return red.getUpdater() == null ? null : red.getUpdater().getStateViewArray();
+    }
+
+    private static List<double[]> esperar(List<Future<double[]>> tareas) {
+        List<double[]> resultados = new ArrayList<>(tareas.size());
+        try {
+            for (Future<double[]> tarea : tareas) {
+                resultados.add(tarea.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Entrenamiento interrumpido", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Error en un trabajador", e.getCause());
+        }
+        return resultados;
+    }
+
+    /**
+      Muestra cuántos ejemplos por segundo entrenó cada trabajador
+     */
+    public void mostrarEstadisticas() {
+        System.out.println("\n=== ENTRENAMIENTO EN PARALELO ===");
+        System.out.println("Trabajadores: " + trabajadores.length
+                + "  |  Promedio cada " + frecuenciaPromedio + " batches  |  Promedios: " + promedios);
+        double total = 0;
+        for (int k = 0; k < trabajadores.length; k++) {
+            double porSegundo = getEjemplosPorSegundo(k);
+            total += porSegundo;
+            System.out.printf("  Trabajador %d: %d ejemplos, %.1f ejemplos/s\n",
+                    k, ejemplosPorTrabajador[k], porSegundo);
+        }
+        System.out.printf("  Total: %.1f ejemplos/s\n", total);
+        System.out.println("=================================\n");
+    }
+
+    /**
+      Ejemplos por segundo de un trabajador (sobre el tiempo que pasó entrenando)
+     */
+    public double getEjemplosPorSegundo(int trabajador) {
+        long nanos = nanosPorTrabajador[trabajador];
+        return nanos == 0 ? 0.0 : ejemplosPorTrabajador[trabajador] / (nanos / 1e9);
+    }
+
+    public void reiniciarMetricas() {
+        for (int k = 0; k < trabajadores.length; k++) {
+            ejemplosPorTrabajador[k] = 0;
+            nanosPorTrabajador[k] = 0;
+        }
+        promedios = 0;
+    }
+
+    /**
+      Detiene los hilos de los trabajadores
+     */
+    @Override
+    public void close() {
+        ejecutor.shutdownNow();
+    }
+
+    // Getters
+    public int getNumTrabajadores() {
+        return trabajadores.length;
+    }
+
+    public int getFrecuenciaPromedio() {
+        return frecuenciaPromedio;
+    }
+
+    public MultiLayerNetwork getModel() {
+        return model;
+    }
+}
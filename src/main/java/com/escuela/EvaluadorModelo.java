@@ -0,0 +1,176 @@
+package com.escuela;
+
+import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+  Evalúa el modelo con un conjunto de datos completo
+  Las frases se predicen en lotes grandes (una pasada de la red por lote) con el
+  mismo código que usa EmotionPredictor, así lo que se mide es lo mismo que verá
+  el usuario. Con varias réplicas, cada una procesa sus propios lotes en un hilo.
+
+  Las réplicas copian los pesos del modelo al inicio de cada evaluación, así el
+  evaluador se puede reutilizar durante el entrenamiento
+ */
+public class EvaluadorModelo implements AutoCloseable {
+
+    private final MultiLayerNetwork model;
+    private final EmotionPredictor predictor;
+    private final MultiLayerNetwork[] replicas;
+    private final ExecutorService ejecutor;  // null = una sola réplica, sin hilos
+    private final int tamanoLote;
+
+    /**
+      Evaluador con lotes de 512 frases y una réplica
+     */
+    public EvaluadorModelo(MultiLayerNetwork model, Word2VecVectorizer vectorizer) {
+        this(model, vectorizer, 512, 1);
+    }
+
+    /**
+      Constructor
+      @param model red a evaluar
+      @param vectorizer vectorizador con Word2Vec cargado
+      @param tamanoLote frases por pasada de la red
+      @param numReplicas copias del modelo que evalúan en paralelo
+     */
+    public EvaluadorModelo(MultiLayerNetwork model, Word2VecVectorizer vectorizer, int tamanoLote, int numReplicas) {
+        if (tamanoLote < 1 || numReplicas < 1) {
+            throw new IllegalArgumentException("El tamaño de lote y el número de réplicas deben ser al menos 1");
+        }
+
+        this.model = model;
+        this.tamanoLote = tamanoLote;
+        this.predictor = new EmotionPredictor(model, vectorizer);
+        this.predictor.setTamanoLoteMaximo(tamanoLote);
+
+        // La primera réplica es el modelo original
+        this.replicas = new MultiLayerNetwork[numReplicas];
+        this.replicas[0] = model;
+        for (int i = 1; i < numReplicas; i++) {
+            replicas[i] = model.clone();
+        }
+
+        AtomicInteger contador = new AtomicInteger();
+        this.ejecutor = numReplicas == 1 ? null : Executors.newFixedThreadPool(numReplicas, tarea -> {
+            Thread hilo = new Thread(tarea, "evaluador-" + contador.incrementAndGet());
+            hilo.setDaemon(true);
+            return hilo;
+        });
+    }
+
+    /**
+      Evalúa todas las frases del conjunto de datos
+      @return reporte con matriz de confusión, métricas por emoción y velocidad
+     */
+    public ReporteEvaluacion evaluar(DataLoader datos) {
+        long inicio = System.nanoTime();
+
+        List<String> textos = datos.getTextos();
+        int numClases = datos.getNumeroClases();
+        int[] predicciones = new int[textos.size()];
+
+        if (ejecutor == null) {
+            predecirLotes(model, textos, predicciones, 0, 1);
+        } else {
+            // Copiar los pesos actuales a las réplicas
+            for (int r = 1; r < replicas.length; r++) {
+                replicas[r].setParams(model.params());
+            }
+
+            // La réplica r procesa los lotes r, r + R, r + 2R, ...
+            List<Future<?>> tareas = new ArrayList<>();
+            for (int r = 0; r < replicas.length; r++) {
+                MultiLayerNetwork red = replicas[r];
+                int primerLote = r;
+                tareas.add(ejecutor.submit(() ->
+                        predecirLotes(red, textos, predicciones, primerLote, replicas.length)));
+            }
+            esperar(tareas);
+        }
+
+        long[][] matriz = new long[numClases][numClases];
+        for (int i = 0; i < textos.size(); i++) {
+            matriz[datos.getEtiqueta(i)][predicciones[i]]++;
+        }
+
+        String[] nombres = new String[numClases];
+        for (int c = 0; c < numClases; c++) {
+            nombres[c] = datos.numeroAEmocion(c);
+        }
+
+        return new ReporteEvaluacion(nombres, matriz, System.nanoTime() - inicio);
+    }
+
+    /**
+      Predice los lotes primerLote, primerLote + salto, ... y guarda la clase de cada frase
+     */
+    private void predecirLotes(MultiLayerNetwork red, List<String> textos, int[] predicciones,
+                               int primerLote, int salto) {
+        for (int inicio = primerLote * tamanoLote; inicio < textos.size(); inicio += salto * tamanoLote) {
+            int fin = Math.min(inicio + tamanoLote, textos.size());
+            List<EmotionPredictor.ResultadoPrediccion> resultados =
+                    predictor.predecirLoteCon(red, textos.subList(inicio, fin));
+
+            for (int i = 0; i < resultados.size(); i++) {
+                predicciones[inicio + i] = claseMasProbable(resultados.get(i).getProbabilidades());
+            }
+        }
+    }
+
+    private static int claseMasProbable(double[] probabilidades) {
+        int mejor = 0;
+        for (int c = 1; c < probabilidades.length; c++) {
+            if (probabilidades[c] > probabilidades[mejor]) {
+                mejor = c;
+            }
+        }
+        return mejor;
+    }
+
+    private static void esperar(List<Future<?>> tareas) {
+        try {
+            for (Future<?> tarea : tareas) {
+                tarea.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Evaluación interrumpida", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Error durante la evaluación", e.getCause());
+        }
+    }
+
+    /**
+      Detiene los hilos de las réplicas
+     */
+    @Override
+    public void close() {
+        if (ejecutor != null) {
+            ejecutor.shutdownNow();
+        }
+    }
+
+    /**
+      Evalúa con o sin inferencia de longitud variable (ver EmotionPredictor)
+     */
+    public void setLongitudVariable(boolean longitudVariable) {
+        predictor.setLongitudVariable(longitudVariable);
+    }
+
+    // Getters
+    public int getNumReplicas() {
+        return replicas.length;
+    }
+
+    public int getTamanoLote() {
+        return tamanoLote;
+    }
+}
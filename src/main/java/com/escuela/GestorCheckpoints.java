@@ -0,0 +1,248 @@
+package com.escuela;
+
+import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
+import org.deeplearning4j.util.ModelSerializer;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.Random;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+  Guarda checkpoints del entrenamiento sin detenerlo
+  En el hilo de entrenamiento solo se hace una copia del modelo (parámetros y
+  estado del optimizador) y del generador aleatorio; escribir el archivo .zip
+  se hace en un hilo aparte. Se conservan solo los últimos 'maxCheckpoints'.
+
+  Cada checkpoint es un zip normal de DL4J con un objeto extra que guarda la
+  epoch y el generador aleatorio, para poder reanudar con la misma mezcla de datos
+
+  Los checkpoints se ordenan por cuándo se escribieron y no por el número de
+  epoch: un entrenamiento nuevo vuelve a empezar en la epoch 1 y sus checkpoints
+  no deben parecer más viejos que los de otro anterior
+ */
+public class GestorCheckpoints implements AutoCloseable {
+
+    private static final String PREFIJO = "checkpoint_epoch_";
+    private static final String CLAVE_ESTADO = "estadoEntrenamiento";
+
+    private final File directorio;
+    private final int maxCheckpoints;
+
+    // Checkpoints del directorio en el orden en que se escribieron (el primero es el más viejo)
+    private final Deque<File> escritos;
+
+    // Un solo hilo escribiendo; si llega otro checkpoint mientras tanto, el
+    // pendiente más viejo se descarta (el nuevo lo reemplaza)
+    private final ThreadPoolExecutor escritor;
+
+    /**
+      Constructor
+      @param directorio carpeta donde guardar los checkpoints
+      @param maxCheckpoints número de checkpoints a conservar
+     */
+    public GestorCheckpoints(File directorio, int maxCheckpoints) {
+        if (maxCheckpoints < 1) {
+            throw new IllegalArgumentException("Se debe conservar al menos 1 checkpoint");
+        }
+        if (!directorio.isDirectory() && !directorio.mkdirs()) {
+            throw new IllegalArgumentException("No se pudo crear el directorio " + directorio);
+        }
+
+        this.directorio = directorio;
+        this.maxCheckpoints = maxCheckpoints;
+        this.escritos = new ArrayDeque<>(Arrays.asList(listar()));
+        this.escritor = new ThreadPoolExecutor(1, 1, 1, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(1), tarea -> {
+                    Thread hilo = new Thread(tarea, "checkpoints");
+                    hilo.setDaemon(false);  // que la JVM espere a terminar de escribir
+                    return hilo;
+                }, new ThreadPoolExecutor.DiscardOldestPolicy());
+        this.escritor.allowCoreThreadTimeOut(true);  // sin checkpoints pendientes no queda ningún hilo
+    }
+
+    /**
+      Guarda un checkpoint en segundo plano
+      @param model red que se está entrenando
+      @param epoch número de epochs ya completadas
+      @param aleatorio generador usado para mezclar los datos
+     */
+    public void guardarAsync(MultiLayerNetwork model, int epoch, Random aleatorio) {
+        // Copias hechas en el hilo de entrenamiento, antes de que siga modificando el modelo
+        MultiLayerNetwork copia = model.clone();
+        EstadoEntrenamiento estado = new EstadoEntrenamiento(epoch, copiarAleatorio(aleatorio));
+
+        escritor.execute(() -> escribir(copia, estado));
+    }
+
+    /**
+      Escribe el checkpoint en un archivo temporal y luego lo renombra,
+      así nunca queda un checkpoint a medio escribir con el nombre final
+     */
+    private void escribir(MultiLayerNetwork copia, EstadoEntrenamiento estado) {
+        File destino = new File(directorio, String.format("%s%05d.zip", PREFIJO, estado.getEpoch()));
+        File temporal = new File(directorio, destino.getName() + ".tmp");
+
+        try {
+            long inicio = System.nanoTime();
+            ModelSerializer.writeModel(copia, temporal, true);
+            ModelSerializer.addObjectToFile(temporal, CLAVE_ESTADO, estado);
+            Files.move(temporal.toPath(), destino.toPath(),
+                    StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+            System.out.printf("💾 Checkpoint guardado: %s (%.0f ms en segundo plano)\n",
+                    destino.getName(), (System.nanoTime() - inicio) / 1e6);
+            registrar(destino);
+
+        } catch (IOException e) {
+            System.err.println("❌ Error al guardar checkpoint: " + e.getMessage());
+            temporal.delete();
+        }
+    }
+
+    /**
+      Anota un checkpoint recién escrito y borra los más viejos que sobran
+     */
+    private synchronized void registrar(File checkpoint) {
+        escritos.remove(checkpoint);  // misma epoch otra vez: ahora es el más nuevo
+        escritos.addLast(checkpoint);
+        while (escritos.size() > maxCheckpoints) {
+            escritos.removeFirst().delete();
+        }
+    }
+
+    /**
+      Borra todos los checkpoints del directorio (también los temporales que
+      quedaron a medio escribir). Se usa al empezar un entrenamiento nuevo, para
+      que no se mezclen con los de uno anterior
+     */
+    public synchronized void vaciar() {
+        File[] archivos = directorio.listFiles((dir, nombre) -> nombre.startsWith(PREFIJO));
+        if (archivos != null) {
+            for (File archivo : archivos) {
+                archivo.delete();
+            }
+        }
+        escritos.clear();
+    }
+
+    /**
+      Checkpoints completos del directorio, del más viejo al más nuevo según
+      la fecha de escritura (a igual fecha, por número de epoch)
+     */
+    public File[] listar() {
+        File[] checkpoints = directorio.listFiles((dir, nombre) ->
+                nombre.startsWith(PREFIJO) && nombre.endsWith(".zip"));
+        if (checkpoints == null) {
+            return new File[0];
+        }
+        Arrays.sort(checkpoints, Comparator.comparingLong(File::lastModified).thenComparing(File::getName));
+        return checkpoints;
+    }
+
+    /**
+      Último checkpoint guardado (null si no hay ninguno)
+     */
+    public synchronized File getUltimo() {
+        return escritos.isEmpty() ? null : escritos.getLast();
+    }
+
+    /**
+      Lee la epoch y el generador aleatorio guardados en un checkpoint
+     */
+    public static EstadoEntrenamiento leerEstado(File checkpoint) {
+        EstadoEntrenamiento estado = ModelSerializer.getObjectFromFile(checkpoint, CLAVE_ESTADO);
+        if (estado == null) {
+            throw new IllegalArgumentException(checkpoint + " no tiene estado de entrenamiento");
+        }
+        return estado;
+    }
+
+    /**
+      Copia un generador aleatorio con su estado actual (serializándolo)
+     */
+    static Random copiarAleatorio(Random aleatorio) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (ObjectOutputStream salida = new ObjectOutputStream(bytes)) {
+                salida.writeObject(aleatorio);
+            }
+            try (ObjectInputStream entrada = new ObjectInputStream(
+                    new ByteArrayInputStream(bytes.toByteArray()))) {
+                return (Random) entrada.readObject();
+            }
+        } catch (IOException | ClassNotFoundException e) {
+            throw new IllegalStateException("No se pudo copiar el generador aleatorio", e);
+        }
+    }
+
+    /**
+      Espera a que terminen de escribirse los checkpoints pendientes
+     */
+    public void esperar() {
+        try {
+            while (escritor.getActiveCount() > 0 || !escritor.getQueue().isEmpty()) {
+                Thread.sleep(20);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+      Termina de escribir lo pendiente y detiene el hilo de escritura
+     */
+    @Override
+    public void close() {
+        escritor.shutdown();
+        try {
+            escritor.awaitTermination(10, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public File getDirectorio() {
+        return directorio;
+    }
+
+    /**
+      Estado del entrenamiento guardado junto con el modelo
+     */
+    public static class EstadoEntrenamiento implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private final int epoch;
+        private final Random aleatorio;
+
+        /**
+          @param epoch número de epochs ya completadas
+          @param aleatorio generador para mezclar los datos, en su estado actual
+         */
+        public EstadoEntrenamiento(int epoch, Random aleatorio) {
+            this.epoch = epoch;
+            this.aleatorio = aleatorio;
+        }
+
+        public int getEpoch() {
+            return epoch;
+        }
+
+        public Random getAleatorio() {
+            return aleatorio;
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.escuela;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+  Histograma de valores enteros (latencias en microsegundos, tamaños de lote, etc.)
+  Usa cubetas logarítmicas al estilo HdrHistogram: cada potencia de 2 se divide en
+  16 sub-cubetas, así el error relativo de los percentiles es menor al 6.25%
+  y los valores menores a 32 se guardan exactos.
+  Registrar un valor es un incremento atómico, sin candados ni objetos nuevos
+ */
+public class HistogramaLatencia {
+
+    private static final int BITS_SUBCUBETA = 4;
+    private static final int SUBCUBETAS = 1 << BITS_SUBCUBETA;
+    private static final int NUM_CUBETAS = 64 * SUBCUBETAS;
+
+    private final AtomicLongArray cuentas = new AtomicLongArray(NUM_CUBETAS);
+    private final LongAdder total = new LongAdder();
+    private final LongAdder suma = new LongAdder();
+    private final AtomicLong maximo = new AtomicLong();
+
+    /**
+      Registra un valor (los negativos cuentan como 0)
+     */
+    public void registrar(long valor) {
+        if (valor < 0) {
+            valor = 0;
+        }
+
+        cuentas.incrementAndGet(indice(valor));
+        total.increment();
+        suma.add(valor);
+
+        long actual = maximo.get();
+        while (valor > actual && !maximo.compareAndSet(actual, valor)) {
+            actual = maximo.get();
+        }
+    }
+
+    /**
+      Calcula un percentil
+      @param percentil entre 0 y 100 (ej.: 50, 99, 99.9)
+      @return valor aproximado del percentil (0 si no hay datos)
+     */
+    public long percentil(double percentil) {
+        long cuenta = 0;
+        long[] copia = new long[NUM_CUBETAS];
+        for (int i = 0; i < NUM_CUBETAS; i++) {
+            copia[i] = cuentas.get(i);
+            cuenta += copia[i];
+        }
+        if (cuenta == 0) {
+            return 0;
+        }
+
+        long rango = Math.max(1, (long) Math.ceil(percentil / 100.0 * cuenta));
+        long acumulado = 0;
+        for (int i = 0; i < NUM_CUBETAS; i++) {
+            acumulado += copia[i];
+            if (acumulado >= rango) {
+                return Math.min(limiteSuperior(i), maximo.get());
+            }
+        }
+        return maximo.get();
+    }
+
+    /**
+      Distribución de los valores: límite inferior de cada cubeta no vacía → cantidad
+     */
+    public Map<Long, Long> distribucion() {
+        Map<Long, Long> distribucion = new LinkedHashMap<>();
+        for (int i = 0; i < NUM_CUBETAS; i++) {
+            long cuenta = cuentas.get(i);
+            if (cuenta > 0) {
+                distribucion.put(limiteInferior(i), cuenta);
+            }
+        }
+        return distribucion;
+    }
+
+    /**
+      Borra todos los valores registrados
+     */
+    public void reiniciar() {
+        for (int i = 0; i < NUM_CUBETAS; i++) {
+            cuentas.set(i, 0);
+        }
+        total.reset();
+        suma.reset();
+        maximo.set(0);
+    }
+
+    /**
+      Cubeta de un valor: los valores menores a SUBCUBETAS van en su propia cubeta;
+      los demás se agrupan por potencia de 2 y por sus 4 bits más significativos
+     */
+    private static int indice(long valor) {
+        if (valor < SUBCUBETAS) {
+            return (int) valor;
+        }
+        int exponente = 63 - Long.numberOfLeadingZeros(valor);
+        int desplazamiento = exponente - BITS_SUBCUBETA;
+        int sub = (int) (valor >>> desplazamiento) & (SUBCUBETAS - 1);
+        return (desplazamiento + 1) * SUBCUBETAS + sub;
+    }
+
+    /**
+      Menor valor que cae en la cubeta indicada
+     */
+    private static long limiteInferior(int indice) {
+        if (indice < SUBCUBETAS) {
+            return indice;
+        }
+        int desplazamiento = indice / SUBCUBETAS - 1;
+        int sub = indice % SUBCUBETAS;
+        return (long) (SUBCUBETAS + sub) << desplazamiento;
+    }
+
+    /**
+      Mayor valor que cae en la cubeta indicada
+     */
+    private static long limiteSuperior(int indice) {
+        if (indice < SUBCUBETAS) {
+            return indice;
+        }
+        int desplazamiento = indice / SUBCUBETAS - 1;
+        int sub = indice % SUBCUBETAS;
+        return ((long) (SUBCUBETAS + sub) << desplazamiento) + (1L << desplazamiento) - 1;
+    }
+
+    // Getters
+    public long getCuenta() {
+        return total.sum();
+    }
+
+    public long getMaximo() {
+        return maximo.get();
+    }
+
+    public double getPromedio() {
+        long cuenta = total.sum();
+        return cuenta == 0 ? 0.0 : (double) suma.sum() / cuenta;
+    }
+}
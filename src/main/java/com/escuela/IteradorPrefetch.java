@@ -0,0 +1,362 @@
+package com.escuela;
+
+import org.nd4j.linalg.dataset.DataSet;
+import org.nd4j.linalg.dataset.api.DataSetPreProcessor;
+import org.nd4j.linalg.dataset.api.iterator.DataSetIterator;
+
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+  Iterador de batches que prepara los siguientes mientras la red entrena
+  Los batches se arman en hilos aparte y se guardan en una cola de futuros
+  en el mismo orden en que se piden, así model.fit no espera a que se copien
+  los datos. Cada reset() mezcla los ejemplos para una nueva epoch.
+
+  Con agrupación por longitud, las frases se ordenan por número de palabras
+  (mezcladas dentro de cada longitud) antes de partirlas en batches, y luego se
+  mezcla el orden de los batches. Así cada batch junta frases de largo parecido
+  y casi no tiene pasos de relleno.
+
+  También mide cuánto tiempo pasó next() esperando un batch que no estaba listo
+ */
+public class IteradorPrefetch implements DataSetIterator, AutoCloseable {
+
+    private static final AtomicInteger CONTADOR_HILOS = new AtomicInteger();
+
+    private final DatosVectorizados datos;
+    private final int batchSize;
+    private final int profundidad;
+    private final Random aleatorio;
+    private final boolean agruparPorLongitud;
+    private final ExecutorService ejecutor;  // null = preparar en el mismo hilo
+
+    private final ArrayDeque<Future<DataSet>> pendientes = new ArrayDeque<>();
+    private int[] indices;
+    private int[] ordenLotes;     // orden en que se entregan los batches de esta epoch
+    private int siguienteLote;    // posición en ordenLotes del próximo batch a pedir
+    private int desdeParcial;     // ejemplos ya entregados por next(num) del primer batch sin entregar
+    private DataSetPreProcessor preProcessor;
+
+    // Métricas
+    private long esperaNanos;
+    private int lotesEntregados;
+    private long pasosTotales;  // pasos de tiempo de los batches entregados
+    private long pasosReales;   // pasos con palabras (sin relleno)
+
+    /**
+      Constructor
+      @param datos datos de entrenamiento ya vectorizados
+      @param batchSize ejemplos por batch
+      @param hilos hilos que preparan batches (0 = sin prefetch)
+      @param profundidad número de batches preparados por adelantado
+      @param aleatorio generador para mezclar los ejemplos en cada epoch
+     */
+    public IteradorPrefetch(DatosVectorizados datos, int batchSize, int hilos, int profundidad, Random aleatorio) {
+        this(datos, batchSize, hilos, profundidad, aleatorio, false);
+    }
+
+    /**
+      Constructor
+      @param agruparPorLongitud juntar en cada batch frases de largo parecido
+     */
+    public IteradorPrefetch(DatosVectorizados datos, int batchSize, int hilos, int profundidad,
+                            Random aleatorio, boolean agruparPorLongitud) {
+        if (batchSize < 1 || hilos < 0 || profundidad < 1) {
+            throw new IllegalArgumentException("batchSize y profundidad deben ser al menos 1, hilos al menos 0");
+        }
+
+        this.datos = datos;
+        this.batchSize = batchSize;
+        this.profundidad = profundidad;
+        this.aleatorio = aleatorio;
+        this.agruparPorLongitud = agruparPorLongitud;
+        this.ejecutor = hilos == 0 ? null : Executors.newFixedThreadPool(hilos, tarea -> {
+            Thread hilo = new Thread(tarea, "prefetch-" + CONTADOR_HILOS.incrementAndGet());
+            hilo.setDaemon(true);
+            return hilo;
+        });
+
+        prepararEpoch(false);
+    }
+
+    /**
+      Empieza una nueva epoch: descarta los batches pendientes y mezcla los ejemplos
+     */
+    @Override
+    public void reset() {
+        prepararEpoch(true);
+    }
+
+    /**
+      Prepara el orden de los ejemplos y de los batches de una epoch
+      El constructor lo llama sin mezclar, así el generador aleatorio solo se usa
+      en reset() (una vez por epoch) y al reanudar un entrenamiento se repite la
+      misma secuencia de mezclas
+     */
+    private void prepararEpoch(boolean mezclarDatos) {
+        for (Future<DataSet> pendiente : pendientes) {
+            pendiente.cancel(false);
+        }
+        pendientes.clear();
+
+        // Arreglo nuevo: las tareas canceladas que sigan corriendo no ven la nueva mezcla
+        int n = datos.getNumEjemplos();
+        int[] mezcla = new int[n];
+        for (int i = 0; i < n; i++) {
+            mezcla[i] = i;
+        }
+        if (mezclarDatos) {
+            mezclar(mezcla);
+        }
+
+        int numLotes = (n + batchSize - 1) / batchSize;
+        int[] lotes = new int[numLotes];
+        for (int i = 0; i < numLotes; i++) {
+            lotes[i] = i;
+        }
+
+        if (agruparPorLongitud) {
+            mezcla = ordenarPorLongitud(mezcla);
+            if (mezclarDatos) {
+                mezclar(lotes);
+            }
+        }
+
+        indices = mezcla;
+        ordenLotes = lotes;
+        siguienteLote = 0;
+        desdeParcial = 0;
+        llenarCola();
+    }
+
+    /**
+      Mezcla un arreglo (Fisher-Yates)
+     */
+    private void mezclar(int[] arreglo) {
+        for (int i = arreglo.length - 1; i > 0; i--) {
+            int j = aleatorio.nextInt(i + 1);
+            int temporal = arreglo[i];
+            arreglo[i] = arreglo[j];
+            arreglo[j] = temporal;
+        }
+    }
+
+    /**
+      Ordena los ejemplos por longitud con counting sort (estable, así se
+      conserva la mezcla entre frases del mismo largo)
+     */
+    private int[] ordenarPorLongitud(int[] mezcla) {
+        int[] inicios = new int[datos.getMaxSequenceLength() + 2];
+        for (int ejemplo : mezcla) {
+            inicios[datos.getLongitud(ejemplo) + 1]++;
+        }
+        for (int l = 1; l < inicios.length; l++) {
+            inicios[l] += inicios[l - 1];
+        }
+
+        int[] ordenados = new int[mezcla.length];
+        for (int ejemplo : mezcla) {
+            ordenados[inicios[datos.getLongitud(ejemplo)]++] = ejemplo;
+        }
+        return ordenados;
+    }
+
+    /**
+      Pide batches hasta tener 'profundidad' preparándose
+     */
+    private void llenarCola() {
+        if (ejecutor == null) {
+            return;
+        }
+        while (pendientes.size() < profundidad && siguienteLote < ordenLotes.length) {
+            int inicioLote = ordenLotes[siguienteLote++] * batchSize;
+            int hasta = Math.min(inicioLote + batchSize, indices.length);
+            int desde = inicioLote + (pendientes.isEmpty() ? desdeParcial : 0);
+            int[] orden = indices;
+
+            pendientes.add(ejecutor.submit(() -> datos.lote(orden, desde, hasta)));
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        return ejecutor == null ? siguienteLote < ordenLotes.length : !pendientes.isEmpty();
+    }
+
+    @Override
+    public DataSet next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException("No quedan batches en esta epoch");
+        }
+
+        long inicio = System.nanoTime();
+        DataSet batch;
+        try {
+            if (ejecutor == null) {
+                // Sin prefetch: el batch se arma ahora y todo ese tiempo es espera
+                int inicioLote = ordenLotes[siguienteLote++] * batchSize;
+                batch = datos.lote(indices, inicioLote + desdeParcial,
+                        Math.min(inicioLote + batchSize, indices.length));
+            } else {
+                batch = pendientes.poll().get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrumpido esperando un batch", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Error al preparar un batch", e.getCause());
+        }
+        desdeParcial = 0;
+        return entregar(batch, inicio);
+    }
+
+    /**
+      Entrega los siguientes num ejemplos en el orden de esta epoch, aunque no
+      coincidan con los límites de los batches
+      Los batches que ya se estaban preparando se descartan y el prefetch sigue
+      desde donde quedó la entrega, así ningún ejemplo se repite ni se salta
+     */
+    @Override
+    public DataSet next(int num) {
+        if (num < 1) {
+            throw new IllegalArgumentException("num debe ser al menos 1");
+        }
+        if (!hasNext()) {
+            throw new NoSuchElementException("No quedan batches en esta epoch");
+        }
+
+        long inicio = System.nanoTime();
+        for (Future<DataSet> pendiente : pendientes) {
+            pendiente.cancel(false);
+        }
+        siguienteLote -= pendientes.size();
+        pendientes.clear();
+
+        int[] elegidos = new int[num];
+        int n = 0;
+        while (n < num && siguienteLote < ordenLotes.length) {
+            int inicioLote = ordenLotes[siguienteLote] * batchSize;
+            int finLote = Math.min(inicioLote + batchSize, indices.length);
+            int desde = inicioLote + desdeParcial;
+            int tomados = Math.min(num - n, finLote - desde);
+            System.arraycopy(indices, desde, elegidos, n, tomados);
+            n += tomados;
+
+            if (desde + tomados == finLote) {
+                siguienteLote++;
+                desdeParcial = 0;
+            } else {
+                desdeParcial += tomados;
+            }
+        }
+
+        return entregar(datos.lote(elegidos, 0, n), inicio);
+    }
+
+    /**
+      Actualiza las métricas, pide más batches y aplica el preprocesador
+     */
+    private DataSet entregar(DataSet batch, long inicio) {
+        esperaNanos += System.nanoTime() - inicio;
+        lotesEntregados++;
+        pasosTotales += batch.getFeatures().size(0) * batch.getFeatures().size(2);
+        pasosReales += batch.getFeaturesMaskArray().sumNumber().longValue();
+
+        llenarCola();
+
+        if (preProcessor != null) {
+            preProcessor.preProcess(batch);
+        }
+        return batch;
+    }
+
+    /**
+      Tiempo que next() pasó esperando datos desde el último reiniciarMetricas()
+     */
+    public long getEsperaNanos() {
+        return esperaNanos;
+    }
+
+    public int getLotesEntregados() {
+        return lotesEntregados;
+    }
+
+    /**
+      Fracción de pasos de tiempo que fueron relleno (0 = ninguno)
+     */
+    public double getFraccionRelleno() {
+        return pasosTotales == 0 ? 0.0 : 1.0 - (double) pasosReales / pasosTotales;
+    }
+
+    public void reiniciarMetricas() {
+        esperaNanos = 0;
+        lotesEntregados = 0;
+        pasosTotales = 0;
+        pasosReales = 0;
+    }
+
+    /**
+      Detiene los hilos de prefetch
+     */
+    @Override
+    public void close() {
+        for (Future<DataSet> pendiente : pendientes) {
+            pendiente.cancel(false);
+        }
+        pendientes.clear();
+        if (ejecutor != null) {
+            ejecutor.shutdownNow();
+        }
+    }
+
+    @Override
+    public int inputColumns() {
+        return datos.getVectorSize();
+    }
+
+    @Override
+    public int totalOutcomes() {
+        return datos.getNumClases();
+    }
+
+    @Override
+    public boolean resetSupported() {
+        return true;
+    }
+
+    /**
+      El prefetch ya es asíncrono: así DL4J no lo envuelve en otro iterador
+     */
+    @Override
+    public boolean asyncSupported() {
+        return false;
+    }
+
+    @Override
+    public int batch() {
+        return batchSize;
+    }
+
+    @Override
+    public void setPreProcessor(DataSetPreProcessor preProcessor) {
+        this.preProcessor = preProcessor;
+    }
+
+    @Override
+    public DataSetPreProcessor getPreProcessor() {
+        return preProcessor;
+    }
+
+    @Override
+    public List<String> getLabels() {
+        return null;
+    }
+}
@@ -0,0 +1,218 @@
+package com.escuela;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+  Lector y escritor mínimo de JSON (sin dependencias externas)
+  Convierte el texto JSON en objetos de Java:
+  objeto → Map, arreglo → List, texto → String, número → Double, true/false → Boolean, null → null
+ */
+public class JsonSimple {
+
+    private final String json;
+    private int posicion;
+
+    private JsonSimple(String json) {
+        this.json = json;
+        this.posicion = 0;
+    }
+
+    /**
+      Convierte un texto JSON en objetos de Java
+      @throws IllegalArgumentException si el JSON no es válido
+     */
+    public static Object parsear(String json) {
+        JsonSimple lector = new JsonSimple(json);
+        Object valor = lector.leerValor();
+        lector.saltarEspacios();
+        if (lector.posicion != json.length()) {
+            throw lector.error("Contenido extra después del JSON");
+        }
+        return valor;
+    }
+
+    /**
+      Escribe un texto como cadena JSON (con comillas y caracteres escapados)
+     */
+    public static String escapar(String texto) {
+        StringBuilder sb = new StringBuilder(texto.length() + 2);
+        sb.append('"');
+        for (int i = 0; i < texto.length(); i++) {
+            char c = texto.charAt(i);
+            switch (c) {
+                case '"': sb.append("\\\""); break;
+                case '\\': sb.append("\\\\"); break;
+                case '\n': sb.append("\\n"); break;
+                case '\r': sb.append("\\r"); break;
+                case '\t': sb.append("\\t"); break;
+                case '\b': sb.append("\\b"); break;
+                case '\f': sb.append("\\f"); break;
+                default:
+                    if (c < 0x20) {
+                        sb.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        sb.append(c);
+                    }
+            }
+        }
+        sb.append('"');
+        return sb.toString();
+    }
+
+    private Object leerValor() {
+        saltarEspacios();
+        if (posicion >= json.length()) {
+            throw error("Fin inesperado del JSON");
+        }
+
+        char c = json.charAt(posicion);
+        switch (c) {
+            case '{': return leerObjeto();
+            case '[': return leerArreglo();
+            case '"': return leerTexto();
+            case 't': return leerLiteral("true", Boolean.TRUE);
+            case 'f': return leerLiteral("false", Boolean.FALSE);
+            case 'n': return leerLiteral("null", null);
+            default:
+                if (c == '-' || (c >= '0' && c <= '9')) {
+                    return leerNumero();
+                }
+                throw error("Carácter inesperado '" + c + "'");
+        }
+    }
+
+    private Map<String, Object> leerObjeto() {
+        Map<String, Object> objeto = new LinkedHashMap<>();
+        posicion++; // {
+        saltarEspacios();
+        if (siguienteEs('}')) {
+            return objeto;
+        }
+
+        while (true) {
+            saltarEspacios();
+            if (posicion >= json.length() || json.charAt(posicion) != '"') {
+                throw error("Se esperaba el nombre de un campo");
+            }
+            String clave = leerTexto();
+            saltarEspacios();
+            if (!siguienteEs(':')) {
+                throw error("Se esperaba ':'");
+            }
+            objeto.put(clave, leerValor());
+            saltarEspacios();
+            if (siguienteEs('}')) {
+                return objeto;
+            }
+            if (!siguienteEs(',')) {
+                throw error("Se esperaba ',' o '}'");
+            }
+        }
+    }
+
+    private List<Object> leerArreglo() {
+        List<Object> arreglo = new ArrayList<>();
+        posicion++; // [
+        saltarEspacios();
+        if (siguienteEs(']')) {
+            return arreglo;
+        }
+
+        while (true) {
+            arreglo.add(leerValor());
+            saltarEspacios();
+            if (siguienteEs(']')) {
+                return arreglo;
+            }
+            if (!siguienteEs(',')) {
+                throw error("Se esperaba ',' o ']'");
+            }
+        }
+    }
+
+    private String leerTexto() {
+        posicion++; // comilla inicial
+        StringBuilder sb = new StringBuilder();
+
+        while (posicion < json.length()) {
+            char c = json.charAt(posicion++);
+            if (c == '"') {
+                return sb.toString();
+            }
+            if (c != '\\') {
+                sb.append(c);
+                continue;
+            }
+
+            if (posicion >= json.length()) {
+                break;
+            }
+            char escape = json.charAt(posicion++);
+            switch (escape) {
+                case '"': sb.append('"'); break;
+                case '\\': sb.append('\\'); break;
+                case '/': sb.append('/'); break;
+                case 'b': sb.append('\b'); break;
+                case 'f': sb.append('\f'); break;
+                case 'n': sb.append('\n'); break;
+                case 'r': sb.append('\r'); break;
+                case 't': sb.append('\t'); break;
+                case 'u':
+                    if (posicion + 4 > json.length()) {
+                        throw error("Escape \\u incompleto");
+                    }
+                    try {
+                        sb.append((char) Integer.parseInt(json.substring(posicion, posicion + 4), 16));
+                    } catch (NumberFormatException e) {
+                        throw error("Escape \\u inválido");
+                    }
+                    posicion += 4;
+                    break;
+                default:
+                    throw error("Escape inválido '\\" + escape + "'");
+            }
+        }
+        throw error("Texto sin cerrar");
+    }
+
+    private Double leerNumero() {
+        int inicio = posicion;
+        while (posicion < json.length() && "+-0123456789.eE".indexOf(json.charAt(posicion)) >= 0) {
+            posicion++;
+        }
+        try {
+            return Double.parseDouble(json.substring(inicio, posicion));
+        } catch (NumberFormatException e) {
+            throw error("Número inválido");
+        }
+    }
+
+    private Object leerLiteral(String literal, Object valor) {
+        if (!json.startsWith(literal, posicion)) {
+            throw error("Valor inválido");
+        }
+        posicion += literal.length();
+        return valor;
+    }
+
+    private boolean siguienteEs(char c) {
+        if (posicion < json.length() && json.charAt(posicion) == c) {
+            posicion++;
+            return true;
+        }
+        return false;
+    }
+
+    private void saltarEspacios() {
+        while (posicion < json.length() && Character.isWhitespace(json.charAt(posicion))) {
+            posicion++;
+        }
+    }
+
+    private IllegalArgumentException error(String mensaje) {
+        return new IllegalArgumentException("JSON inválido en posición " + posicion + ": " + mensaje);
+    }
+}
@@ -0,0 +1,280 @@
+package com.escuela;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.StandardMBean;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+  Métricas de EmotionPredictor por etapa, expuestas como MBeans JMX
+  (se ven con jconsole o VisualVM en com.escuela:type=Prediccion)
+
+  Cada bloque de predecirLote (una pasada de la red) registra el tiempo de sus
+  etapas en histogramas HistogramaLatencia, en nanosegundos:
+  - preprocesamiento: limpiarTexto + tokenizar (TextPreprocessor lo hace en una sola pasada)
+  - cascada: clasificador lineal de primer nivel (solo con la cascada activada)
+  - vectorizacion: tensor de vectores Word2Vec y máscara
+  - red: model.output y promedio en el tiempo
+  - resultado: probabilidades de cada fila, caché y ResultadoPrediccion
+  - total: el bloque completo
+  Además cuenta frases, lotes, tokens y tokens fuera del vocabulario de Word2Vec.
+
+  Registrar es un incremento atómico por valor, sin candados. Con las métricas
+  desactivadas EmotionPredictor no llama a System.nanoTime ni a esta clase
+ */
+public class MetricasPrediccion implements MetricasPrediccionMBean {
+
+    private static final String DOMINIO_JMX = "com.escuela:type=Prediccion,name=";
+
+    final Etapa preprocesamiento = new Etapa("preprocesamiento");
+    final Etapa cascada = new Etapa("cascada");
+    final Etapa vectorizacion = new Etapa("vectorizacion");
+    final Etapa red = new Etapa("red");
+    final Etapa resultado = new Etapa("resultado");
+    final Etapa total = new Etapa("total");
+    private final Etapa[] etapas = {preprocesamiento, cascada, vectorizacion, red, resultado, total};
+
+    private final HistogramaLatencia tamanosLote = new HistogramaLatencia();
+    private final LongAdder frases = new LongAdder();
+    private final LongAdder lotes = new LongAdder();
+    private final LongAdder tokens = new LongAdder();
+    private final LongAdder tokensDesconocidos = new LongAdder();
+    private volatile long inicioNanos = System.nanoTime();
+
+    // Nombres con los que está registrado en JMX (vacío = no registrado)
+    private final List<ObjectName> nombresJmx = new ArrayList<>();
+
+    /**
+      Registra un bloque de frases (una llamada a predecirBloque)
+     */
+    void registrarLote(int numFrases) {
+        frases.add(numFrases);
+        lotes.increment();
+        tamanosLote.registrar(numFrases);
+    }
+
+    /**
+      Registra los tokens de una frase que ve el modelo y cuántos no están en Word2Vec
+     */
+    void registrarTokens(int numTokens, int desconocidos) {
+        tokens.add(numTokens);
+        tokensDesconocidos.add(desconocidos);
+    }
+
+    /**
+      Registra estas métricas en el servidor JMX de la plataforma
+      @param nombre nombre del predictor (por ejemplo "EmotionPredictor")
+     */
+    public synchronized void registrarJmx(String nombre) {
+        if (!nombresJmx.isEmpty()) {
+            throw new IllegalStateException("Las métricas ya están registradas en JMX");
+        }
+
+        MBeanServer servidor = ManagementFactory.getPlatformMBeanServer();
+        try {
+            ObjectName principal = new ObjectName(DOMINIO_JMX + ObjectName.quote(nombre));
+            servidor.registerMBean(this, principal);
+            nombresJmx.add(principal);
+
+            for (Etapa etapa : etapas) {
+                ObjectName nombreEtapa = new ObjectName(DOMINIO_JMX + ObjectName.quote(nombre)
+                        + ",etapa=" + etapa.nombre);
+                servidor.registerMBean(new StandardMBean(etapa, EtapaMBean.class), nombreEtapa);
+                nombresJmx.add(nombreEtapa);
+            }
+        } catch (JMException e) {
+            desregistrarJmx();
+            throw new IllegalStateException("No se pudieron registrar las métricas en JMX: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+      Quita estas métricas del servidor JMX (si estaban registradas)
+     */
+    public synchronized void desregistrarJmx() {
+        MBeanServer servidor = ManagementFactory.getPlatformMBeanServer();
+        for (ObjectName nombre : nombresJmx) {
+            try {
+                servidor.unregisterMBean(nombre);
+            } catch (JMException e) {
+                // ya no estaba registrado
+            }
+        }
+        nombresJmx.clear();
+    }
+
+    public synchronized boolean estaRegistradoJmx() {
+        return !nombresJmx.isEmpty();
+    }
+
+    @Override
+    public void reiniciar() {
+        for (Etapa etapa : etapas) {
+            etapa.tiempos.reiniciar();
+        }
+        tamanosLote.reiniciar();
+        frases.reset();
+        lotes.reset();
+        tokens.reset();
+        tokensDesconocidos.reset();
+        inicioNanos = System.nanoTime();
+    }
+
+    /**
+      Muestra las métricas en consola
+     */
+    public void mostrar() {
+        System.out.println("\n=== MÉTRICAS DE PREDICCIÓN ===");
+        System.out.printf("Frases: %d en %d lotes (%.1f frases/s)\n", getFrases(), getLotes(), getFrasesPorSegundo());
+        System.out.printf("Tokens: %d, fuera del vocabulario: %d (%.1f%%)\n",
+                getTokens(), getTokensDesconocidos(), getFraccionDesconocidos() * 100);
+        System.out.printf("Tamaño de lote: promedio = %.1f, p50 = %d, p99 = %d, máx = %d\n",
+                getTamanoLotePromedio(), getTamanoLoteP50(), getTamanoLoteP99(), getTamanoLoteMaximo());
+        System.out.printf("%-18s%10s%12s%12s%12s%12s\n", "Etapa (µs/lote)", "Lotes", "Promedio", "p50", "p99", "Máx");
+        for (Etapa etapa : etapas) {
+            if (etapa.getCuenta() > 0) {
+                System.out.printf("%-18s%10d%12.1f%12.1f%12.1f%12.1f\n", etapa.nombre, etapa.getCuenta(),
+                        etapa.getPromedioMicros(), etapa.getP50Micros(), etapa.getP99Micros(), etapa.getMaximoMicros());
+            }
+        }
+        System.out.println("==============================\n");
+    }
+
+    public Etapa getEtapa(String nombre) {
+        for (Etapa etapa : etapas) {
+            if (etapa.nombre.equals(nombre)) {
+                return etapa;
+            }
+        }
+        throw new IllegalArgumentException("Etapa desconocida: " + nombre);
+    }
+
+    @Override
+    public long getFrases() {
+        return frases.sum();
+    }
+
+    @Override
+    public long getLotes() {
+        return lotes.sum();
+    }
+
+    @Override
+    public double getFrasesPorSegundo() {
+        double segundos = (System.nanoTime() - inicioNanos) / 1e9;
+        return segundos == 0 ? 0 : frases.sum() / segundos;
+    }
+
+    @Override
+    public long getTokens() {
+        return tokens.sum();
+    }
+
+    @Override
+    public long getTokensDesconocidos() {
+        return tokensDesconocidos.sum();
+    }
+
+    @Override
+    public double getFraccionDesconocidos() {
+        long cuenta = tokens.sum();
+        return cuenta == 0 ? 0 : (double) tokensDesconocidos.sum() / cuenta;
+    }
+
+    @Override
+    public double getTamanoLotePromedio() {
+        return tamanosLote.getPromedio();
+    }
+
+    @Override
+    public long getTamanoLoteP50() {
+        return tamanosLote.percentil(50);
+    }
+
+    @Override
+    public long getTamanoLoteP99() {
+        return tamanosLote.percentil(99);
+    }
+
+    @Override
+    public long getTamanoLoteMaximo() {
+        return tamanosLote.getMaximo();
+    }
+
+    @Override
+    public String getDistribucionTamanoLote() {
+        return tamanosLote.distribucion().toString();
+    }
+
+    /**
+      Atributos JMX de una etapa (tiempos por lote en microsegundos)
+     */
+    public interface EtapaMBean {
+
+        long getCuenta();
+
+        double getPromedioMicros();
+
+        double getP50Micros();
+
+        double getP99Micros();
+
+        double getP999Micros();
+
+        double getMaximoMicros();
+    }
+
+    /**
+      Histograma de los tiempos de una etapa, en nanosegundos
+     */
+    public static class Etapa implements EtapaMBean {
+        private final String nombre;
+        private final HistogramaLatencia tiempos = new HistogramaLatencia();
+
+        Etapa(String nombre) {
+            this.nombre = nombre;
+        }
+
+        void registrar(long nanos) {
+            tiempos.registrar(nanos);
+        }
+
+        public String getNombre() {
+            return nombre;
+        }
+
+        @Override
+        public long getCuenta() {
+            return tiempos.getCuenta();
+        }
+
+        @Override
+        public double getPromedioMicros() {
+            return tiempos.getPromedio() / 1000.0;
+        }
+
+        @Override
+        public double getP50Micros() {
+            return tiempos.percentil(50) / 1000.0;
+        }
+
+        @Override
+        public double getP99Micros() {
+            return tiempos.percentil(99) / 1000.0;
+        }
+
+        @Override
+        public double getP999Micros() {
+            return tiempos.percentil(99.9) / 1000.0;
+        }
+
+        @Override
+        public double getMaximoMicros() {
+            return tiempos.getMaximo() / 1000.0;
+        }
+    }
+}
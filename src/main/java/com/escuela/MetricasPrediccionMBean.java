@@ -0,0 +1,32 @@
+package com.escuela;
+
+/**
+  Atributos JMX de MetricasPrediccion (contadores y tamaños de lote)
+  Los tiempos de cada etapa se registran aparte, un MBean por etapa
+ */
+public interface MetricasPrediccionMBean {
+
+    long getFrases();
+
+    long getLotes();
+
+    double getFrasesPorSegundo();
+
+    long getTokens();
+
+    long getTokensDesconocidos();
+
+    double getFraccionDesconocidos();
+
+    double getTamanoLotePromedio();
+
+    long getTamanoLoteP50();
+
+    long getTamanoLoteP99();
+
+    long getTamanoLoteMaximo();
+
+    String getDistribucionTamanoLote();
+
+    void reiniciar();
+}
@@ -1,13 +1,12 @@
 package com.escuela;
 
 import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
-import org.nd4j.linalg.api.ndarray.INDArray;
-import org.nd4j.linalg.factory.Nd4j;
-import org.nd4j.linalg.indexing.NDArrayIndex;
+import org.nd4j.linalg.dataset.DataSet;
 
-import java.util.ArrayList;
-import java.util.Collections;
+import java.io.File;
 import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
 
 /**
   Clase para entrenar el modelo de clasificación de emociones
@@ -19,6 +18,37 @@ public class ModelTrainer {
     private DataLoader trainData;
     private DataLoader testData;
 
+    // Datos de entrenamiento vectorizados una sola vez (se crean en la primera epoch)
+    private DatosVectorizados datosVectorizados;
+    private File archivoCache;  // null = decidir según la memoria disponible
+    private Random aleatorio = new Random();
+
+    // Checkpoints periódicos (null = desactivados) y epoch desde donde se reanuda
+    private GestorCheckpoints checkpoints;
+    private int checkpointCadaEpochs;
+    private long checkpointCadaNanos;
+    private int epochInicial = 0;
+
+    // Prefetch de batches: se preparan en otros hilos mientras corre model.fit
+    private IteradorPrefetch iterador;
+    private int hilosPrefetch = 1;
+    private int profundidadPrefetch = 4;
+    private boolean agruparPorLongitud = true;
+
+    // Entrenamiento en paralelo (null = un solo hilo)
+    private EntrenadorParalelo paralelo;
+
+    // Evaluación con el conjunto de prueba (en lotes grandes)
+    private EvaluadorModelo evaluador;
+    private int tamanoLoteEvaluacion = 512;
+    private int replicasEvaluacion = 1;
+    private int frecuenciaEvaluacion = 10;  // cada cuántas epochs (0 = solo al final)
+
+    // Tiempos de la última epoch
+    private long ultimaEsperaDatosNanos;
+    private long ultimoFitNanos;
+    private double ultimaFraccionRelleno;
+
     /**
       Constructor
      */
@@ -32,30 +62,6 @@ public class ModelTrainer {
         this.testData = testData;
     }
 
-    /**
-      Prepara las etiquetas (labels) en formato one-hot encoding
-      One-hot encoding convierte:
-     "joy" (índice 0) → [1, 0, 0, 0, 0]
-     "sadness" (índice 1) → [0, 1, 0, 0, 0]
-     etc.
-     */
-    private INDArray prepararLabels(List<String> emociones, int numClases) {
-        int numEjemplos = emociones.size();
-        INDArray labels = Nd4j.zeros(numEjemplos, numClases, vectorizer.getMaxSequenceLength());
-
-        for (int i = 0; i < numEjemplos; i++) {
-            String emocion = emociones.get(i);
-            int claseIndex = trainData.emocionANumero(emocion);
-
-            // Marca la clase correcta con 1 en las posiciones de tiempo
-            for (int t = 0; t < vectorizer.getMaxSequenceLength(); t++) {
-                labels.putScalar(new int[]{i, claseIndex, t}, 1.0);
-            }
-        }
-
-        return labels;
-    }
-
     /**
       Entrena el modelo
       @param numEpochs número de veces que verá todos los datos
@@ -69,100 +75,288 @@ public class ModelTrainer {
         System.out.println("Configuración:");
         System.out.println("  • Epochs: " + numEpochs);
         System.out.println("  • Batch size: " + batchSize);
+        System.out.println("  • Prefetch: " + hilosPrefetch + " hilo(s), " + profundidadPrefetch + " batches");
+        System.out.println("  • Agrupar por longitud: " + (agruparPorLongitud ? "sí" : "no"));
+        if (paralelo != null) {
+            System.out.println("  • Trabajadores en paralelo: " + paralelo.getNumTrabajadores()
+                    + " (promedio cada " + paralelo.getFrecuenciaPromedio() + " batches)");
+            paralelo.reiniciarMetricas();
+        }
         System.out.println("  • Ejemplos de entrenamiento: " + trainData.getNumeroEjemplos());
         System.out.println("  • Ejemplos de prueba: " + testData.getNumeroEjemplos());
         System.out.println();
 
-        // Preparar datos de entrenamiento
-        System.out.println("Preparando datos...");
-        List<String> textos = trainData.getTextos();
-        List<String> emociones = trainData.getEmociones();
+        double esperaTotalMs = 0;
+        double fitTotalMs = 0;
 
-        // Crear índices para mezclar los datos
-        List<Integer> indices = new ArrayList<>();
-        for (int i = 0; i < textos.size(); i++) {
-            indices.add(i);
+        if (epochInicial > 0) {
+            System.out.println("⏯️ Reanudando desde la epoch " + (epochInicial + 1) + "\n");
         }
+        long ultimoCheckpoint = System.nanoTime();
 
         // Entrenar por cada epoch
-        for (int epoch = 0; epoch < numEpochs; epoch++) {
-            // Mezclar datos al inicio de cada epoch (importante para aprendizaje)
-            Collections.shuffle(indices);
+        for (int epoch = epochInicial; epoch < numEpochs; epoch++) {
+            double avgLoss = entrenarUnaEpoch(batchSize);
+            esperaTotalMs += getUltimaEsperaDatosMs();
+            fitTotalMs += getUltimoFitMs();
+
+            // Checkpoint cada N epochs o cada N minutos (se escribe en otro hilo)
+            if (checkpoints != null) {
+                boolean porEpochs = checkpointCadaEpochs > 0 && (epoch + 1) % checkpointCadaEpochs == 0;
+                boolean porTiempo = checkpointCadaNanos > 0 && System.nanoTime() - ultimoCheckpoint >= checkpointCadaNanos;
+                if (porEpochs || porTiempo) {
+                    checkpoints.guardarAsync(model, epoch + 1, aleatorio);
+                    ultimoCheckpoint = System.nanoTime();
+                }
+            }
 
-            double totalLoss = 0;
-            int numBatches = 0;
+            // Evaluar en datos de prueba cada 'frecuenciaEvaluacion' epochs
+            if (frecuenciaEvaluacion > 0 && ((epoch + 1) % frecuenciaEvaluacion == 0 || epoch == 0)) {
+                double accuracy = evaluarPrecision();
+                System.out.printf("Epoch %3d/%d - Loss: %.4f - Precisión Test: %.2f%% - Espera datos: %.1f ms / fit: %.1f ms\n",
+                        epoch + 1, numEpochs, avgLoss, accuracy * 100,
+                        getUltimaEsperaDatosMs(), getUltimoFitMs());
+            } else {
+                System.out.printf("Epoch %3d/%d - Loss: %.4f - Espera datos: %.1f ms / fit: %.1f ms\n",
+                        epoch + 1, numEpochs, avgLoss, getUltimaEsperaDatosMs(), getUltimoFitMs());
+            }
+        }
 
-            // Procesar en batches
-            for (int i = 0; i < textos.size(); i += batchSize) {
-                int endIdx = Math.min(i + batchSize, textos.size());
+        System.out.printf("\nTiempo esperando datos: %.0f ms, tiempo en fit: %.0f ms (%.1f%% de espera)\n",
+                esperaTotalMs, fitTotalMs, 100 * esperaTotalMs / Math.max(1e-9, esperaTotalMs + fitTotalMs));
+        System.out.printf("Pasos de relleno en la última epoch: %.1f%%\n", ultimaFraccionRelleno * 100);
+        if (paralelo != null) {
+            paralelo.mostrarEstadisticas();
+        }
+        if (checkpoints != null) {
+            checkpoints.esperar();
+        }
+        epochInicial = 0;
+        System.out.println("\n✅ ¡Entrenamiento completado!\n");
 
-                // Crear batch
-                List<String> batchTextos = new ArrayList<>();
-                List<String> batchEmociones = new ArrayList<>();
+        // Reporte completo con el modelo final
+        evaluar().mostrar();
 
-                for (int j = i; j < endIdx; j++) {
-                    int idx = indices.get(j);
-                    batchTextos.add(textos.get(idx));
-                    batchEmociones.add(emociones.get(idx));
-                }
+    }
 
-                // Vectorizar el batch
-                INDArray features = vectorizer.textosAVectores(batchTextos);
-                INDArray labels = prepararLabels(batchEmociones, trainData.getNumeroClases());
+    /**
+      Entrena una epoch completa: mezcla los datos y recorre todos los batches
+      @param batchSize número de ejemplos por batch
+      @return pérdida promedio de la epoch
+     */
+    public double entrenarUnaEpoch(int batchSize) {
+        IteradorPrefetch batches = obtenerIterador(batchSize);
+
+        // Mezclar datos al inicio de cada epoch (importante para aprendizaje)
+        batches.reset();
+        batches.reiniciarMetricas();
+
+        // Entrenamiento en paralelo: los trabajadores toman los batches del mismo iterador
+        if (paralelo != null) {
+            long inicio = System.nanoTime();
+            double avgLoss = paralelo.entrenarEpoch(batches);
+
+            ultimaEsperaDatosNanos = batches.getEsperaNanos();
+            ultimoFitNanos = System.nanoTime() - inicio - ultimaEsperaDatosNanos;
+            ultimaFraccionRelleno = batches.getFraccionRelleno();
+            return avgLoss;
+        }
 
-                // Entrenar con este batch
-                model.fit(features, labels);
+        double totalLoss = 0;
+        int numBatches = 0;
+        long fitNanos = 0;
 
-                // Acumular pérdida para estadísticas
-                totalLoss += model.score();
-                numBatches++;
-            }
+        // Procesar en batches (los siguientes se preparan mientras tanto)
+        while (batches.hasNext()) {
+            DataSet batch = batches.next();
 
-            // Calcular pérdida promedio del epoch
-            double avgLoss = totalLoss / numBatches;
+            // Entrenar con este batch
+            long inicio = System.nanoTime();
+            model.fit(batch);
+            fitNanos += System.nanoTime() - inicio;
 
-            // Evaluar en datos de prueba cada 10 epochs
-            if ((epoch + 1) % 10 == 0 || epoch == 0) {
-                double accuracy = evaluarPrecision();
-                System.out.printf("Epoch %3d/%d - Loss: %.4f - Precisión Test: %.2f%%\n",
-                        epoch + 1, numEpochs, avgLoss, accuracy * 100);
-            } else {
-                System.out.printf("Epoch %3d/%d - Loss: %.4f\n",
-                        epoch + 1, numEpochs, avgLoss);
-            }
+            // Acumular pérdida para estadísticas
+            totalLoss += model.score();
+            numBatches++;
         }
 
-        System.out.println("\n✅ ¡Entrenamiento completado!\n");
+        ultimaEsperaDatosNanos = batches.getEsperaNanos();
+        ultimoFitNanos = fitNanos;
+        ultimaFraccionRelleno = batches.getFraccionRelleno();
 
+        // Calcular pérdida promedio del epoch
+        return totalLoss / numBatches;
     }
 
     /**
-      Evalúa la precisión del modelo en el conjunto de prueba
+      Crea el iterador de batches (o uno nuevo si cambió el tamaño del batch)
      */
-    private double evaluarPrecision() {
-        List<String> textosTest = testData.getTextos();
-        List<String> emocionesTest = testData.getEmociones();
+    private IteradorPrefetch obtenerIterador(int batchSize) {
+        if (iterador == null || iterador.batch() != batchSize) {
+            cerrarIterador();
+            iterador = new IteradorPrefetch(obtenerDatosVectorizados(), batchSize,
+                    hilosPrefetch, profundidadPrefetch, aleatorio, agruparPorLongitud);
+        }
+        return iterador;
+    }
 
-        int correctos = 0;
+    private void cerrarIterador() {
+        if (iterador != null) {
+            iterador.close();
+            iterador = null;
+        }
+    }
 
-        for (int i = 0; i < textosTest.size(); i++) {
-            String texto = textosTest.get(i);
-            String emocionReal = emocionesTest.get(i);
-            INDArray features = vectorizer.textoAVector(texto);
-            INDArray output = model.output(features);
+    /**
+      Configura el prefetch de batches
+      @param hilos hilos que preparan batches (0 = prepararlos en el hilo de entrenamiento)
+      @param profundidad número de batches preparados por adelantado
+     */
+    public void setPrefetch(int hilos, int profundidad) {
+        cerrarIterador();
+        this.hilosPrefetch = hilos;
+        this.profundidadPrefetch = profundidad;
+    }
 
-            // Obtener la clase con mayor probabilidad
-            // Promedio de aciertos
-            INDArray promedioTemporal = output.mean(2); // [1, numClases]
-            int prediccion = Nd4j.argMax(promedioTemporal, 1).getInt(0);
+    /**
+      Activa los checkpoints periódicos
+      @param gestor dónde y cuántos checkpoints guardar
+      @param cadaEpochs guardar cada N epochs (0 = no usar este criterio)
+      @param cadaMinutos guardar cada N minutos (0 = no usar este criterio)
+     */
+    public void setCheckpoints(GestorCheckpoints gestor, int cadaEpochs, int cadaMinutos) {
+        this.checkpoints = gestor;
+        this.checkpointCadaEpochs = cadaEpochs;
+        this.checkpointCadaNanos = TimeUnit.MINUTES.toNanos(cadaMinutos);
+    }
 
-            String emocionPredicha = testData.numeroAEmocion(prediccion);
+    /**
+      Continúa un entrenamiento desde un checkpoint
+      El modelo del checkpoint ya debe estar cargado en la red que recibe este
+      entrenador; aquí se recuperan la epoch y el generador de la mezcla de datos
+     */
+    public void reanudar(GestorCheckpoints.EstadoEntrenamiento estado) {
+        cerrarIterador();
+        this.epochInicial = estado.getEpoch();
+        this.aleatorio = GestorCheckpoints.copiarAleatorio(estado.getAleatorio());
+    }
 
-            if (emocionReal.equals(emocionPredicha)) {
-                correctos++;
-            }
+    /**
+      Activa el entrenamiento en paralelo por promedio de parámetros
+      @param trabajadores copias del modelo entrenando al mismo tiempo (1 = desactivar)
+      @param frecuenciaPromedio batches por trabajador entre cada promedio
+     */
+    public void setEntrenamientoParalelo(int trabajadores, int frecuenciaPromedio) {
+        if (paralelo != null) {
+            paralelo.close();
+            paralelo = null;
+        }
+        if (trabajadores > 1) {
+            paralelo = new EntrenadorParalelo(model, trabajadores, frecuenciaPromedio);
+        }
+    }
+
+    /**
+      Agrupa en cada batch frases de largo parecido para reducir el relleno
+      (activado por defecto)
+     */
+    public void setAgruparPorLongitud(boolean agrupar) {
+        cerrarIterador();
+        this.agruparPorLongitud = agrupar;
+    }
+
+    /**
+      Fracción de pasos de tiempo de relleno en la última epoch
+     */
+    public double getUltimaFraccionRelleno() {
+        return ultimaFraccionRelleno;
+    }
+
+    /**
+      Tiempo que la última epoch esperó por datos (ms)
+     */
+    public double getUltimaEsperaDatosMs() {
+        return ultimaEsperaDatosNanos / 1e6;
+    }
+
+    /**
+      Tiempo que la última epoch pasó en model.fit (ms)
+     */
+    public double getUltimoFitMs() {
+        return ultimoFitNanos / 1e6;
+    }
+
+    /**
+      Vectoriza el conjunto de entrenamiento la primera vez que se necesita
+     */
+    private DatosVectorizados obtenerDatosVectorizados() {
+        if (datosVectorizados == null) {
+            long inicio = System.nanoTime();
+            datosVectorizados = archivoCache == null
+                    ? DatosVectorizados.crear(trainData, vectorizer)
+                    : DatosVectorizados.crear(trainData, vectorizer, archivoCache);
+
+            System.out.printf("Datos vectorizados: %d ejemplos, %.1f MB en %s (%.0f ms)\n",
+                    datosVectorizados.getNumEjemplos(),
+                    datosVectorizados.getBytes() / (1024.0 * 1024.0),
+                    datosVectorizados.estaEnDisco() ? "disco" : "memoria",
+                    (System.nanoTime() - inicio) / 1e6);
         }
+        return datosVectorizados;
+    }
 
-        return (double) correctos / textosTest.size();
+    /**
+      Guarda los datos vectorizados en un archivo mapeado en vez de memoria
+      (útil cuando el conjunto de entrenamiento no cabe en la memoria de la JVM)
+      @param archivo archivo para los vectores (null = decidir automáticamente)
+     */
+    public void setArchivoCache(File archivo) {
+        liberarCache();
+        this.archivoCache = archivo;
+    }
+
+    /**
+      Descarta los datos vectorizados (por ejemplo, si se vuelve a entrenar Word2Vec)
+     */
+    public void liberarCache() {
+        cerrarIterador();
+        if (datosVectorizados != null) {
+            datosVectorizados.close();
+            datosVectorizados = null;
+        }
+    }
+
+    /**
+      Evalúa la precisión del modelo en el conjunto de prueba
+     */
+    private double evaluarPrecision() {
+        return evaluar().getExactitud();
+    }
+
+    /**
+      Evalúa el modelo con el conjunto de prueba
+      @return reporte con matriz de confusión y métricas por emoción
+     */
+    public ReporteEvaluacion evaluar() {
+        if (evaluador == null) {
+            evaluador = new EvaluadorModelo(model, vectorizer, tamanoLoteEvaluacion, replicasEvaluacion);
+        }
+        return evaluador.evaluar(testData);
+    }
+
+    /**
+      Configura la evaluación durante el entrenamiento
+      @param tamanoLote frases por pasada de la red
+      @param replicas copias del modelo que evalúan en paralelo
+      @param frecuencia cada cuántas epochs evaluar (0 = solo al final)
+     */
+    public void setEvaluacion(int tamanoLote, int replicas, int frecuencia) {
+        if (evaluador != null) {
+            evaluador.close();
+            evaluador = null;
+        }
+        this.tamanoLoteEvaluacion = tamanoLote;
+        this.replicasEvaluacion = replicas;
+        this.frecuenciaEvaluacion = frecuencia;
     }
-}
\ No newline at end of file
+}
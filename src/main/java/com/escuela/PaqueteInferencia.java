@@ -0,0 +1,240 @@
+package com.escuela;
+
+import org.deeplearning4j.nn.conf.MultiLayerConfiguration;
+import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
+import org.nd4j.linalg.api.buffer.DataType;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+  Paquete con todo lo necesario para predecir, en un solo archivo
+  - manifiesto JSON: vectorSize, maxSequenceLength, orden de las emociones, ...
+  - configuración de la red (JSON de DL4J)
+  - parámetros de la red en float32, sin el estado del optimizador (una red
+    FLOAT16 vuelve a FLOAT16 al cargar: la configuración guarda su tipo de datos)
+  - vectores solo de las palabras que puede producir TextPreprocessor.tokenizar
+    (sin el resto del modelo Word2Vec: pesos de salida, árbol de Huffman, ...)
+
+  Se carga mapeando el archivo (FileChannel.map) y copiando los números
+  directo a la red y a la TablaEmbeddings, sin pasar por los zip de DL4J.
+  Formato (big-endian): mágico y versión, y después cada sección con su tamaño
+ */
+public class PaqueteInferencia {
+
+    public static final String ARCHIVO_POR_DEFECTO = "emotion_detector.paquete";
+
+    private static final int MAGICO = 0x45504151;  // "EPAQ"
+    private static final int VERSION = 1;
+
+    private final MultiLayerNetwork model;
+    private final Word2VecVectorizer vectorizer;
+    private final String[] emociones;
+    private final Map<String, Object> manifiesto;
+
+    private PaqueteInferencia(MultiLayerNetwork model, Word2VecVectorizer vectorizer,
+                              String[] emociones, Map<String, Object> manifiesto) {
+        this.model = model;
+        this.vectorizer = vectorizer;
+        this.emociones = emociones;
+        this.manifiesto = manifiesto;
+    }
+
+    /**
+      Escribe el paquete de inferencia
+      @param model red entrenada
+      @param vectorizer vectorizador con los vectores de Word2Vec
+      @param emociones nombre de cada clase, en el orden de las salidas de la red
+      @param archivo archivo de salida
+     */
+    public static void exportar(MultiLayerNetwork model, Word2VecVectorizer vectorizer,
+                                String[] emociones, File archivo) {
+        AlmacenEmbeddings tabla = vectorizer.getTabla();
+        int vectorSize = tabla.getVectorSize();
+
+        // Solo las palabras que tokenizar puede devolver (las demás nunca se buscan)
+        List<String> palabras = new ArrayList<>();
+        List<Integer> indices = new ArrayList<>();
+        for (int i = 0; i < tabla.getNumPalabras(); i++) {
+            String palabra = tabla.getPalabra(i);
+            if (TextPreprocessor.tokenizar(palabra).equals(Collections.singletonList(palabra))) {
+                palabras.add(palabra);
+                indices.add(i);
+            }
+        }
+
+        float[] vectores = new float[palabras.size() * vectorSize];
+        for (int k = 0; k < indices.size(); k++) {
+            tabla.copiarVector(indices.get(k), vectores, k * vectorSize, 1);
+        }
+
+        float[] parametros = model.params().castTo(DataType.FLOAT).dup('c').data().asFloat();
+        byte[] configuracion = model.getLayerWiseConfigurations().toJson().getBytes(StandardCharsets.UTF_8);
+
+        StringBuilder listaEmociones = new StringBuilder();
+        for (String emocion : emociones) {
+            listaEmociones.append(listaEmociones.length() == 0 ? "" : ",").append(JsonSimple.escapar(emocion));
+        }
+        String json = "{\"formato\":" + VERSION
+                + ",\"vectorSize\":" + vectorSize
+                + ",\"maxSequenceLength\":" + vectorizer.getMaxSequenceLength()
+                + ",\"tipoDatos\":" + JsonSimple.escapar(model.getLayerWiseConfigurations().getDataType().name())
+                + ",\"emociones\":[" + listaEmociones + "]"
+                + ",\"numParametros\":" + parametros.length
+                + ",\"numPalabras\":" + palabras.size()
+                + ",\"creado\":" + JsonSimple.escapar(Instant.now().toString()) + "}";
+        byte[] bytesManifiesto = json.getBytes(StandardCharsets.UTF_8);
+
+        int bytesPalabras = 0;
+        List<byte[]> palabrasUtf8 = new ArrayList<>(palabras.size());
+        for (String palabra : palabras) {
+            byte[] bytes = palabra.getBytes(StandardCharsets.UTF_8);
+            palabrasUtf8.add(bytes);
+            bytesPalabras += 2 + bytes.length;
+        }
+
+        long total = 8 + 4L + bytesManifiesto.length + 4L + configuracion.length
+                + 4L + 4L * parametros.length + 4L + bytesPalabras + 4L * vectores.length;
+        if (total > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("El paquete no puede pasar de 2 GB");
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate((int) total);
+        buffer.putInt(MAGICO).putInt(VERSION);
+        buffer.putInt(bytesManifiesto.length).put(bytesManifiesto);
+        buffer.putInt(configuracion.length).put(configuracion);
+        buffer.putInt(parametros.length);
+        buffer.asFloatBuffer().put(parametros);
+        buffer.position(buffer.position() + 4 * parametros.length);
+        buffer.putInt(palabras.size());
+        for (byte[] bytes : palabrasUtf8) {
+            buffer.putShort((short) bytes.length).put(bytes);
+        }
+        buffer.asFloatBuffer().put(vectores);
+        buffer.clear();
+
+        // Archivo temporal y luego renombrar: el paquete anterior puede estar mapeado
+        // por un servidor en marcha y no se debe truncar
+        File temporal = new File(archivo.getAbsoluteFile().getParentFile(), archivo.getName() + ".tmp");
+        try {
+            try (RandomAccessFile raf = new RandomAccessFile(temporal, "rw");
+                 FileChannel canal = raf.getChannel()) {
+                raf.setLength(0);
+                while (buffer.hasRemaining()) {
+                    canal.write(buffer);
+                }
+            }
+            Files.move(temporal.toPath(), archivo.toPath(),
+                    StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            temporal.delete();
+            throw new UncheckedIOException("No se pudo escribir el paquete " + archivo, e);
+        }
+
+        System.out.println("✅ Paquete de inferencia guardado en: " + archivo + " ("
+                + parametros.length + " parámetros, " + palabras.size() + " de "
+                + tabla.getNumPalabras() + " palabras, " + total / 1024 + " KB)");
+    }
+
+    /**
+      Carga un paquete de inferencia
+      @throws IllegalArgumentException si el archivo no es un paquete válido
+     */
+    @SuppressWarnings("unchecked")
+    public static PaqueteInferencia cargar(File archivo) {
+        try (RandomAccessFile raf = new RandomAccessFile(archivo, "r");
+             FileChannel canal = raf.getChannel()) {
+            ByteBuffer datos = canal.map(FileChannel.MapMode.READ_ONLY, 0, canal.size());
+
+            if (datos.getInt() != MAGICO) {
+                throw new IllegalArgumentException(archivo + " no es un paquete de inferencia");
+            }
+            int version = datos.getInt();
+            if (version != VERSION) {
+                throw new IllegalArgumentException("Versión de paquete no soportada: " + version);
+            }
+
+            Map<String, Object> manifiesto = (Map<String, Object>) JsonSimple.parsear(leerTexto(datos));
+            int vectorSize = ((Number) manifiesto.get("vectorSize")).intValue();
+            int maxSequenceLength = ((Number) manifiesto.get("maxSequenceLength")).intValue();
+            String[] emociones = ((List<Object>) manifiesto.get("emociones")).toArray(new String[0]);
+
+            // Red: configuración + parámetros, sin updater (no se va a entrenar)
+            MultiLayerConfiguration configuracion = MultiLayerConfiguration.fromJson(leerTexto(datos));
+            float[] parametros = new float[datos.getInt()];
+            datos.asFloatBuffer().get(parametros);
+            datos.position(datos.position() + 4 * parametros.length);
+
+            MultiLayerNetwork model = new MultiLayerNetwork(configuracion);
+            DataType tipoDatos = configuracion.getDataType();
+            INDArray vector = Nd4j.create(parametros, new long[]{1, parametros.length}, 'c').castTo(tipoDatos);
+            model.init(vector, false);
+
+            // Vectores de palabras
+            String[] palabras = new String[datos.getInt()];
+            byte[] bytes = new byte[64];
+            for (int i = 0; i < palabras.length; i++) {
+                int largo = datos.getShort() & 0xFFFF;
+                if (largo > bytes.length) {
+                    bytes = new byte[largo];
+                }
+                datos.get(bytes, 0, largo);
+                palabras[i] = new String(bytes, 0, largo, StandardCharsets.UTF_8);
+            }
+            float[] vectores = new float[palabras.length * vectorSize];
+            datos.asFloatBuffer().get(vectores);
+
+            TablaEmbeddings tabla = new TablaEmbeddings(palabras, vectores, vectorSize);
+            Word2VecVectorizer vectorizer = new Word2VecVectorizer(tabla, maxSequenceLength);
+            vectorizer.setTipoDatos(tipoDatos);
+
+            return new PaqueteInferencia(model, vectorizer, emociones, manifiesto);
+
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException(archivo + " está incompleto");
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo leer el paquete " + archivo, e);
+        }
+    }
+
+    /**
+      Lee un texto UTF-8 precedido por su longitud en bytes
+     */
+    private static String leerTexto(ByteBuffer datos) {
+        byte[] bytes = new byte[datos.getInt()];
+        datos.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    // Getters
+    public MultiLayerNetwork getModel() {
+        return model;
+    }
+
+    public Word2VecVectorizer getVectorizer() {
+        return vectorizer;
+    }
+
+    public String[] getEmociones() {
+        return emociones.clone();
+    }
+
+    public Map<String, Object> getManifiesto() {
+        return Collections.unmodifiableMap(manifiesto);
+    }
+}
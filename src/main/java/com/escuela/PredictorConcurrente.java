@@ -0,0 +1,137 @@
+package com.escuela;
+
+import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+  Predictor seguro para usar desde varios hilos a la vez
+  MultiLayerNetwork no permite llamadas a output() en paralelo, así que este
+  predictor tiene N réplicas del modelo y cada predicción toma una réplica
+  libre, la usa y la devuelve. Word2Vec (la tabla de embeddings) y el caché
+  se comparten entre todas las réplicas porque solo se leen.
+  Nota: cada llamada de ND4J también usa varios hilos internos; con muchas
+  réplicas conviene limitarlos (por ejemplo OMP_NUM_THREADS=1)
+ */
+public class PredictorConcurrente implements AutoCloseable {
+
+    private final EmotionPredictor predictor;
+    private final BlockingQueue<MultiLayerNetwork> replicas;
+    private final int numReplicas;
+
+    // Hilos para las predicciones asíncronas (uno por réplica)
+    private final ExecutorService ejecutor;
+
+    /**
+      Constructor con una réplica por núcleo del procesador
+      @param predictor predictor con el modelo ya cargado
+     */
+    public PredictorConcurrente(EmotionPredictor predictor) {
+        this(predictor, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+      Constructor
+      @param predictor predictor con el modelo ya cargado
+      @param numReplicas número de copias del modelo (predicciones simultáneas)
+     */
+    public PredictorConcurrente(EmotionPredictor predictor, int numReplicas) {
+        if (!predictor.estaCargado()) {
+            throw new IllegalStateException("El modelo no está cargado. Llama a cargarModelo() primero.");
+        }
+        if (numReplicas < 1) {
+            throw new IllegalArgumentException("Se necesita al menos 1 réplica");
+        }
+
+        this.predictor = predictor;
+        this.numReplicas = numReplicas;
+        this.replicas = new ArrayBlockingQueue<>(numReplicas);
+
+        // La primera réplica es el modelo original; las demás son copias de sus pesos
+        MultiLayerNetwork original = predictor.getModel();
+        replicas.add(original);
+        for (int i = 1; i < numReplicas; i++) {
+            replicas.add(original.clone());
+        }
+
+        AtomicInteger contador = new AtomicInteger();
+        this.ejecutor = Executors.newFixedThreadPool(numReplicas, tarea -> {
+            Thread hilo = new Thread(tarea, "predictor-" + contador.incrementAndGet());
+            hilo.setDaemon(true);
+            return hilo;
+        });
+
+        System.out.println("✅ Predictor concurrente listo con " + numReplicas + " réplicas del modelo");
+    }
+
+    /**
+      Predice la emoción de un texto (espera hasta que haya una réplica libre)
+     */
+    public EmotionPredictor.ResultadoPrediccion predecir(String texto) {
+        return predecirLote(Collections.singletonList(texto)).get(0);
+    }
+
+    /**
+      Predice varias frases con una sola réplica (en lotes de tamanoLoteMaximo)
+      @return resultados en el mismo orden que las frases de entrada
+     */
+    public List<EmotionPredictor.ResultadoPrediccion> predecirLote(List<String> textos) {
+        MultiLayerNetwork replica = tomarReplica();
+        try {
+            return predictor.predecirLoteCon(replica, textos);
+        } finally {
+            replicas.add(replica);
+        }
+    }
+
+    /**
+      Predice la emoción de un texto sin bloquear al hilo que llama
+     */
+    public CompletableFuture<EmotionPredictor.ResultadoPrediccion> predecirAsync(String texto) {
+        return CompletableFuture.supplyAsync(() -> predecir(texto), ejecutor);
+    }
+
+    /**
+      Predice varias frases sin bloquear al hilo que llama
+     */
+    public CompletableFuture<List<EmotionPredictor.ResultadoPrediccion>> predecirLoteAsync(List<String> textos) {
+        return CompletableFuture.supplyAsync(() -> predecirLote(textos), ejecutor);
+    }
+
+    private MultiLayerNetwork tomarReplica() {
+        try {
+            return replicas.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrumpido esperando una réplica del modelo", e);
+        }
+    }
+
+    /**
+      Detiene los hilos de las predicciones asíncronas
+     */
+    @Override
+    public void close() {
+        ejecutor.shutdown();
+    }
+
+    // Getters
+    public int getNumReplicas() {
+        return numReplicas;
+    }
+
+    public int getReplicasLibres() {
+        return replicas.size();
+    }
+
+    public EmotionPredictor getPredictor() {
+        return predictor;
+    }
+}
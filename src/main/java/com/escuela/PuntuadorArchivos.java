@@ -0,0 +1,467 @@
+package com.escuela;
+
+import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
+import org.nd4j.linalg.api.ndarray.INDArray;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+  Puntúa archivos grandes (CSV o NDJSON) sin cargarlos completos en memoria
+  El trabajo se divide en 4 etapas, cada una en su propio hilo y unidas por
+  colas con capacidad limitada:
+
+  leer → tokenizar y vectorizar → model.output → escribir
+
+  Como las colas son acotadas, la memoria usada depende del tamaño de lote y
+  de la capacidad de las colas, no del tamaño del archivo.
+  Los CSV se leen con las mismas reglas que DataLoader (un campo entre comillas
+  puede tener saltos de línea, como los que escribe este puntuador).
+  Las filas que no se pueden leer (JSON inválido o sin el campo "texto") se
+  saltan y se cuentan; un error de E/S detiene todas las etapas y puntuar lanza
+  la excepción
+ */
+public class PuntuadorArchivos {
+
+    // Filas inválidas que se muestran como aviso (las demás solo se cuentan)
+    private static final int MAX_AVISOS = 10;
+
+    // Bytes que se leen de una vez de un CSV (crece si un registro no cabe)
+    private static final int TAMANO_LECTURA = 64 * 1024;
+
+    private final EmotionPredictor predictor;
+    private final int tamanoLote;
+    private final int capacidadCola;
+
+    // Primer error de cualquier etapa (detiene todo el proceso)
+    private final AtomicReference<Throwable> error = new AtomicReference<>();
+
+    // Filas saltadas por no poder leerse en la última llamada a puntuar
+    private volatile long filasOmitidas;
+
+    /**
+      Constructor
+      @param predictor predictor con el modelo ya cargado
+      @param tamanoLote filas por lote (una pasada de la red por lote)
+      @param capacidadCola lotes que pueden esperar entre una etapa y la siguiente
+     */
+    public PuntuadorArchivos(EmotionPredictor predictor, int tamanoLote, int capacidadCola) {
+        if (!predictor.estaCargado()) {
+            throw new IllegalStateException("El modelo no está cargado. Llama a cargarModelo() primero.");
+        }
+        this.predictor = predictor;
+        this.tamanoLote = tamanoLote;
+        this.capacidadCola = capacidadCola;
+    }
+
+    /**
+      Lote de filas que avanza por las etapas
+     */
+    private static class Lote {
+        static final Lote FIN = new Lote(new ArrayList<>());
+
+        final List<String> textos;
+        INDArray features;
+        INDArray mascara; // null si ninguna frase tiene relleno
+        double[][] probabilidades;
+
+        Lote(List<String> textos) {
+            this.textos = textos;
+        }
+    }
+
+    /**
+      Puntúa un archivo completo
+      El formato se elige por la extensión: .ndjson/.jsonl → una línea JSON con
+      el campo "texto" por fila; cualquier otra → CSV con encabezado y columna "texto"
+      (o la primera columna si no hay una llamada así)
+      @param entrada archivo a puntuar
+      @param salida archivo donde se escriben las predicciones (mismo formato)
+      @return número de filas puntuadas
+     */
+    public long puntuar(Path entrada, Path salida) throws IOException {
+        boolean ndjson = esNdjson(entrada);
+
+        BlockingQueue<Lote> leidos = new ArrayBlockingQueue<>(capacidadCola);
+        BlockingQueue<Lote> vectorizados = new ArrayBlockingQueue<>(capacidadCola);
+        BlockingQueue<Lote> puntuados = new ArrayBlockingQueue<>(capacidadCola);
+
+        long[] filasEscritas = new long[1];
+        long inicio = System.nanoTime();
+        error.set(null);
+        filasOmitidas = 0;
+
+        List<Thread> hilos = new ArrayList<>();
+        crearEtapa("puntuador-lector", () -> leer(entrada, ndjson, leidos), hilos);
+        crearEtapa("puntuador-vectorizador", () -> vectorizar(leidos, vectorizados), hilos);
+        crearEtapa("puntuador-modelo", () -> inferir(vectorizados, puntuados), hilos);
+        crearEtapa("puntuador-escritor",
+                () -> filasEscritas[0] = escribir(puntuados, salida, ndjson, inicio), hilos);
+        hilos.forEach(Thread::start);
+
+        for (Thread hilo : hilos) {
+            try {
+                hilo.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                hilos.forEach(Thread::interrupt);
+                throw new IOException("Puntuación interrumpida", e);
+            }
+        }
+
+        if (error.get() != null) {
+            throw new IOException("Error al puntuar " + entrada + ": " + error.get().getMessage(), error.get());
+        }
+
+        double segundos = (System.nanoTime() - inicio) / 1e9;
+        System.out.printf("✅ %d filas puntuadas en %.1f s (%.0f filas/s)\n",
+                filasEscritas[0], segundos, filasEscritas[0] / Math.max(segundos, 1e-9));
+        if (filasOmitidas > 0) {
+            System.out.println("⚠️ " + filasOmitidas + " filas inválidas omitidas");
+        }
+        return filasEscritas[0];
+    }
+
+    /**
+      Filas saltadas por no poder leerse en la última llamada a puntuar
+     */
+    public long getFilasOmitidas() {
+        return filasOmitidas;
+    }
+
+    /**
+      Envía FIN a la etapa siguiente sin quedar bloqueado para siempre:
+      si otra etapa falló, la siguiente puede haber terminado ya y su cola
+      no se vacía nunca, así que se deja de intentar
+     */
+    private void terminar(BlockingQueue<Lote> salida) {
+        try {
+            while (!salida.offer(Lote.FIN, 100, TimeUnit.MILLISECONDS)) {
+                if (error.get() != null) {
+                    return;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt(); // se está deteniendo todo por un error
+        }
+    }
+
+    /**
+      Cuerpo de una etapa; puede lanzar excepciones de E/S o interrupción
+     */
+    private interface Etapa {
+        void ejecutar() throws Exception;
+    }
+
+    /**
+      Crea el hilo de una etapa; si la etapa falla, se interrumpen todas las demás
+      para que ninguna quede bloqueada esperando en una cola
+     */
+    private void crearEtapa(String nombre, Etapa etapa, List<Thread> hilos) {
+        hilos.add(new Thread(() -> {
+            try {
+                etapa.ejecutar();
+            } catch (InterruptedException e) {
+                // Otra etapa falló y se está deteniendo todo
+            } catch (Throwable e) {
+                if (error.compareAndSet(null, e)) {
+                    hilos.forEach(Thread::interrupt);
+                }
+            }
+        }, nombre));
+    }
+
+    /**
+      Etapa 1: lee el archivo y arma lotes de textos
+     */
+    private void leer(Path entrada, boolean ndjson, BlockingQueue<Lote> salida) throws Exception {
+        try {
+            ArmadorLotes lotes = new ArmadorLotes(salida);
+            if (ndjson) {
+                leerNdjson(entrada, lotes);
+            } else {
+                leerCsv(entrada, lotes);
+            }
+            lotes.enviarResto();
+        } finally {
+            terminar(salida);
+        }
+    }
+
+    /**
+      Una línea JSON por fila
+     */
+    private void leerNdjson(Path entrada, ArmadorLotes lotes) throws Exception {
+        try (BufferedReader reader = Files.newBufferedReader(entrada, StandardCharsets.UTF_8)) {
+            long numeroLinea = 0;
+            String linea;
+            while ((linea = reader.readLine()) != null && error.get() == null) {
+                numeroLinea++;
+                if (linea.isBlank()) {
+                    continue;
+                }
+                try {
+                    lotes.agregar(textoDeJson(linea));
+                } catch (IllegalArgumentException e) {
+                    omitir("Línea " + numeroLinea, e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+      CSV con encabezado, leído por partes con el escaneo de DataLoader:
+      cada parte se corta al final del último registro completo y el resto
+      pasa a la siguiente
+     */
+    private void leerCsv(Path entrada, ArmadorLotes lotes) throws Exception {
+        try (InputStream in = Files.newInputStream(entrada)) {
+            DataLoader.Escaneo escaneo = new DataLoader.Escaneo();
+            DataLoader.RegistroCsv registro = new DataLoader.RegistroCsv();
+            byte[] datos = new byte[TAMANO_LECTURA];
+            int total = 0;
+            int columnaTexto = -1;  // -1 = falta leer el encabezado
+            long numeroRegistro = 0;
+            boolean fin = false;
+
+            while (!fin && error.get() == null) {
+                if (total == datos.length) {
+                    datos = Arrays.copyOf(datos, datos.length * 2);  // un registro más grande que lo leído
+                }
+                total += in.readNBytes(datos, total, datos.length - total);
+                fin = total < datos.length;
+
+                int corte = fin ? total : escaneo.finUltimoRegistro(datos, total);
+                int p = 0;
+                while (p < corte) {
+                    p = registro.leer(datos, p, corte);
+                    numeroRegistro++;
+                    if (columnaTexto < 0) {
+                        columnaTexto = 0;
+                        for (int c = 0; c < registro.getNumCampos(); c++) {
+                            if (registro.getCampo(c).trim().equals("texto")) {
+                                columnaTexto = c;
+                                break;
+                            }
+                        }
+                    } else if (registro.estaVacio()) {
+                        continue;
+                    } else if (columnaTexto >= registro.getNumCampos()) {
+                        omitir("Registro " + numeroRegistro, "no tiene la columna del texto");
+                    } else {
+                        lotes.agregar(registro.getCampo(columnaTexto));
+                    }
+                }
+
+                System.arraycopy(datos, corte, datos, 0, total - corte);
+                total -= corte;
+                escaneo.descartar(corte);
+            }
+        }
+    }
+
+    /**
+      Cuenta una fila inválida; una fila dañada no detiene el archivo completo
+     */
+    private void omitir(String donde, String motivo) {
+        if (++filasOmitidas <= MAX_AVISOS) {
+            System.err.println("⚠️ " + donde + " omitida: " + motivo);
+        }
+    }
+
+    /**
+      Junta los textos leídos en lotes de tamanoLote y los pasa a la etapa siguiente
+     */
+    private class ArmadorLotes {
+        private final BlockingQueue<Lote> salida;
+        private List<String> textos = new ArrayList<>(tamanoLote);
+
+        ArmadorLotes(BlockingQueue<Lote> salida) {
+            this.salida = salida;
+        }
+
+        void agregar(String texto) throws InterruptedException {
+            textos.add(texto);
+            if (textos.size() == tamanoLote) {
+                salida.put(new Lote(textos));
+                textos = new ArrayList<>(tamanoLote);
+            }
+        }
+
+        void enviarResto() throws InterruptedException {
+            if (!textos.isEmpty()) {
+                salida.put(new Lote(textos));
+            }
+        }
+    }
+
+    /**
+      Etapa 2: preprocesa, tokeniza y vectoriza cada lote
+     */
+    private void vectorizar(BlockingQueue<Lote> entrada, BlockingQueue<Lote> salida) throws Exception {
+        Word2VecVectorizer vectorizer = predictor.getVectorizer();
+        try {
+            Lote lote;
+            while ((lote = entrada.take()) != Lote.FIN) {
+                List<List<String>> frases = new ArrayList<>(lote.textos.size());
+                for (String texto : lote.textos) {
+                    frases.add(TextPreprocessor.tokenizar(texto));
+                }
+                int pasos = predictor.calcularPasos(vectorizer, frases);
+                lote.features = vectorizer.tokensAVectores(frases, pasos);
+                lote.mascara = predictor.crearMascara(vectorizer, frases, pasos);
+                salida.put(lote);
+            }
+        } finally {
+            terminar(salida);
+        }
+    }
+
+    /**
+      Etapa 3: una pasada de la red por lote
+     */
+    private void inferir(BlockingQueue<Lote> entrada, BlockingQueue<Lote> salida) throws Exception {
+        MultiLayerNetwork model = predictor.getModel();
+        int numEmociones = predictor.getNumeroEmociones();
+        try {
+            Lote lote;
+            while ((lote = entrada.take()) != Lote.FIN) {
+                INDArray promedioTemporal = EmotionPredictor.promediarSalida(model, lote.features, lote.mascara);
+                lote.features = null; // liberar los tensores cuanto antes
+                lote.mascara = null;
+
+                lote.probabilidades = new double[lote.textos.size()][];
+                for (int i = 0; i < lote.textos.size(); i++) {
+                    double[] fila = new double[numEmociones];
+                    for (int k = 0; k < numEmociones; k++) {
+                        fila[k] = promedioTemporal.getDouble(i, k);
+                    }
+                    lote.probabilidades[i] = fila;
+                }
+                salida.put(lote);
+            }
+        } finally {
+            terminar(salida);
+        }
+    }
+
+    /**
+      Etapa 4: escribe las predicciones y muestra el avance
+     */
+    private long escribir(BlockingQueue<Lote> entrada, Path salida, boolean ndjson, long inicio) throws Exception {
+        long filas = 0;
+        long ultimoReporte = System.nanoTime();
+        int numEmociones = predictor.getNumeroEmociones();
+
+        try (BufferedWriter writer = Files.newBufferedWriter(salida, StandardCharsets.UTF_8)) {
+            if (!ndjson) {
+                StringBuilder encabezado = new StringBuilder("texto,emocion,confianza");
+                for (int k = 0; k < numEmociones; k++) {
+                    encabezado.append(',').append(predictor.getNombreEmocion(k));
+                }
+                writer.write(encabezado.toString());
+                writer.newLine();
+            }
+
+            Lote lote;
+            while ((lote = entrada.take()) != Lote.FIN) {
+                for (int i = 0; i < lote.textos.size(); i++) {
+                    writer.write(ndjson
+                            ? filaNdjson(lote.textos.get(i), lote.probabilidades[i])
+                            : filaCsv(lote.textos.get(i), lote.probabilidades[i]));
+                    writer.newLine();
+                }
+                filas += lote.textos.size();
+
+                // Avance cada 5 segundos
+                long ahora = System.nanoTime();
+                if (ahora - ultimoReporte > 5_000_000_000L) {
+                    double segundos = (ahora - inicio) / 1e9;
+                    System.out.printf("  %d filas (%.0f filas/s)\n", filas, filas / segundos);
+                    ultimoReporte = ahora;
+                }
+            }
+        }
+        return filas;
+    }
+
+    private String filaCsv(String texto, double[] probabilidades) {
+        int maximo = indiceMaximo(probabilidades);
+        StringBuilder sb = new StringBuilder();
+        sb.append(escaparCsv(texto)).append(',')
+                .append(predictor.getNombreEmocion(maximo)).append(',')
+                .append(formatear(probabilidades[maximo]));
+        for (double probabilidad : probabilidades) {
+            sb.append(',').append(formatear(probabilidad));
+        }
+        return sb.toString();
+    }
+
+    private String filaNdjson(String texto, double[] probabilidades) {
+        int maximo = indiceMaximo(probabilidades);
+        StringBuilder sb = new StringBuilder("{\"texto\":").append(JsonSimple.escapar(texto))
+                .append(",\"emocion\":").append(JsonSimple.escapar(predictor.getNombreEmocion(maximo)))
+                .append(",\"confianza\":").append(formatear(probabilidades[maximo]))
+                .append(",\"probabilidades\":{");
+        for (int k = 0; k < probabilidades.length; k++) {
+            if (k > 0) {
+                sb.append(',');
+            }
+            sb.append(JsonSimple.escapar(predictor.getNombreEmocion(k))).append(':').append(formatear(probabilidades[k]));
+        }
+        return sb.append("}}").toString();
+    }
+
+    private static int indiceMaximo(double[] valores) {
+        int maximo = 0;
+        for (int i = 1; i < valores.length; i++) {
+            if (valores[i] > valores[maximo]) {
+                maximo = i;
+            }
+        }
+        return maximo;
+    }
+
+    private static String formatear(double valor) {
+        return String.format(Locale.ROOT, "%.6f", valor);
+    }
+
+    private static boolean esNdjson(Path archivo) {
+        String nombre = archivo.getFileName().toString().toLowerCase(Locale.ROOT);
+        return nombre.endsWith(".ndjson") || nombre.endsWith(".jsonl");
+    }
+
+    /**
+      @throws IllegalArgumentException si la línea no es JSON o no tiene un "texto" de tipo cadena
+     */
+    private static String textoDeJson(String linea) {
+        Object json = JsonSimple.parsear(linea);
+        Object texto = json instanceof Map ? ((Map<?, ?>) json).get("texto") : null;
+        if (!(texto instanceof String)) {
+            throw new IllegalArgumentException("no tiene un campo \"texto\" de tipo cadena");
+        }
+        return (String) texto;
+    }
+
+    private static String escaparCsv(String texto) {
+        if (texto.indexOf(',') < 0 && texto.indexOf('"') < 0
+                && texto.indexOf('\n') < 0 && texto.indexOf('\r') < 0) {
+            return texto;
+        }
+        return "\"" + texto.replace("\"", "\"\"") + "\"";
+    }
+}
@@ -0,0 +1,161 @@
+package com.escuela;
+
+/**
+  Resultado de evaluar el modelo con un conjunto de datos
+  Guarda la matriz de confusión (filas = emoción real, columnas = emoción predicha)
+  y a partir de ella calcula exactitud, precisión, recall y F1 por emoción
+ */
+public class ReporteEvaluacion {
+
+    private final String[] emociones;
+    private final long[][] matriz;
+    private final long numEjemplos;
+    private final long nanos;
+
+    /**
+      Constructor
+      @param emociones nombre de cada clase (en el orden de sus índices)
+      @param matriz matriz de confusión [real][predicha]
+      @param nanos tiempo que tomó la evaluación
+     */
+    public ReporteEvaluacion(String[] emociones, long[][] matriz, long nanos) {
+        this.emociones = emociones.clone();
+        this.matriz = new long[matriz.length][];
+        long total = 0;
+        for (int i = 0; i < matriz.length; i++) {
+            this.matriz[i] = matriz[i].clone();
+            for (long cuenta : matriz[i]) {
+                total += cuenta;
+            }
+        }
+        this.numEjemplos = total;
+        this.nanos = nanos;
+    }
+
+    /**
+      Fracción de frases clasificadas correctamente (accuracy)
+     */
+    public double getExactitud() {
+        long correctos = 0;
+        for (int i = 0; i < matriz.length; i++) {
+            correctos += matriz[i][i];
+        }
+        return numEjemplos == 0 ? 0.0 : (double) correctos / numEjemplos;
+    }
+
+    /**
+      Precisión de una emoción: de las frases predichas con esa emoción, cuántas la tenían
+     */
+    public double getPrecision(int clase) {
+        long predichas = 0;
+        for (long[] fila : matriz) {
+            predichas += fila[clase];
+        }
+        return predichas == 0 ? 0.0 : (double) matriz[clase][clase] / predichas;
+    }
+
+    /**
+      Recall de una emoción: de las frases con esa emoción, cuántas se detectaron
+     */
+    public double getRecall(int clase) {
+        long reales = 0;
+        for (long cuenta : matriz[clase]) {
+            reales += cuenta;
+        }
+        return reales == 0 ? 0.0 : (double) matriz[clase][clase] / reales;
+    }
+
+    /**
+      F1 de una emoción: media armónica de precisión y recall
+     */
+    public double getF1(int clase) {
+        double precision = getPrecision(clase);
+        double recall = getRecall(clase);
+        return precision + recall == 0 ? 0.0 : 2 * precision * recall / (precision + recall);
+    }
+
+    // Promedios macro: cada emoción pesa lo mismo sin importar cuántas frases tenga
+    public double getPrecisionMacro() {
+        double suma = 0;
+        for (int i = 0; i < emociones.length; i++) {
+            suma += getPrecision(i);
+        }
+        return suma / emociones.length;
+    }
+
+    public double getRecallMacro() {
+        double suma = 0;
+        for (int i = 0; i < emociones.length; i++) {
+            suma += getRecall(i);
+        }
+        return suma / emociones.length;
+    }
+
+    public double getF1Macro() {
+        double suma = 0;
+        for (int i = 0; i < emociones.length; i++) {
+            suma += getF1(i);
+        }
+        return suma / emociones.length;
+    }
+
+    /**
+      Frases evaluadas por segundo (tiempo total de la evaluación)
+     */
+    public double getFrasesPorSegundo() {
+        return nanos == 0 ? 0.0 : numEjemplos / (nanos / 1e9);
+    }
+
+    /**
+      Muestra el reporte completo en consola
+     */
+    public void mostrar() {
+        System.out.println("\n=== REPORTE DE EVALUACIÓN ===");
+        System.out.printf("Frases: %d  |  Exactitud: %.2f%%  |  %.0f frases/s (%.1f ms)\n",
+                numEjemplos, getExactitud() * 100, getFrasesPorSegundo(), nanos / 1e6);
+
+        System.out.println("\nMatriz de confusión (filas = real, columnas = predicha):");
+        System.out.printf("%-10s", "");
+        for (String emocion : emociones) {
+            System.out.printf("%10s", emocion);
+        }
+        System.out.println();
+        for (int i = 0; i < emociones.length; i++) {
+            System.out.printf("%-10s", emociones[i]);
+            for (long cuenta : matriz[i]) {
+                System.out.printf("%10d", cuenta);
+            }
+            System.out.println();
+        }
+
+        System.out.printf("\n%-10s%11s%11s%11s%9s\n", "Emoción", "Precisión", "Recall", "F1", "Frases");
+        for (int i = 0; i < emociones.length; i++) {
+            long reales = 0;
+            for (long cuenta : matriz[i]) {
+                reales += cuenta;
+            }
+            System.out.printf("%-10s%10.2f%%%10.2f%%%10.2f%%%9d\n",
+                    emociones[i], getPrecision(i) * 100, getRecall(i) * 100, getF1(i) * 100, reales);
+        }
+        System.out.printf("%-10s%10.2f%%%10.2f%%%10.2f%%%9d\n",
+                "Macro", getPrecisionMacro() * 100, getRecallMacro() * 100, getF1Macro() * 100, numEjemplos);
+        System.out.println("=============================\n");
+    }
+
+    // Getters
+    public String[] getEmociones() {
+        return emociones.clone();
+    }
+
+    public long getCuenta(int real, int predicha) {
+        return matriz[real][predicha];
+    }
+
+    public long getNumEjemplos() {
+        return numEjemplos;
+    }
+
+    public long getNanos() {
+        return nanos;
+    }
+}
@@ -0,0 +1,346 @@
+package com.escuela;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Method;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+  Servidor HTTP para predecir emociones desde otros servicios
+  Usa el servidor incluido en el JDK (com.sun.net.httpserver) y agrupa las
+  solicitudes concurrentes en micro-lotes antes de pasarlas al modelo.
+
+  Endpoints:
+  - POST /predecir       {"texto": "..."}            → resultado
+  - POST /predecir/lote  {"textos": ["...", "..."]}  → {"resultados": [...]}
+  - POST /sesion         {"sesion": "id", "texto": "...", "final": false} → resultado
+                         (predicción incremental mientras se escribe, ver SesionesPrediccion)
+  - GET  /metricas       latencias (p50/p99) y distribución de tamaños de lote
+  - GET  /salud          "ok"
+ */
+public class ServidorPrediccion {
+
+    // Sesiones de escritura abiertas a la vez y minutos sin uso antes de descartarlas
+    private static final int MAX_SESIONES = 10_000;
+    private static final long TTL_SESION_MILLIS = 10 * 60_000L;
+
+    private final PredictorConcurrente predictor;
+    private final AgrupadorLotes agrupador;
+    private final SesionesPrediccion sesiones;
+    private final HttpServer servidor;
+    private final ExecutorService ejecutor;
+
+    // Métricas de las solicitudes HTTP
+    private final HistogramaLatencia latenciaMicros = new HistogramaLatencia();
+    private final LongAdder solicitudes = new LongAdder();
+    private final LongAdder errores = new LongAdder();
+
+    /**
+      Constructor
+      @param predictor predictor con réplicas del modelo
+      @param puerto puerto donde escuchar (0 = cualquier puerto libre)
+      @param tamanoLoteMaximo número máximo de frases por micro-lote
+      @param esperaMaximaMicros espera máxima para completar un micro-lote
+     */
+    public ServidorPrediccion(PredictorConcurrente predictor, int puerto,
+                              int tamanoLoteMaximo, long esperaMaximaMicros) throws IOException {
+        this.predictor = predictor;
+        this.agrupador = new AgrupadorLotes(predictor, tamanoLoteMaximo, esperaMaximaMicros);
+        this.sesiones = new SesionesPrediccion(predictor.getPredictor(), MAX_SESIONES, TTL_SESION_MILLIS,
+                predictor.getNumReplicas());
+        this.servidor = HttpServer.create(new InetSocketAddress(puerto), 0);
+        this.ejecutor = crearEjecutor();
+
+        servidor.setExecutor(ejecutor);
+        servidor.createContext("/predecir", this::manejarPredecir);
+        servidor.createContext("/predecir/lote", this::manejarLote);
+        servidor.createContext("/sesion", this::manejarSesion);
+        servidor.createContext("/metricas", this::manejarMetricas);
+        servidor.createContext("/salud", intercambio -> responder(intercambio, 200, "\"ok\""));
+    }
+
+    /**
+      Un hilo virtual por solicitud si la JVM los tiene (Java 21+);
+      en versiones anteriores, un pool de hilos normal
+     */
+    private static ExecutorService crearEjecutor() {
+        try {
+            Method metodo = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) metodo.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool();
+        }
+    }
+
+    /**
+      Empieza a atender solicitudes
+     */
+    public void iniciar() {
+        servidor.start();
+        System.out.println("✅ Servidor escuchando en http://localhost:" + getPuerto());
+    }
+
+    /**
+      Detiene el servidor y el agrupador de lotes
+     */
+    public void detener() {
+        servidor.stop(1);
+        agrupador.close();
+        ejecutor.shutdown();
+        try {
+            ejecutor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        System.out.println("🛑 Servidor detenido");
+    }
+
+    private void manejarPredecir(HttpExchange intercambio) throws IOException {
+        // "/predecir" también recibe las rutas que empiezan igual
+        if (!intercambio.getRequestURI().getPath().equals("/predecir")) {
+            responderError(intercambio, 404, "Ruta no encontrada");
+            return;
+        }
+        if (!validarPost(intercambio)) {
+            return;
+        }
+
+        long inicio = System.nanoTime();
+        try {
+            Object json = JsonSimple.parsear(leerCuerpo(intercambio));
+            Object texto = json instanceof Map ? ((Map<?, ?>) json).get("texto") : null;
+            if (!(texto instanceof String)) {
+                responderError(intercambio, 400, "Se esperaba {\"texto\": \"...\"}");
+                return;
+            }
+
+            EmotionPredictor.ResultadoPrediccion resultado = agrupador.enviar((String) texto).join();
+            responder(intercambio, 200, resultadoAJson(resultado));
+            registrarLatencia(inicio);
+
+        } catch (IllegalArgumentException e) {
+            responderError(intercambio, 400, e.getMessage());
+        } catch (RuntimeException e) {
+            responderError(intercambio, 500, "Error al predecir: " + e.getMessage());
+        }
+    }
+
+    private void manejarLote(HttpExchange intercambio) throws IOException {
+        if (!validarPost(intercambio)) {
+            return;
+        }
+
+        long inicio = System.nanoTime();
+        try {
+            Object json = JsonSimple.parsear(leerCuerpo(intercambio));
+            Object textos = json instanceof Map ? ((Map<?, ?>) json).get("textos") : null;
+            if (!(textos instanceof List)) {
+                responderError(intercambio, 400, "Se esperaba {\"textos\": [\"...\"]}");
+                return;
+            }
+
+            // Cada frase entra a la cola del agrupador, junto con las de otras solicitudes
+            List<CompletableFuture<EmotionPredictor.ResultadoPrediccion>> futuros = new ArrayList<>();
+            for (Object texto : (List<?>) textos) {
+                if (!(texto instanceof String)) {
+                    responderError(intercambio, 400, "Todos los elementos de \"textos\" deben ser texto");
+                    return;
+                }
+                futuros.add(agrupador.enviar((String) texto));
+            }
+
+            StringBuilder respuesta = new StringBuilder("{\"resultados\":[");
+            for (int i = 0; i < futuros.size(); i++) {
+                if (i > 0) {
+                    respuesta.append(',');
+                }
+                respuesta.append(resultadoAJson(futuros.get(i).join()));
+            }
+            respuesta.append("]}");
+
+            responder(intercambio, 200, respuesta.toString());
+            registrarLatencia(inicio);
+
+        } catch (IllegalArgumentException e) {
+            responderError(intercambio, 400, e.getMessage());
+        } catch (RuntimeException e) {
+            responderError(intercambio, 500, "Error al predecir: " + e.getMessage());
+        }
+    }
+
+    private void manejarSesion(HttpExchange intercambio) throws IOException {
+        if (!validarPost(intercambio)) {
+            return;
+        }
+
+        long inicio = System.nanoTime();
+        try {
+            Object json = JsonSimple.parsear(leerCuerpo(intercambio));
+            Map<?, ?> campos = json instanceof Map ? (Map<?, ?>) json : Map.of();
+            Object sesion = campos.get("sesion");
+            Object texto = campos.get("texto");
+            if (!(sesion instanceof String) || !(texto instanceof String)) {
+                responderError(intercambio, 400, "Se esperaba {\"sesion\": \"...\", \"texto\": \"...\"}");
+                return;
+            }
+
+            // "final": true → el mensaje se envió; cuenta la última palabra y cierra la sesión
+            EmotionPredictor.ResultadoPrediccion resultado = Boolean.TRUE.equals(campos.get("final"))
+                    ? sesiones.completar((String) sesion, (String) texto)
+                    : sesiones.actualizar((String) sesion, (String) texto);
+            responder(intercambio, 200, resultadoAJson(resultado));
+            registrarLatencia(inicio);
+
+        } catch (IllegalArgumentException e) {
+            responderError(intercambio, 400, e.getMessage());
+        } catch (RuntimeException e) {
+            responderError(intercambio, 500, "Error al predecir: " + e.getMessage());
+        }
+    }
+
+    private void manejarMetricas(HttpExchange intercambio) throws IOException {
+        responder(intercambio, 200, metricasJson());
+    }
+
+    /**
+      Métricas actuales en formato JSON
+     */
+    public String metricasJson() {
+        HistogramaLatencia tamanos = agrupador.getTamanosLote();
+        HistogramaLatencia lotes = agrupador.getLatenciaLoteMicros();
+
+        StringBuilder sb = new StringBuilder("{");
+        sb.append("\"solicitudes\":").append(solicitudes.sum());
+        sb.append(",\"errores\":").append(errores.sum());
+        sb.append(",\"sesionesAbiertas\":").append(sesiones.getNumSesiones());
+        EmotionPredictor base = predictor.getPredictor();
+        sb.append(",\"cascadaPrimerNivel\":").append(base.getRespondidasPrimerNivel());
+        sb.append(",\"cascadaLstm\":").append(base.getDerivadasAlLstm());
+        sb.append(",\"latenciaMicros\":").append(histogramaAJson(latenciaMicros));
+        sb.append(",\"latenciaLoteMicros\":").append(histogramaAJson(lotes));
+        sb.append(",\"tamanoLote\":").append(histogramaAJson(tamanos));
+        sb.append(",\"distribucionTamanoLote\":{");
+        boolean primero = true;
+        for (Map.Entry<Long, Long> entrada : tamanos.distribucion().entrySet()) {
+            if (!primero) {
+                sb.append(',');
+            }
+            sb.append('"').append(entrada.getKey()).append("\":").append(entrada.getValue());
+            primero = false;
+        }
+        sb.append("}}");
+        return sb.toString();
+    }
+
+    /**
+      Muestra las métricas en consola
+     */
+    public void mostrarMetricas() {
+        HistogramaLatencia tamanos = agrupador.getTamanosLote();
+        System.out.println("\n=== MÉTRICAS DEL SERVIDOR ===");
+        System.out.println("Solicitudes: " + solicitudes.sum() + " (errores: " + errores.sum() + ")");
+        System.out.printf("Latencia: p50 = %.2f ms, p99 = %.2f ms, máx = %.2f ms\n",
+                latenciaMicros.percentil(50) / 1000.0,
+                latenciaMicros.percentil(99) / 1000.0,
+                latenciaMicros.getMaximo() / 1000.0);
+        System.out.printf("Tamaño de lote: promedio = %.1f, p50 = %d, p99 = %d, máx = %d\n",
+                tamanos.getPromedio(), tamanos.percentil(50), tamanos.percentil(99), tamanos.getMaximo());
+        System.out.println("Distribución de tamaños de lote: " + tamanos.distribucion());
+        EmotionPredictor base = predictor.getPredictor();
+        if (!Double.isNaN(base.getUmbralCascada())) {
+            System.out.printf("Cascada (umbral %.2f): %.1f%% respondidas sin LSTM (%d de %d)\n",
+                    base.getUmbralCascada(), base.getFraccionPrimerNivel() * 100, base.getRespondidasPrimerNivel(),
+                    base.getRespondidasPrimerNivel() + base.getDerivadasAlLstm());
+        }
+        System.out.println("=============================\n");
+    }
+
+    private String histogramaAJson(HistogramaLatencia histograma) {
+        return String.format(Locale.ROOT,
+                "{\"cuenta\":%d,\"promedio\":%.1f,\"p50\":%d,\"p99\":%d,\"p999\":%d,\"max\":%d}",
+                histograma.getCuenta(), histograma.getPromedio(), histograma.percentil(50),
+                histograma.percentil(99), histograma.percentil(99.9), histograma.getMaximo());
+    }
+
+    private String resultadoAJson(EmotionPredictor.ResultadoPrediccion resultado) {
+        EmotionPredictor modelo = predictor.getPredictor();
+        StringBuilder sb = new StringBuilder("{");
+        sb.append("\"texto\":").append(JsonSimple.escapar(resultado.getTexto()));
+        sb.append(",\"emocion\":").append(JsonSimple.escapar(resultado.getEmocionPredicha()));
+        sb.append(",\"confianza\":").append(resultado.getConfianza());
+        sb.append(",\"probabilidades\":{");
+        double[] probabilidades = resultado.getProbabilidades();
+        for (int i = 0; i < probabilidades.length; i++) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            sb.append(JsonSimple.escapar(modelo.getNombreEmocion(i))).append(':').append(probabilidades[i]);
+        }
+        sb.append("}}");
+        return sb.toString();
+    }
+
+    private boolean validarPost(HttpExchange intercambio) throws IOException {
+        if (!"POST".equalsIgnoreCase(intercambio.getRequestMethod())) {
+            responderError(intercambio, 405, "Usa POST");
+            return false;
+        }
+        return true;
+    }
+
+    private String leerCuerpo(HttpExchange intercambio) throws IOException {
+        try (InputStream cuerpo = intercambio.getRequestBody()) {
+            return new String(cuerpo.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private void registrarLatencia(long inicio) {
+        latenciaMicros.registrar((System.nanoTime() - inicio) / 1000);
+    }
+
+    private void responderError(HttpExchange intercambio, int codigo, String mensaje) throws IOException {
+        errores.increment();
+        responder(intercambio, codigo, "{\"error\":" + JsonSimple.escapar(mensaje) + "}");
+    }
+
+    private void responder(HttpExchange intercambio, int codigo, String json) throws IOException {
+        solicitudes.increment();
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        intercambio.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        intercambio.sendResponseHeaders(codigo, bytes.length);
+        try (OutputStream salida = intercambio.getResponseBody()) {
+            salida.write(bytes);
+        }
+    }
+
+    // Getters
+    public int getPuerto() {
+        return servidor.getAddress().getPort();
+    }
+
+    public HistogramaLatencia getLatenciaMicros() {
+        return latenciaMicros;
+    }
+
+    public AgrupadorLotes getAgrupador() {
+        return agrupador;
+    }
+
+    public SesionesPrediccion getSesiones() {
+        return sesiones;
+    }
+}
@@ -0,0 +1,368 @@
+package com.escuela;
+
+import org.deeplearning4j.nn.api.Layer;
+import org.deeplearning4j.nn.api.layers.RecurrentLayer;
+import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+  Predicción incremental para texto que se está escribiendo (por ejemplo un chat)
+  Cada sesión guarda el estado oculto de las capas LSTM y la suma de las
+  probabilidades de los pasos ya procesados. En cada actualización solo pasan
+  por la red (con rnnTimeStep) las palabras nuevas que ya están completas, así
+  que una palabra más cuesta un paso del LSTM y no la frase entera.
+  El resultado es el mismo que daría EmotionPredictor.predecir (con longitud
+  variable, el modo por defecto) con esas palabras.
+
+  Las sesiones se guardan en un LinkedHashMap en orden de acceso, con un máximo
+  (se expulsa la menos usada) y un tiempo de vida desde el último uso.
+  El estado vive en cada sesión y no en la red, así que cualquier copia del
+  modelo sirve para cualquier sesión: hay un pool de copias (como las réplicas
+  de PredictorConcurrente) y sesiones distintas avanzan en paralelo. El lock
+  general solo protege el mapa de sesiones; cada sesión tiene el suyo para que
+  dos actualizaciones de la misma sesión no se mezclen
+ */
+public class SesionesPrediccion {
+
+    private final EmotionPredictor predictor;
+    private final BlockingQueue<MultiLayerNetwork> redes;
+    private final int numRedes;
+    private final int[] capasRecurrentes;
+    private final int maxSesiones;
+    private final long ttlNanos;   // 0 = las sesiones no expiran
+
+    private final LinkedHashMap<String, Sesion> sesiones;
+
+    // Probabilidades de una frase sin palabras (un paso en ceros, como en predecir)
+    private final double[] probabilidadesVacias;
+
+    // Contadores (los del mapa se cambian con el lock general)
+    private long creadas;
+    private long expulsiones;
+    private long expiraciones;
+    private final LongAdder reinicios = new LongAdder();
+    private final LongAdder pasos = new LongAdder();
+
+    /**
+      Constructor con una copia del modelo por núcleo del procesador
+      @param predictor predictor con el modelo ya cargado
+      @param maxSesiones número máximo de sesiones abiertas
+      @param ttlMillis tiempo sin uso tras el que se descarta una sesión (0 = sin límite)
+     */
+    public SesionesPrediccion(EmotionPredictor predictor, int maxSesiones, long ttlMillis) {
+        this(predictor, maxSesiones, ttlMillis, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+      Constructor
+      @param numRedes copias del modelo (sesiones que avanzan a la vez)
+     */
+    public SesionesPrediccion(EmotionPredictor predictor, int maxSesiones, long ttlMillis, int numRedes) {
+        if (!predictor.estaCargado()) {
+            throw new IllegalStateException("El modelo no está cargado. Llama a cargarModelo() primero.");
+        }
+        if (maxSesiones < 1 || numRedes < 1) {
+            throw new IllegalArgumentException("Se necesita al menos 1 sesión y 1 copia del modelo");
+        }
+
+        this.predictor = predictor;
+        this.maxSesiones = maxSesiones;
+        this.ttlNanos = ttlMillis * 1_000_000L;
+
+        // Copias propias: rnnTimeStep guarda el estado dentro de la red
+        this.numRedes = numRedes;
+        this.redes = new ArrayBlockingQueue<>(numRedes);
+        MultiLayerNetwork original = predictor.getModel();
+        for (int i = 0; i < numRedes; i++) {
+            redes.add(original.clone());
+        }
+
+        List<Integer> capas = new ArrayList<>();
+        Layer[] layers = original.getLayers();
+        for (int i = 0; i < layers.length; i++) {
+            if (layers[i] instanceof RecurrentLayer) {
+                capas.add(i);
+            }
+        }
+        this.capasRecurrentes = capas.stream().mapToInt(Integer::intValue).toArray();
+
+        INDArray promedio = redes.peek()
+                .output(Nd4j.zeros(1, predictor.getVectorizer().getVectorSize(), 1)).mean(2);
+        this.probabilidadesVacias = new double[predictor.getNumeroEmociones()];
+        for (int k = 0; k < probabilidadesVacias.length; k++) {
+            probabilidadesVacias[k] = promedio.getDouble(0, k);
+        }
+
+        this.sesiones = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Sesion> masAntigua) {
+                if (size() <= SesionesPrediccion.this.maxSesiones) {
+                    return false;
+                }
+                expulsiones++;
+                return true;
+            }
+        };
+    }
+
+    /**
+      Actualiza una sesión con el texto escrito hasta ahora
+      La última palabra solo cuenta si después viene un separador (espacio,
+      signo, ...); mientras se está escribiendo todavía no pasa por la red
+      @param idSesion identificador de la sesión (se crea si no existe)
+      @param texto texto completo escrito hasta ahora
+      @return predicción con las palabras completas
+     */
+    public EmotionPredictor.ResultadoPrediccion actualizar(String idSesion, String texto) {
+        return avanzar(buscar(idSesion), texto, TextPreprocessor.tokenizar(textoCompleto(texto)));
+    }
+
+    /**
+      Termina una sesión con el texto final (por ejemplo al enviar el mensaje):
+      cuenta también la última palabra y después descarta la sesión
+     */
+    public EmotionPredictor.ResultadoPrediccion completar(String idSesion, String texto) {
+        Sesion sesion = buscar(idSesion);
+        EmotionPredictor.ResultadoPrediccion resultado = avanzar(sesion, texto, TextPreprocessor.tokenizar(texto));
+        synchronized (this) {
+            sesiones.remove(idSesion, sesion); // si mientras tanto se abrió otra con el mismo id, se conserva
+        }
+        return resultado;
+    }
+
+    /**
+      Descarta una sesión
+     */
+    public synchronized void cerrar(String idSesion) {
+        sesiones.remove(idSesion);
+    }
+
+    /**
+      Texto sin la palabra que todavía se está escribiendo
+     */
+    static String textoCompleto(String texto) {
+        if (texto == null) {
+            return "";
+        }
+        int fin = texto.length();
+        while (fin > 0 && esParteDePalabra(texto.charAt(fin - 1))) {
+            fin--;
+        }
+        return texto.substring(0, fin);
+    }
+
+    private static boolean esParteDePalabra(char c) {
+        return Character.isLetter(c) || Character.getType(c) == Character.NON_SPACING_MARK;
+    }
+
+    /**
+      Busca la sesión (o la crea) con el lock del mapa
+     */
+    private synchronized Sesion buscar(String idSesion) {
+        long ahora = System.nanoTime();
+        descartarExpiradas(ahora);
+
+        Sesion sesion = sesiones.get(idSesion);
+        if (sesion == null) {
+            sesion = new Sesion(predictor.getNumeroEmociones());
+            sesiones.put(idSesion, sesion);
+            creadas++;
+        }
+        sesion.ultimoUso = ahora;
+        return sesion;
+    }
+
+    /**
+      Pasa por la red las palabras que la sesión todavía no procesó
+      Solo se bloquea la sesión: otras sesiones avanzan a la vez con otras copias del modelo
+     */
+    private EmotionPredictor.ResultadoPrediccion avanzar(Sesion sesion, String texto, List<String> tokens) {
+        Word2VecVectorizer vectorizer = predictor.getVectorizer();
+        int longitud = Math.min(tokens.size(), vectorizer.getMaxSequenceLength());
+        double[] probabilidades;
+
+        synchronized (sesion) {
+            // Si cambió una palabra ya procesada (el usuario borró o corrigió), se empieza de nuevo
+            if (!esPrefijo(sesion.tokens, tokens, longitud)) {
+                sesion.reiniciar();
+                reinicios.increment();
+            }
+
+            if (longitud > sesion.tokens.size()) {
+                ejecutarPasos(sesion, vectorizer, tokens.subList(sesion.tokens.size(), longitud));
+            }
+
+            probabilidades = sesion.tokens.isEmpty() ? probabilidadesVacias.clone() : sesion.promedio();
+        }
+        return predictor.construirResultado(texto, probabilidades);
+    }
+
+    private static boolean esPrefijo(List<String> procesados, List<String> tokens, int longitud) {
+        if (procesados.size() > longitud) {
+            return false;
+        }
+        for (int i = 0; i < procesados.size(); i++) {
+            if (!procesados.get(i).equals(tokens.get(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+      Toma una copia libre del modelo, carga en ella el estado de la sesión,
+      avanza un paso por palabra nueva y guarda el estado resultante
+     */
+    @SuppressWarnings("unchecked")
+    private void ejecutarPasos(Sesion sesion, Word2VecVectorizer vectorizer, List<String> nuevos) {
+        INDArray features = vectorizer.tokensAVectores(Collections.singletonList(nuevos), nuevos.size());
+
+        MultiLayerNetwork red = tomarRed();
+        try {
+            if (sesion.estados == null) {
+                red.rnnClearPreviousState();
+            } else {
+                for (int i = 0; i < capasRecurrentes.length; i++) {
+                    red.rnnSetPreviousState(capasRecurrentes[i], sesion.estados[i]);
+                }
+            }
+
+            INDArray salida = red.rnnTimeStep(features); // [1, numClases, nuevos]
+            for (int t = 0; t < nuevos.size(); t++) {
+                for (int k = 0; k < sesion.suma.length; k++) {
+                    sesion.suma[k] += salida.getDouble(0, k, t);
+                }
+            }
+
+            if (sesion.estados == null) {
+                sesion.estados = new Map[capasRecurrentes.length];
+            }
+            for (int i = 0; i < capasRecurrentes.length; i++) {
+                sesion.estados[i] = copiar(red.rnnGetPreviousState(capasRecurrentes[i]));
+            }
+        } finally {
+            redes.add(red);
+        }
+
+        sesion.tokens.addAll(nuevos);
+        pasos.add(nuevos.size());
+    }
+
+    private MultiLayerNetwork tomarRed() {
+        try {
+            return redes.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrumpido esperando una copia del modelo", e);
+        }
+    }
+
+    private static Map<String, INDArray> copiar(Map<String, INDArray> estado) {
+        Map<String, INDArray> copia = new HashMap<>();
+        for (Map.Entry<String, INDArray> entrada : estado.entrySet()) {
+            copia.put(entrada.getKey(), entrada.getValue().dup());
+        }
+        return copia;
+    }
+
+    /**
+      Quita las sesiones sin uso por más del tiempo de vida
+      Las sesiones están en orden de uso, así que basta revisar desde la más antigua
+     */
+    private void descartarExpiradas(long ahora) {
+        if (ttlNanos == 0) {
+            return;
+        }
+        Iterator<Sesion> iterador = sesiones.values().iterator();
+        while (iterador.hasNext() && ahora - iterador.next().ultimoUso > ttlNanos) {
+            iterador.remove();
+            expiraciones++;
+        }
+    }
+
+    /**
+      Estado de una sesión: palabras procesadas, estado de las capas LSTM
+      (uno por capa recurrente) y suma de las probabilidades de cada paso
+     */
+    private static class Sesion {
+        final List<String> tokens = new ArrayList<>();
+        final double[] suma;
+        Map<String, INDArray>[] estados; // null = sin pasos todavía
+        long ultimoUso;
+
+        Sesion(int numClases) {
+            this.suma = new double[numClases];
+        }
+
+        void reiniciar() {
+            tokens.clear();
+            estados = null;
+            Arrays.fill(suma, 0);
+        }
+
+        double[] promedio() {
+            double[] promedio = new double[suma.length];
+            for (int k = 0; k < suma.length; k++) {
+                promedio[k] = suma[k] / tokens.size();
+            }
+            return promedio;
+        }
+    }
+
+    /**
+      Muestra los contadores de las sesiones
+     */
+    public synchronized void mostrarEstadisticas() {
+        System.out.println("\n=== ESTADÍSTICAS DE SESIONES ===");
+        System.out.println("Sesiones abiertas: " + sesiones.size() + " de " + maxSesiones
+                + " (" + numRedes + " copia(s) del modelo)");
+        System.out.println("Sesiones creadas: " + creadas);
+        System.out.println("Pasos del LSTM: " + pasos);
+        System.out.println("Reinicios (texto corregido): " + reinicios);
+        System.out.println("Expulsiones (LRU): " + expulsiones);
+        System.out.println("Expiraciones (TTL): " + expiraciones);
+        System.out.println("================================\n");
+    }
+
+    // Getters
+    public synchronized int getNumSesiones() {
+        return sesiones.size();
+    }
+
+    public synchronized long getCreadas() {
+        return creadas;
+    }
+
+    public long getPasos() {
+        return pasos.sum();
+    }
+
+    public long getReinicios() {
+        return reinicios.sum();
+    }
+
+    public synchronized long getExpulsiones() {
+        return expulsiones;
+    }
+
+    public synchronized long getExpiraciones() {
+        return expiraciones;
+    }
+
+    public int getNumRedes() {
+        return numRedes;
+    }
+}
@@ -0,0 +1,147 @@
+package com.escuela;
+
+import org.deeplearning4j.models.word2vec.VocabWord;
+import org.deeplearning4j.models.word2vec.Word2Vec;
+import org.deeplearning4j.models.word2vec.wordstore.VocabCache;
+import org.nd4j.linalg.api.buffer.DataType;
+import org.nd4j.linalg.api.ndarray.INDArray;
+
+/**
+  Tabla compacta de vectores de palabras para vectorizar rápido
+  - Índice de vocabulario: palabra → número, con una tabla hash de direccionamiento abierto
+  - Matriz de vectores: un solo float[] de tamaño [numPalabras * vectorSize]
+  Buscar una palabra es un sondeo en la tabla hash y copiar su vector es recorrer un arreglo,
+  sin crear objetos nuevos
+ */
+public class TablaEmbeddings implements AlmacenEmbeddings {
+
+    private final String[] palabras;   // palabra de cada índice
+    private final float[] vectores;    // vector de la palabra i en [i * vectorSize, (i + 1) * vectorSize)
+    private final int vectorSize;
+
+    // Tabla hash: cada ranura guarda (índice + 1), 0 = ranura vacía
+    private final int[] ranuras;
+    private final int[] hashes;        // hash de cada palabra, para descartar rápido al comparar
+    private final int mascara;
+
+    /**
+      Constructor
+      @param palabras palabras del vocabulario (sin repetir)
+      @param vectores vectores de todas las palabras, uno detrás de otro
+      @param vectorSize tamaño del vector de cada palabra
+     */
+    public TablaEmbeddings(String[] palabras, float[] vectores, int vectorSize) {
+        if (vectores.length != palabras.length * vectorSize) {
+            throw new IllegalArgumentException("Se esperaban " + (palabras.length * vectorSize)
+                    + " valores y hay " + vectores.length);
+        }
+
+        this.palabras = palabras;
+        this.vectores = vectores;
+        this.vectorSize = vectorSize;
+
+        // Capacidad: potencia de 2 con ocupación máxima del 50%
+        int capacidad = Integer.highestOneBit(Math.max(2, palabras.length) * 2 - 1) << 1;
+        this.ranuras = new int[capacidad];
+        this.hashes = new int[palabras.length];
+        this.mascara = capacidad - 1;
+
+        for (int i = 0; i < palabras.length; i++) {
+            int hash = mezclar(palabras[i].hashCode());
+            hashes[i] = hash;
+
+            int ranura = hash & mascara;
+            while (ranuras[ranura] != 0) {
+                ranura = (ranura + 1) & mascara;
+            }
+            ranuras[ranura] = i + 1;
+        }
+    }
+
+    /**
+      Construye la tabla a partir de un modelo Word2Vec ya entrenado o cargado
+     */
+    public static TablaEmbeddings desdeWord2Vec(Word2Vec word2Vec) {
+        VocabCache<VocabWord> vocab = word2Vec.getVocab();
+        int numPalabras = vocab.numWords();
+        int vectorSize = word2Vec.getLayerSize();
+
+        // syn0 tiene una fila por palabra, en el mismo orden que el vocabulario
+        INDArray syn0 = word2Vec.getLookupTable().getWeights();
+        float[] todos = syn0.castTo(DataType.FLOAT).dup('c').data().asFloat();
+
+        String[] palabras = new String[numPalabras];
+        float[] vectores = new float[numPalabras * vectorSize];
+
+        for (int i = 0; i < numPalabras; i++) {
+            palabras[i] = vocab.wordAtIndex(i);
+            System.arraycopy(todos, i * vectorSize, vectores, i * vectorSize, vectorSize);
+        }
+
+        return new TablaEmbeddings(palabras, vectores, vectorSize);
+    }
+
+    /**
+      Busca el índice de una palabra
+      @return índice de la palabra, o -1 si no está en el vocabulario
+     */
+    @Override
+    public int indice(String palabra) {
+        int hash = mezclar(palabra.hashCode());
+        int ranura = hash & mascara;
+
+        while (true) {
+            int valor = ranuras[ranura];
+            if (valor == 0) {
+                return -1;
+            }
+
+            int i = valor - 1;
+            if (hashes[i] == hash && palabras[i].equals(palabra)) {
+                return i;
+            }
+            ranura = (ranura + 1) & mascara;
+        }
+    }
+
+    /**
+      Copia el vector de una palabra en un arreglo destino
+      @param indice índice de la palabra
+      @param destino arreglo donde se escribe
+      @param offset posición de la primera dimensión en destino
+      @param paso distancia en destino entre dos dimensiones consecutivas
+     */
+    @Override
+    public void copiarVector(int indice, float[] destino, int offset, int paso) {
+        int origen = indice * vectorSize;
+        for (int j = 0; j < vectorSize; j++) {
+            destino[offset + j * paso] = vectores[origen + j];
+        }
+    }
+
+    /**
+      Mezcla los bits del hash para repartir mejor las palabras en la tabla
+     */
+    static int mezclar(int h) {
+        h ^= (h >>> 16);
+        h *= 0x85ebca6b;
+        h ^= (h >>> 13);
+        return h;
+    }
+
+    // Getters
+    @Override
+    public int getNumPalabras() {
+        return palabras.length;
+    }
+
+    @Override
+    public int getVectorSize() {
+        return vectorSize;
+    }
+
+    @Override
+    public String getPalabra(int indice) {
+        return palabras[indice];
+    }
+}
@@ -2,8 +2,9 @@ package com.escuela;
 
 import java.text.Normalizer;
 import java.util.ArrayList;
-
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 
 /**
   Clase para preprocesar y tokenizar texto
@@ -11,6 +12,33 @@ import java.util.List;
  */
 public class TextPreprocessor {
 
+    // Valores especiales de la tabla de caracteres
+    private static final char ELIMINAR = '\0';       // el carácter desaparece (acentos sueltos)
+    private static final char RESPALDO = '\uFFFF';   // hay que usar Normalizer para este carácter
+
+    // Resultado ya limpio de cada carácter Latin-1 (0-255):
+    // una letra 'a'-'z', un espacio ' ' (separador), ELIMINAR o RESPALDO
+    private static final char[] TABLA_LATIN1 = new char[256];
+
+    // Buffer reutilizable por hilo para no crear un StringBuilder en cada llamada
+    private static final ThreadLocal<StringBuilder> BUFFER =
+            ThreadLocal.withInitial(() -> new StringBuilder(128));
+
+    static {
+        // La tabla se calcula con la misma normalización que se usa como respaldo,
+        // así las dos rutas dan exactamente el mismo resultado
+        for (int c = 0; c < TABLA_LATIN1.length; c++) {
+            String resultado = normalizarCaracter(c);
+            if (resultado.isEmpty()) {
+                TABLA_LATIN1[c] = ELIMINAR;
+            } else if (resultado.length() == 1) {
+                TABLA_LATIN1[c] = resultado.charAt(0);
+            } else {
+                TABLA_LATIN1[c] = RESPALDO;
+            }
+        }
+    }
+
     /**
       Limpia y normaliza el texto
       - Convierte a minúsculas
@@ -23,23 +51,9 @@ public class TextPreprocessor {
             return "";
         }
 
-        // Convertir a minúsculas
-        texto = texto.toLowerCase();
-
-        // Eliminar acentos (á → a, é → e, etc.)
-        texto = Normalizer.normalize(texto, Normalizer.Form.NFD);
-        texto = texto.replaceAll("\\p{M}", "");
-
-        // Eliminar caracteres especiales y puntuación, mantener solo letras y espacios
-        texto = texto.replaceAll("[^a-z\\s]", " ");
-
-        // Eliminar espacios múltiples
-        texto = texto.replaceAll("\\s+", " ");
-
-        // Eliminar espacios al inicio y final
-        texto = texto.trim();
-
-        return texto;
+        StringBuilder limpio = obtenerBuffer();
+        escanear(texto, limpio, null);
+        return limpio.toString();
     }
 
     /**
@@ -48,43 +62,127 @@ public class TextPreprocessor {
       @return lista de palabras
      */
     public static List<String> tokenizar(String texto) {
-        String textoLimpio = limpiarTexto(texto);
+        List<String> tokens = new ArrayList<>();
 
-        if (textoLimpio.isEmpty()) {
-            return new ArrayList<>();
+        if (texto == null || texto.isEmpty()) {
+            return tokens;
+        }
+
+        escanear(texto, obtenerBuffer(), tokens);
+        return tokens;
+    }
+
+    /**
+      Recorre el texto una sola vez: pasa a minúsculas, quita acentos,
+      convierte todo lo que no sea letra en separador y junta los espacios
+      @param texto texto original
+      @param limpio donde se escribe el texto limpio (palabras separadas por un espacio)
+      @param tokens si no es null, recibe las palabras de 2 o más letras
+     */
+    private static void escanear(String texto, StringBuilder limpio, List<String> tokens) {
+        int inicioPalabra = -1; // posición en limpio donde empieza la palabra actual (-1 = fuera de palabra)
+        int i = 0;
+
+        while (i < texto.length()) {
+            char c = texto.charAt(i);
+            char resultado = c < TABLA_LATIN1.length ? TABLA_LATIN1[c] : RESPALDO;
+
+            if (resultado != RESPALDO) {
+                inicioPalabra = agregar(resultado, limpio, tokens, inicioPalabra);
+                i++;
+                continue;
+            }
+
+            // Fuera de Latin-1: normalizar el carácter completo (puede ser un par sustituto)
+            int codePoint = texto.codePointAt(i);
+            String normalizado = normalizarCaracter(codePoint);
+            for (int k = 0; k < normalizado.length(); k++) {
+                inicioPalabra = agregar(normalizado.charAt(k), limpio, tokens, inicioPalabra);
+            }
+            i += Character.charCount(codePoint);
         }
 
-        // Dividir por espacios
-        String[] palabras = textoLimpio.split("\\s+");
+        // Cerrar la última palabra
+        agregar(' ', limpio, tokens, inicioPalabra);
+    }
 
+    /**
+      Agrega un carácter ya normalizado al texto limpio
+      @return nueva posición de inicio de la palabra actual (-1 si no hay palabra abierta)
+     */
+    private static int agregar(char c, StringBuilder limpio, List<String> tokens, int inicioPalabra) {
+        if (c == ELIMINAR) {
+            // Los acentos sueltos no separan palabras: "cafe\u0301" → "cafe"
+            return inicioPalabra;
+        }
+
+        if (c != ' ') {
+            if (inicioPalabra < 0) {
+                // Un solo espacio entre palabras, nunca al inicio
+                if (limpio.length() > 0) {
+                    limpio.append(' ');
+                }
+                inicioPalabra = limpio.length();
+            }
+            limpio.append(c);
+            return inicioPalabra;
+        }
+
+        // Separador: cerrar la palabra actual
         // Filtrar palabras muy cortas (menos de 2 caracteres)
-        List<String> tokens = new ArrayList<>();
-        for (String palabra : palabras) {
-            if (palabra.length() >= 2) {
-                tokens.add(palabra);
+        if (inicioPalabra >= 0 && tokens != null && limpio.length() - inicioPalabra >= 2) {
+            tokens.add(limpio.substring(inicioPalabra));
+        }
+        return -1;
+    }
+
+    /**
+      Normaliza un solo carácter igual que la versión basada en expresiones regulares:
+      minúsculas, descomposición NFD, sin marcas diacríticas, y todo lo que no sea
+      una letra a-z se convierte en espacio
+      @return solo letras a-z y espacios (vacío si el carácter era un acento suelto)
+     */
+    private static String normalizarCaracter(int codePoint) {
+        String texto = new String(Character.toChars(codePoint)).toLowerCase();
+        texto = Normalizer.normalize(texto, Normalizer.Form.NFD);
+
+        StringBuilder resultado = new StringBuilder(2);
+        for (int i = 0; i < texto.length(); ) {
+            int cp = texto.codePointAt(i);
+            i += Character.charCount(cp);
+
+            int tipo = Character.getType(cp);
+            if (tipo == Character.NON_SPACING_MARK
+                    || tipo == Character.COMBINING_SPACING_MARK
+                    || tipo == Character.ENCLOSING_MARK) {
+                continue;
             }
+            resultado.append(cp >= 'a' && cp <= 'z' ? (char) cp : ' ');
         }
 
-        return tokens;
+        return resultado.toString();
+    }
+
+    private static StringBuilder obtenerBuffer() {
+        StringBuilder buffer = BUFFER.get();
+        buffer.setLength(0);
+        return buffer;
     }
 
     /**
       Obtiene todas las palabras únicas de una lista de textos
       Esto se usa para construir el vocabulario
+      (en el orden en que aparecen por primera vez; para frecuencias e ids
+      ver Vocabulario.construir)
      */
     public static List<String> obtenerVocabulario(List<String> textos) {
-        List<String> vocabulario = new ArrayList<>();
+        Set<String> vocabulario = new LinkedHashSet<>();
 
         for (String texto : textos) {
-            List<String> tokens = tokenizar(texto);
-            for (String token : tokens) {
-                if (!vocabulario.contains(token)) {
-                    vocabulario.add(token);
-                }
-            }
+            vocabulario.addAll(tokenizar(texto));
         }
 
-        return vocabulario;
+        return new ArrayList<>(vocabulario);
     }
 
     /**
@@ -1,11 +1,34 @@
 package com.escuela;
 
+import java.io.File;
+import java.util.Arrays;
+
 /**
   Programa principal para entrenar el clasificador de emociones
+  Uso: TrainEmotionClassifier [--paralelo trabajadores [frecuenciaPromedio]] [--resume] [--corpus archivo.bin]
+                              [--sin-cascada]
+  Durante el entrenamiento se guardan checkpoints en la carpeta "checkpoints";
+  con --resume se continúa desde el último (usa el Word2Vec ya guardado); sin
+  --resume se borran los de entrenamientos anteriores.
+  Con --corpus, la primera vez se exporta el CSV de entrenamiento ya tokenizado a
+  ese archivo y las siguientes se entrena desde él sin leer ni tokenizar el CSV.
+  Con --sin-cascada no se entrena el clasificador lineal de la cascada
  */
 public class TrainEmotionClassifier {
 
     public static void main(String[] args) {
+        boolean reanudar = Arrays.asList(args).contains("--resume");
+        boolean entrenarCascada = !Arrays.asList(args).contains("--sin-cascada");
+        GestorCheckpoints checkpoints = new GestorCheckpoints(new File("checkpoints"), 3);
+        File ultimoCheckpoint = reanudar ? checkpoints.getUltimo() : null;
+        if (reanudar && ultimoCheckpoint == null) {
+            System.out.println("⚠️ No hay checkpoints para reanudar, se entrena desde cero\n");
+        }
+        if (ultimoCheckpoint == null) {
+            // Los checkpoints de un entrenamiento anterior no sirven con el Word2Vec nuevo
+            checkpoints.vaciar();
+        }
+
         System.out.println("╔═══════════════════════════════════════════════════╗");
         System.out.println("║  CLASIFICADOR DE EMOCIONES CON DEEPLEARNING4J   ║");
         System.out.println("║           Proyecto de Machine Learning            ║");
@@ -19,11 +42,29 @@ public class TrainEmotionClassifier {
         DataLoader trainData = new DataLoader();
         DataLoader testData = new DataLoader();
 
-        if (!trainData.cargarDesdeArchivo("emotions_train.csv")) {
-            System.err.println("❌ Error al cargar datos de entrenamiento");
-            return;
+        String rutaCorpus = null;
+        for (int i = 0; i + 1 < args.length; i++) {
+            if (args[i].equals("--corpus")) {
+                rutaCorpus = args[i + 1];
+            }
         }
 
+        if (rutaCorpus != null && new File(rutaCorpus).isFile()) {
+            if (!trainData.cargarDesdeCorpus(rutaCorpus)) {
+                System.err.println("❌ Error al cargar el corpus de entrenamiento");
+                return;
+            }
+        } else {
+            if (!trainData.cargarDesdeArchivo("emotions_train.csv")) {
+                System.err.println("❌ Error al cargar datos de entrenamiento");
+                return;
+            }
+            if (rutaCorpus != null) {
+                CorpusBinario.exportar(trainData, new File(rutaCorpus));
+            }
+        }
+        CorpusBinario corpus = trainData.getCorpus();
+
         if (!testData.cargarDesdeArchivo("emotions_test.csv")) {
             System.err.println("❌ Error al cargar datos de prueba");
             return;
@@ -36,14 +77,43 @@ public class TrainEmotionClassifier {
         // ============================================
         System.out.println("\n📚 PASO 2: Entrenando Word2Vec...\n");
 
-        int maxLength = TextPreprocessor.obtenerLongitudMaxima(trainData.getTextos());
+        // Desde el CSV, una sola pasada en paralelo da el vocabulario y la longitud máxima
+        int maxLength;
+        if (corpus != null) {
+            maxLength = corpus.getLongitudMaxima();
+        } else {
+            Vocabulario vocabulario = Vocabulario.construir(trainData.getTextos(), 1, 0);
+            maxLength = vocabulario.getLongitudMaxima();
+            System.out.println("Vocabulario del entrenamiento: " + vocabulario.getTamano() + " palabras, "
+                    + vocabulario.getTotalTokens() + " tokens, frase más larga: " + maxLength + " tokens");
+        }
         int vectorSize = 100; // Tamaño de vectores de palabras
 
         Word2VecVectorizer vectorizer = new Word2VecVectorizer(vectorSize, maxLength);
-        vectorizer.entrenar(trainData.getTextos());
+        if (ultimoCheckpoint != null) {
+            // Al reanudar se usan los mismos vectores con los que se entrenó el checkpoint
+            if (!vectorizer.cargar("word2vec_emotions.zip")) {
+                System.err.println("❌ No se puede reanudar sin el Word2Vec del checkpoint");
+                return;
+            }
+        } else {
+            if (corpus != null) {
+                vectorizer.entrenar(corpus);
+            } else {
+                vectorizer.entrenar(trainData.getTextos());
+            }
+
+            // Guardar Word2Vec
+            vectorizer.guardar("word2vec_emotions.zip");
+        }
 
-        // Guardar Word2Vec
-        vectorizer.guardar("word2vec_emotions.zip");
+        // Clasificador rápido de primer nivel para la cascada (segundos, sobre los mismos vectores)
+        if (entrenarCascada) {
+            System.out.println("\n⚡ Entrenando clasificador lineal (primer nivel de la cascada)...");
+            ClasificadorLineal clasificadorLineal = ClasificadorLineal.entrenar(trainData, vectorizer);
+            System.out.printf("   Exactitud en prueba: %.2f%%\n", clasificadorLineal.evaluar(testData, vectorizer) * 100);
+            clasificadorLineal.guardar(ClasificadorLineal.ARCHIVO_POR_DEFECTO);
+        }
 
         // ============================================
         // PASO 3: CONSTRUIR MODELO LSTM
@@ -55,6 +125,12 @@ public class TrainEmotionClassifier {
                 trainData.getNumeroClases()
         );
         classifierModel.construirModelo();
+        if (ultimoCheckpoint != null && !classifierModel.cargar(ultimoCheckpoint.getPath())) {
+            // Reanudar con pesos nuevos y el contador de epochs del checkpoint mezclaría dos entrenamientos
+            System.err.println("❌ No se pudo cargar el checkpoint " + ultimoCheckpoint.getName()
+                    + ", se cancela el entrenamiento");
+            return;
+        }
 
         // ============================================
         // PASO 4: ENTRENAR MODELO
@@ -72,14 +148,31 @@ public class TrainEmotionClassifier {
         int numEpochs = 150;      // Número de epochs
         int batchSize = 20;       // Tamaño de batch
 
+        // Entrenamiento en paralelo (opcional): --paralelo trabajadores [frecuenciaPromedio]
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--paralelo") && i + 1 < args.length) {
+                int trabajadores = Integer.parseInt(args[i + 1]);
+                int frecuencia = i + 2 < args.length && !args[i + 2].startsWith("--")
+                        ? Integer.parseInt(args[i + 2]) : 1;
+                trainer.setEntrenamientoParalelo(trabajadores, frecuencia);
+            }
+        }
+
+        // Checkpoints cada 10 epochs o cada 5 minutos (se conservan los últimos 3)
+        trainer.setCheckpoints(checkpoints, 10, 5);
+        if (ultimoCheckpoint != null) {
+            trainer.reanudar(GestorCheckpoints.leerEstado(ultimoCheckpoint));
+        }
+
         trainer.entrenar(numEpochs, batchSize);
+        checkpoints.close();
 
         // ============================================
         // PASO 5: GUARDAR MODELO
         // ============================================
         System.out.println("\n💾 PASO 5: Guardando modelo entrenado...\n");
 
-        classifierModel.guardar("emotion_classifier_model.zip");
+        classifierModel.guardar("emotion_classifier_model.zip", maxLength);
 
         // ============================================
         // FINALIZACIÓN
@@ -91,6 +184,9 @@ public class TrainEmotionClassifier {
         System.out.println("Archivos generados:");
         System.out.println("  📄 word2vec_emotions.zip - Modelo Word2Vec");
         System.out.println("  📄 emotion_classifier_model.zip - Modelo clasificador");
+        if (entrenarCascada) {
+            System.out.println("  📄 " + ClasificadorLineal.ARCHIVO_POR_DEFECTO + " - Clasificador lineal (cascada)");
+        }
         System.out.println("\n¡Tu modelo está listo para hacer predicciones! 🎉\n");
     }
 }
@@ -0,0 +1,158 @@
+package com.escuela;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+  Vocabulario con frecuencias y un número (id) para cada palabra
+  Las palabras se ordenan de la más frecuente a la menos frecuente
+  (con empate, en orden alfabético), y el id de cada palabra es su posición
+ */
+public class Vocabulario {
+
+    private final List<String> palabras;          // palabra de cada id
+    private final int[] frecuencias;              // frecuencia de cada id
+    private final Map<String, Integer> palabraAId;
+    private final int longitudMaxima;             // máximo de tokens en una frase
+    private final long totalTokens;
+
+    private Vocabulario(List<String> palabras, int[] frecuencias, int longitudMaxima, long totalTokens) {
+        this.palabras = Collections.unmodifiableList(palabras);
+        this.frecuencias = frecuencias;
+        this.longitudMaxima = longitudMaxima;
+        this.totalTokens = totalTokens;
+
+        this.palabraAId = new HashMap<>(palabras.size() * 2);
+        for (int i = 0; i < palabras.size(); i++) {
+            palabraAId.put(palabras.get(i), i);
+        }
+    }
+
+    /**
+      Construye el vocabulario de una lista de textos
+      @param textos frases del corpus
+      @param frecuenciaMinima las palabras que aparecen menos veces se descartan
+      @param tamanoMaximo número máximo de palabras (0 = sin límite)
+     */
+    public static Vocabulario construir(Collection<String> textos, int frecuenciaMinima, int tamanoMaximo) {
+        return construir(textos.stream(), frecuenciaMinima, tamanoMaximo);
+    }
+
+    /**
+      Construye el vocabulario recorriendo los textos una sola vez en paralelo
+      Cada hilo cuenta en su propio HashMap y al final se juntan los conteos.
+      La longitud máxima se calcula en la misma pasada
+     */
+    public static Vocabulario construir(Stream<String> textos, int frecuenciaMinima, int tamanoMaximo) {
+        Conteo conteo = textos.parallel().collect(Conteo::new, Conteo::agregar, Conteo::combinar);
+
+        // Filtrar por frecuencia mínima
+        List<Map.Entry<String, int[]>> entradas = new ArrayList<>();
+        for (Map.Entry<String, int[]> entrada : conteo.frecuencias.entrySet()) {
+            if (entrada.getValue()[0] >= frecuenciaMinima) {
+                entradas.add(entrada);
+            }
+        }
+
+        // Ordenar: más frecuentes primero, empates en orden alfabético
+        entradas.sort((a, b) -> {
+            int comparacion = Integer.compare(b.getValue()[0], a.getValue()[0]);
+            return comparacion != 0 ? comparacion : a.getKey().compareTo(b.getKey());
+        });
+
+        int tamano = tamanoMaximo > 0 ? Math.min(tamanoMaximo, entradas.size()) : entradas.size();
+        List<String> palabras = new ArrayList<>(tamano);
+        int[] frecuencias = new int[tamano];
+        for (int i = 0; i < tamano; i++) {
+            palabras.add(entradas.get(i).getKey());
+            frecuencias[i] = entradas.get(i).getValue()[0];
+        }
+
+        return new Vocabulario(palabras, frecuencias, conteo.longitudMaxima, conteo.totalTokens);
+    }
+
+    /**
+      Conteo parcial de un hilo
+      Las frecuencias se guardan en int[1] para sumar sin crear objetos Integer
+     */
+    private static class Conteo {
+        private HashMap<String, int[]> frecuencias = new HashMap<>();
+        private int longitudMaxima = 0;
+        private long totalTokens = 0;
+
+        void agregar(String texto) {
+            List<String> tokens = TextPreprocessor.tokenizar(texto);
+            for (String token : tokens) {
+                int[] contador = frecuencias.get(token);
+                if (contador == null) {
+                    frecuencias.put(token, new int[]{1});
+                } else {
+                    contador[0]++;
+                }
+            }
+            longitudMaxima = Math.max(longitudMaxima, tokens.size());
+            totalTokens += tokens.size();
+        }
+
+        void combinar(Conteo otro) {
+            // Recorrer siempre el mapa más pequeño
+            HashMap<String, int[]> mayor = frecuencias;
+            HashMap<String, int[]> menor = otro.frecuencias;
+            if (menor.size() > mayor.size()) {
+                mayor = otro.frecuencias;
+                menor = frecuencias;
+            }
+
+            for (Map.Entry<String, int[]> entrada : menor.entrySet()) {
+                int[] contador = mayor.get(entrada.getKey());
+                if (contador == null) {
+                    mayor.put(entrada.getKey(), entrada.getValue());
+                } else {
+                    contador[0] += entrada.getValue()[0];
+                }
+            }
+
+            frecuencias = mayor;
+            longitudMaxima = Math.max(longitudMaxima, otro.longitudMaxima);
+            totalTokens += otro.totalTokens;
+        }
+    }
+
+    /**
+      Obtiene el id de una palabra
+      @return id de la palabra, o -1 si no está en el vocabulario
+     */
+    public int getId(String palabra) {
+        Integer id = palabraAId.get(palabra);
+        return id == null ? -1 : id;
+    }
+
+    public String getPalabra(int id) {
+        return palabras.get(id);
+    }
+
+    public int getFrecuencia(int id) {
+        return frecuencias[id];
+    }
+
+    public int getTamano() {
+        return palabras.size();
+    }
+
+    public List<String> getPalabras() {
+        return palabras;
+    }
+
+    public int getLongitudMaxima() {
+        return longitudMaxima;
+    }
+
+    public long getTotalTokens() {
+        return totalTokens;
+    }
+}
@@ -4,25 +4,35 @@ import org.deeplearning4j.models.embeddings.loader.WordVectorSerializer;
 import org.deeplearning4j.models.word2vec.Word2Vec;
 import org.deeplearning4j.text.sentenceiterator.CollectionSentenceIterator;
 import org.deeplearning4j.text.sentenceiterator.SentenceIterator;
+import org.deeplearning4j.text.sentenceiterator.SentencePreProcessor;
 import org.deeplearning4j.text.tokenization.tokenizer.preprocessor.CommonPreprocessor;
 import org.deeplearning4j.text.tokenization.tokenizerfactory.DefaultTokenizerFactory;
 import org.deeplearning4j.text.tokenization.tokenizerfactory.TokenizerFactory;
+import org.nd4j.linalg.api.buffer.DataType;
 import org.nd4j.linalg.api.ndarray.INDArray;
 import org.nd4j.linalg.factory.Nd4j;
 
 import java.io.File;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.NoSuchElementException;
 
 /**
   Clase para entrenar Word2Vec y convertir texto a vectores numéricos
  */
 public class Word2VecVectorizer {
 
+    // Valor de mapaCorpus para las palabras de una letra
+    private static final int SALTAR = -2;
+
     private Word2Vec word2Vec;
+    private AlmacenEmbeddings tabla;  // Copia compacta de los vectores para vectorizar rápido
     private int vectorSize;        // Tamaño de cada vector (ej: 100 dimensiones)
     private int maxSequenceLength; // Longitud máxima de la secuencia (número de palabras)
+    private DataType tipoDatos = DataType.FLOAT; // Tipo de los tensores que se crean (FLOAT o FLOAT16)
 
     /**
       Constructor
@@ -34,6 +44,18 @@ public class Word2VecVectorizer {
         this.maxSequenceLength = maxSequenceLength;
     }
 
+    /**
+      Vectorizador solo para predecir, con los vectores ya cargados en una tabla
+      o en un archivo mapeado (sin el modelo Word2Vec completo; no se puede
+      entrenar ni guardar)
+      @param tabla vectores de las palabras
+      @param maxSequenceLength número máximo de palabras a considerar por frase
+     */
+    public Word2VecVectorizer(AlmacenEmbeddings tabla, int maxSequenceLength) {
+        this(tabla.getVectorSize(), maxSequenceLength);
+        this.tabla = tabla;
+    }
+
     /**
       Entrena el modelo Word2Vec con las frases proporcionadas
       @param textos lista de frases para entrenar
@@ -53,8 +75,77 @@ public class Word2VecVectorizer {
         }
 
         // Crear iterador de frases (Word2Vec necesita esto)
-        SentenceIterator iter = new CollectionSentenceIterator(textosLimpios);
+        entrenarWord2Vec(new CollectionSentenceIterator(textosLimpios));
+    }
+
+    /**
+      Entrena Word2Vec con un corpus binario: las frases ya están limpias,
+      así que se pasan directo sin volver a preprocesarlas
+      @param corpus corpus exportado con CorpusBinario.exportar
+     */
+    public void entrenar(CorpusBinario corpus) {
+        System.out.println("\n=== ENTRENANDO WORD2VEC ===");
+        System.out.println("Tamaño del vector: " + vectorSize);
+        System.out.println("Número de frases: " + corpus.getNumFrases() + " (corpus binario)");
+
+        entrenarWord2Vec(new FrasesCorpus(corpus));
+    }
+
+    /**
+      Frases de un corpus binario leídas del archivo mapeado a medida que Word2Vec
+      las pide, sin juntarlas antes en una lista (el corpus puede no caber en memoria).
+      Las frases vacías se saltan, igual que con los textos originales
+     */
+    private static class FrasesCorpus implements SentenceIterator {
+        private final CorpusBinario corpus;
+        private int siguiente;
+        private SentencePreProcessor preProcessor;
+
+        FrasesCorpus(CorpusBinario corpus) {
+            this.corpus = corpus;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (siguiente < corpus.getNumFrases() && corpus.getFin(siguiente) == corpus.getInicio(siguiente)) {
+                siguiente++;
+            }
+            return siguiente < corpus.getNumFrases();
+        }
+
+        @Override
+        public String nextSentence() {
+            if (!hasNext()) {
+                throw new NoSuchElementException("No quedan frases en el corpus");
+            }
+            String frase = corpus.getTextoLimpio(siguiente++);
+            return preProcessor == null ? frase : preProcessor.preProcess(frase);
+        }
+
+        @Override
+        public void reset() {
+            siguiente = 0;
+        }
+
+        @Override
+        public void finish() {
+        }
+
+        @Override
+        public SentencePreProcessor getPreProcessor() {
+            return preProcessor;
+        }
 
+        @Override
+        public void setPreProcessor(SentencePreProcessor preProcessor) {
+            this.preProcessor = preProcessor;
+        }
+    }
+
+    /**
+      Configura y entrena Word2Vec con las frases ya limpias
+     */
+    private void entrenarWord2Vec(SentenceIterator iter) {
         // Crear tokenizador (divide frases en palabras)
         TokenizerFactory tokenizerFactory = new DefaultTokenizerFactory();
         tokenizerFactory.setTokenPreProcessor(new CommonPreprocessor());
@@ -74,6 +165,7 @@ public class Word2VecVectorizer {
 
         System.out.println("Entrenando...");
         word2Vec.fit();                        //se inicializa el modelo
+        tabla = TablaEmbeddings.desdeWord2Vec(word2Vec);
 
         System.out.println("✅ Word2Vec entrenado");
         System.out.println("Vocabulario: " + word2Vec.getVocab().numWords() + " palabras");
@@ -86,60 +178,210 @@ public class Word2VecVectorizer {
       @return matriz de tamaño [1, vectorSize, maxSequenceLength]
      */
     public INDArray textoAVector(String texto) {
-        // Tokeniza: "estoy muy feliz" → ["estoy", "muy", "feliz"]
-        List<String> tokens = TextPreprocessor.tokenizar(texto);
+        return textosAVectores(Collections.singletonList(texto));
+    }
 
-        // Crear matriz: [1 ejemplo, vectorSize dimensiones, maxSequenceLength palabras]
-        INDArray features = Nd4j.zeros(1, vectorSize, maxSequenceLength);
+    /**
+      Convierte múltiples textos a una matriz
+      Todos los valores se escriben primero en un solo arreglo float[] con el
+      orden de ND4J ('c'), y el tensor se crea una sola vez al final.
+      Así se evitan las llamadas elemento por elemento a ND4J
+      @param textos lista de frases
+      @return matriz de tamaño [numTextos, vectorSize, maxSequenceLength]
+     */
+    public INDArray textosAVectores(List<String> textos) {
+        List<List<String>> frases = new ArrayList<>(textos.size());
+        for (String texto : textos) {
+            // Tokeniza: "estoy muy feliz" → ["estoy", "muy", "feliz"]
+            frases.add(TextPreprocessor.tokenizar(texto));
+        }
+        return tokensAVectores(frases);
+    }
 
-        // Llenar la matriz con los vectores de cada palabra
-        for (int i = 0; i < Math.min(tokens.size(), maxSequenceLength); i++) {
-            String palabra = tokens.get(i);
+    /**
+      Convierte frases ya tokenizadas a una matriz
+      @param frases tokens de cada frase
+      @return matriz de tamaño [numFrases, vectorSize, maxSequenceLength]
+     */
+    public INDArray tokensAVectores(List<List<String>> frases) {
+        return tokensAVectores(frases, maxSequenceLength);
+    }
 
-            // Obtener el vector de la palabra desde Word2Vec
-            if (word2Vec.hasWord(palabra)) {
-                INDArray wordVector = word2Vec.getWordVectorMatrix(palabra);
+    /**
+      Convierte frases ya tokenizadas a una matriz con solo 'pasos' pasos de tiempo
+      (normalmente la longitud de la frase más larga del lote)
+      @param frases tokens de cada frase
+      @param pasos número de pasos de tiempo (entre 1 y maxSequenceLength)
+      @return matriz de tamaño [numFrases, vectorSize, pasos]
+     */
+    public INDArray tokensAVectores(List<List<String>> frases, int pasos) {
+        int tamanoFrase = vectorSize * pasos;
+        float[] datos = new float[frases.size() * tamanoFrase];
+
+        for (int i = 0; i < frases.size(); i++) {
+            llenarFrase(frases.get(i), datos, i * tamanoFrase, pasos);
+        }
+
+        return crearTensor(datos, frases.size(), vectorSize, pasos);
+    }
+
+    /**
+      Máscara de pasos de tiempo: 1 donde hay una palabra, 0 en el relleno
+      @param frases tokens de cada frase
+      @param pasos número de pasos de tiempo de la matriz de vectores
+      @return matriz de tamaño [numFrases, pasos]
+     */
+    public INDArray crearMascara(List<List<String>> frases, int pasos) {
+        float[] mascara = new float[frases.size() * pasos];
+        for (int i = 0; i < frases.size(); i++) {
+            int longitud = Math.min(longitudFrase(frases.get(i)), pasos);
+            Arrays.fill(mascara, i * pasos, i * pasos + longitud, 1f);
+        }
+        return crearTensor(mascara, frases.size(), pasos);
+    }
+
+    /**
+      Tensor en orden 'c' con el tipo de datos configurado
+      Con FLOAT16 el buffer de 16 bits se llena directo desde el float[], sin
+      pasar por un tensor FLOAT intermedio que se convierte después
+     */
+    private INDArray crearTensor(float[] datos, long... forma) {
+        return crearTensor(datos, tipoDatos, forma);
+    }
+
+    static INDArray crearTensor(float[] datos, DataType tipoDatos, long... forma) {
+        if (tipoDatos == DataType.FLOAT) {
+            return Nd4j.create(datos, forma, 'c');
+        }
+        INDArray tensor = Nd4j.createUninitialized(tipoDatos, forma, 'c');
+        tensor.data().setData(datos);
+        return tensor;
+    }
+
+    /**
+      Pasos de tiempo que ocupa una frase: su número de palabras, recortado a
+      maxSequenceLength y como mínimo 1 (una frase vacía ocupa un paso en ceros)
+     */
+    public int longitudFrase(List<String> tokens) {
+        return Math.max(1, Math.min(tokens.size(), maxSequenceLength));
+    }
+
+    /**
+      Copia los vectores de las palabras de una frase en el arreglo de datos
+      Dentro de cada frase el orden es [vectorSize, maxSequenceLength], así que
+      la dimensión j de la palabra t queda en offset + j * maxSequenceLength + t
+      @param tokens palabras de la frase
+      @param datos arreglo de todo el lote
+      @param offset posición donde empieza la frase dentro de datos
+     */
+    void llenarFrase(List<String> tokens, float[] datos, int offset) {
+        llenarFrase(tokens, datos, offset, maxSequenceLength);
+    }
+
+    /**
+      Igual que llenarFrase, pero con 'pasos' pasos de tiempo por frase
+     */
+    void llenarFrase(List<String> tokens, float[] datos, int offset, int pasos) {
+        int longitud = Math.min(tokens.size(), pasos);
+
+        for (int t = 0; t < longitud; t++) {
+            int indice = tabla.indice(tokens.get(t));
 
-                // Copiar el vector a la posición correspondiente
-                for (int j = 0; j < vectorSize; j++) {
-                    features.putScalar(new int[]{0, j, i}, wordVector.getDouble(j));
-                }
-            }
             // Si la palabra no existe en el vocabulario, se queda en ceros
+            if (indice >= 0) {
+                tabla.copiarVector(indice, datos, offset + t, pasos);
+            }
         }
+    }
 
-        return features;
+    /**
+      Palabras de una frase que no están en Word2Vec (entre las primeras
+      maxSequenceLength, las que ve el modelo); se vectorizan como ceros
+     */
+    int contarDesconocidas(List<String> tokens) {
+        int desconocidas = 0;
+        int longitud = Math.min(tokens.size(), maxSequenceLength);
+        for (int t = 0; t < longitud; t++) {
+            if (tabla.indice(tokens.get(t)) < 0) {
+                desconocidas++;
+            }
+        }
+        return desconocidas;
     }
 
     /**
-      Convierte múltiples textos a una matriz
-      @param textos lista de frases
-      @return matriz de tamaño [numTextos, vectorSize, maxSequenceLength]
+      Promedio de los vectores de las palabras conocidas de una frase (solo las
+      primeras maxSequenceLength, igual que llenarFrase)
+      @param destino arreglo de tamaño vectorSize donde se escribe el promedio
+      @param temporal arreglo de tamaño vectorSize para leer cada vector
+      @return número de palabras conocidas (0 = el promedio queda en ceros)
      */
-    public INDArray textosAVectores(List<String> textos) {
-        INDArray features = Nd4j.zeros(textos.size(), vectorSize, maxSequenceLength);
+    int promedioFrase(List<String> tokens, float[] destino, float[] temporal) {
+        Arrays.fill(destino, 0f);
+        int conocidas = 0;
+        int longitud = Math.min(tokens.size(), maxSequenceLength);
 
-        for (int i = 0; i < textos.size(); i++) {
-            INDArray vectorTexto = textoAVector(textos.get(i));
+        for (int t = 0; t < longitud; t++) {
+            int indice = tabla.indice(tokens.get(t));
+            if (indice >= 0) {
+                tabla.copiarVector(indice, temporal, 0, 1);
+                for (int j = 0; j < vectorSize; j++) {
+                    destino[j] += temporal[j];
+                }
+                conocidas++;
+            }
+        }
 
-            // Copiar cada vector de texto en la posición correcta
-            // vectorTexto tiene forma [1, vectorSize, maxSequenceLength]
-            // Necesitamos copiarlo en features[i, :, :]
+        if (conocidas > 1) {
             for (int j = 0; j < vectorSize; j++) {
-                for (int k = 0; k < maxSequenceLength; k++) {
-                    double valor = vectorTexto.getDouble(0, j, k);
-                    features.putScalar(new int[]{i, j, k}, valor);
-                }
+                destino[j] /= conocidas;
             }
         }
+        return conocidas;
+    }
+
+    /**
+      Índice en la tabla de vectores de cada palabra de un corpus binario
+      @return -1 si la palabra no está en Word2Vec, SALTAR si tokenizar la descarta
+     */
+    int[] mapaCorpus(CorpusBinario corpus) {
+        int[] mapa = new int[corpus.getNumPalabras()];
+        for (int id = 0; id < mapa.length; id++) {
+            mapa[id] = corpus.esPalabraCorta(id) ? SALTAR : tabla.indice(corpus.getPalabra(id));
+        }
+        return mapa;
+    }
+
+    /**
+      Igual que llenarFrase, pero con los ids de una frase de un corpus binario
+      @param mapa resultado de mapaCorpus
+      @return pasos de tiempo que ocupa la frase (lo mismo que longitudFrase)
+     */
+    int llenarFrase(CorpusBinario corpus, int frase, int[] mapa, float[] datos, int offset, int pasos) {
+        int t = 0;
+        long fin = corpus.getFin(frase);
 
-        return features;
+        for (long p = corpus.getInicio(frase); p < fin && t < maxSequenceLength; p++) {
+            int indice = mapa[corpus.getToken(p)];
+            if (indice == SALTAR) {
+                continue;
+            }
+            if (indice >= 0 && t < pasos) {
+                tabla.copiarVector(indice, datos, offset + t, pasos);
+            }
+            t++;
+        }
+        return Math.max(1, t);
     }
 
     /**
       Guarda el modelo Word2Vec en un archivo
      */
     public void guardar(String rutaArchivo) {
+        if (word2Vec == null) {
+            System.err.println("❌ No hay modelo Word2Vec para guardar (solo la tabla de vectores)");
+            return;
+        }
         try {
             File archivo = new File(rutaArchivo);
             WordVectorSerializer.writeWord2VecModel(word2Vec, archivo);
@@ -152,19 +394,43 @@ public class Word2VecVectorizer {
 
     /**
       Carga un modelo Word2Vec entrenado
+      @return true si se cargó correctamente
      */
-    public void cargar(String rutaArchivo) {
+    public boolean cargar(String rutaArchivo) {
         try {
             File archivo = new File(rutaArchivo);
             word2Vec = WordVectorSerializer.readWord2VecModel(archivo);
+            tabla = TablaEmbeddings.desdeWord2Vec(word2Vec);
             System.out.println("✅ Modelo Word2Vec cargado desde: " + rutaArchivo);
+            return true;
         } catch (Exception e) {
             System.err.println("❌ Error al cargar Word2Vec: " + e.getMessage());
             e.printStackTrace();
+            return false;
         }
     }
 
+    /**
+      Muestra las palabras más parecidas a una palabra dada (útil para revisar Word2Vec)
+      @param palabra palabra a consultar
+      @param cantidad número de palabras similares a mostrar
+     */
+    public void mostrarPalabrasSimilares(String palabra, int cantidad) {
+        String limpia = TextPreprocessor.limpiarTexto(palabra);
+
+        if (word2Vec == null) {
+            System.out.println("⚠️ Sin modelo Word2Vec completo no se pueden buscar palabras similares");
+            return;
+        }
 
+        if (!word2Vec.hasWord(limpia)) {
+            System.out.println("⚠️ La palabra '" + palabra + "' no está en el vocabulario");
+            return;
+        }
+
+        Collection<String> similares = word2Vec.wordsNearest(limpia, cantidad);
+        System.out.println("Palabras similares a '" + palabra + "': " + similares);
+    }
 
     // Getters
     public int getVectorSize() {
@@ -175,7 +441,23 @@ public class Word2VecVectorizer {
         return maxSequenceLength;
     }
 
+    public DataType getTipoDatos() {
+        return tipoDatos;
+    }
+
+    /**
+      Tipo de datos de los tensores que crea el vectorizador; debe coincidir con
+      el de la red (con FLOAT16 los tensores ocupan la mitad de memoria)
+     */
+    public void setTipoDatos(DataType tipoDatos) {
+        this.tipoDatos = EmotionClassifierModel.comprobarTipoDatos(tipoDatos);
+    }
+
     public Word2Vec getWord2Vec() {
         return word2Vec;
     }
+
+    public AlmacenEmbeddings getTabla() {
+        return tabla;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,142 @@
+package com.escuela;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Prueba de la carga de CSV desde el disco: comillas (RFC 4180), gzip
+ * y archivos grandes que se procesan en varios bloques en paralelo
+ */
+public class TestCargaCSV {
+
+    private static final String[] EMOCIONES = {"joy", "sadness", "anger", "fear", "surprise"};
+    private static final String[] PALABRAS = {"hoy", "me", "siento", "muy", "feliz", "triste",
+            "enojado", "con", "miedo", "sorpresa", "mañana", "día", "qué", "increíble"};
+
+    private static int errores = 0;
+
+    public static void main(String[] args) throws Exception {
+        System.out.println("=== PROBANDO CARGA DE CSV ===\n");
+
+        // 1. Casos de comillas: comas, saltos de línea y comillas escapadas dentro del texto
+        File pequeno = File.createTempFile("test_carga", ".csv");
+        Files.writeString(pequeno.toPath(),
+                "texto,emocion\r\n"
+                        + "Hoy es un buen día,joy\r\n"
+                        + "\"Bueno, no sé qué decir\",sadness\r\n"
+                        + "\"Me dijo \"\"no\"\" y me fui\",anger\n"
+                        + "\"Una línea\ny otra línea\",fear\n"
+                        + "Sin comillas, pero con coma,surprise\n"
+                        + "\n"
+                        + "Emoción rara,aburrido\n"
+                        + "sin emoción\n"
+                        + "Dijo \"hola y se fue,fear\n"
+                        + "  Con espacios  , JOY \n",
+                StandardCharsets.UTF_8);
+
+        DataLoader datos = new DataLoader();
+        verificar(datos.cargarDesdeRuta(pequeno.getPath()), "no se pudo cargar el archivo pequeño");
+        String[] textosEsperados = {"Hoy es un buen día", "Bueno, no sé qué decir", "Me dijo \"no\" y me fui",
+                "Una línea\ny otra línea", "Sin comillas, pero con coma", "Dijo \"hola y se fue", "Con espacios"};
+        String[] emocionesEsperadas = {"joy", "sadness", "anger", "fear", "surprise", "fear", "joy"};
+        verificar(datos.getNumeroEjemplos() == textosEsperados.length,
+                "se esperaban " + textosEsperados.length + " ejemplos y hay " + datos.getNumeroEjemplos());
+        for (int i = 0; i < Math.min(textosEsperados.length, datos.getNumeroEjemplos()); i++) {
+            verificar(textosEsperados[i].equals(datos.getTexto(i)), "texto " + i + ": [" + datos.getTexto(i) + "]");
+            verificar(emocionesEsperadas[i].equals(datos.getEmocion(i)), "emoción " + i + ": " + datos.getEmocion(i));
+        }
+        pequeno.delete();
+
+        // 2. El mismo archivo del proyecto cargado desde resources y desde el disco
+        DataLoader desdeResources = new DataLoader();
+        desdeResources.cargarDesdeArchivo("emotions_train.csv");
+        DataLoader desdeDisco = new DataLoader();
+        desdeDisco.cargarDesdeRuta("src/main/resources/data/emotions/emotions_train.csv");
+        verificar(desdeResources.getTextos().equals(desdeDisco.getTextos())
+                && desdeResources.getEmociones().equals(desdeDisco.getEmociones()),
+                "emotions_train.csv da resultados distintos desde resources y desde el disco");
+
+        // 3. Archivo grande (varios bloques) en texto plano y en gzip
+        System.out.println("\n--- ARCHIVO GRANDE ---");
+        File grande = File.createTempFile("test_carga_grande", ".csv");
+        File comprimido = File.createTempFile("test_carga_grande", ".csv.gz");
+        List<String> textos = new ArrayList<>();
+        List<String> emociones = new ArrayList<>();
+        Random random = new Random(42);
+
+        try (Writer plano = new BufferedWriter(new OutputStreamWriter(
+                     new FileOutputStream(grande), StandardCharsets.UTF_8));
+             Writer gzip = new BufferedWriter(new OutputStreamWriter(
+                     new GZIPOutputStream(new FileOutputStream(comprimido)), StandardCharsets.UTF_8))) {
+
+            String encabezado = "texto,emocion\n";
+            plano.write(encabezado);
+            gzip.write(encabezado);
+
+            for (int i = 0; i < 400_000; i++) {
+                StringBuilder texto = new StringBuilder();
+                int palabras = 1 + random.nextInt(8);
+                for (int p = 0; p < palabras; p++) {
+                    if (p > 0) {
+                        // A veces comas y saltos de línea dentro del texto
+                        int r = random.nextInt(20);
+                        texto.append(r == 0 ? ", " : r == 1 ? "\n" : " ");
+                    }
+                    texto.append(PALABRAS[random.nextInt(PALABRAS.length)]);
+                }
+                String emocion = EMOCIONES[random.nextInt(EMOCIONES.length)];
+                String linea = "\"" + texto + "\"," + emocion + "\n";
+
+                // Cada tanto una línea sin comillas con una comilla suelta (es un carácter más)
+                if (i % 1000 == 0) {
+                    texto.setLength(0);
+                    texto.append(PALABRAS[random.nextInt(PALABRAS.length)]).append(" \"suelta");
+                    linea = texto + "," + emocion + "\n";
+                }
+                textos.add(texto.toString());
+                emociones.add(emocion);
+
+                plano.write(linea);
+                gzip.write(linea);
+            }
+        }
+
+        for (File archivo : new File[]{grande, comprimido}) {
+            DataLoader cargado = new DataLoader();
+            long inicio = System.nanoTime();
+            verificar(cargado.cargarDesdeRuta(archivo.getPath()), "no se pudo cargar " + archivo.getName());
+            System.out.printf("%s: %d bytes en %.0f ms\n", archivo.getName(), archivo.length(),
+                    (System.nanoTime() - inicio) / 1e6);
+
+            verificar(cargado.getTextos().equals(textos), "los textos de " + archivo.getName() + " no coinciden");
+            verificar(cargado.getEmociones().equals(emociones), "las emociones de " + archivo.getName() + " no coinciden");
+        }
+        grande.delete();
+        comprimido.delete();
+
+        // 4. Ruta inexistente
+        verificar(!new DataLoader().cargarDesdeRuta("no_existe.csv"), "una ruta inexistente no debería cargar");
+
+        if (errores == 0) {
+            System.out.println("\n✅ ¡Carga de CSV funciona correctamente!");
+        } else {
+            System.err.println("\n❌ " + errores + " errores");
+        }
+    }
+
+    private static void verificar(boolean condicion, String mensaje) {
+        if (!condicion) {
+            System.err.println("⚠️ " + mensaje);
+            errores++;
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package com.escuela;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.util.List;
+
+/**
+ * Prueba de la cascada clasificador lineal → LSTM
+ * - el clasificador lineal aprende algo (mejor que el azar) y se guarda y carga igual
+ * - el entrenamiento se detiene cuando la pérdida deja de bajar
+ * - umbral mayor que 1: todo va al LSTM y el resultado es el del LSTM solo
+ * - umbral 0: todo lo responde el primer nivel
+ * - umbral intermedio: cada frase viene de un nivel u otro según su confianza
+ * Requiere haber ejecutado TrainEmotionClassifier antes
+ */
+public class TestCascada {
+
+    private static int errores = 0;
+
+    public static void main(String[] args) throws Exception {
+        System.out.println("=== PROBANDO CASCADA DE DOS NIVELES ===\n");
+
+        EmotionPredictor predictor = new EmotionPredictor();
+        if (!predictor.cargarModelo("emotion_classifier_model.zip", "word2vec_emotions.zip")) {
+            System.err.println("❌ No se pudo cargar el modelo. Ejecuta TrainEmotionClassifier primero.");
+            return;
+        }
+        Word2VecVectorizer vectorizer = predictor.getVectorizer();
+
+        DataLoader trainData = new DataLoader();
+        trainData.cargarDesdeArchivo("emotions_train.csv");
+        DataLoader testData = new DataLoader();
+        testData.cargarDesdeArchivo("emotions_test.csv");
+        List<String> textos = testData.getTextos();
+
+        // Entrenamiento del primer nivel
+        long inicio = System.nanoTime();
+        ClasificadorLineal clasificador = ClasificadorLineal.entrenar(trainData, vectorizer);
+        double exactitud = clasificador.evaluar(testData, vectorizer);
+        System.out.printf("Clasificador lineal: %.2f%% en prueba, entrenado en %.0f ms\n",
+                exactitud * 100, (System.nanoTime() - inicio) / 1e6);
+        verificar(exactitud > 0.4, "El clasificador lineal no supera al azar");
+
+        // Con regularización la pérdida se estanca: se detiene mucho antes del máximo de epochs
+        inicio = System.nanoTime();
+        ClasificadorLineal regularizado = ClasificadorLineal.entrenar(trainData, vectorizer, 1_000_000, 2.0, 0.01);
+        double segundos = (System.nanoTime() - inicio) / 1e9;
+        System.out.printf("Con l2 = 0.01 y hasta 1000000 epochs: %.1f s, %.2f%% en prueba\n",
+                segundos, regularizado.evaluar(testData, vectorizer) * 100);
+        verificar(segundos < 60, "El entrenamiento no se detuvo al converger");
+
+        double[] probabilidades = clasificador.predecir(TextPreprocessor.tokenizar(textos.get(0)), vectorizer);
+        double suma = 0;
+        for (double p : probabilidades) {
+            suma += p;
+        }
+        verificar(Math.abs(suma - 1) < 1e-6, "Las probabilidades no suman 1");
+
+        // Guardar y cargar
+        File archivo = File.createTempFile("test_clasificador", ".bin");
+        clasificador.guardar(archivo.getPath());
+        ClasificadorLineal cargado = ClasificadorLineal.cargar(archivo.getPath());
+        for (String texto : textos) {
+            List<String> tokens = TextPreprocessor.tokenizar(texto);
+            verificar(diferencia(clasificador.predecir(tokens, vectorizer), cargado.predecir(tokens, vectorizer)) == 0,
+                    "El clasificador cargado predice distinto: " + texto);
+        }
+
+        List<EmotionPredictor.ResultadoPrediccion> soloLstm = predictor.predecirLote(textos);
+
+        // Umbral imposible: todo pasa por el LSTM
+        predictor.activarCascada(cargado, 1.1);
+        List<EmotionPredictor.ResultadoPrediccion> resultados = predictor.predecirLote(textos);
+        verificar(predictor.getDerivadasAlLstm() == textos.size() && predictor.getRespondidasPrimerNivel() == 0,
+                "Con umbral > 1 no todas las frases fueron al LSTM");
+        for (int i = 0; i < textos.size(); i++) {
+            verificar(diferencia(resultados.get(i).getProbabilidades(), soloLstm.get(i).getProbabilidades()) < 1e-6,
+                    "Con umbral > 1 el resultado no es el del LSTM: " + textos.get(i));
+        }
+
+        // Umbral 0: todo lo responde el primer nivel
+        predictor.reiniciarContadoresCascada();
+        predictor.activarCascada(cargado, 0);
+        resultados = predictor.predecirLote(textos);
+        verificar(predictor.getFraccionPrimerNivel() == 1, "Con umbral 0 alguna frase fue al LSTM");
+        for (int i = 0; i < textos.size(); i++) {
+            double[] esperadas = cargado.predecir(TextPreprocessor.tokenizar(textos.get(i)), vectorizer);
+            verificar(diferencia(resultados.get(i).getProbabilidades(), esperadas) == 0,
+                    "Con umbral 0 el resultado no es el del clasificador lineal: " + textos.get(i));
+        }
+
+        // Umbral intermedio: cada frase según la confianza del primer nivel
+        double umbral = 0.6;
+        predictor.reiniciarContadoresCascada();
+        predictor.activarCascada(cargado, umbral);
+        predictor.activarCache(100, 0);
+        for (int repeticion = 0; repeticion < 2; repeticion++) { // la segunda vez desde el caché
+            resultados = predictor.predecirLote(textos);
+            int primerNivel = 0;
+            for (int i = 0; i < textos.size(); i++) {
+                double[] rapidas = cargado.predecir(TextPreprocessor.tokenizar(textos.get(i)), vectorizer);
+                double[] esperadas = maximo(rapidas) >= umbral ? rapidas : soloLstm.get(i).getProbabilidades();
+                if (maximo(rapidas) >= umbral) {
+                    primerNivel++;
+                }
+                verificar(diferencia(resultados.get(i).getProbabilidades(), esperadas) < 1e-6,
+                        "La cascada eligió mal el nivel de: " + textos.get(i));
+            }
+            verificar(predictor.getRespondidasPrimerNivel() == primerNivel,
+                    "Contador del primer nivel incorrecto: " + predictor.getRespondidasPrimerNivel());
+        }
+        System.out.printf("Umbral %.2f: %.1f%% de las frases sin pasar por el LSTM\n",
+                umbral, predictor.getFraccionPrimerNivel() * 100);
+
+        // Desactivar la cascada limpia el caché y vuelve al LSTM
+        predictor.desactivarCascada();
+        verificar(Double.isNaN(predictor.getUmbralCascada()), "La cascada sigue activada");
+        verificar(diferencia(predictor.predecir(textos.get(0)).getProbabilidades(),
+                soloLstm.get(0).getProbabilidades()) < 1e-6, "Sin cascada el resultado no es el del LSTM");
+
+        // Un clasificador con otro tamaño de vectores se rechaza
+        File otro = File.createTempFile("test_clasificador_3d", ".bin");
+        try (DataOutputStream salida = new DataOutputStream(new FileOutputStream(otro))) {
+            salida.writeInt(0x454C494E);
+            salida.writeInt(1);
+            salida.writeInt(5);
+            salida.writeInt(3);
+            for (int i = 0; i < 5 * 3 + 5; i++) {
+                salida.writeFloat(0f);
+            }
+        }
+        try {
+            predictor.activarCascada(ClasificadorLineal.cargar(otro.getPath()), 0.5);
+            verificar(false, "Se aceptó un clasificador de 3 dimensiones");
+        } catch (IllegalArgumentException e) {
+            System.out.println("Clasificador incompatible rechazado: " + e.getMessage());
+        }
+
+        archivo.delete();
+        otro.delete();
+
+        if (errores == 0) {
+            System.out.println("\n✅ ¡Cascada de dos niveles funciona correctamente!");
+        } else {
+            System.err.println("\n❌ " + errores + " errores");
+        }
+    }
+
+    private static double maximo(double[] valores) {
+        double maximo = valores[0];
+        for (double valor : valores) {
+            maximo = Math.max(maximo, valor);
+        }
+        return maximo;
+    }
+
+    private static double diferencia(double[] a, double[] b) {
+        double maxima = 0;
+        for (int k = 0; k < a.length; k++) {
+            maxima = Math.max(maxima, Math.abs(a[k] - b[k]));
+        }
+        return maxima;
+    }
+
+    private static void verificar(boolean condicion, String mensaje) {
+        if (!condicion) {
+            System.err.println("⚠️ " + mensaje);
+            errores++;
+        }
+    }
+}
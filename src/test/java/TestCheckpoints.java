@@ -0,0 +1,141 @@
+package com.escuela;
+
+import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Prueba de checkpoints: entrenar 4 epochs seguidas debe dar los mismos pesos
+ * que entrenar 2, guardar un checkpoint y reanudar desde él
+ * Los checkpoints de un entrenamiento anterior (epochs más altas) no hacen
+ * borrar los del entrenamiento nuevo
+ * Requiere haber ejecutado TrainEmotionClassifier antes (usa su Word2Vec)
+ */
+public class TestCheckpoints {
+
+    public static void main(String[] args) throws Exception {
+        System.out.println("=== PROBANDO CHECKPOINTS ===\n");
+
+        DataLoader trainData = new DataLoader();
+        DataLoader testData = new DataLoader();
+        trainData.cargarDesdeArchivo("emotions_train.csv");
+        testData.cargarDesdeArchivo("emotions_test.csv");
+
+        Word2VecVectorizer vectorizer = new Word2VecVectorizer(100, 8);
+        vectorizer.cargar("word2vec_emotions.zip");
+        if (vectorizer.getTabla() == null) {
+            System.err.println("❌ No se pudo cargar Word2Vec. Ejecuta TrainEmotionClassifier primero.");
+            return;
+        }
+
+        // Entrenamiento sin interrupciones
+        MultiLayerNetwork continuo = entrenar(null, vectorizer, trainData, testData, null, 4);
+
+        // Entrenamiento de 2 epochs con un checkpoint por epoch (solo se conserva el último)
+        File directorio = Files.createTempDirectory("checkpoints").toFile();
+        int errores = 0;
+
+        try (GestorCheckpoints checkpoints = new GestorCheckpoints(directorio, 1)) {
+            entrenar(null, vectorizer, trainData, testData, checkpoints, 2);
+
+            File[] guardados = checkpoints.listar();
+            if (guardados.length != 1 || !guardados[0].getName().equals("checkpoint_epoch_00002.zip")) {
+                System.err.println("⚠️ Se esperaba solo el checkpoint de la epoch 2");
+                errores++;
+            }
+
+            // Reanudar desde el checkpoint hasta la epoch 4
+            File ultimo = checkpoints.getUltimo();
+            GestorCheckpoints.EstadoEntrenamiento estado = GestorCheckpoints.leerEstado(ultimo);
+            System.out.println("Checkpoint: " + ultimo.getName() + " (epoch " + estado.getEpoch() + ")");
+
+            EmotionClassifierModel cargado = new EmotionClassifierModel(100, trainData.getNumeroClases());
+            if (!cargado.cargar(ultimo.getPath())) {
+                System.err.println("⚠️ No se pudo cargar el checkpoint");
+                errores++;
+            }
+            MultiLayerNetwork reanudado = entrenar(cargado, vectorizer, trainData, testData, null, 4, estado);
+
+            if (!continuo.params().equalsWithEps(reanudado.params(), 1e-5)) {
+                System.err.println("⚠️ Los pesos reanudados no coinciden con el entrenamiento continuo");
+                errores++;
+            }
+        }
+
+        // Un checkpoint dañado debe informar el fallo (TrainEmotionClassifier no reanuda entonces)
+        File danado = new File(directorio, "checkpoint_danado.zip");
+        Files.write(danado.toPath(), new byte[]{1, 2, 3});
+        if (new EmotionClassifierModel(100, trainData.getNumeroClases()).cargar(danado.getPath())) {
+            System.err.println("⚠️ Se cargó un checkpoint dañado");
+            errores++;
+        }
+
+        for (File archivo : directorio.listFiles()) {
+            archivo.delete();
+        }
+
+        // Checkpoints viejos de otro entrenamiento con epochs más altas
+        long haceUnaHora = System.currentTimeMillis() - 3_600_000;
+        for (int epoch : new int[]{130, 140, 150}) {
+            File viejo = new File(directorio, String.format("checkpoint_epoch_%05d.zip", epoch));
+            Files.write(viejo.toPath(), new byte[]{1});
+            viejo.setLastModified(haceUnaHora + epoch);
+        }
+        try (GestorCheckpoints checkpoints = new GestorCheckpoints(directorio, 3)) {
+            if (!checkpoints.getUltimo().getName().equals("checkpoint_epoch_00150.zip")) {
+                System.err.println("⚠️ El último checkpoint no es el más reciente: " + checkpoints.getUltimo());
+                errores++;
+            }
+            entrenar(null, vectorizer, trainData, testData, checkpoints, 1);
+            File[] guardados = checkpoints.listar();
+            if (guardados.length != 3 || !checkpoints.getUltimo().getName().equals("checkpoint_epoch_00001.zip")
+                    || new File(directorio, "checkpoint_epoch_00130.zip").exists()) {
+                System.err.println("⚠️ Se borró el checkpoint nuevo en vez del más viejo: "
+                        + Arrays.toString(guardados));
+                errores++;
+            }
+
+            checkpoints.vaciar();
+            if (checkpoints.listar().length != 0 || checkpoints.getUltimo() != null) {
+                System.err.println("⚠️ vaciar no borró los checkpoints");
+                errores++;
+            }
+        }
+        directorio.delete();
+
+        if (errores == 0) {
+            System.out.println("\n✅ ¡Checkpoints funcionan correctamente!");
+        } else {
+            System.err.println("\n❌ " + errores + " errores");
+        }
+    }
+
+    private static MultiLayerNetwork entrenar(EmotionClassifierModel modelo, Word2VecVectorizer vectorizer,
+                                              DataLoader trainData, DataLoader testData,
+                                              GestorCheckpoints checkpoints, int epochs) {
+        return entrenar(modelo, vectorizer, trainData, testData, checkpoints, epochs,
+                new GestorCheckpoints.EstadoEntrenamiento(0, new Random(5)));
+    }
+
+    private static MultiLayerNetwork entrenar(EmotionClassifierModel modelo, Word2VecVectorizer vectorizer,
+                                              DataLoader trainData, DataLoader testData,
+                                              GestorCheckpoints checkpoints, int epochs,
+                                              GestorCheckpoints.EstadoEntrenamiento estado) {
+        if (modelo == null) {
+            modelo = new EmotionClassifierModel(100, trainData.getNumeroClases());
+            modelo.construirModelo();
+        }
+
+        ModelTrainer trainer = new ModelTrainer(modelo.getModel(), vectorizer, trainData, testData);
+        trainer.setEvaluacion(512, 1, 0);
+        trainer.reanudar(estado);
+        if (checkpoints != null) {
+            trainer.setCheckpoints(checkpoints, 1, 0);
+        }
+        trainer.entrenar(epochs, 20);
+        return modelo.getModel();
+    }
+}
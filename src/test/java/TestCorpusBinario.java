@@ -0,0 +1,152 @@
+package com.escuela;
+
+import org.nd4j.linalg.dataset.DataSet;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Prueba del corpus binario: exportar, abrir con FileChannel.map y usarlo
+ * en lugar del CSV para vectorizar
+ * La comparación de vectores requiere haber ejecutado TrainEmotionClassifier antes
+ */
+public class TestCorpusBinario {
+
+    private static final String[] EMOCIONES = {"joy", "sadness", "anger", "fear", "surprise"};
+    private static final String[] PALABRAS = {"Hoy", "me", "siento", "muy", "feliz,", "triste", "y",
+            "enojado", "con", "miedo", "¡sorpresa!", "mañana", "día", "qué", "increíble", "a"};
+
+    private static int errores = 0;
+
+    public static void main(String[] args) throws Exception {
+        System.out.println("=== PROBANDO CORPUS BINARIO ===\n");
+
+        DataLoader csv = new DataLoader();
+        csv.cargarDesdeArchivo("emotions_train.csv");
+
+        File archivo = File.createTempFile("test_corpus", ".bin");
+        CorpusBinario.exportar(csv, archivo);
+        CorpusBinario corpus = CorpusBinario.abrir(archivo);
+
+        // 1. Tokens, texto limpio y etiquetas iguales a los del CSV
+        verificar(corpus.getNumFrases() == csv.getNumeroEjemplos(), "número de frases distinto");
+        verificar(corpus.getLongitudMaxima() == TextPreprocessor.obtenerLongitudMaxima(csv.getTextos()),
+                "longitud máxima distinta");
+        for (int i = 0; i < csv.getNumeroEjemplos(); i++) {
+            String texto = csv.getTexto(i);
+            verificar(corpus.getTokens(i).equals(TextPreprocessor.tokenizar(texto)), "tokens distintos en " + i);
+            verificar(corpus.getTextoLimpio(i).equals(TextPreprocessor.limpiarTexto(texto)), "texto limpio distinto en " + i);
+            verificar(corpus.getEtiqueta(i) == csv.getEtiqueta(i), "etiqueta distinta en " + i);
+        }
+
+        // 2. DataLoader desde el corpus
+        DataLoader desdeCorpus = new DataLoader();
+        verificar(desdeCorpus.cargarDesdeCorpus(archivo.getPath()), "no se pudo cargar el corpus en el DataLoader");
+        verificar(desdeCorpus.getEmociones().equals(csv.getEmociones()), "emociones distintas en el DataLoader");
+        verificar(!desdeCorpus.cargarDesdeArchivo("emotions_test.csv"), "no se debería mezclar CSV con corpus");
+
+        // 3. Los mismos vectores y máscaras que vectorizando desde el texto
+        Word2VecVectorizer vectorizer = new Word2VecVectorizer(100, 8);
+        vectorizer.cargar("word2vec_emotions.zip");
+        if (vectorizer.getTabla() == null) {
+            System.out.println("⚠️ Sin Word2Vec entrenado: se omite la comparación de vectores");
+        } else {
+            int n = csv.getNumeroEjemplos();
+            int[] indices = new int[n];
+            for (int i = 0; i < n; i++) {
+                indices[i] = i;
+            }
+            try (DatosVectorizados desdeTexto = DatosVectorizados.crear(csv, vectorizer, null);
+                 DatosVectorizados desdeIds = DatosVectorizados.crear(desdeCorpus, vectorizer, null)) {
+                DataSet esperado = desdeTexto.lote(indices, 0, n);
+                DataSet obtenido = desdeIds.lote(indices, 0, n);
+                verificar(esperado.getFeatures().equals(obtenido.getFeatures()), "features distintos");
+                verificar(esperado.getLabels().equals(obtenido.getLabels()), "labels distintos");
+                verificar(esperado.getFeaturesMaskArray().equals(obtenido.getFeaturesMaskArray()), "máscaras distintas");
+            }
+        }
+
+        // 4. Word2Vec desde el corpus (frases leídas del archivo mapeado) ve el mismo vocabulario
+        Word2VecVectorizer desdeTextos = new Word2VecVectorizer(20, 8);
+        desdeTextos.entrenar(csv.getTextos());
+        Word2VecVectorizer desdeFrases = new Word2VecVectorizer(20, 8);
+        desdeFrases.entrenar(corpus);
+        verificar(new HashSet<>(desdeFrases.getWord2Vec().getVocab().words())
+                        .equals(new HashSet<>(desdeTextos.getWord2Vec().getVocab().words())),
+                "Word2Vec desde el corpus tiene otro vocabulario");
+
+        // 5. Exportar sobre un corpus existente lo reemplaza sin dejar el temporal
+        DataLoader prueba = new DataLoader();
+        prueba.cargarDesdeArchivo("emotions_test.csv");
+        CorpusBinario.exportar(prueba, archivo);
+        verificar(CorpusBinario.abrir(archivo).getNumFrases() == prueba.getNumeroEjemplos(),
+                "el corpus no se reemplazó");
+        verificar(!new File(archivo.getPath() + ".tmp").exists(), "quedó el archivo temporal");
+        archivo.delete();
+
+        // 6. Corpus grande: tokenizar todo desde el texto vs leer los tokens del corpus
+        System.out.println("\n--- CORPUS GRANDE ---");
+        File grande = File.createTempFile("test_corpus_grande", ".csv");
+        File grandeBin = File.createTempFile("test_corpus_grande", ".bin");
+        Random random = new Random(42);
+        StringBuilder contenido = new StringBuilder("texto,emocion\n");
+        for (int i = 0; i < 300_000; i++) {
+            contenido.append('"');
+            int palabras = 1 + random.nextInt(12);
+            for (int p = 0; p < palabras; p++) {
+                contenido.append(p > 0 ? " " : "").append(PALABRAS[random.nextInt(PALABRAS.length)]);
+            }
+            contenido.append("\",").append(EMOCIONES[random.nextInt(EMOCIONES.length)]).append('\n');
+        }
+        Files.writeString(grande.toPath(), contenido);
+
+        DataLoader grandeCsv = new DataLoader();
+        long inicio = System.nanoTime();
+        grandeCsv.cargarDesdeRuta(grande.getPath());
+        long totalTokens = 0;
+        for (String texto : grandeCsv.getTextos()) {
+            totalTokens += TextPreprocessor.tokenizar(texto).size();
+        }
+        double msTexto = (System.nanoTime() - inicio) / 1e6;
+
+        CorpusBinario.exportar(grandeCsv, grandeBin);
+
+        inicio = System.nanoTime();
+        CorpusBinario grandeCorpus = CorpusBinario.abrir(grandeBin);
+        long tokensCorpus = 0;
+        for (int i = 0; i < grandeCorpus.getNumFrases(); i++) {
+            for (long p = grandeCorpus.getInicio(i); p < grandeCorpus.getFin(i); p++) {
+                if (!grandeCorpus.esPalabraCorta(grandeCorpus.getToken(p))) {
+                    tokensCorpus++;
+                }
+            }
+        }
+        double msCorpus = (System.nanoTime() - inicio) / 1e6;
+
+        System.out.printf("CSV + tokenizar: %.0f ms  |  corpus binario: %.0f ms (%d tokens)\n",
+                msTexto, msCorpus, tokensCorpus);
+        verificar(tokensCorpus == totalTokens, "total de tokens distinto: " + tokensCorpus + " vs " + totalTokens);
+        for (int i = 0; i < grandeCorpus.getNumFrases(); i += 997) {
+            List<String> esperados = TextPreprocessor.tokenizar(grandeCsv.getTexto(i));
+            verificar(grandeCorpus.getTokens(i).equals(esperados), "tokens distintos en la frase grande " + i);
+        }
+        grande.delete();
+        grandeBin.delete();
+
+        if (errores == 0) {
+            System.out.println("\n✅ ¡Corpus binario funciona correctamente!");
+        } else {
+            System.err.println("\n❌ " + errores + " errores");
+        }
+    }
+
+    private static void verificar(boolean condicion, String mensaje) {
+        if (!condicion) {
+            System.err.println("⚠️ " + mensaje);
+            errores++;
+        }
+    }
+}
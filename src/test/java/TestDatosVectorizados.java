@@ -0,0 +1,150 @@
+package com.escuela;
+
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.dataset.DataSet;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Prueba de los datos vectorizados una sola vez (en memoria y en disco)
+ * Requiere haber ejecutado TrainEmotionClassifier antes
+ */
+public class TestDatosVectorizados {
+
+    public static void main(String[] args) throws Exception {
+        System.out.println("=== PROBANDO DATOS VECTORIZADOS ===\n");
+
+        DataLoader datos = new DataLoader();
+        datos.cargarDesdeArchivo("emotions_train.csv");
+
+        Word2VecVectorizer vectorizer = new Word2VecVectorizer(100, 8);
+        vectorizer.cargar("word2vec_emotions.zip");
+        if (vectorizer.getTabla() == null) {
+            System.err.println("❌ No se pudo cargar Word2Vec. Ejecuta TrainEmotionClassifier primero.");
+            return;
+        }
+
+        // Índices desordenados para probar la copia de ejemplos
+        int n = datos.getNumeroEjemplos();
+        int[] indices = new int[n];
+        for (int i = 0; i < n; i++) {
+            indices[i] = (i * 37) % n;
+        }
+
+        // Lo esperado: vectores y máscara con los pasos de la frase más larga del lote
+        List<List<String>> frases = new ArrayList<>();
+        int pasos = 1;
+        for (int i = 10; i < 30; i++) {
+            List<String> tokens = TextPreprocessor.tokenizar(datos.getTexto(indices[i]));
+            frases.add(tokens);
+            pasos = Math.max(pasos, vectorizer.longitudFrase(tokens));
+        }
+        INDArray esperado = vectorizer.tokensAVectores(frases, pasos);
+        INDArray mascaraEsperada = vectorizer.crearMascara(frases, pasos);
+
+        int errores = 0;
+        File archivo = File.createTempFile("test_datos_vectorizados", ".bin");
+
+        try (DatosVectorizados enMemoria = DatosVectorizados.crear(datos, vectorizer, null);
+             DatosVectorizados enDisco = DatosVectorizados.crear(datos, vectorizer, archivo)) {
+
+            System.out.println("Memoria: " + enMemoria.getBytes() + " bytes, en disco: " + enMemoria.estaEnDisco());
+            System.out.println("Archivo: " + archivo.length() + " bytes, en disco: " + enDisco.estaEnDisco());
+
+            for (DatosVectorizados cache : new DatosVectorizados[]{enMemoria, enDisco}) {
+                DataSet lote = cache.lote(indices, 10, 30);
+
+                if (!lote.getFeatures().equalsWithEps(esperado, 1e-6)) {
+                    System.err.println("⚠️ Los features no coinciden con tokensAVectores");
+                    errores++;
+                }
+                if (!lote.getFeaturesMaskArray().equals(mascaraEsperada)
+                        || !lote.getLabelsMaskArray().equals(mascaraEsperada)) {
+                    System.err.println("⚠️ Las máscaras no coinciden con crearMascara");
+                    errores++;
+                }
+
+                // Cada fila de labels debe tener un 1 en la clase correcta solo en los pasos con palabras
+                INDArray labels = lote.getLabels();
+                for (int b = 0; b < 20; b++) {
+                    int clase = datos.emocionANumero(datos.getEmocion(indices[10 + b]));
+                    int longitud = vectorizer.longitudFrase(frases.get(b));
+                    for (int t = 0; t < longitud; t++) {
+                        if (labels.getDouble(b, clase, t) != 1.0 || labels.slice(b).sumNumber().intValue() != longitud) {
+                            System.err.println("⚠️ Label incorrecto en el ejemplo " + b);
+                            errores++;
+                            break;
+                        }
+                    }
+                }
+            }
+
+            // El iterador con prefetch debe entregar cada ejemplo una vez por epoch
+            System.out.println("\n--- PRUEBA DEL ITERADOR CON PREFETCH ---");
+            for (int hilos : new int[]{0, 2}) {
+                try (IteradorPrefetch iterador = new IteradorPrefetch(enMemoria, 32, hilos, 3, new Random(7), hilos > 0)) {
+                    for (int epoch = 0; epoch < 2; epoch++) {
+                        iterador.reset();
+                        int ejemplos = 0;
+                        double sumaLabels = 0;
+                        double sumaMascara = 0;
+                        while (iterador.hasNext()) {
+                            DataSet lote = iterador.next();
+                            ejemplos += lote.numExamples();
+                            sumaLabels += lote.getLabels().sumNumber().doubleValue();
+                            sumaMascara += lote.getLabelsMaskArray().sumNumber().doubleValue();
+                        }
+                        if (ejemplos != n || sumaLabels != sumaMascara) {
+                            System.err.println("⚠️ Epoch incompleta con " + hilos + " hilos: " + ejemplos + " ejemplos");
+                            errores++;
+                        }
+                    }
+                    System.out.printf("%d hilo(s), agrupar por longitud = %b: %d batches, espera %.2f ms, relleno %.1f%%\n",
+                            hilos, hilos > 0, iterador.getLotesEntregados(),
+                            iterador.getEsperaNanos() / 1e6, iterador.getFraccionRelleno() * 100);
+                }
+            }
+
+            // next(num) con tamaños que no coinciden con los batches, mezclado con next()
+            int[] todos = new int[n];
+            for (int i = 0; i < n; i++) {
+                todos[i] = i;
+            }
+            double sumaFeatures = enMemoria.lote(todos, 0, n).getFeatures().sumNumber().doubleValue();
+            for (int hilos : new int[]{0, 2}) {
+                try (IteradorPrefetch iterador = new IteradorPrefetch(enMemoria, 32, hilos, 3, new Random(7), hilos > 0)) {
+                    iterador.reset();
+                    int ejemplos = 0;
+                    double suma = 0;
+                    for (int llamada = 0; iterador.hasNext(); llamada++) {
+                        DataSet lote = llamada % 3 == 0 ? iterador.next() : iterador.next(5 + 13 * (llamada % 4));
+                        ejemplos += lote.numExamples();
+                        suma += lote.getFeatures().sumNumber().doubleValue();
+                    }
+                    if (ejemplos != n || Math.abs(suma - sumaFeatures) > 1e-3 * Math.max(1, Math.abs(sumaFeatures))) {
+                        System.err.println("⚠️ next(num) con " + hilos + " hilos repitió o saltó ejemplos: "
+                                + ejemplos + " de " + n);
+                        errores++;
+                    }
+                }
+            }
+            System.out.println("next(num) entrega cada ejemplo una vez");
+        }
+
+        // El archivo lo eligió quien llama: close no debe borrarlo
+        if (!archivo.exists()) {
+            System.err.println("⚠️ close borró un archivo que no era suyo");
+            errores++;
+        }
+        archivo.delete();
+
+        if (errores == 0) {
+            System.out.println("\n✅ ¡Datos vectorizados funcionan correctamente!");
+        } else {
+            System.err.println("\n❌ " + errores + " errores");
+        }
+    }
+}
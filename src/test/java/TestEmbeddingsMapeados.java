@@ -0,0 +1,139 @@
+package com.escuela;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Prueba de los embeddings en archivo mapeado (float32 e int8)
+ * Exportar sobre un archivo ya abierto no cambia lo que ven los que lo tienen mapeado
+ * Usa vectores aleatorios, no necesita el modelo entrenado
+ */
+public class TestEmbeddingsMapeados {
+
+    public static void main(String[] args) throws Exception {
+        System.out.println("=== PROBANDO EMBEDDINGS MAPEADOS ===\n");
+
+        // Tabla de referencia con palabras que incluyen acentos y ñ
+        Random random = new Random(7);
+        int numPalabras = 5000;
+        int vectorSize = 100;
+        String[] palabras = new String[numPalabras];
+        float[] vectores = new float[numPalabras * vectorSize];
+        for (int i = 0; i < numPalabras; i++) {
+            palabras[i] = (i % 3 == 0 ? "año" : i % 3 == 1 ? "canción" : "palabra") + i;
+            for (int j = 0; j < vectorSize; j++) {
+                vectores[i * vectorSize + j] = (float) random.nextGaussian() * (1 + i % 5);
+            }
+        }
+        TablaEmbeddings tabla = new TablaEmbeddings(palabras, vectores, vectorSize);
+
+        File archivoFloat = File.createTempFile("test_embeddings", ".emb");
+        File archivoInt8 = File.createTempFile("test_embeddings_int8", ".emb");
+        EmbeddingsMapeados.exportar(tabla, archivoFloat, false);
+        EmbeddingsMapeados.exportar(tabla, archivoInt8, true);
+        EmbeddingsMapeados mapeadoFloat = EmbeddingsMapeados.abrir(archivoFloat);
+        EmbeddingsMapeados mapeadoInt8 = EmbeddingsMapeados.abrir(archivoInt8);
+
+        int errores = 0;
+        float[] esperado = new float[vectorSize];
+        float[] obtenido = new float[vectorSize];
+
+        for (EmbeddingsMapeados mapeado : new EmbeddingsMapeados[]{mapeadoFloat, mapeadoInt8}) {
+            double errorMaximo = 0;
+            for (int i = 0; i < numPalabras; i++) {
+                int indice = mapeado.indice(palabras[i]);
+                if (indice != i || !mapeado.getPalabra(indice).equals(palabras[i])) {
+                    System.err.println("⚠️ Índice incorrecto para " + palabras[i]);
+                    errores++;
+                    continue;
+                }
+
+                tabla.copiarVector(i, esperado, 0, 1);
+                mapeado.copiarVector(indice, obtenido, 0, 1);
+                float maximo = 0;
+                for (int j = 0; j < vectorSize; j++) {
+                    maximo = Math.max(maximo, Math.abs(esperado[j]));
+                    errorMaximo = Math.max(errorMaximo, Math.abs(esperado[j] - obtenido[j]));
+                }
+
+                // float32 es exacto; int8 se equivoca como mucho media escala (máximo / 127 / 2)
+                double tolerancia = mapeado.estaCuantizado() ? maximo / 127.0 / 2 + 1e-6 : 0;
+                for (int j = 0; j < vectorSize; j++) {
+                    if (Math.abs(esperado[j] - obtenido[j]) > tolerancia) {
+                        System.err.println("⚠️ Vector distinto para " + palabras[i]);
+                        errores++;
+                        break;
+                    }
+                }
+            }
+
+            if (mapeado.indice("noexiste") != -1 || mapeado.indice("año") != -1) {
+                System.err.println("⚠️ Se encontró una palabra que no está en el vocabulario");
+                errores++;
+            }
+            System.out.printf("%s: %d KB, error máximo %.6f\n", mapeado.estaCuantizado() ? "int8" : "float32",
+                    mapeado.getBytesArchivo() / 1024, errorMaximo);
+        }
+
+        // Varios hilos leyendo el mismo archivo a la vez
+        ExecutorService ejecutor = Executors.newFixedThreadPool(4);
+        List<Future<Integer>> tareas = new ArrayList<>();
+        for (int h = 0; h < 4; h++) {
+            int primero = h;
+            tareas.add(ejecutor.submit(() -> {
+                int fallos = 0;
+                float[] a = new float[vectorSize];
+                float[] b = new float[vectorSize];
+                for (int vuelta = 0; vuelta < 20; vuelta++) {
+                    for (int i = primero; i < numPalabras; i += 4) {
+                        mapeadoFloat.copiarVector(mapeadoFloat.indice(palabras[i]), a, 0, 1);
+                        tabla.copiarVector(i, b, 0, 1);
+                        if (!java.util.Arrays.equals(a, b)) {
+                            fallos++;
+                        }
+                    }
+                }
+                return fallos;
+            }));
+        }
+        for (Future<Integer> tarea : tareas) {
+            errores += tarea.get();
+        }
+        ejecutor.shutdown();
+
+        // El vectorizador da lo mismo con la tabla y con el archivo float32
+        Word2VecVectorizer conTabla = new Word2VecVectorizer(tabla, 8);
+        Word2VecVectorizer conArchivo = new Word2VecVectorizer(mapeadoFloat, 8);
+        List<String> textos = List.of("palabra2 año0 canción1", "nada que ver", "año3000 palabra4997");
+        if (!conTabla.textosAVectores(textos).equals(conArchivo.textosAVectores(textos))) {
+            System.err.println("⚠️ El vectorizador da resultados distintos con el archivo mapeado");
+            errores++;
+        }
+
+        // Exportar una tabla más chica sobre el archivo abierto: si se truncara en el
+        // lugar, leer el final del mapeo terminaría la JVM (SIGBUS)
+        TablaEmbeddings chica = new TablaEmbeddings(new String[]{"uno", "dos"}, new float[2 * vectorSize], vectorSize);
+        EmbeddingsMapeados.exportar(chica, archivoFloat, false);
+        tabla.copiarVector(numPalabras - 1, esperado, 0, 1);
+        mapeadoFloat.copiarVector(mapeadoFloat.indice(palabras[numPalabras - 1]), obtenido, 0, 1);
+        if (!java.util.Arrays.equals(esperado, obtenido) || EmbeddingsMapeados.abrir(archivoFloat).getNumPalabras() != 2
+                || new File(archivoFloat.getPath() + ".tmp").exists()) {
+            System.err.println("⚠️ Exportar no reemplazó el archivo de una sola vez");
+            errores++;
+        }
+
+        archivoFloat.delete();
+        archivoInt8.delete();
+
+        if (errores == 0) {
+            System.out.println("\n✅ ¡Embeddings mapeados funcionan correctamente!");
+        } else {
+            System.err.println("\n❌ " + errores + " errores");
+        }
+    }
+}
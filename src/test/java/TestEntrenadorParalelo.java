@@ -0,0 +1,73 @@
+package com.escuela;
+
+import org.deeplearning4j.datasets.iterator.utilty.ListDataSetIterator;
+import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.dataset.DataSet;
+import org.nd4j.linalg.factory.Nd4j;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Prueba del entrenamiento en paralelo por promedio de parámetros
+ * Con datos sintéticos: no necesita modelos entrenados
+ */
+public class TestEntrenadorParalelo {
+
+    public static void main(String[] args) {
+        System.out.println("=== PROBANDO ENTRENAMIENTO EN PARALELO ===\n");
+
+        int vectorSize = 20;
+        int numClases = 5;
+
+        EmotionClassifierModel classifierModel = new EmotionClassifierModel(vectorSize, numClases);
+        classifierModel.construirModelo();
+        MultiLayerNetwork model = classifierModel.getModel();
+
+        // Dos batches sintéticos
+        Nd4j.getRandom().setSeed(7);
+        List<DataSet> batches = new ArrayList<>();
+        for (int b = 0; b < 2; b++) {
+            INDArray features = Nd4j.rand(new int[]{6, vectorSize, 4});
+            INDArray labels = Nd4j.zeros(6, numClases, 4);
+            for (int i = 0; i < 6; i++) {
+                for (int t = 0; t < 4; t++) {
+                    labels.putScalar(new int[]{i, (i + b) % numClases, t}, 1.0);
+                }
+            }
+            batches.add(new DataSet(features, labels));
+        }
+
+        // Resultado esperado: cada copia entrena con su batch y luego se promedian los pesos
+        MultiLayerNetwork copia0 = model.clone();
+        MultiLayerNetwork copia1 = model.clone();
+        copia0.fit(batches.get(0));
+        copia1.fit(batches.get(1));
+        INDArray esperado = copia0.params().add(copia1.params()).divi(2);
+
+        int errores = 0;
+        try (EntrenadorParalelo paralelo = new EntrenadorParalelo(model, 2, 1)) {
+            double loss = paralelo.entrenarEpoch(new ListDataSetIterator<>(batches, 1));
+            System.out.printf("Pérdida promedio: %.4f\n", loss);
+
+            if (!model.params().equalsWithEps(esperado, 1e-5)) {
+                System.err.println("⚠️ Los parámetros no son el promedio de las dos copias");
+                errores++;
+            }
+            for (int k = 0; k < 2; k++) {
+                if (paralelo.getEjemplosPorSegundo(k) <= 0) {
+                    System.err.println("⚠️ El trabajador " + k + " no registró ejemplos");
+                    errores++;
+                }
+            }
+            paralelo.mostrarEstadisticas();
+        }
+
+        if (errores == 0) {
+            System.out.println("✅ ¡Entrenamiento en paralelo funciona correctamente!");
+        } else {
+            System.err.println("❌ " + errores + " errores");
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.escuela;
+
+import java.util.List;
+
+/**
+ * Prueba del evaluador: lotes y réplicas deben dar el mismo reporte que
+ * predecir frase por frase
+ * Requiere haber ejecutado TrainEmotionClassifier antes
+ */
+public class TestEvaluador {
+
+    public static void main(String[] args) {
+        System.out.println("=== PROBANDO EVALUADOR ===\n");
+
+        EmotionPredictor predictor = new EmotionPredictor();
+        if (!predictor.cargarModelo("emotion_classifier_model.zip", "word2vec_emotions.zip")) {
+            System.err.println("❌ No se pudo cargar el modelo. Ejecuta TrainEmotionClassifier primero.");
+            return;
+        }
+
+        DataLoader testData = new DataLoader();
+        testData.cargarDesdeArchivo("emotions_test.csv");
+        List<String> textos = testData.getTextos();
+
+        // Referencia: una frase a la vez
+        int numClases = testData.getNumeroClases();
+        long[][] esperada = new long[numClases][numClases];
+        for (int i = 0; i < textos.size(); i++) {
+            EmotionPredictor.ResultadoPrediccion resultado = predictor.predecir(textos.get(i));
+            int real = testData.emocionANumero(testData.getEmocion(i));
+            esperada[real][testData.emocionANumero(resultado.getEmocionPredicha())]++;
+        }
+
+        int errores = 0;
+        int[][] configuraciones = {{512, 1}, {7, 1}, {7, 3}};
+
+        for (int[] configuracion : configuraciones) {
+            try (EvaluadorModelo evaluador = new EvaluadorModelo(
+                    predictor.getModel(), predictor.getVectorizer(), configuracion[0], configuracion[1])) {
+
+                ReporteEvaluacion reporte = evaluador.evaluar(testData);
+                System.out.printf("Lote %d, %d réplica(s): exactitud %.2f%%, F1 macro %.2f%%, %.0f frases/s\n",
+                        configuracion[0], configuracion[1], reporte.getExactitud() * 100,
+                        reporte.getF1Macro() * 100, reporte.getFrasesPorSegundo());
+
+                for (int real = 0; real < numClases; real++) {
+                    for (int predicha = 0; predicha < numClases; predicha++) {
+                        if (reporte.getCuenta(real, predicha) != esperada[real][predicha]) {
+                            errores++;
+                        }
+                    }
+                }
+
+                if (configuracion[1] == 3) {
+                    reporte.mostrar();
+                }
+            }
+        }
+
+        // Métricas con una matriz conocida
+        ReporteEvaluacion conocido = new ReporteEvaluacion(
+                new String[]{"a", "b"}, new long[][]{{3, 1}, {2, 4}}, 1_000_000_000L);
+        if (Math.abs(conocido.getExactitud() - 0.7) > 1e-9
+                || Math.abs(conocido.getPrecision(0) - 0.6) > 1e-9
+                || Math.abs(conocido.getRecall(0) - 0.75) > 1e-9
+                || Math.abs(conocido.getF1(1) - 2 * 0.8 * (4.0 / 6) / (0.8 + 4.0 / 6)) > 1e-9
+                || Math.abs(conocido.getFrasesPorSegundo() - 10) > 1e-9) {
+            System.err.println("⚠️ Las métricas de la matriz conocida no coinciden");
+            errores++;
+        }
+
+        if (errores == 0) {
+            System.out.println("✅ ¡Evaluador funciona correctamente!");
+        } else {
+            System.err.println("❌ " + errores + " diferencias en la evaluación");
+        }
+    }
+}
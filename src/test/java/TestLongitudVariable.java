@@ -0,0 +1,122 @@
+package com.escuela;
+
+import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
+import org.nd4j.linalg.api.ndarray.INDArray;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Prueba de la inferencia con longitud variable
+ * - una frase sola pasa por la red solo con sus pasos
+ * - en un lote con frases de distinto largo, la máscara hace que cada fila
+ *   dé lo mismo que predicha sola
+ * - sin longitud variable se obtiene lo mismo que promediar los maxSequenceLength pasos
+ * Requiere haber ejecutado TrainEmotionClassifier antes
+ */
+public class TestLongitudVariable {
+
+    private static int errores = 0;
+
+    public static void main(String[] args) {
+        System.out.println("=== PROBANDO INFERENCIA CON LONGITUD VARIABLE ===\n");
+
+        EmotionPredictor predictor = new EmotionPredictor();
+        if (!predictor.cargarModelo("emotion_classifier_model.zip", "word2vec_emotions.zip")) {
+            System.err.println("❌ No se pudo cargar el modelo. Ejecuta TrainEmotionClassifier primero.");
+            return;
+        }
+
+        MultiLayerNetwork model = predictor.getModel();
+        Word2VecVectorizer vectorizer = predictor.getVectorizer();
+        int maxLongitud = vectorizer.getMaxSequenceLength();
+
+        // Una frase sola: la red recibe exactamente sus pasos
+        String corta = "estoy feliz";
+        List<String> tokens = TextPreprocessor.tokenizar(corta);
+        INDArray exacta = model.output(vectorizer.tokensAVectores(List.of(tokens), tokens.size())).mean(2);
+        EmotionPredictor.ResultadoPrediccion resultado = predictor.predecir(corta);
+        verificar(iguales(resultado.getProbabilidades(), exacta, 0, 1e-6),
+                "Una frase sola no usa solo sus pasos");
+
+        // Lote con frases de distinto largo (incluye una vacía y una más larga que maxSequenceLength)
+        DataLoader testData = new DataLoader();
+        testData.cargarDesdeArchivo("emotions_test.csv");
+        List<String> textos = new ArrayList<>(testData.getTextos());
+        textos.add("");
+        textos.add("hoy no sé qué pensar de todo lo que pasó en la reunión de ayer por la tarde");
+
+        List<EmotionPredictor.ResultadoPrediccion> lote = predictor.predecirLote(textos);
+        for (int i = 0; i < textos.size(); i++) {
+            EmotionPredictor.ResultadoPrediccion sola = predictor.predecir(textos.get(i));
+            verificar(iguales(sola.getProbabilidades(), lote.get(i), 1e-5),
+                    "El relleno del lote cambia la predicción de: " + textos.get(i));
+        }
+
+        // Sin longitud variable: promedio de todos los pasos, como antes
+        predictor.setLongitudVariable(false);
+        INDArray rellena = model.output(vectorizer.textosAVectores(textos)).mean(2);
+        List<EmotionPredictor.ResultadoPrediccion> loteRelleno = predictor.predecirLote(textos);
+        for (int i = 0; i < textos.size(); i++) {
+            verificar(iguales(loteRelleno.get(i).getProbabilidades(), rellena, i, 1e-6),
+                    "Sin longitud variable no se promedian los " + maxLongitud + " pasos");
+        }
+
+        // Comparación de latencia y exactitud en el conjunto de prueba
+        System.out.println("\n--- COMPARACIÓN ---");
+        System.out.printf("%-22s%16s%12s\n", "Modo", "ms por frase", "Exactitud");
+        for (boolean variable : new boolean[]{false, true}) {
+            predictor.setLongitudVariable(variable);
+            for (int i = 0; i < 3; i++) {
+                predictor.predecir(textos.get(i)); // calentamiento
+            }
+
+            long inicio = System.nanoTime();
+            for (int repeticion = 0; repeticion < 5; repeticion++) {
+                for (int i = 0; i < testData.getNumeroEjemplos(); i++) {
+                    predictor.predecir(testData.getTexto(i));
+                }
+            }
+            double msPorFrase = (System.nanoTime() - inicio) / 1e6 / (5.0 * testData.getNumeroEjemplos());
+
+            ReporteEvaluacion reporte;
+            try (EvaluadorModelo evaluador = new EvaluadorModelo(model, predictor.getVectorizer())) {
+                evaluador.setLongitudVariable(variable);
+                reporte = evaluador.evaluar(testData);
+            }
+            System.out.printf("%-22s%16.2f%11.2f%%\n", variable ? "Longitud variable" : "Relleno a " + maxLongitud,
+                    msPorFrase, reporte.getExactitud() * 100);
+        }
+
+        if (errores == 0) {
+            System.out.println("\n✅ ¡Inferencia con longitud variable funciona correctamente!");
+        } else {
+            System.err.println("\n❌ " + errores + " errores");
+        }
+    }
+
+    private static boolean iguales(double[] probabilidades, INDArray esperadas, int fila, double tolerancia) {
+        for (int k = 0; k < probabilidades.length; k++) {
+            if (Math.abs(probabilidades[k] - esperadas.getDouble(fila, k)) > tolerancia) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean iguales(double[] a, EmotionPredictor.ResultadoPrediccion b, double tolerancia) {
+        for (int k = 0; k < a.length; k++) {
+            if (Math.abs(a[k] - b.getProbabilidades()[k]) > tolerancia) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void verificar(boolean condicion, String mensaje) {
+        if (!condicion) {
+            System.err.println("⚠️ " + mensaje);
+            errores++;
+        }
+    }
+}
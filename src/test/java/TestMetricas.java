@@ -0,0 +1,118 @@
+package com.escuela;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+
+/**
+ * Prueba de las métricas por etapa y su registro en JMX
+ * - contadores de frases, lotes, tokens y tokens fuera del vocabulario
+ * - cada etapa registra un tiempo por lote
+ * - los MBeans se ven en el servidor JMX de la plataforma y se quitan al desactivar
+ * - el costo de medir es pequeño frente a la predicción
+ * Requiere haber ejecutado TrainEmotionClassifier antes
+ */
+public class TestMetricas {
+
+    private static int errores = 0;
+
+    public static void main(String[] args) throws Exception {
+        System.out.println("=== PROBANDO MÉTRICAS POR ETAPA (JMX) ===\n");
+
+        EmotionPredictor predictor = new EmotionPredictor();
+        if (!predictor.cargarModelo("emotion_classifier_model.zip", "word2vec_emotions.zip")) {
+            System.err.println("❌ No se pudo cargar el modelo. Ejecuta TrainEmotionClassifier primero.");
+            return;
+        }
+        verificar(predictor.getMetricas() == null, "Las métricas están activadas por defecto");
+
+        DataLoader testData = new DataLoader();
+        testData.cargarDesdeArchivo("emotions_test.csv");
+        List<String> textos = testData.getTextos();
+
+        // Las métricas no cambian las predicciones
+        List<EmotionPredictor.ResultadoPrediccion> sinMetricas = predictor.predecirLote(textos);
+        MetricasPrediccion metricas = predictor.activarMetricas("TestMetricas");
+        List<EmotionPredictor.ResultadoPrediccion> conMetricas = predictor.predecirLote(textos);
+        for (int i = 0; i < textos.size(); i++) {
+            verificar(conMetricas.get(i).getEmocionPredicha().equals(sinMetricas.get(i).getEmocionPredicha()),
+                    "Las métricas cambiaron la predicción de: " + textos.get(i));
+        }
+
+        // Un lote de todas las frases y una frase suelta
+        predictor.predecir("zzqx palabrainventada feliz");
+        verificar(metricas.getFrases() == textos.size() + 1, "Frases contadas: " + metricas.getFrases());
+        verificar(metricas.getLotes() == 2, "Lotes contados: " + metricas.getLotes());
+        verificar(metricas.getTamanoLoteMaximo() == textos.size(), "Tamaño de lote máximo incorrecto");
+
+        long tokensEsperados = 3;
+        Word2VecVectorizer vectorizer = predictor.getVectorizer();
+        for (String texto : textos) {
+            tokensEsperados += Math.min(TextPreprocessor.tokenizar(texto).size(), vectorizer.getMaxSequenceLength());
+        }
+        verificar(metricas.getTokens() == tokensEsperados,
+                "Tokens contados: " + metricas.getTokens() + " en vez de " + tokensEsperados);
+        verificar(metricas.getTokensDesconocidos() >= 2, "No se contaron las palabras inventadas");
+
+        for (String etapa : new String[]{"preprocesamiento", "vectorizacion", "red", "resultado", "total"}) {
+            verificar(metricas.getEtapa(etapa).getCuenta() == 2, "La etapa " + etapa + " no registró los 2 lotes");
+        }
+        verificar(metricas.getEtapa("cascada").getCuenta() == 0, "Se midió la cascada sin estar activada");
+        verificar(metricas.getEtapa("red").getMaximoMicros() <= metricas.getEtapa("total").getMaximoMicros(),
+                "La red tardó más que el lote completo");
+        metricas.mostrar();
+
+        // JMX: atributos del predictor y de cada etapa
+        MBeanServer servidor = ManagementFactory.getPlatformMBeanServer();
+        ObjectName nombre = new ObjectName("com.escuela:type=Prediccion,name=\"TestMetricas\"");
+        ObjectName etapaRed = new ObjectName("com.escuela:type=Prediccion,name=\"TestMetricas\",etapa=red");
+        verificar(servidor.isRegistered(nombre) && servidor.isRegistered(etapaRed), "Los MBeans no están registrados");
+        verificar((Long) servidor.getAttribute(nombre, "Frases") == textos.size() + 1,
+                "El atributo JMX Frases no coincide");
+        verificar((Double) servidor.getAttribute(etapaRed, "P99Micros") > 0, "El atributo JMX P99Micros está vacío");
+        servidor.invoke(nombre, "reiniciar", null, null);
+        verificar(metricas.getFrases() == 0 && metricas.getEtapa("red").getCuenta() == 0,
+                "La operación JMX reiniciar no borró las métricas");
+
+        predictor.desactivarMetricas();
+        verificar(!servidor.isRegistered(nombre) && !servidor.isRegistered(etapaRed),
+                "Los MBeans siguen registrados después de desactivar");
+
+        // Costo de medir: frases sueltas con y sin métricas, alternando para no medir el calentamiento
+        double msSin = Double.MAX_VALUE;
+        double msCon = Double.MAX_VALUE;
+        for (int repeticion = 0; repeticion < 3; repeticion++) {
+            predictor.activarMetricas();
+            msCon = Math.min(msCon, medir(predictor, textos));
+            predictor.desactivarMetricas();
+            msSin = Math.min(msSin, medir(predictor, textos));
+        }
+        System.out.printf("Frases sueltas: %.3f ms sin métricas, %.3f ms con métricas\n", msSin, msCon);
+        verificar(msCon < msSin * 1.25 + 0.05, "Las métricas agregan demasiado costo");
+
+        if (errores == 0) {
+            System.out.println("\n✅ ¡Métricas por etapa funcionan correctamente!");
+        } else {
+            System.err.println("\n❌ " + errores + " errores");
+        }
+    }
+
+    /**
+     * Tiempo de predecir cada frase suelta, en ms por frase
+     */
+    private static double medir(EmotionPredictor predictor, List<String> frases) {
+        long inicio = System.nanoTime();
+        for (String frase : frases) {
+            predictor.predecir(frase);
+        }
+        return (System.nanoTime() - inicio) / 1e6 / frases.size();
+    }
+
+    private static void verificar(boolean condicion, String mensaje) {
+        if (!condicion) {
+            System.err.println("⚠️ " + mensaje);
+            errores++;
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.escuela;
+
+import org.nd4j.linalg.factory.Nd4j;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.List;
+
+/**
+ * Prueba del paquete de inferencia: mismas predicciones que con los zip del
+ * modelo y de Word2Vec, y tiempo de carga de cada uno
+ * Volver a exportar sobre un paquete mapeado no cambia lo que ve el mapeo
+ * Requiere haber ejecutado TrainEmotionClassifier antes
+ */
+public class TestPaqueteInferencia {
+
+    public static void main(String[] args) throws Exception {
+        System.out.println("=== PROBANDO PAQUETE DE INFERENCIA ===\n");
+
+        // Inicializar ND4J antes de medir, así no se cuenta en ninguna de las dos cargas
+        Nd4j.create(1);
+
+        EmotionPredictor original = new EmotionPredictor();
+        long inicio = System.nanoTime();
+        if (!original.cargarModelo("emotion_classifier_model.zip", "word2vec_emotions.zip")) {
+            System.err.println("❌ Ejecuta TrainEmotionClassifier primero.");
+            return;
+        }
+        double msZip = (System.nanoTime() - inicio) / 1e6;
+
+        File archivo = File.createTempFile("test_paquete", ".paquete");
+        original.exportarPaquete(archivo.getPath());
+
+        EmotionPredictor desdePaquete = new EmotionPredictor();
+        inicio = System.nanoTime();
+        if (!desdePaquete.cargarPaquete(archivo.getPath())) {
+            System.err.println("❌ No se pudo cargar el paquete");
+            return;
+        }
+        double msPaquete = (System.nanoTime() - inicio) / 1e6;
+
+        long bytesZip = new File("emotion_classifier_model.zip").length() + new File("word2vec_emotions.zip").length();
+        System.out.printf("\nZip del modelo + Word2Vec: %.0f ms, %d KB\n", msZip, bytesZip / 1024);
+        System.out.printf("Paquete de inferencia:     %.0f ms, %d KB\n", msPaquete, archivo.length() / 1024);
+
+        int errores = 0;
+
+        // El paquete no guarda el updater ni el modelo Word2Vec completo
+        if (desdePaquete.getModel().getUpdater(false) != null || desdePaquete.getVectorizer().getWord2Vec() != null) {
+            System.err.println("⚠️ El paquete cargó más de lo necesario para predecir");
+            errores++;
+        }
+        if (desdePaquete.getVectorizer().getMaxSequenceLength() != original.getVectorizer().getMaxSequenceLength()
+                || desdePaquete.getVectorizer().getVectorSize() != original.getVectorizer().getVectorSize()) {
+            System.err.println("⚠️ Tamaños distintos en el manifiesto");
+            errores++;
+        }
+
+        // Mismas probabilidades para todas las frases de prueba y de entrenamiento
+        for (String nombre : new String[]{"emotions_test.csv", "emotions_train.csv"}) {
+            DataLoader datos = new DataLoader();
+            datos.cargarDesdeArchivo(nombre);
+            List<EmotionPredictor.ResultadoPrediccion> esperados = original.predecirLote(datos.getTextos());
+            List<EmotionPredictor.ResultadoPrediccion> obtenidos = desdePaquete.predecirLote(datos.getTextos());
+
+            for (int i = 0; i < esperados.size(); i++) {
+                double[] a = esperados.get(i).getProbabilidades();
+                double[] b = obtenidos.get(i).getProbabilidades();
+                for (int c = 0; c < a.length; c++) {
+                    if (Math.abs(a[c] - b[c]) > 1e-6) {
+                        System.err.println("⚠️ Probabilidades distintas: " + datos.getTexto(i));
+                        errores++;
+                        break;
+                    }
+                }
+                if (!esperados.get(i).getEmocionPredicha().equals(obtenidos.get(i).getEmocionPredicha())) {
+                    errores++;
+                }
+            }
+        }
+
+        // Volver a exportar mientras otro lo tiene mapeado: el mapeo sigue viendo el paquete
+        // anterior completo (truncarlo en el lugar daría SIGBUS al leerlo)
+        try (RandomAccessFile raf = new RandomAccessFile(archivo, "r");
+             FileChannel canal = raf.getChannel()) {
+            long tamano = canal.size();
+            MappedByteBuffer mapeo = canal.map(FileChannel.MapMode.READ_ONLY, 0, tamano);
+            original.exportarPaquete(archivo.getPath());
+            mapeo.get((int) tamano - 1);  // con el archivo truncado esto termina la JVM
+            if (mapeo.getInt(0) != 0x45504151 || archivo.length() != tamano
+                    || new File(archivo.getPath() + ".tmp").exists()) {
+                System.err.println("⚠️ Volver a exportar no reemplazó el paquete de una sola vez");
+                errores++;
+            }
+        }
+
+        // Un archivo que no es un paquete
+        File invalido = File.createTempFile("test_paquete_invalido", ".paquete");
+        if (new EmotionPredictor().cargarPaquete(invalido.getPath())) {
+            System.err.println("⚠️ Se cargó un paquete inválido");
+            errores++;
+        }
+        invalido.delete();
+        archivo.delete();
+
+        if (errores == 0) {
+            System.out.println("\n✅ ¡Paquete de inferencia funciona correctamente!");
+        } else {
+            System.err.println("\n❌ " + errores + " errores");
+        }
+    }
+}
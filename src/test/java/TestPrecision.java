@@ -0,0 +1,134 @@
+package com.escuela;
+
+import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
+import org.nd4j.linalg.api.buffer.DataType;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.dataset.DataSet;
+
+import java.io.File;
+import java.util.List;
+
+/**
+ * Prueba de la precisión configurable (FLOAT / FLOAT16)
+ * - convertir el modelo cargado a FLOAT16 mantiene las predicciones
+ * - el modelo FLOAT16 guardado se vuelve a cargar como FLOAT16 (también desde el paquete)
+ * - los tensores del vectorizador y de los batches de entrenamiento siguen el tipo elegido
+ * Requiere haber ejecutado TrainEmotionClassifier antes
+ */
+public class TestPrecision {
+
+    private static int errores = 0;
+
+    public static void main(String[] args) throws Exception {
+        System.out.println("=== PROBANDO PRECISIÓN FLOAT / FLOAT16 ===\n");
+
+        EmotionPredictor predictor = new EmotionPredictor();
+        if (!predictor.cargarModelo("emotion_classifier_model.zip", "word2vec_emotions.zip")) {
+            System.err.println("❌ No se pudo cargar el modelo. Ejecuta TrainEmotionClassifier primero.");
+            return;
+        }
+        verificar(predictor.getTipoDatos() == DataType.FLOAT, "El modelo original no es FLOAT");
+
+        DataLoader testData = new DataLoader();
+        testData.cargarDesdeArchivo("emotions_test.csv");
+        List<String> textos = testData.getTextos();
+        List<EmotionPredictor.ResultadoPrediccion> enFloat = predictor.predecirLote(textos);
+        List<List<String>> frases = List.of(TextPreprocessor.tokenizar(textos.get(0)),
+                TextPreprocessor.tokenizar(textos.get(1)));
+        INDArray tensorFloat = predictor.getVectorizer().tokensAVectores(frases);
+
+        // Convertir a FLOAT16: mismos pesos en 16 bits y tensores del vectorizador en FLOAT16
+        predictor.convertirPrecision(DataType.FLOAT16);
+        verificar(esFloat16(predictor.getModel().params().dataType()), "Los pesos no quedaron en FLOAT16");
+        verificar(esFloat16(predictor.getVectorizer().textoAVector("hola").dataType()),
+                "El vectorizador no crea tensores FLOAT16");
+        verificar(predictor.getVectorizer().tokensAVectores(frases).equals(tensorFloat.castTo(DataType.FLOAT16)),
+                "El tensor FLOAT16 llenado directo no coincide con convertir el FLOAT");
+        List<EmotionPredictor.ResultadoPrediccion> enHalf = predictor.predecirLote(textos);
+        verificar(diferenciaMaxima(enFloat, enHalf) < 0.01, "FLOAT16 cambia demasiado las probabilidades");
+
+        // Guardar y volver a cargar: cargarModelo respeta la precisión guardada
+        File archivo = File.createTempFile("test_modelo_half", ".zip");
+        predictor.getModel().save(archivo, false);
+        EmotionPredictor cargado = new EmotionPredictor();
+        cargado.cargarModelo(archivo.getPath(), "word2vec_emotions.zip");
+        verificar(cargado.getTipoDatos() == DataType.FLOAT16
+                        && cargado.getVectorizer().getTipoDatos() == DataType.FLOAT16,
+                "El modelo FLOAT16 guardado no se cargó como FLOAT16");
+        verificar(diferenciaMaxima(enHalf, cargado.predecirLote(textos)) < 1e-6,
+                "El modelo FLOAT16 cargado predice distinto");
+
+        // Paquete de inferencia de un modelo FLOAT16
+        File paquete = File.createTempFile("test_paquete_half", ".paquete");
+        cargado.exportarPaquete(paquete.getPath());
+        EmotionPredictor desdePaquete = new EmotionPredictor();
+        desdePaquete.cargarPaquete(paquete.getPath());
+        verificar(desdePaquete.getTipoDatos() == DataType.FLOAT16, "El paquete no conserva la precisión FLOAT16");
+        verificar(diferenciaMaxima(enHalf, desdePaquete.predecirLote(textos)) < 1e-6,
+                "El paquete FLOAT16 predice distinto");
+
+        // Volver a FLOAT
+        cargado.convertirPrecision(DataType.FLOAT);
+        verificar(cargado.getModel().params().dataType() == DataType.FLOAT, "No se pudo volver a FLOAT");
+
+        // Batches de entrenamiento con el tipo del vectorizador, y una red FLOAT16 que los acepta
+        Word2VecVectorizer vectorizer = predictor.getVectorizer();
+        try (DatosVectorizados datos = DatosVectorizados.crear(testData, vectorizer)) {
+            DataSet lote = datos.lote(new int[]{0, 1, 2, 3}, 0, 4);
+            verificar(esFloat16(lote.getFeatures().dataType())
+                            && esFloat16(lote.getLabels().dataType())
+                            && esFloat16(lote.getFeaturesMaskArray().dataType()),
+                    "Los batches no siguen el tipo del vectorizador");
+
+            EmotionClassifierModel clasificador = new EmotionClassifierModel(vectorizer.getVectorSize(), 5);
+            clasificador.setTipoDatos(DataType.FLOAT16);
+            clasificador.construirModelo();
+            MultiLayerNetwork red = clasificador.getModel();
+            red.fit(lote);
+            verificar(esFloat16(red.params().dataType()) && !Double.isNaN(red.score()),
+                    "La red FLOAT16 no entrena con batches FLOAT16");
+        }
+
+        // Solo FLOAT y FLOAT16
+        try {
+            vectorizer.setTipoDatos(DataType.INT32);
+            verificar(false, "Se aceptó un tipo de datos entero");
+        } catch (IllegalArgumentException e) {
+            System.out.println("Tipo no soportado rechazado: " + e.getMessage());
+        }
+
+        archivo.delete();
+        paquete.delete();
+
+        if (errores == 0) {
+            System.out.println("\n✅ ¡Precisión configurable funciona correctamente!");
+        } else {
+            System.err.println("\n❌ " + errores + " errores");
+        }
+    }
+
+    private static double diferenciaMaxima(List<EmotionPredictor.ResultadoPrediccion> a,
+                                           List<EmotionPredictor.ResultadoPrediccion> b) {
+        double maximo = 0;
+        for (int i = 0; i < a.size(); i++) {
+            for (int k = 0; k < a.get(i).getProbabilidades().length; k++) {
+                maximo = Math.max(maximo, Math.abs(a.get(i).getProbabilidades()[k] - b.get(i).getProbabilidades()[k]));
+            }
+        }
+        return maximo;
+    }
+
+    /**
+     * Los arreglos de 16 bits de ND4J informan HALF, el nombre obsoleto de FLOAT16
+     */
+    private static boolean esFloat16(DataType tipoDatos) {
+        return EmotionClassifierModel.normalizarTipoDatos(tipoDatos) == DataType.FLOAT16;
+    }
+
+    private static void verificar(boolean condicion, String mensaje) {
+        if (!condicion) {
+            System.err.println("⚠️ " + mensaje);
+            errores++;
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.escuela;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Prueba del predictor: predicción individual y por lotes
+ * Requiere haber ejecutado TrainEmotionClassifier antes
+ */
+public class TestPredictor {
+
+    public static void main(String[] args) throws Exception {
+        System.out.println("=== PROBANDO PREDICTOR ===\n");
+
+        EmotionPredictor predictor = new EmotionPredictor();
+        boolean exito = predictor.cargarModelo(
+                "emotion_classifier_model.zip",
+                "word2vec_emotions.zip"
+        );
+
+        if (!exito) {
+            System.err.println("❌ No se pudo cargar el modelo. Ejecuta TrainEmotionClassifier primero.");
+            return;
+        }
+
+        DataLoader testData = new DataLoader();
+        testData.cargarDesdeArchivo("emotions_test.csv");
+        List<String> textos = testData.getTextos();
+
+        // Predicción una por una
+        long inicio = System.nanoTime();
+        List<EmotionPredictor.ResultadoPrediccion> individuales = new ArrayList<>();
+        for (String texto : textos) {
+            individuales.add(predictor.predecir(texto));
+        }
+        long tiempoIndividual = System.nanoTime() - inicio;
+
+        // Predicción por lotes (lotes pequeños para probar la división)
+        predictor.setTamanoLoteMaximo(16);
+        inicio = System.nanoTime();
+        List<EmotionPredictor.ResultadoPrediccion> porLotes = predictor.predecirLote(textos);
+        long tiempoLotes = System.nanoTime() - inicio;
+
+        // Comparar resultados
+        System.out.println("\n--- COMPARACIÓN INDIVIDUAL VS LOTES ---");
+        int diferencias = 0;
+        for (int i = 0; i < textos.size(); i++) {
+            EmotionPredictor.ResultadoPrediccion a = individuales.get(i);
+            EmotionPredictor.ResultadoPrediccion b = porLotes.get(i);
+
+            if (!a.getTexto().equals(b.getTexto())
+                    || !a.getEmocionPredicha().equals(b.getEmocionPredicha())
+                    || Math.abs(a.getConfianza() - b.getConfianza()) > 1e-4) {
+                System.err.println("⚠️ Diferencia en: " + textos.get(i));
+                diferencias++;
+            }
+        }
+
+        System.out.println("Frases: " + textos.size());
+        System.out.printf("Tiempo individual: %.1f ms\n", tiempoIndividual / 1e6);
+        System.out.printf("Tiempo por lotes:  %.1f ms\n", tiempoLotes / 1e6);
+
+        // Probar el caché: frases distintas con los mismos tokens normalizados
+        System.out.println("\n--- PRUEBA DEL CACHÉ ---");
+        predictor.activarCache(1000, 60_000);
+        EmotionPredictor.ResultadoPrediccion sinCache = predictor.predecir("Gracias!!!");
+        EmotionPredictor.ResultadoPrediccion conCache = predictor.predecir("  GRACIAS ");
+        predictor.predecirLote(textos);
+        predictor.predecirLote(textos);
+        predictor.getCache().mostrarEstadisticas();
+
+        if (Math.abs(sinCache.getConfianza() - conCache.getConfianza()) > 1e-9
+                || !conCache.getTexto().equals("  GRACIAS ")
+                || predictor.getCache().getAciertos() < textos.size() + 1) {
+            System.err.println("⚠️ El caché no devolvió la predicción guardada");
+            diferencias++;
+        }
+        predictor.desactivarCache();
+
+        // El caché nunca guarda más de maxEntradas, aunque no sea múltiplo de los segmentos
+        for (int maxEntradas : new int[]{1, 5, 17, 100}) {
+            CachePredicciones limitado = new CachePredicciones(maxEntradas, 0);
+            for (int i = 0; i < 1000; i++) {
+                limitado.guardar("frase " + i, new double[]{1});
+            }
+            if (limitado.getTamano() > maxEntradas || limitado.getCapacidad() != maxEntradas) {
+                System.err.println("⚠️ Caché de " + maxEntradas + " entradas guardó " + limitado.getTamano());
+                diferencias++;
+            }
+        }
+
+        // Probar el predictor concurrente con varias réplicas
+        System.out.println("\n--- PRUEBA DEL PREDICTOR CONCURRENTE ---");
+        try (PredictorConcurrente concurrente = new PredictorConcurrente(predictor, 4)) {
+            List<CompletableFuture<EmotionPredictor.ResultadoPrediccion>> futuros = new ArrayList<>();
+            inicio = System.nanoTime();
+            for (int repeticion = 0; repeticion < 10; repeticion++) {
+                for (String texto : textos) {
+                    futuros.add(concurrente.predecirAsync(texto));
+                }
+            }
+
+            for (int i = 0; i < futuros.size(); i++) {
+                EmotionPredictor.ResultadoPrediccion resultado = futuros.get(i).join();
+                EmotionPredictor.ResultadoPrediccion esperado = individuales.get(i % textos.size());
+                if (!resultado.getEmocionPredicha().equals(esperado.getEmocionPredicha())
+                        || Math.abs(resultado.getConfianza() - esperado.getConfianza()) > 1e-4) {
+                    System.err.println("⚠️ Diferencia concurrente en: " + resultado.getTexto());
+                    diferencias++;
+                }
+            }
+            long tiempoConcurrente = System.nanoTime() - inicio;
+            System.out.printf("%d predicciones con %d réplicas: %.1f ms\n",
+                    futuros.size(), concurrente.getNumReplicas(), tiempoConcurrente / 1e6);
+        }
+
+        // La longitud máxima de frase se lee del zip del modelo
+        System.out.println("\n--- LONGITUD MÁXIMA GUARDADA CON EL MODELO ---");
+        File copia = File.createTempFile("test_modelo", ".zip");
+        Files.copy(new File("emotion_classifier_model.zip").toPath(), copia.toPath(),
+                StandardCopyOption.REPLACE_EXISTING);
+        // Dos veces: un modelo entrenado ya trae la longitud y se debe poder reemplazar
+        EmotionClassifierModel.guardarMaxSequenceLength(copia, 10);
+        EmotionClassifierModel.guardarMaxSequenceLength(copia, 12);
+        EmotionPredictor conLongitud = new EmotionPredictor();
+        if (!conLongitud.cargarModelo(copia.getPath(), "word2vec_emotions.zip")
+                || conLongitud.getVectorizer().getMaxSequenceLength() != 12) {
+            System.err.println("⚠️ No se usó la longitud máxima guardada en el modelo");
+            diferencias++;
+        }
+        copia.delete();
+
+        if (diferencias == 0) {
+            System.out.println("\n✅ ¡Predictor funciona correctamente!");
+        } else {
+            System.err.println("\n❌ " + diferencias + " predicciones no coinciden");
+        }
+    }
+}
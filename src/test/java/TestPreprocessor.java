@@ -1,6 +1,9 @@
 package com.escuela;
 
+import java.text.Normalizer;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Random;
 
 /**
  * Prueba del preprocesador de texto
@@ -59,6 +62,24 @@ public class TestPreprocessor {
         int maxLongitud = TextPreprocessor.obtenerLongitudMaxima(textos);
         System.out.println("\nLongitud máxima de tokens: " + maxLongitud + " palabras");
 
+        // Vocabulario con frecuencias (una sola pasada, en paralelo)
+        Vocabulario vocabularioFrecuencias = Vocabulario.construir(textos, 1, 0);
+        System.out.println("\nVocabulario con frecuencias: " + vocabularioFrecuencias.getTamano() + " palabras");
+        System.out.println("Longitud máxima (misma pasada): " + vocabularioFrecuencias.getLongitudMaxima());
+        System.out.println("10 palabras más frecuentes:");
+        for (int i = 0; i < Math.min(10, vocabularioFrecuencias.getTamano()); i++) {
+            System.out.println("  " + i + ": " + vocabularioFrecuencias.getPalabra(i)
+                    + " (" + vocabularioFrecuencias.getFrecuencia(i) + ")");
+        }
+
+        Vocabulario vocabularioRecortado = Vocabulario.construir(textos, 2, 50);
+        System.out.println("Con frecuencia mínima 2 y máximo 50: " + vocabularioRecortado.getTamano() + " palabras");
+
+        if (vocabularioFrecuencias.getTamano() != vocabulario.size()
+                || vocabularioFrecuencias.getLongitudMaxima() != maxLongitud) {
+            System.err.println("❌ El vocabulario con frecuencias no coincide con obtenerVocabulario");
+        }
+
         // Mostrar ejemplo de la frase más larga
         System.out.println("\nEjemplo de frase más larga:");
         for (String texto : textos) {
@@ -70,6 +91,84 @@ public class TestPreprocessor {
             }
         }
 
-        System.out.println("\n✅ ¡Preprocesador funciona correctamente!");
+        // Comparar con la implementación original basada en expresiones regulares
+        System.out.println("\n--- EQUIVALENCIA CON LA VERSIÓN ORIGINAL ---");
+        List<String> casos = new ArrayList<>(textos);
+        for (String ejemplo : ejemplos) {
+            casos.add(ejemplo);
+        }
+        casos.add("Niño, PINGÜINO y AÑO");
+        casos.add("cafe\u0301 con leche");              // acento combinado
+        casos.add("  \t tabs\ny\r\nsaltos  ");
+        casos.add("İstanbul Σίσυφος Ærøskøbing straße");
+        casos.add("a b c de fgh 123 x9y");
+        casos.add("😊😊 feliz😢triste");
+
+        // Frases aleatorias con letras, acentos, símbolos y caracteres raros
+        String alfabeto = "abcXYZáéíóúÁÉÍÓÚñÑüÜçÇ  \t\n.,;:!?¡¿-_'\"0123456789ªºßæøÿ\u0301\u00A0\u2003ŁłĞğ€";
+        Random random = new Random(7);
+        for (int i = 0; i < 5000; i++) {
+            StringBuilder sb = new StringBuilder();
+            int largo = random.nextInt(40);
+            for (int j = 0; j < largo; j++) {
+                if (random.nextInt(50) == 0) {
+                    sb.appendCodePoint(0x1F600 + random.nextInt(60)); // emoji (par sustituto)
+                } else {
+                    sb.append(alfabeto.charAt(random.nextInt(alfabeto.length())));
+                }
+            }
+            casos.add(sb.toString());
+        }
+
+        int diferencias = 0;
+        for (String caso : casos) {
+            String esperado = limpiarTextoOriginal(caso);
+            List<String> tokensEsperados = tokenizarOriginal(caso);
+
+            if (!esperado.equals(TextPreprocessor.limpiarTexto(caso))
+                    || !tokensEsperados.equals(TextPreprocessor.tokenizar(caso))) {
+                System.err.println("⚠️ Diferencia con: \"" + caso + "\"");
+                diferencias++;
+            }
+        }
+        System.out.println("Casos comparados: " + casos.size() + " - Diferencias: " + diferencias);
+
+        if (diferencias == 0) {
+            System.out.println("\n✅ ¡Preprocesador funciona correctamente!");
+        } else {
+            System.err.println("\n❌ El preprocesador no coincide con la versión original");
+        }
+    }
+
+    /**
+     * Versión original de limpiarTexto (con expresiones regulares), usada como referencia
+     */
+    private static String limpiarTextoOriginal(String texto) {
+        if (texto == null || texto.isEmpty()) {
+            return "";
+        }
+        texto = texto.toLowerCase();
+        texto = Normalizer.normalize(texto, Normalizer.Form.NFD);
+        texto = texto.replaceAll("\\p{M}", "");
+        texto = texto.replaceAll("[^a-z\\s]", " ");
+        texto = texto.replaceAll("\\s+", " ");
+        return texto.trim();
+    }
+
+    /**
+     * Versión original de tokenizar, usada como referencia
+     */
+    private static List<String> tokenizarOriginal(String texto) {
+        String textoLimpio = limpiarTextoOriginal(texto);
+        List<String> tokens = new ArrayList<>();
+        if (textoLimpio.isEmpty()) {
+            return tokens;
+        }
+        for (String palabra : textoLimpio.split("\\s+")) {
+            if (palabra.length() >= 2) {
+                tokens.add(palabra);
+            }
+        }
+        return tokens;
     }
 }
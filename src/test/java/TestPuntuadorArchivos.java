@@ -0,0 +1,146 @@
+package com.escuela;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Prueba del puntuador de archivos (CSV y NDJSON)
+ * - una fila inválida en medio de un archivo de varios lotes se salta y se cuenta
+ * - un texto CSV entre comillas con saltos de línea es una sola fila, también
+ *   al volver a puntuar la salida
+ * - una fila NDJSON sin "texto" de tipo cadena se salta (no se puntúa como "")
+ * - un error de escritura detiene todas las etapas sin quedar bloqueado
+ * Requiere haber ejecutado TrainEmotionClassifier antes
+ */
+public class TestPuntuadorArchivos {
+
+    public static void main(String[] args) throws Exception {
+        System.out.println("=== PROBANDO PUNTUADOR DE ARCHIVOS ===\n");
+
+        EmotionPredictor predictor = new EmotionPredictor();
+        boolean exito = predictor.cargarModelo(
+                "emotion_classifier_model.zip",
+                "word2vec_emotions.zip"
+        );
+
+        if (!exito) {
+            System.err.println("❌ No se pudo cargar el modelo. Ejecuta TrainEmotionClassifier primero.");
+            return;
+        }
+
+        DataLoader testData = new DataLoader();
+        testData.cargarDesdeArchivo("emotions_test.csv");
+
+        // Crear archivos de entrada con el dataset de prueba repetido varias veces
+        Path carpeta = Files.createTempDirectory("puntuador");
+        List<String> csv = new ArrayList<>();
+        List<String> ndjson = new ArrayList<>();
+        csv.add("id,texto");
+        int filas = 0;
+        for (int repeticion = 0; repeticion < 25; repeticion++) {
+            for (String texto : testData.getTextos()) {
+                csv.add(filas + ",\"" + texto + ", de verdad\"");   // coma dentro de comillas
+                ndjson.add("{\"texto\": " + JsonSimple.escapar(texto) + "}");
+                filas++;
+            }
+        }
+        Path entradaCsv = carpeta.resolve("entrada.csv");
+        Path entradaNdjson = carpeta.resolve("entrada.ndjson");
+        Files.write(entradaCsv, csv, StandardCharsets.UTF_8);
+        Files.write(entradaNdjson, ndjson, StandardCharsets.UTF_8);
+
+        PuntuadorArchivos puntuador = new PuntuadorArchivos(predictor, 64, 2);
+        int errores = 0;
+
+        System.out.println("\n--- CSV ---");
+        Path salidaCsv = carpeta.resolve("salida.csv");
+        long puntuadas = puntuador.puntuar(entradaCsv, salidaCsv);
+        List<String> lineasCsv = Files.readAllLines(salidaCsv, StandardCharsets.UTF_8);
+        System.out.println(lineasCsv.get(0));
+        System.out.println(lineasCsv.get(1));
+        if (puntuadas != filas || lineasCsv.size() != filas + 1
+                || !lineasCsv.get(1).startsWith("\"" + testData.getTexto(0) + ", de verdad\"")) {
+            errores++;
+        }
+
+        System.out.println("\n--- NDJSON ---");
+        Path salidaNdjson = carpeta.resolve("salida.ndjson");
+        puntuadas = puntuador.puntuar(entradaNdjson, salidaNdjson);
+        List<String> lineasNdjson = Files.readAllLines(salidaNdjson, StandardCharsets.UTF_8);
+        System.out.println(lineasNdjson.get(0));
+        if (puntuadas != filas || lineasNdjson.size() != filas) {
+            errores++;
+        }
+
+        System.out.println("\n--- NDJSON con una fila inválida en medio ---");
+        List<String> conError = new ArrayList<>(ndjson);
+        conError.add(ndjson.size() / 2, "{\"texto\": \"sin cerrar");
+        Path entradaConError = carpeta.resolve("con_error.ndjson");
+        Files.write(entradaConError, conError, StandardCharsets.UTF_8);
+        Path salidaConError = carpeta.resolve("salida_con_error.ndjson");
+        puntuadas = puntuador.puntuar(entradaConError, salidaConError);
+        if (puntuadas != filas || puntuador.getFilasOmitidas() != 1
+                || Files.readAllLines(salidaConError, StandardCharsets.UTF_8).size() != filas) {
+            System.err.println("⚠️ La fila inválida no se saltó correctamente");
+            errores++;
+        }
+
+        System.out.println("\n--- CSV con saltos de línea dentro de comillas ---");
+        String multilinea = "estoy muy feliz,\nhoy es un gran dia";
+        Path entradaMultilinea = carpeta.resolve("multilinea.csv");
+        Files.writeString(entradaMultilinea, "texto,emocion\r\n\"" + multilinea + "\",joy\r\n"
+                + "que miedo tengo,fear\r\n", StandardCharsets.UTF_8);
+        Path salidaMultilinea = carpeta.resolve("salida_multilinea.csv");
+        puntuadas = puntuador.puntuar(entradaMultilinea, salidaMultilinea);
+        String escrita = Files.readString(salidaMultilinea, StandardCharsets.UTF_8);
+        if (puntuadas != 2 || puntuador.getFilasOmitidas() != 0
+                || !escrita.contains("\n\"" + multilinea + "\",") || !escrita.contains("\nque miedo tengo,")) {
+            System.err.println("⚠️ El texto con saltos de línea no se leyó como una sola fila");
+            errores++;
+        }
+        // La salida del puntuador se puede volver a puntuar y da las mismas filas
+        Path repuntuada = carpeta.resolve("salida_repuntuada.csv");
+        if (puntuador.puntuar(salidaMultilinea, repuntuada) != 2
+                || !Files.readString(repuntuada, StandardCharsets.UTF_8).equals(escrita)) {
+            System.err.println("⚠️ Volver a puntuar la salida no dio las mismas filas");
+            errores++;
+        }
+
+        System.out.println("\n--- NDJSON sin el campo texto ---");
+        Path entradaSinTexto = carpeta.resolve("sin_texto.ndjson");
+        Files.write(entradaSinTexto, List.of("{\"texto\": \"hoy es un gran dia\"}", "{\"text\": \"hola\"}",
+                "{\"texto\": 5}"), StandardCharsets.UTF_8);
+        puntuadas = puntuador.puntuar(entradaSinTexto, carpeta.resolve("salida_sin_texto.ndjson"));
+        if (puntuadas != 1 || puntuador.getFilasOmitidas() != 2) {
+            System.err.println("⚠️ Las filas sin texto no se omitieron: " + puntuadas + " puntuadas");
+            errores++;
+        }
+
+        System.out.println("\n--- Error de escritura ---");
+        // La salida es una carpeta: el escritor falla y las demás etapas deben terminar
+        Thread hilo = new Thread(() -> {
+            try {
+                puntuador.puntuar(entradaNdjson, carpeta);
+            } catch (IOException e) {
+                System.out.println("Error esperado: " + e.getMessage());
+            }
+        });
+        hilo.start();
+        hilo.join(60_000);
+        if (hilo.isAlive()) {
+            System.err.println("⚠️ puntuar quedó bloqueado después de un error de escritura");
+            hilo.interrupt();
+            errores++;
+        }
+
+        if (errores == 0) {
+            System.out.println("\n✅ ¡Puntuador de archivos funciona correctamente!");
+        } else {
+            System.err.println("\n❌ " + errores + " errores");
+        }
+    }
+}
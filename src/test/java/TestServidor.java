@@ -0,0 +1,181 @@
+package com.escuela;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Prueba del servidor HTTP con micro-lotes en localhost
+ * Al cerrar el agrupador de lotes (o con el predictor cerrado) ningún futuro queda sin completar
+ * Requiere haber ejecutado TrainEmotionClassifier antes
+ */
+public class TestServidor {
+
+    public static void main(String[] args) throws Exception {
+        System.out.println("=== PROBANDO SERVIDOR DE PREDICCIÓN ===\n");
+
+        EmotionPredictor predictor = new EmotionPredictor();
+        boolean exito = predictor.cargarModelo(
+                "emotion_classifier_model.zip",
+                "word2vec_emotions.zip"
+        );
+
+        if (!exito) {
+            System.err.println("❌ No se pudo cargar el modelo. Ejecuta TrainEmotionClassifier primero.");
+            return;
+        }
+
+        PredictorConcurrente concurrente = new PredictorConcurrente(predictor, 2);
+        ServidorPrediccion servidor = new ServidorPrediccion(concurrente, 0, 32, 2000);
+        servidor.iniciar();
+
+        String base = "http://localhost:" + servidor.getPuerto();
+        HttpClient cliente = HttpClient.newHttpClient();
+        int errores = 0;
+
+        // Una predicción individual
+        System.out.println("\n--- PREDICCIÓN INDIVIDUAL ---");
+        HttpResponse<String> respuesta = cliente.send(post(base + "/predecir",
+                "{\"texto\": \"Estoy muy feliz con mi nuevo trabajo\"}"), HttpResponse.BodyHandlers.ofString());
+        System.out.println(respuesta.statusCode() + " " + respuesta.body());
+        Map<?, ?> resultado = (Map<?, ?>) JsonSimple.parsear(respuesta.body());
+        if (respuesta.statusCode() != 200 || !(resultado.get("emocion") instanceof String)) {
+            errores++;
+        }
+
+        // Un lote
+        System.out.println("\n--- PREDICCIÓN POR LOTE ---");
+        respuesta = cliente.send(post(base + "/predecir/lote",
+                "{\"textos\": [\"Me siento triste y solo\", \"Tu actitud me molesta\", \"Qu\\u00e9 sorpresa\"]}"),
+                HttpResponse.BodyHandlers.ofString());
+        System.out.println(respuesta.statusCode() + " " + respuesta.body());
+        List<?> resultados = (List<?>) ((Map<?, ?>) JsonSimple.parsear(respuesta.body())).get("resultados");
+        if (respuesta.statusCode() != 200 || resultados.size() != 3
+                || !"Qué sorpresa".equals(((Map<?, ?>) resultados.get(2)).get("texto"))) {
+            errores++;
+        }
+
+        // Sesión de escritura: dos actualizaciones y el mensaje final
+        System.out.println("\n--- SESIÓN DE ESCRITURA ---");
+        cliente.send(post(base + "/sesion", "{\"sesion\": \"chat\", \"texto\": \"me siento tri\"}"),
+                HttpResponse.BodyHandlers.ofString());
+        respuesta = cliente.send(post(base + "/sesion", "{\"sesion\": \"chat\", \"texto\": \"me siento triste \"}"),
+                HttpResponse.BodyHandlers.ofString());
+        System.out.println(respuesta.statusCode() + " " + respuesta.body());
+        respuesta = cliente.send(post(base + "/sesion",
+                "{\"sesion\": \"chat\", \"texto\": \"me siento triste hoy\", \"final\": true}"),
+                HttpResponse.BodyHandlers.ofString());
+        if (respuesta.statusCode() != 200 || servidor.getSesiones().getNumSesiones() != 0
+                || servidor.getSesiones().getPasos() != 4) {
+            errores++;
+        }
+
+        // Solicitud inválida
+        respuesta = cliente.send(post(base + "/predecir", "{\"texto\": 5}"), HttpResponse.BodyHandlers.ofString());
+        System.out.println("\nSolicitud inválida → " + respuesta.statusCode() + " " + respuesta.body());
+        if (respuesta.statusCode() != 400) {
+            errores++;
+        }
+
+        // Muchas solicitudes al mismo tiempo para que se agrupen en micro-lotes
+        System.out.println("\n--- SOLICITUDES CONCURRENTES ---");
+        DataLoader testData = new DataLoader();
+        testData.cargarDesdeArchivo("emotions_test.csv");
+
+        List<CompletableFuture<HttpResponse<String>>> futuros = new ArrayList<>();
+        for (int repeticion = 0; repeticion < 5; repeticion++) {
+            for (String texto : testData.getTextos()) {
+                futuros.add(cliente.sendAsync(post(base + "/predecir",
+                        "{\"texto\": " + JsonSimple.escapar(texto) + "}"), HttpResponse.BodyHandlers.ofString()));
+            }
+        }
+        for (CompletableFuture<HttpResponse<String>> futuro : futuros) {
+            if (futuro.join().statusCode() != 200) {
+                errores++;
+            }
+        }
+        System.out.println("Solicitudes enviadas: " + futuros.size());
+
+        // Métricas
+        respuesta = cliente.send(HttpRequest.newBuilder(URI.create(base + "/metricas")).build(),
+                HttpResponse.BodyHandlers.ofString());
+        System.out.println("\nMétricas: " + respuesta.body());
+        servidor.mostrarMetricas();
+
+        servidor.detener();
+
+        // Cerrar el agrupador mientras llegan solicitudes: ningún futuro queda sin completar
+        System.out.println("\n--- CIERRE DEL AGRUPADOR ---");
+        AgrupadorLotes agrupador = new AgrupadorLotes(concurrente, 8, 1000);
+        List<CompletableFuture<EmotionPredictor.ResultadoPrediccion>> enviados = new ArrayList<>();
+        Thread enviador = new Thread(() -> {
+            try {
+                while (true) {
+                    CompletableFuture<EmotionPredictor.ResultadoPrediccion> futuro = agrupador.enviar("hola");
+                    synchronized (enviados) {
+                        enviados.add(futuro);
+                    }
+                }
+            } catch (IllegalStateException e) {
+                // El agrupador ya se cerró
+            }
+        });
+        enviador.start();
+        Thread.sleep(200);
+        agrupador.close();
+        enviador.join();
+        if (!completanATiempo(enviados)) {
+            System.err.println("⚠️ Quedaron solicitudes sin respuesta al cerrar el agrupador");
+            errores++;
+        }
+        System.out.println("Solicitudes durante el cierre: " + enviados.size());
+
+        // Con el predictor cerrado el lote falla y el futuro se completa con error
+        concurrente.close();
+        AgrupadorLotes sinPredictor = new AgrupadorLotes(concurrente, 8, 1000);
+        List<CompletableFuture<EmotionPredictor.ResultadoPrediccion>> rechazados =
+                List.of(sinPredictor.enviar("hola"), sinPredictor.enviar("adiós"));
+        if (!completanATiempo(rechazados) || !rechazados.get(0).isCompletedExceptionally()) {
+            System.err.println("⚠️ Con el predictor cerrado el lote no falló");
+            errores++;
+        }
+        sinPredictor.close();
+
+        if (errores == 0) {
+            System.out.println("✅ ¡Servidor funciona correctamente!");
+        } else {
+            System.err.println("❌ " + errores + " respuestas incorrectas");
+        }
+    }
+
+    /**
+     * true si todos los futuros terminan (bien o con error) en menos de 10 segundos
+     */
+    private static boolean completanATiempo(List<CompletableFuture<EmotionPredictor.ResultadoPrediccion>> futuros) {
+        try {
+            CompletableFuture.allOf(futuros.toArray(new CompletableFuture[0]))
+                    .handle((valor, error) -> null)
+                    .get(10, TimeUnit.SECONDS);
+            return true;
+        } catch (TimeoutException e) {
+            return false;
+        } catch (InterruptedException | ExecutionException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static HttpRequest post(String url, String json) {
+        return HttpRequest.newBuilder(URI.create(url))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .build();
+    }
+}
@@ -0,0 +1,157 @@
+package com.escuela;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Prueba de las sesiones de predicción incremental (rnnTimeStep)
+ * - escribir letra por letra da lo mismo que predecir las palabras completas
+ * - cada palabra nueva cuesta un solo paso del LSTM
+ * - corregir una palabra ya procesada reinicia la sesión
+ * - límite de sesiones (LRU) y tiempo de vida (TTL)
+ * - sesiones de varios hilos a la vez con un pool de copias del modelo
+ * Requiere haber ejecutado TrainEmotionClassifier antes
+ */
+public class TestSesiones {
+
+    private static int errores = 0;
+
+    public static void main(String[] args) throws Exception {
+        System.out.println("=== PROBANDO SESIONES DE PREDICCIÓN ===\n");
+
+        EmotionPredictor predictor = new EmotionPredictor();
+        if (!predictor.cargarModelo("emotion_classifier_model.zip", "word2vec_emotions.zip")) {
+            System.err.println("❌ No se pudo cargar el modelo. Ejecuta TrainEmotionClassifier primero.");
+            return;
+        }
+
+        SesionesPrediccion sesiones = new SesionesPrediccion(predictor, 100, 0);
+
+        // Escribir letra por letra: cada resultado coincide con predecir las palabras completas
+        String mensaje = "hoy me siento muy feliz con mis amigos";
+        long tiempoSesion = 0;
+        long tiempoCompleto = 0;
+        for (int i = 1; i <= mensaje.length(); i++) {
+            String escrito = mensaje.substring(0, i);
+
+            long inicio = System.nanoTime();
+            EmotionPredictor.ResultadoPrediccion incremental = sesiones.actualizar("chat-1", escrito);
+            tiempoSesion += System.nanoTime() - inicio;
+
+            inicio = System.nanoTime();
+            EmotionPredictor.ResultadoPrediccion esperado =
+                    predictor.predecir(SesionesPrediccion.textoCompleto(escrito));
+            tiempoCompleto += System.nanoTime() - inicio;
+
+            verificar(iguales(incremental, esperado), "Resultado distinto con: \"" + escrito + "\"");
+            verificar(incremental.getTexto().equals(escrito), "El resultado no trae el texto escrito");
+        }
+
+        // Solo las palabras completas pasaron por la red, una vez cada una
+        int palabrasCompletas = TextPreprocessor.tokenizar(SesionesPrediccion.textoCompleto(mensaje)).size();
+        int esperados = Math.min(palabrasCompletas, predictor.getVectorizer().getMaxSequenceLength());
+        verificar(sesiones.getPasos() == esperados,
+                "Se ejecutaron " + sesiones.getPasos() + " pasos del LSTM en vez de " + esperados);
+        System.out.printf("%d actualizaciones: %.2f ms por actualización con sesión, %.2f ms con predecir\n",
+                mensaje.length(), tiempoSesion / 1e6 / mensaje.length(), tiempoCompleto / 1e6 / mensaje.length());
+
+        // Al completar cuenta también la última palabra y la sesión se descarta
+        EmotionPredictor.ResultadoPrediccion final_ = sesiones.completar("chat-1", mensaje);
+        verificar(iguales(final_, predictor.predecir(mensaje)), "El resultado final no coincide con predecir");
+        verificar(sesiones.getNumSesiones() == 0, "La sesión sigue abierta después de completar");
+
+        // Corregir una palabra ya procesada reinicia la sesión
+        sesiones.actualizar("chat-2", "estoy muy triste ");
+        EmotionPredictor.ResultadoPrediccion corregido = sesiones.actualizar("chat-2", "estoy muy enojado ");
+        verificar(sesiones.getReinicios() == 1, "Corregir una palabra no reinició la sesión");
+        verificar(iguales(corregido, predictor.predecir("estoy muy enojado")), "Resultado incorrecto tras corregir");
+
+        // Sesiones intercaladas no se mezclan
+        List<String> a = List.of("tengo ", "tengo mucho ", "tengo mucho miedo ");
+        List<String> b = List.of("que ", "que sorpresa ", "que sorpresa tan ", "que sorpresa tan grande ");
+        for (int i = 0; i < Math.max(a.size(), b.size()); i++) {
+            if (i < a.size()) {
+                verificar(iguales(sesiones.actualizar("a", a.get(i)), predictor.predecir(a.get(i))),
+                        "Sesión intercalada distinta: " + a.get(i));
+            }
+            if (i < b.size()) {
+                verificar(iguales(sesiones.actualizar("b", b.get(i)), predictor.predecir(b.get(i))),
+                        "Sesión intercalada distinta: " + b.get(i));
+            }
+        }
+
+        // Límite de sesiones: se expulsan las menos usadas
+        SesionesPrediccion pocas = new SesionesPrediccion(predictor, 3, 0);
+        for (int i = 0; i < 5; i++) {
+            pocas.actualizar("s" + i, "hola ");
+        }
+        verificar(pocas.getNumSesiones() == 3 && pocas.getExpulsiones() == 2, "No se respetó el límite de sesiones");
+
+        // Tiempo de vida: una sesión sin uso se descarta
+        SesionesPrediccion cortas = new SesionesPrediccion(predictor, 10, 50);
+        cortas.actualizar("vieja", "hola ");
+        Thread.sleep(100);
+        cortas.actualizar("nueva", "hola ");
+        verificar(cortas.getNumSesiones() == 1 && cortas.getExpiraciones() == 1, "La sesión vieja no expiró");
+
+        // Varios hilos con sesiones distintas y menos copias del modelo que hilos
+        SesionesPrediccion compartidas = new SesionesPrediccion(predictor, 100, 0, 2);
+        List<String> mensajes = List.of("hoy me siento muy feliz ", "tengo mucho miedo de salir ",
+                "que sorpresa tan grande ", "estoy muy enojado contigo ");
+        List<EmotionPredictor.ResultadoPrediccion> esperadosHilos = new ArrayList<>();
+        for (String texto : mensajes) {
+            esperadosHilos.add(predictor.predecir(texto));
+        }
+        AtomicInteger fallos = new AtomicInteger();
+        List<Thread> hilos = new ArrayList<>();
+        for (int h = 0; h < mensajes.size(); h++) {
+            int indice = h;
+            Thread hilo = new Thread(() -> {
+                for (int repeticion = 0; repeticion < 20; repeticion++) {
+                    String id = "hilo-" + indice + "-" + repeticion;
+                    String texto = mensajes.get(indice);
+                    EmotionPredictor.ResultadoPrediccion resultado = null;
+                    for (int i = 1; i <= texto.length(); i++) {
+                        resultado = compartidas.actualizar(id, texto.substring(0, i));
+                    }
+                    if (!iguales(resultado, esperadosHilos.get(indice))) {
+                        fallos.incrementAndGet();
+                    }
+                    compartidas.cerrar(id);
+                }
+            });
+            hilos.add(hilo);
+            hilo.start();
+        }
+        for (Thread hilo : hilos) {
+            hilo.join();
+        }
+        verificar(fallos.get() == 0, fallos.get() + " sesiones en paralelo dieron un resultado distinto");
+        verificar(compartidas.getNumSesiones() == 0, "Quedaron sesiones abiertas");
+
+        sesiones.mostrarEstadisticas();
+
+        if (errores == 0) {
+            System.out.println("✅ ¡Sesiones de predicción funcionan correctamente!");
+        } else {
+            System.err.println("❌ " + errores + " errores");
+        }
+    }
+
+    private static boolean iguales(EmotionPredictor.ResultadoPrediccion a, EmotionPredictor.ResultadoPrediccion b) {
+        for (int k = 0; k < a.getProbabilidades().length; k++) {
+            if (Math.abs(a.getProbabilidades()[k] - b.getProbabilidades()[k]) > 1e-5) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void verificar(boolean condicion, String mensaje) {
+        if (!condicion) {
+            System.err.println("⚠️ " + mensaje);
+            errores++;
+        }
+    }
+}
@@ -2,6 +2,8 @@ package com.escuela;
 
 import org.nd4j.linalg.api.ndarray.INDArray;
 
+import java.util.List;
+
 /**
  * Prueba del vectorizador Word2Vec
  */
@@ -42,6 +44,34 @@ public class TestVectorizer {
             System.out.printf("  Dimensión %d: %.4f\n", i, valor);
         }
 
+        // Probar vectorización por lotes
+        System.out.println("\n--- PRUEBA DE VECTORIZACIÓN POR LOTES ---");
+        List<String> lote = dataLoader.getTextos().subList(0, 20);
+        INDArray vectores = vectorizer.textosAVectores(lote);
+        System.out.println("Forma del lote: " + java.util.Arrays.toString(vectores.shape()));
+
+        boolean coincide = true;
+        for (int i = 0; i < lote.size(); i++) {
+            INDArray individual = vectorizer.textoAVector(lote.get(i));
+            List<String> tokens = TextPreprocessor.tokenizar(lote.get(i));
+
+            for (int t = 0; t < Math.min(tokens.size(), maxLength); t++) {
+                // Cada posición debe tener exactamente el vector de Word2Vec de esa palabra
+                double[] esperado = vectorizer.getWord2Vec().hasWord(tokens.get(t))
+                        ? vectorizer.getWord2Vec().getWordVector(tokens.get(t))
+                        : new double[vectorSize];
+
+                for (int j = 0; j < vectorSize; j++) {
+                    if (Math.abs(vectores.getDouble(i, j, t) - esperado[j]) > 1e-6
+                            || vectores.getDouble(i, j, t) != individual.getDouble(0, j, t)) {
+                        coincide = false;
+                    }
+                }
+            }
+        }
+        System.out.println(coincide ? "✅ El lote coincide con los vectores de Word2Vec"
+                : "❌ El lote NO coincide con los vectores de Word2Vec");
+
         // Probar palabras similares
         System.out.println("\n--- PALABRAS SIMILARES ---");
         String[] palabrasPrueba = {"feliz", "triste", "miedo"};